@@ -0,0 +1,70 @@
+package com.github.ugdbg.bench;
+
+import com.github.ugdbg.function.scalar.Exp;
+import com.github.ugdbg.function.scalar.Function;
+import com.github.ugdbg.function.scalar.Sigmoid;
+import com.github.ugdbg.function.scalar.Tanh;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk float kernels of the activation functions, exact or approximate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActivationBenchmark {
+
+	@Param({"sigmoid", "sigmoid'", "tanh", "tanh'", "exp"})
+	public String function;
+
+	@Param({"false", "true"})
+	public boolean approximate;
+
+	@Param({"200", "784", "2000"})
+	public int size;
+
+	private Function activation;
+	private float[] input;
+	private float[] output;
+
+	@Setup
+	public void setup() {
+		switch (this.function) {
+			case "sigmoid":  this.activation = new Sigmoid(1).approximate(this.approximate); break;
+			case "sigmoid'": this.activation = new Sigmoid(1).approximate(this.approximate).derive(); break;
+			case "tanh":     this.activation = new Tanh().approximate(this.approximate); break;
+			case "tanh'":    this.activation = new Tanh().approximate(this.approximate).derive(); break;
+			case "exp":      this.activation = new Exp().approximate(this.approximate); break;
+			default: throw new IllegalArgumentException("Unknown function [" + this.function + "]");
+		}
+
+		Random random = new Random(0);
+		this.input = new float[this.size];
+		this.output = new float[this.size];
+		for (int i = 0; i < this.size; i++) {
+			this.input[i] = (float) random.nextGaussian() * 4;
+		}
+	}
+
+	@Benchmark
+	public float[] applyInto() {
+		this.activation.applyInto(this.input, 0, this.output, 0, this.size);
+		return this.output;
+	}
+}
@@ -0,0 +1,55 @@
+package com.github.ugdbg.bench;
+
+import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.datatypes.array.NumericArray;
+import com.github.ugdbg.datatypes.matrix.NumericMatrix;
+
+import java.util.Random;
+
+/**
+ * Benchmark inputs : random gaussian values, from a fixed seed so that every run benchmarks the same data.
+ */
+final class Inputs {
+	
+	private Inputs() {}
+
+	/**
+	 * Create a random array.
+	 * @param type   the array numeric type
+	 * @param length the array length
+	 * @param random the random generator
+	 * @return a new array of random gaussian values
+	 */
+	static NumericArray array(TYPE type, int length, Random random) {
+		NumericArray array = type.array(length);
+		for (int i = 0; i < length; i++) {
+			array.at(i, (float) random.nextGaussian());
+		}
+		return array;
+	}
+
+	/**
+	 * Create a random matrix.
+	 * @param type   the matrix numeric type
+	 * @param m      the matrix height
+	 * @param n      the matrix width
+	 * @param random the random generator
+	 * @return a new matrix of random gaussian values
+	 */
+	static NumericMatrix matrix(TYPE type, int m, int n, Random random) {
+		return type.matrix(m, n).operation((matrix, i, j) -> matrix.at(i, j, (float) random.nextGaussian()));
+	}
+
+	/**
+	 * Parse a matrix shape, i.e. 'm x n'.
+	 * @param shape the matrix shape, for instance '200x784'
+	 * @return the {m, n} dimensions
+	 */
+	static int[] shape(String shape) {
+		String[] dimensions = shape.split("x");
+		if (dimensions.length != 2) {
+			throw new IllegalArgumentException("Invalid matrix shape [" + shape + "]");
+		}
+		return new int[] {Integer.parseInt(dimensions[0].trim()), Integer.parseInt(dimensions[1].trim())};
+	}
+}
@@ -0,0 +1,107 @@
+package com.github.ugdbg.bench;
+
+import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.datatypes.matrix.NumericMatrix;
+import com.github.ugdbg.function.vector.Matrix;
+import com.github.ugdbg.vector.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Matrix} application, transpose, outer and batch products, for every {@link TYPE} and the MNIST network layer shapes.
+ * <br>
+ * The shape is 'm x n', i.e. 'layer output size x layer input size'. A batch is {@link #BATCH} inputs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatrixBenchmark {
+
+	/** The number of inputs of a batch : the lines of the batch product input */
+	private static final int BATCH = 30;
+
+	@Param({"PFLOAT", "PDOUBLE", "DECIMAL", "OFFHEAP_FLOAT"})
+	public TYPE type;
+
+	@Param({"10x200", "200x784", "784x784", "2000x784"})
+	public String shape;
+
+	private NumericMatrix weights;
+	private Matrix matrix;
+	private Vector input;
+	private Vector output;
+	private Vector delta;
+	private NumericMatrix batch;
+	private NumericMatrix aggregations;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(0);
+		int[] shape = Inputs.shape(this.shape);
+		this.weights = Inputs.matrix(this.type, shape[0], shape[1], random);
+		this.matrix  = Matrix.of(this.weights);
+		this.input  = Vector.of(Inputs.array(this.type, shape[1], random));
+		this.delta  = Vector.of(Inputs.array(this.type, shape[0], random));
+		this.output = Vector.of(this.type.heap(), shape[0]);
+		this.batch  = Inputs.matrix(this.type.heap(), BATCH, shape[1], random);
+		this.aggregations = this.type.heap().matrix(BATCH, shape[0]);
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.matrix.release();
+		this.input.release();
+		this.delta.release();
+	}
+
+	@Benchmark
+	public Vector doApply() {
+		return this.matrix.doApply(this.input);
+	}
+
+	@Benchmark
+	public Vector doApplyInto() {
+		return this.matrix.doApplyInto(this.input, this.output);
+	}
+
+	@Benchmark
+	public NumericMatrix transpose() {
+		return this.weights.transpose();
+	}
+
+	/**
+	 * The aggregation of a batch of inputs by a layer : X · Wᵀ, into an existing matrix.
+	 * @return the aggregations, one line per input
+	 */
+	@Benchmark
+	public NumericMatrix batchProduct() {
+		this.batch.product(false, this.weights, true, this.aggregations, false);
+		return this.aggregations;
+	}
+
+	@Benchmark
+	public Matrix outer() {
+		return Matrix.outer(this.delta, this.input);
+	}
+
+	@Benchmark
+	public Matrix accumulateOuter() {
+		return this.matrix.accumulateOuter(1e-6f, this.delta, this.input);
+	}
+}
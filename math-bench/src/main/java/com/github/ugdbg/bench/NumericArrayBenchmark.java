@@ -0,0 +1,126 @@
+package com.github.ugdbg.bench;
+
+import com.github.ugdbg.datatypes.Releasable;
+import com.github.ugdbg.datatypes.Summation;
+import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.datatypes.array.NumericArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link NumericArray} element-wise operations, reductions and linear combinations, for every {@link TYPE} and layer sizes.
+ * <br>
+ * Element-wise operations write into a destination array, so that the values do not drift from one call to the other.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumericArrayBenchmark {
+
+	@Param({"PFLOAT", "PDOUBLE", "DECIMAL", "OFFHEAP_FLOAT"})
+	public TYPE type;
+
+	@Param({"10", "200", "784", "2000"})
+	public int size;
+
+	private NumericArray a;
+	private NumericArray b;
+	private NumericArray into;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(0);
+		this.a = Inputs.array(this.type, this.size, random);
+		this.b = Inputs.array(this.type, this.size, random);
+		this.into = this.type.array(this.size);
+	}
+
+	@TearDown
+	public void tearDown() {
+		Releasable.release(this.a);
+		Releasable.release(this.b);
+		Releasable.release(this.into);
+	}
+
+	@Benchmark
+	public NumericArray sum() {
+		this.a.sum(this.b, this.into);
+		return this.into;
+	}
+
+	@Benchmark
+	public NumericArray sub() {
+		this.a.sub(this.b, this.into);
+		return this.into;
+	}
+
+	@Benchmark
+	public NumericArray mul() {
+		this.a.mul(this.b, this.into);
+		return this.into;
+	}
+
+	@Benchmark
+	public NumericArray div() {
+		this.a.div(this.b, this.into);
+		return this.into;
+	}
+
+	@Benchmark
+	public NumericArray axpy() {
+		this.into.set(this.a).axpy(0.5f, this.b);
+		return this.into;
+	}
+
+	@Benchmark
+	public float linearCombinationToFloat() {
+		return this.a.linearCombinationToFloat(this.b);
+	}
+
+	@Benchmark
+	public double linearCombinationToDouble() {
+		return this.a.linearCombinationToDouble(this.b);
+	}
+
+	@Benchmark
+	public BigDecimal linearCombinationToDecimal() {
+		return this.a.linearCombinationToDecimal(this.b);
+	}
+
+	@Benchmark
+	public int argmax() {
+		return this.a.argmax();
+	}
+
+	@Benchmark
+	public double sumPairwise() {
+		return this.a.sumToDouble(Summation.PAIRWISE);
+	}
+
+	@Benchmark
+	public double sumKahan() {
+		return this.a.sumToDouble(Summation.KAHAN);
+	}
+
+	@Benchmark
+	public double variance() {
+		return this.a.variance();
+	}
+}
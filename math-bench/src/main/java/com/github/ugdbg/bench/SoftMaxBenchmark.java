@@ -0,0 +1,56 @@
+package com.github.ugdbg.bench;
+
+import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.function.vector.SoftMax;
+import com.github.ugdbg.vector.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SoftMax#doApply(Vector)}, for every {@link TYPE} and layer sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SoftMaxBenchmark {
+
+	@Param({"PFLOAT", "PDOUBLE", "DECIMAL", "OFFHEAP_FLOAT"})
+	public TYPE type;
+
+	@Param({"10", "200", "784", "2000"})
+	public int size;
+
+	private final SoftMax softMax = new SoftMax();
+	private Vector input;
+
+	@Setup
+	public void setup() {
+		this.input = Vector.of(Inputs.array(this.type, this.size, new Random(0)));
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.input.release();
+	}
+
+	@Benchmark
+	public Vector doApply() {
+		return this.softMax.doApply(this.input);
+	}
+}
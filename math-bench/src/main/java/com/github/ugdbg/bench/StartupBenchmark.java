@@ -0,0 +1,54 @@
+package com.github.ugdbg.bench;
+
+import com.github.ugdbg.NumberUtils;
+import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.function.scalar.Sigmoid;
+import com.github.ugdbg.function.vector.Matrix;
+import com.github.ugdbg.vector.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The first call in a fresh JVM, class loading and static initializers included.
+ * <br>
+ * There is no state : every class of the library is loaded in the measured call.
+ * {@link #floatForward()} must not pay for the BigDecimal constants (see {@link NumberUtils#e()}).
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class StartupBenchmark {
+
+	/**
+	 * A float 784 → 200 → 10 sigmoid forward pass.
+	 * @return the output vector
+	 */
+	@Benchmark
+	public Vector floatForward() {
+		Vector input = Vector.of(TYPE.PFLOAT, 784);
+		for (int i = 0; i < 784; i++) {
+			input.at(i, i % 7 == 0 ? 0.5f : 0f);
+		}
+		Vector hidden = new Sigmoid(1).vectorial().apply(new Matrix(200, 784, TYPE.PFLOAT).apply(input));
+		return new Sigmoid(1).vectorial().apply(new Matrix(10, 200, TYPE.PFLOAT).apply(hidden));
+	}
+
+	/**
+	 * 'e' with the default 10000 digits math context : what used to be computed when {@link NumberUtils} was loaded.
+	 * @return e
+	 */
+	@Benchmark
+	public BigDecimal e() {
+		return NumberUtils.e();
+	}
+}
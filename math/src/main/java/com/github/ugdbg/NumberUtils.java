@@ -1,5 +1,6 @@
 package com.github.ugdbg;
 
+import ch.obermuhlner.math.big.BigDecimalMath;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.ClassUtils;
 
@@ -10,7 +11,9 @@ import java.math.RoundingMode;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
@@ -21,15 +24,19 @@ import java.util.function.Function;
  */
 public abstract class NumberUtils {
 
-	public static final BigDecimal E;
 	public static final MathContext MATH_CONTEXT = new MathContext(10000, RoundingMode.HALF_UP);
 	
 	private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE);
 	private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
 
-	static {
-		E = computeE(MATH_CONTEXT);
-	}
+	/** 'e', by math context. Computed on first use. */
+	private static final Map<MathContext, BigDecimal> E = new ConcurrentHashMap<>();
+
+	/** 'ln(2)', by math context. Computed on first use. */
+	private static final Map<MathContext, BigDecimal> LN2 = new ConcurrentHashMap<>();
+
+	/** 'π', by math context. Computed on first use. */
+	private static final Map<MathContext, BigDecimal> PI = new ConcurrentHashMap<>();
 	
 	/** 'integer' types */
 	private static final List<Class> INTEGERS = Arrays.asList(
@@ -52,22 +59,82 @@ public abstract class NumberUtils {
 	);
 
 	/**
-	 * Compute 'e' using the Taylor series of the Exponential function for x = 1. 
+	 * Get 'e' with the default {@link #MATH_CONTEXT}.
+	 * <br>
+	 * It is computed on first call (10000 digits : this is not cheap !) then cached.
+	 * @return e, using {@link #MATH_CONTEXT}
+	 */
+	public static BigDecimal e() {
+		return e(MATH_CONTEXT);
+	}
+
+	/**
+	 * Get 'e' with the default {@link #MATH_CONTEXT}.
+	 * <br>
+	 * Migration note : this replaces the former public constant {@code NumberUtils.E}, 
+	 * that was computed when the class was loaded. Replace {@code NumberUtils.E} with {@link #e()},
+	 * or with {@link #e(MathContext)} for a cheaper precision.
+	 * @return e, using {@link #MATH_CONTEXT}. See {@link #e()}.
+	 * @deprecated use {@link #e()} or {@link #e(MathContext)}
+	 */
+	@Deprecated
+	public static BigDecimal E() {
+		return e();
+	}
+
+	/**
+	 * Get 'e' for a math context. It is computed on first call for this context, then cached.
+	 * @param context the math context (precision and rounding mode)
+	 * @return e, rounded to the given context
+	 */
+	public static BigDecimal e(MathContext context) {
+		return E.computeIfAbsent(context, NumberUtils::computeE);
+	}
+
+	/**
+	 * Get 'ln(2)' for a math context. It is computed on first call for this context, then cached.
+	 * @param context the math context (precision and rounding mode)
+	 * @return ln(2), rounded to the given context
+	 */
+	public static BigDecimal ln2(MathContext context) {
+		return LN2.computeIfAbsent(context, c -> BigDecimalMath.log(BigDecimal.valueOf(2), c));
+	}
+
+	/**
+	 * Get 'π' for a math context. It is computed on first call for this context, then cached.
+	 * @param context the math context (precision and rounding mode)
+	 * @return π, rounded to the given context
+	 */
+	public static BigDecimal pi(MathContext context) {
+		return PI.computeIfAbsent(context, BigDecimalMath::pi);
+	}
+
+	/**
+	 * Compute 'e' using the Taylor series of the Exponential function for x = 1.
+	 * <br>
+	 * The series is truncated when 1/n! is below the context precision.
+	 * It is summed exactly (Horner scheme on integers) then divided once.
+	 * Prefer {@link #e(MathContext)} that caches the value.
 	 * @param context the Math context to use (BigDecimal division)
 	 * @return the BigDecimal value for 'e' using the given context
 	 */
 	public static BigDecimal computeE(MathContext context) {
-		BigDecimal e = BigDecimal.ONE;
-		BigDecimal fact = BigDecimal.ONE;
-		
-		for(int i = 1; i < 100; i++) {
-			fact = fact.multiply(new BigDecimal(i));
-			e = e.add(BigDecimal.ONE.divide(fact, context));
+		int terms = 1;
+		for (double log10Fact = 0; log10Fact <= context.getPrecision() + 2; terms++) {
+			log10Fact += Math.log10(terms + 1);
+		}
+
+		// 1 + 1/1 (1 + 1/2 (1 + 1/3 (...))) = numerator / denominator
+		BigInteger numerator = BigInteger.ONE;
+		BigInteger denominator = BigInteger.ONE;
+		for (int k = terms; k >= 1; k--) {
+			denominator = denominator.multiply(BigInteger.valueOf(k));
+			numerator = numerator.add(denominator);
 		}
 		
-		return e;
+		return new BigDecimal(numerator).divide(new BigDecimal(denominator), context);
 	}
-	
+
 	/**
 	 * Convert the given number into an instance of the given target class.
 	 * Supported Numbers : 
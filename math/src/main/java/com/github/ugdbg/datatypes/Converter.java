@@ -0,0 +1,174 @@
+package com.github.ugdbg.datatypes;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Number conversions for the numeric types, without the generic class lookups of
+ * {@link com.github.ugdbg.NumberUtils#convertNumberToTargetClass(Number, Class)}.
+ * <ul>
+ *     <li>{@link #toFloat(Number)}, {@link #toDouble(Number)} : primitive values, nothing is allocated</li>
+ *     <li>{@link #toDecimal(Number)} : a decimal value, with no string round-trip for decimal and integer numbers</li>
+ *     <li>{@link #of(TYPE)} : the converter to the storage type of a {@link TYPE} (see {@link TYPE#targetClass()})</li>
+ * </ul>
+ * Binary floating point values are converted to their shortest decimal representation,
+ * e.g. 0.1f → 0.1 and not 0.100000001490116119384765625.
+ */
+public abstract class Converter {
+
+	/** The converters, indexed by {@link TYPE#ordinal()} */
+	private static final Converter[] CONVERTERS = new Converter[TYPE.values().length];
+
+	static {
+		for (TYPE type : TYPE.values()) {
+			switch (type) {
+				case PFLOAT:
+				case OFFHEAP_FLOAT:
+				case HALF:
+				case BFLOAT16:      CONVERTERS[type.ordinal()] = new FloatConverter();   break;
+				case PDOUBLE:       CONVERTERS[type.ordinal()] = new DoubleConverter();  break;
+				case DECIMAL:       CONVERTERS[type.ordinal()] = new DecimalConverter(); break;
+				default: throw new IllegalArgumentException("Unknown numeric type [" + type.name() + "]");
+			}
+		}
+	}
+
+	private Converter() {}
+
+	/**
+	 * Get the converter to the storage type of a numeric type.
+	 * @param type the numeric type
+	 * @return the shared converter instance for this type
+	 */
+	public static Converter of(TYPE type) {
+		return CONVERTERS[type.ordinal()];
+	}
+
+	/**
+	 * Convert a number to the storage type of this converter.
+	 * @param value the number to convert
+	 * @return the converted number. The value itself if it already has the storage type.
+	 */
+	public abstract Number convert(Number value);
+
+	/**
+	 * Convert a double value to the storage type of this converter.
+	 * @param value the double value to convert
+	 * @return the converted number
+	 */
+	public abstract Number convert(double value);
+
+	/**
+	 * Convert a number to a primitive float.
+	 * @param value the number to convert
+	 * @return the float value of the number
+	 */
+	public static float toFloat(Number value) {
+		return value.floatValue();
+	}
+
+	/**
+	 * Convert a number to a primitive double.
+	 * @param value the number to convert
+	 * @return the double value of the number
+	 */
+	public static double toDouble(Number value) {
+		return value.doubleValue();
+	}
+
+	/**
+	 * Convert a number to a decimal.
+	 * @param value the number to convert
+	 * @return the value itself if it is a BigDecimal, a new BigDecimal else
+	 * @throws NumberFormatException if the value is infinite or NaN
+	 */
+	public static BigDecimal toDecimal(Number value) {
+		if (value instanceof BigDecimal) {
+			return (BigDecimal) value;
+		}
+		if (value instanceof Double) {
+			return toDecimal(value.doubleValue());
+		}
+		if (value instanceof Float) {
+			return toDecimal(value.floatValue());
+		}
+		if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+			return toDecimal(value.longValue());
+		}
+		if (value instanceof BigInteger) {
+			return new BigDecimal((BigInteger) value);
+		}
+		return new BigDecimal(value.toString());
+	}
+
+	/**
+	 * Convert an integer to a decimal, see {@link BigDecimal#valueOf(long)}.
+	 * @param value the integer to convert
+	 * @return a new BigDecimal, or a cached one for small values
+	 */
+	public static BigDecimal toDecimal(long value) {
+		return BigDecimal.valueOf(value);
+	}
+
+	/**
+	 * Convert a double to a decimal, see {@link BigDecimal#valueOf(double)}.
+	 * @param value the double to convert
+	 * @return a new BigDecimal
+	 * @throws NumberFormatException if the value is infinite or NaN
+	 */
+	public static BigDecimal toDecimal(double value) {
+		return BigDecimal.valueOf(value);
+	}
+
+	/**
+	 * Convert a float to a decimal, using its shortest decimal representation (see {@link Float#toString(float)}).
+	 * @param value the float to convert
+	 * @return a new BigDecimal
+	 * @throws NumberFormatException if the value is infinite or NaN
+	 */
+	public static BigDecimal toDecimal(float value) {
+		return new BigDecimal(Float.toString(value));
+	}
+
+	private static final class FloatConverter extends Converter {
+		@Override
+		public Float convert(Number value) {
+			if (value instanceof Float) {
+				return (Float) value;
+			}
+			return value.floatValue();
+		}
+
+		@Override
+		public Float convert(double value) {
+			return (float) value;
+		}
+	}
+
+	private static final class DoubleConverter extends Converter {
+		@Override
+		public Double convert(Number value) {
+			if (value instanceof Double) {
+				return (Double) value;
+			}
+			return value.doubleValue();
+		}
+
+		@Override
+		public Double convert(double value) {
+			return value;
+		}
+	}
+
+	private static final class DecimalConverter extends Converter {
+		@Override
+		public BigDecimal convert(Number value) {
+			return toDecimal(value);
+		}
+
+		@Override
+		public BigDecimal convert(double value) {
+			return toDecimal(value);
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package com.github.ugdbg.datatypes;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Direct (off-heap) memory allocation and explicit release for the {@link TYPE#OFFHEAP_FLOAT} data stores.
+ * <br><br>
+ * There is no public API to free a direct buffer before it is garbage collected. 
+ * {@link #free(ByteBuffer)} uses the JDK cleaner (sun.misc.Unsafe#invokeCleaner on Java 9+, 
+ * the buffer cleaner() on Java 8) when available. 
+ * Else the memory is freed when the buffer is garbage collected, as usual.
+ */
+public final class DirectMemory {
+
+	/** The max float count of a single direct buffer : a direct buffer capacity is an int, in bytes. */
+	public static final int MAX_FLOATS = Integer.MAX_VALUE / Float.BYTES;
+
+	private static final Cleaner CLEANER = cleaner();
+
+	private DirectMemory() {}
+
+	/**
+	 * Allocate a direct buffer for the given float count. Values are set to 0.
+	 * @param floats the float count
+	 * @return a new direct byte buffer, in native byte order
+	 * @throws IllegalArgumentException if the float count is negative or too big for a single buffer
+	 */
+	public static ByteBuffer allocateFloats(long floats) {
+		if (floats < 0 || floats > MAX_FLOATS) {
+			throw new IllegalArgumentException(
+				"Cannot allocate [" + floats + "] floats in a direct buffer. Max is [" + MAX_FLOATS + "]"
+			);
+		}
+		return ByteBuffer.allocateDirect((int) floats * Float.BYTES).order(ByteOrder.nativeOrder());
+	}
+
+	/**
+	 * Get a float view of a byte buffer. 
+	 * @param memory the byte buffer
+	 * @return a float buffer that shares the byte buffer memory
+	 */
+	public static FloatBuffer floats(ByteBuffer memory) {
+		return memory.asFloatBuffer();
+	}
+
+	/**
+	 * Free the memory of a direct buffer now, if possible.
+	 * <br>
+	 * <b>The buffer, and any view over it, must not be used afterwards : this would crash the JVM.</b>
+	 * @param memory a direct byte buffer, that is not a slice or a duplicate. Ignored if null or not direct.
+	 * @return true if the memory was freed, false if it will only be freed by the garbage collector
+	 */
+	public static boolean free(ByteBuffer memory) {
+		if (memory == null || ! memory.isDirect() || CLEANER == null) {
+			return false;
+		}
+		try {
+			CLEANER.clean(memory);
+			return true;
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Find the JDK cleaner for direct buffers.
+	 * @return the cleaner for the running JVM, null if there is none
+	 */
+	private static Cleaner cleaner() {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			Object unsafe = theUnsafe.get(null);
+			return memory -> invokeCleaner.invoke(unsafe, memory);
+		} catch (ReflectiveOperationException | RuntimeException java8) {
+			// Java 8 : DirectByteBuffer.cleaner().clean()
+			try {
+				Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+				Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+				return memory -> clean.invoke(cleaner.invoke(memory));
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Free the memory of a direct buffer.
+	 */
+	@FunctionalInterface
+	private interface Cleaner {
+		void clean(ByteBuffer memory) throws ReflectiveOperationException;
+	}
+}
@@ -0,0 +1,118 @@
+package com.github.ugdbg.datatypes;
+
+/**
+ * The 16 bits floating point encodings of the {@link TYPE#HALF} and {@link TYPE#BFLOAT16} types, stored as shorts.
+ * <ul>
+ *     <li>{@link #HALF} : IEEE 754 binary16. 5 exponent bits, 10 mantissa bits : ~3 decimal digits, max 65504.</li>
+ *     <li>{@link #BFLOAT16} : the 16 high bits of a float. 8 exponent bits, 7 mantissa bits : ~2 decimal digits, the float range.</li>
+ * </ul>
+ * A float is encoded with round to nearest, ties to even. A value too large for {@link #HALF} becomes an infinity.
+ * Decoding is exact : every 16 bits value is a float.
+ * <br>
+ * There is no 16 bits arithmetic : values are decoded, computed as floats and encoded back.
+ */
+public enum Float16 {
+	HALF {
+		@Override
+		public short encode(float value) {
+			int bits = Float.floatToRawIntBits(value);
+			int sign = (bits >>> 16) & 0x8000;
+			int abs = bits & 0x7fffffff;
+
+			// infinity or NaN (keep a quiet NaN)
+			if (abs >= 0x7f800000) {
+				return (short) (sign | 0x7c00 | (abs > 0x7f800000 ? 0x200 | (abs >>> 13) & 0x3ff : 0));
+			}
+			// 65520 and above round to infinity
+			if (abs >= 0x477ff000) {
+				return (short) (sign | 0x7c00);
+			}
+			// normal values (2⁻¹⁴ and above) : rebias the exponent (127 → 15) and round the 13 dropped mantissa bits
+			if (abs >= 0x38800000) {
+				return (short) (sign | round((abs - 0x38000000) >>> 13, abs & 0x1fff, 0x1000));
+			}
+			// below 2⁻²⁵ : zero
+			if (abs < 0x33000000) {
+				return (short) sign;
+			}
+			// subnormal values : a multiple of 2⁻²⁴
+			int exponent = abs >>> 23;
+			int mantissa = (abs & 0x7fffff) | 0x800000;
+			int shift = 126 - exponent;
+			return (short) (sign | round(mantissa >>> shift, mantissa & ((1 << shift) - 1), 1 << (shift - 1)));
+		}
+
+		@Override
+		public float decode(short value) {
+			int sign = (value & 0x8000) << 16;
+			int exponent = (value >>> 10) & 0x1f;
+			int mantissa = value & 0x3ff;
+			if (exponent == 0) {
+				float subnormal = mantissa * 0x1p-24f;
+				return sign == 0 ? subnormal : -subnormal;
+			}
+			if (exponent == 0x1f) {
+				return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+			}
+			return Float.intBitsToFloat(sign | ((exponent + 112) << 23) | (mantissa << 13));
+		}
+
+		@Override
+		public TYPE type() {
+			return TYPE.HALF;
+		}
+	},
+
+	BFLOAT16 {
+		@Override
+		public short encode(float value) {
+			int bits = Float.floatToRawIntBits(value);
+			// NaN : keep a quiet NaN, rounding could turn it into an infinity
+			if ((bits & 0x7fffffff) > 0x7f800000) {
+				return (short) ((bits >>> 16) | 0x40);
+			}
+			return (short) ((bits + 0x7fff + ((bits >>> 16) & 1)) >>> 16);
+		}
+
+		@Override
+		public float decode(short value) {
+			return Float.intBitsToFloat(value << 16);
+		}
+
+		@Override
+		public TYPE type() {
+			return TYPE.BFLOAT16;
+		}
+	};
+
+	/**
+	 * Encode a float, rounding to nearest, ties to even.
+	 * @param value the float value
+	 * @return the 16 bits encoding of the nearest value
+	 */
+	public abstract short encode(float value);
+
+	/**
+	 * Decode a 16 bits value.
+	 * @param value the 16 bits encoding
+	 * @return the float value, exactly
+	 */
+	public abstract float decode(short value);
+
+	/**
+	 * The numeric type of the arrays and matrices using this encoding.
+	 * @return {@link TYPE#HALF} or {@link TYPE#BFLOAT16}
+	 */
+	public abstract TYPE type();
+
+	/**
+	 * Round a truncated value to nearest, ties to even.
+	 * @param truncated the truncated value
+	 * @param dropped   the dropped low bits
+	 * @param half      the dropped bits of a tie
+	 * @return the rounded value. A carry to the exponent is the next representable value.
+	 */
+	private static int round(int truncated, int dropped, int half) {
+		return dropped > half || (dropped == half && (truncated & 1) != 0) ? truncated + 1 : truncated;
+	}
+}
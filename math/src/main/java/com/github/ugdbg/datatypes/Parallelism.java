@@ -0,0 +1,199 @@
+package com.github.ugdbg.datatypes;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * When should the element-wise operations of the numeric arrays and matrices run in parallel ?
+ * <ul>
+ *     <li>below a threshold (a number of values) : on the caller thread, in a plain loop</li>
+ *     <li>above : the values are split into chunks, that are processed on a shared {@link ForkJoinPool}</li>
+ * </ul>
+ * A {@link TYPE#DECIMAL} operation is CPU-bound for every value : it has its own, lower, threshold.
+ * <br>
+ * The process-wide policy is {@link #global()}. It uses the {@link ForkJoinPool#commonPool()} with
+ * {@link #DEFAULT_THRESHOLD} and {@link #DEFAULT_DECIMAL_THRESHOLD}. Nothing runs in parallel if the pool parallelism is 1.
+ * <br><br>
+ * The chunks are disjoint : an operation must only write the values of its own range.
+ */
+public final class Parallelism {
+
+	/** Default threshold of the primitive types : memory-bound operations on fewer values do not benefit from threads. */
+	public static final int DEFAULT_THRESHOLD = 1 << 16;
+
+	/** Default threshold of the {@link TYPE#DECIMAL} type */
+	public static final int DEFAULT_DECIMAL_THRESHOLD = 1 << 10;
+
+	/** How many chunks per thread of the pool, so that a slow thread can be helped */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	private static final Parallelism OFF = new Parallelism(null, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+	/** The process-wide parallelism policy */
+	private static volatile Parallelism global = new Parallelism(
+		ForkJoinPool.commonPool(),
+		DEFAULT_THRESHOLD,
+		DEFAULT_DECIMAL_THRESHOLD
+	);
+
+	/** The pool of the parallel operations. null if parallelism is off. */
+	private final ForkJoinPool pool;
+
+	/** The minimum number of values of a parallel operation for the primitive types */
+	private final int threshold;
+
+	/** The minimum number of values of a parallel operation for the {@link TYPE#DECIMAL} type */
+	private final int decimalThreshold;
+
+	private Parallelism(ForkJoinPool pool, int threshold, int decimalThreshold) {
+		this.pool = pool;
+		this.threshold = threshold;
+		this.decimalThreshold = decimalThreshold;
+	}
+
+	/**
+	 * Never run in parallel.
+	 * @return the 'off' policy
+	 */
+	public static Parallelism off() {
+		return OFF;
+	}
+
+	/**
+	 * Run in parallel above some thresholds, on the {@link ForkJoinPool#commonPool()}.
+	 * @param threshold        the minimum number of values of a parallel operation for the primitive types
+	 * @param decimalThreshold the minimum number of values of a parallel operation for the {@link TYPE#DECIMAL} type
+	 * @return a new policy
+	 * @throws IllegalArgumentException if a threshold is not strictly positive
+	 */
+	public static Parallelism of(int threshold, int decimalThreshold) {
+		if (threshold <= 0 || decimalThreshold <= 0) {
+			throw new IllegalArgumentException(
+				"Parallelism thresholds must be strictly positive [" + threshold + ", " + decimalThreshold + "]"
+			);
+		}
+		return new Parallelism(ForkJoinPool.commonPool(), threshold, decimalThreshold);
+	}
+
+	/**
+	 * Get a copy of this policy that runs on another pool.
+	 * @param pool the pool of the parallel operations
+	 * @return a new policy
+	 * @throws IllegalArgumentException if pool is null
+	 */
+	public Parallelism on(ForkJoinPool pool) {
+		if (pool == null) {
+			throw new IllegalArgumentException("Parallelism pool cannot be null");
+		}
+		return new Parallelism(pool, this.threshold, this.decimalThreshold);
+	}
+
+	/**
+	 * Get the process-wide parallelism policy.
+	 * @return the global policy
+	 */
+	public static Parallelism global() {
+		return global;
+	}
+
+	/**
+	 * Set the process-wide parallelism policy.
+	 * @param parallelism the global policy for the element-wise operations
+	 * @throws IllegalArgumentException if parallelism is null
+	 */
+	public static void global(Parallelism parallelism) {
+		if (parallelism == null) {
+			throw new IllegalArgumentException("Global parallelism cannot be null");
+		}
+		global = parallelism;
+	}
+
+	/**
+	 * Get the threshold of a numeric type.
+	 * @param type the numeric type
+	 * @return the minimum number of values of a parallel operation for this type
+	 */
+	public int threshold(TYPE type) {
+		return type == TYPE.DECIMAL ? this.decimalThreshold : this.threshold;
+	}
+
+	/**
+	 * Should an operation on some values run in parallel ?
+	 * @param values the number of values of the operation
+	 * @param type   the numeric type of the values
+	 * @return true if the operation should be split into chunks on the pool
+	 */
+	public boolean isParallel(long values, TYPE type) {
+		return this.pool != null && this.pool.getParallelism() > 1 && values >= this.threshold(type);
+	}
+
+	/**
+	 * Run an operation on the items [0, length[, in parallel chunks if there are enough values.
+	 * @param length the number of items
+	 * @param type   the numeric type of the values
+	 * @param range  the operation on a range of items
+	 */
+	public void forRange(int length, TYPE type, Range range) {
+		this.forRange(length, 1, type, range);
+	}
+
+	/**
+	 * Run an operation on the items [0, length[, in parallel chunks if there are enough values.
+	 * <br>
+	 * An item can have several values, e.g. a matrix line.
+	 * @param length the number of items
+	 * @param width  the number of values of an item
+	 * @param type   the numeric type of the values
+	 * @param range  the operation on a range of items
+	 */
+	public void forRange(int length, int width, TYPE type, Range range) {
+		if (length <= 1 || ! this.isParallel((long) length * width, type)) {
+			range.apply(0, length);
+			return;
+		}
+		int minChunk = Math.max(1, this.threshold(type) / Math.max(1, 2 * width));
+		int chunk = Math.max(minChunk, length / (CHUNKS_PER_THREAD * this.pool.getParallelism()));
+		this.pool.invoke(new RangeTask(range, 0, length, chunk));
+	}
+
+	@Override
+	public String toString() {
+		return this.pool == null ? "OFF" : "Parallelism(" + this.threshold + ", " + this.decimalThreshold + ")";
+	}
+
+	/** An operation on a range of items */
+	@FunctionalInterface
+	public interface Range {
+		/**
+		 * Run the operation on a range of items.
+		 * @param from the first item, inclusive
+		 * @param to   the last item, exclusive
+		 */
+		void apply(int from, int to);
+	}
+
+	/** Split a range in halves until it is smaller than a chunk */
+	private static class RangeTask extends RecursiveAction {
+		private final Range range;
+		private final int from;
+		private final int to;
+		private final int chunk;
+
+		private RangeTask(Range range, int from, int to, int chunk) {
+			this.range = range;
+			this.from = from;
+			this.to = to;
+			this.chunk = chunk;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from <= this.chunk) {
+				this.range.apply(this.from, this.to);
+				return;
+			}
+			int middle = (this.from + this.to) >>> 1;
+			invokeAll(new RangeTask(this.range, this.from, middle, this.chunk), new RangeTask(this.range, middle, this.to, this.chunk));
+		}
+	}
+}
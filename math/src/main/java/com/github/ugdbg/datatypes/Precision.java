@@ -0,0 +1,143 @@
+package com.github.ugdbg.datatypes;
+
+import com.github.ugdbg.NumberUtils;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A precision profile of the {@link TYPE#DECIMAL} arithmetic : how many significant digits the BigDecimal values keep.
+ * <ul>
+ *     <li>{@link #EXACT} : the values are never rounded. Transcendental functions use {@link NumberUtils#MATH_CONTEXT}.</li>
+ *     <li>{@link #DECIMAL64}, {@link #DECIMAL128} : the IEEE 754 decimal formats, 16 and 34 digits</li>
+ *     <li>{@link #of(int)} : any number of digits, e.g. 64</li>
+ * </ul>
+ * Exact products of BigDecimal values double their number of digits : an exact training gets slower at every step.
+ * A bounded profile rounds every value that is stored in a {@link com.github.ugdbg.datatypes.array.DecimalArray}
+ * or a {@link com.github.ugdbg.datatypes.matrix.DecimalMatrix}, so that the cost of an operation stays constant.
+ * <br>
+ * The process-wide profile is {@link #global()}, {@link #EXACT} by default. It can be overridden per array, matrix or function.
+ * <br><br>
+ * There is one profile instance per number of digits.
+ */
+public final class Precision implements Serializable {
+
+	/** The profiles, by number of digits */
+	private static final Map<Integer, Precision> PROFILES = new ConcurrentHashMap<>();
+
+	/** Never round : the digits of a value are only bounded by its operations */
+	public static final Precision EXACT = new Precision(NumberUtils.MATH_CONTEXT, true);
+
+	/** 7 digits, see {@link MathContext#DECIMAL32} */
+	public static final Precision DECIMAL32 = of(MathContext.DECIMAL32.getPrecision());
+
+	/** 16 digits, see {@link MathContext#DECIMAL64} */
+	public static final Precision DECIMAL64 = of(MathContext.DECIMAL64.getPrecision());
+
+	/** 34 digits, see {@link MathContext#DECIMAL128} */
+	public static final Precision DECIMAL128 = of(MathContext.DECIMAL128.getPrecision());
+
+	/** The process-wide precision profile */
+	private static volatile Precision global = EXACT;
+
+	private final MathContext mathContext;
+
+	/** true if the values are never rounded */
+	private final boolean exact;
+
+	private Precision(MathContext mathContext, boolean exact) {
+		this.mathContext = mathContext;
+		this.exact = exact;
+	}
+
+	/**
+	 * Get the precision profile for a number of significant digits. Values are rounded {@link RoundingMode#HALF_EVEN}.
+	 * @param digits the number of significant digits
+	 * @return the profile instance for this number of digits
+	 * @throws IllegalArgumentException if digits is not strictly positive
+	 */
+	public static Precision of(int digits) {
+		if (digits <= 0) {
+			throw new IllegalArgumentException("Precision digits must be strictly positive [" + digits + "]");
+		}
+		return PROFILES.computeIfAbsent(digits, d -> new Precision(new MathContext(d, RoundingMode.HALF_EVEN), false));
+	}
+
+	/**
+	 * Get the process-wide precision profile, used by the decimal arrays and matrices when they are created.
+	 * @return the global profile. {@link #EXACT} by default.
+	 */
+	public static Precision global() {
+		return global;
+	}
+
+	/**
+	 * Set the process-wide precision profile.
+	 * @param precision the global profile for the decimal arrays, matrices and functions that do not have their own
+	 * @throws IllegalArgumentException if precision is null
+	 */
+	public static void global(Precision precision) {
+		if (precision == null) {
+			throw new IllegalArgumentException("Global precision cannot be null");
+		}
+		global = precision;
+	}
+
+	/**
+	 * Round a value to this precision.
+	 * @param value the value to round
+	 * @return the rounded value. The value itself if this profile is {@link #EXACT}.
+	 */
+	public BigDecimal round(BigDecimal value) {
+		return this.exact ? value : value.round(this.mathContext);
+	}
+
+	/**
+	 * Get 'e' in this precision. It is computed on first call (see {@link NumberUtils#e(MathContext)}) then cached.
+	 * @return e, with {@link #digits()} significant digits
+	 */
+	public BigDecimal e() {
+		return NumberUtils.e(this.mathContext);
+	}
+
+	/**
+	 * The math context of the operations that cannot be exact (division, exponential...).
+	 * @return {@link #mathContext}
+	 */
+	public MathContext mathContext() {
+		return this.mathContext;
+	}
+
+	/**
+	 * The number of significant digits of this profile.
+	 * @return the math context precision
+	 */
+	public int digits() {
+		return this.mathContext.getPrecision();
+	}
+
+	/**
+	 * Is this profile {@link #EXACT} ?
+	 * @return true if the values are never rounded
+	 */
+	public boolean isExact() {
+		return this.exact;
+	}
+
+	@Override
+	public String toString() {
+		return this.exact ? "EXACT" : "Precision(" + this.digits() + ")";
+	}
+
+	/**
+	 * Keep one profile instance per number of digits when deserialized.
+	 * @return the deserialized profile
+	 */
+	private Object readResolve() {
+		return this.exact ? EXACT : of(this.digits());
+	}
+}
@@ -0,0 +1,40 @@
+package com.github.ugdbg.datatypes;
+
+/**
+ * A numeric data store whose memory is not managed by the garbage collector (see {@link TYPE#OFFHEAP_FLOAT}).
+ * <br><br>
+ * {@link #release()} frees the memory explicitly : the store (and any view over it) must not be used afterwards.
+ * Any access to the values of a released store fails with an {@link IllegalStateException}.
+ * Views over the store do not own its memory : releasing a view does nothing.
+ */
+public interface Releasable extends AutoCloseable {
+
+	/**
+	 * Free the memory of this data store. Calling this method more than once does nothing.
+	 */
+	void release();
+
+	/**
+	 * Has the memory of this data store been freed ?
+	 * @return true if {@link #release()} was called on the owner of the memory
+	 */
+	boolean isReleased();
+
+	/**
+	 * {@link #release()} the data store, e.g. in a try-with-resources block.
+	 */
+	@Override
+	default void close() {
+		this.release();
+	}
+
+	/**
+	 * Release an object if it is a {@link Releasable} data store. Do nothing else.
+	 * @param data the data store (an array, a matrix...)
+	 */
+	static void release(Object data) {
+		if (data instanceof Releasable) {
+			((Releasable) data).release();
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package com.github.ugdbg.datatypes;
+
+import java.nio.FloatBuffer;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Summation algorithms for the reductions of the numeric arrays and matrices : Σ term(xᵢ - shift).
+ * <ul>
+ *     <li>{@link #NAIVE} : left to right. The error grows linearly with the number of values.</li>
+ *     <li>{@link #KAHAN} : compensated summation (Neumaier variant). The error does not depend on the number of values.</li>
+ *     <li>{@link #PAIRWISE} : recursive halving, blocks of {@link #PAIRWISE_BLOCK} values are summed left to right.
+ *     The error grows logarithmically, for almost the cost of {@link #NAIVE}.</li>
+ * </ul>
+ * Values are summed in double precision, whatever their storage type. Nothing is allocated.
+ */
+public enum Summation {
+	NAIVE, KAHAN, PAIRWISE;
+
+	/** The summed term of a value x, given a shift s */
+	public enum Term {
+		/** x - s */
+		VALUE,
+		/** |x - s| */
+		ABS,
+		/** (x - s)² */
+		SQUARE;
+
+		/**
+		 * Compute the term of a value.
+		 * @param value the value
+		 * @param shift the shift (e.g. the mean of the values for a variance)
+		 * @return the term to sum
+		 */
+		public double of(double value, double shift) {
+			double x = value - shift;
+			switch (this) {
+				case ABS:    return Math.abs(x);
+				case SQUARE: return x * x;
+				default:     return x;
+			}
+		}
+	}
+
+	/** Below this number of values, {@link #PAIRWISE} sums the values left to right. */
+	static final int PAIRWISE_BLOCK = 128;
+
+	/**
+	 * Σ term(values[i] - shift) for i in [offset, offset + length[
+	 * @param values the values buffer
+	 * @param offset the index of the first value in the buffer
+	 * @param length the number of values
+	 * @param term   the summed term
+	 * @param shift  the shift of every value
+	 * @return the sum. 0 if there is no value.
+	 */
+	public double sum(float[] values, int offset, int length, Term term, double shift) {
+		if (this == PAIRWISE) {
+			return pairwise(values, offset, length, term, shift);
+		}
+		return loop(values, offset, offset + length, term, shift, this == KAHAN);
+	}
+
+	/**
+	 * Σ term(values[i] - shift) for i in [offset, offset + length[
+	 * @param values the values buffer
+	 * @param offset the index of the first value in the buffer
+	 * @param length the number of values
+	 * @param term   the summed term
+	 * @param shift  the shift of every value
+	 * @return the sum. 0 if there is no value.
+	 */
+	public double sum(double[] values, int offset, int length, Term term, double shift) {
+		if (this == PAIRWISE) {
+			return pairwise(values, offset, length, term, shift);
+		}
+		return loop(values, offset, offset + length, term, shift, this == KAHAN);
+	}
+
+	/**
+	 * Σ term(values[i] - shift) for i in [offset, offset + length[. The buffer position is not used.
+	 * @param values the values buffer
+	 * @param offset the index of the first value in the buffer
+	 * @param length the number of values
+	 * @param term   the summed term
+	 * @param shift  the shift of every value
+	 * @return the sum. 0 if there is no value.
+	 */
+	public double sum(FloatBuffer values, int offset, int length, Term term, double shift) {
+		if (this == PAIRWISE) {
+			return pairwise(values, offset, length, term, shift);
+		}
+		return loop(values, offset, offset + length, term, shift, this == KAHAN);
+	}
+
+	/**
+	 * Σ term(values(i) - shift) for i in [0, length[, for any other storage.
+	 * @param values the value at an index
+	 * @param length the number of values
+	 * @param term   the summed term
+	 * @param shift  the shift of every value
+	 * @return the sum. 0 if there is no value.
+	 */
+	public double sum(IntToDoubleFunction values, int length, Term term, double shift) {
+		if (this == PAIRWISE) {
+			return pairwise(values, 0, length, term, shift);
+		}
+		return loop(values, 0, length, term, shift, this == KAHAN);
+	}
+
+	private static double pairwise(float[] values, int offset, int length, Term term, double shift) {
+		if (length <= PAIRWISE_BLOCK) {
+			return loop(values, offset, offset + length, term, shift, false);
+		}
+		int half = length / 2;
+		return pairwise(values, offset, half, term, shift) + pairwise(values, offset + half, length - half, term, shift);
+	}
+
+	private static double pairwise(double[] values, int offset, int length, Term term, double shift) {
+		if (length <= PAIRWISE_BLOCK) {
+			return loop(values, offset, offset + length, term, shift, false);
+		}
+		int half = length / 2;
+		return pairwise(values, offset, half, term, shift) + pairwise(values, offset + half, length - half, term, shift);
+	}
+
+	private static double pairwise(FloatBuffer values, int offset, int length, Term term, double shift) {
+		if (length <= PAIRWISE_BLOCK) {
+			return loop(values, offset, offset + length, term, shift, false);
+		}
+		int half = length / 2;
+		return pairwise(values, offset, half, term, shift) + pairwise(values, offset + half, length - half, term, shift);
+	}
+
+	private static double pairwise(IntToDoubleFunction values, int offset, int length, Term term, double shift) {
+		if (length <= PAIRWISE_BLOCK) {
+			return loop(values, offset, offset + length, term, shift, false);
+		}
+		int half = length / 2;
+		return pairwise(values, offset, half, term, shift) + pairwise(values, offset + half, length - half, term, shift);
+	}
+
+	private static double loop(float[] values, int from, int to, Term term, double shift, boolean compensated) {
+		double sum = 0;
+		double compensation = 0;
+		for (int i = from; i < to; i++) {
+			double x = term.of(values[i], shift);
+			if (compensated) {
+				double t = sum + x;
+				compensation += Math.abs(sum) >= Math.abs(x) ? (sum - t) + x : (x - t) + sum;
+				sum = t;
+			} else {
+				sum += x;
+			}
+		}
+		return sum + compensation;
+	}
+
+	private static double loop(double[] values, int from, int to, Term term, double shift, boolean compensated) {
+		double sum = 0;
+		double compensation = 0;
+		for (int i = from; i < to; i++) {
+			double x = term.of(values[i], shift);
+			if (compensated) {
+				double t = sum + x;
+				compensation += Math.abs(sum) >= Math.abs(x) ? (sum - t) + x : (x - t) + sum;
+				sum = t;
+			} else {
+				sum += x;
+			}
+		}
+		return sum + compensation;
+	}
+
+	private static double loop(FloatBuffer values, int from, int to, Term term, double shift, boolean compensated) {
+		double sum = 0;
+		double compensation = 0;
+		for (int i = from; i < to; i++) {
+			double x = term.of(values.get(i), shift);
+			if (compensated) {
+				double t = sum + x;
+				compensation += Math.abs(sum) >= Math.abs(x) ? (sum - t) + x : (x - t) + sum;
+				sum = t;
+			} else {
+				sum += x;
+			}
+		}
+		return sum + compensation;
+	}
+
+	private static double loop(IntToDoubleFunction values, int from, int to, Term term, double shift, boolean compensated) {
+		double sum = 0;
+		double compensation = 0;
+		for (int i = from; i < to; i++) {
+			double x = term.of(values.applyAsDouble(i), shift);
+			if (compensated) {
+				double t = sum + x;
+				compensation += Math.abs(sum) >= Math.abs(x) ? (sum - t) + x : (x - t) + sum;
+				sum = t;
+			} else {
+				sum += x;
+			}
+		}
+		return sum + compensation;
+	}
+}
@@ -1,11 +1,15 @@
 package com.github.ugdbg.datatypes;
 
 import com.github.ugdbg.datatypes.array.DecimalArray;
+import com.github.ugdbg.datatypes.array.Float16Array;
 import com.github.ugdbg.datatypes.array.NumericArray;
+import com.github.ugdbg.datatypes.array.OffHeapFloatArray;
 import com.github.ugdbg.datatypes.array.PrimitiveDoubleArray;
 import com.github.ugdbg.datatypes.array.PrimitiveFloatArray;
 import com.github.ugdbg.datatypes.matrix.DecimalMatrix;
+import com.github.ugdbg.datatypes.matrix.Float16Matrix;
 import com.github.ugdbg.datatypes.matrix.NumericMatrix;
+import com.github.ugdbg.datatypes.matrix.OffHeapFloatMatrix;
 import com.github.ugdbg.datatypes.matrix.PrimitiveDoubleMatrix;
 import com.github.ugdbg.datatypes.matrix.PrimitiveFloatMatrix;
 
@@ -23,13 +27,23 @@ import java.math.BigDecimal;
  * → We chose to expose an API that can deal with <b>all the types from this enum</b>.  <br>
  * → It is up to the <b>implementation</b> to deal with any conversion that is required. <br>
  * → It is up to the <b>caller</b> to keep using coherent API methods. <br>
+ * <br>
+ * {@link #OFFHEAP_FLOAT} stores primitive floats in direct memory, outside of the Java heap (see {@link Releasable}).
+ * Its arithmetic is the {@link #PFLOAT} one : see {@link #heap()}.
+ * <br>
+ * {@link #HALF} and {@link #BFLOAT16} store 16 bits floats (see {@link Float16}) : half the memory of {@link #PFLOAT}.
+ * Their arithmetic is the {@link #PFLOAT} one too. They are meant for weights that are mostly read, e.g. after a training :
+ * see {@link NumericMatrix#convert(TYPE)}.
  */
 public enum TYPE {
-	PFLOAT, PDOUBLE, DECIMAL;
+	PFLOAT, PDOUBLE, DECIMAL, OFFHEAP_FLOAT, HALF, BFLOAT16;
 	
 	public Class targetClass() {
 		switch (this) {
-			case PFLOAT:  return float.class;
+			case PFLOAT:
+			case OFFHEAP_FLOAT:
+			case HALF:
+			case BFLOAT16: return float.class;
 			case PDOUBLE: return double.class;
 			case DECIMAL: return BigDecimal.class;
 			default: throw new IllegalArgumentException("Unknown numeric type [" + this.name() + "]");
@@ -41,6 +55,9 @@ public enum TYPE {
 			case PFLOAT:  return new PrimitiveFloatArray(dimension);
 			case PDOUBLE: return new PrimitiveDoubleArray(dimension);
 			case DECIMAL: return new DecimalArray(dimension);
+			case OFFHEAP_FLOAT: return new OffHeapFloatArray(dimension);
+			case HALF:     return new Float16Array(Float16.HALF, dimension);
+			case BFLOAT16: return new Float16Array(Float16.BFLOAT16, dimension);
 			default: throw new IllegalArgumentException("Unknown numeric array type [" + this.name() + "]");
 		}
 	}
@@ -50,7 +67,28 @@ public enum TYPE {
 			case PFLOAT:  return new PrimitiveFloatMatrix(m, n);
 			case PDOUBLE: return new PrimitiveDoubleMatrix(m, n);
 			case DECIMAL: return new DecimalMatrix(m, n);
+			case OFFHEAP_FLOAT: return new OffHeapFloatMatrix(m, n);
+			case HALF:     return new Float16Matrix(Float16.HALF, m, n);
+			case BFLOAT16: return new Float16Matrix(Float16.BFLOAT16, m, n);
 			default: throw new IllegalArgumentException("Unknown numeric matrix type [" + this.name() + "]");
 		}
 	}
+	
+	/**
+	 * The converter to the storage type of this type, see {@link Converter}.
+	 * @return the shared converter instance for this type
+	 */
+	public Converter converter() {
+		return Converter.of(this);
+	}
+	
+	/**
+	 * The on-heap type with the same arithmetic as this type.
+	 * <br>
+	 * Computations switch on this type and store their (short-lived) results on-heap.
+	 * @return {@link #PFLOAT} for {@link #OFFHEAP_FLOAT}, {@link #HALF} and {@link #BFLOAT16}, the current type else
+	 */
+	public TYPE heap() {
+		return this == OFFHEAP_FLOAT || this == HALF || this == BFLOAT16 ? PFLOAT : this;
+	}
 }
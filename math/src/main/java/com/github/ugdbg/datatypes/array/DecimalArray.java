@@ -1,6 +1,9 @@
 package com.github.ugdbg.datatypes.array;
 
-import com.github.ugdbg.NumberUtils;
+import com.github.ugdbg.datatypes.Converter;
+import com.github.ugdbg.datatypes.Parallelism;
+import com.github.ugdbg.datatypes.Precision;
+import com.github.ugdbg.datatypes.Summation;
 import com.github.ugdbg.datatypes.TYPE;
 import com.google.common.primitives.Doubles;
 import com.google.common.primitives.Floats;
@@ -8,20 +11,46 @@ import com.google.common.primitives.Floats;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.stream.IntStream;
 
+/**
+ * A numeric array implementation using {@link BigDecimal}, i.e. {@link TYPE#DECIMAL} type.
+ * <br><br>
+ * The array can either own its buffer or be a view over a region of a bigger buffer (e.g. a matrix line).
+ * The value at index i is stored at {@link #buffer()}[{@link #offset()} + i].
+ * <br><br>
+ * The values the array operations store are rounded to the array {@link #precision()} (see {@link Precision}).
+ */
 public class DecimalArray implements NumericArray {
-	
+
 	private final BigDecimal[] array;
+	private final int offset;
+	private final int length;
 	private RoundingMode roundingMode = RoundingMode.HALF_DOWN;
-	
+	private Precision precision = Precision.global();
+
 	public DecimalArray(int length) {
-		this.array = new BigDecimal[length];
+		this(new BigDecimal[length]);
 	}
 
 	public DecimalArray(BigDecimal[] values) {
-		this.array = values;
+		this(values, 0, values.length);
+	}
+
+	/**
+	 * Create a view over a region of a buffer. Nothing is copied : any write is visible in the source buffer.
+	 * @param buffer the source buffer
+	 * @param offset the index in the buffer of the first value of this array
+	 * @param length the array length
+	 */
+	public DecimalArray(BigDecimal[] buffer, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > buffer.length) {
+			throw new IllegalArgumentException(
+				"Bad view [" + offset + ", " + (offset + length) + "[ over a buffer of length [" + buffer.length + "]"
+			);
+		}
+		this.array = buffer;
+		this.offset = offset;
+		this.length = length;
 	}
 
 	public RoundingMode getRoundingMode() {
@@ -32,6 +61,29 @@ public class DecimalArray implements NumericArray {
 		this.roundingMode = roundingMode;
 	}
 
+	/**
+	 * Get the precision profile of this array.
+	 * @return {@link #precision}. Default to {@link Precision#global()} when the array is created.
+	 */
+	public Precision precision() {
+		return this.precision;
+	}
+
+	/**
+	 * Set the precision profile of this array : the values the array operations store are rounded to this precision.
+	 * The values that are already stored are not rounded.
+	 * @param precision the precision profile
+	 * @return the current array
+	 * @throws IllegalArgumentException if precision is null
+	 */
+	public DecimalArray precision(Precision precision) {
+		if (precision == null) {
+			throw new IllegalArgumentException("Decimal array precision cannot be null");
+		}
+		this.precision = precision;
+		return this;
+	}
+
 	@Override
 	public TYPE getType() {
 		return TYPE.DECIMAL;
@@ -39,139 +91,398 @@ public class DecimalArray implements NumericArray {
 
 	@Override
 	public int length() {
-		return this.array.length;
+		return this.length;
+	}
+
+	/**
+	 * Get the backing buffer. This array values are in [{@link #offset()}, {@link #offset()} + {@link #length()}[.
+	 * @return {@link #array}, not a copy
+	 */
+	public BigDecimal[] buffer() {
+		return this.array;
+	}
+
+	/**
+	 * Get the index in {@link #buffer()} of the first value of this array.
+	 * @return {@link #offset}
+	 */
+	public int offset() {
+		return this.offset;
 	}
 
 	@Override
 	public DecimalArray zero() {
-		IntStream.range(0, this.array.length).forEach(index -> this.array[index] = BigDecimal.ZERO);
+		Arrays.fill(this.array, this.offset, this.offset + this.length, BigDecimal.ZERO);
 		return this;
 	}
-	
+
 	@Override
 	public DecimalArray copy() {
-		return new DecimalArray(Arrays.copyOf(this.array, this.array.length));
+		return new DecimalArray(Arrays.copyOfRange(this.array, this.offset, this.offset + this.length)).precision(this.precision);
 	}
 
 	@Override
 	public DecimalArray oneHot(int index) {
 		return (DecimalArray) this.operation(
-			(Operation<DecimalArray>) (array, i) -> array.array[i] = index == i ? BigDecimal.ONE : BigDecimal.ZERO
+			(Operation<DecimalArray>) (array, i) ->
+				array.array[array.offset + i] = index == i ? BigDecimal.ONE : BigDecimal.ZERO
 		);
 	}
-	
+
 	@Override
-	public int topIndex() {
-		return this.indexStream().boxed().max(Comparator.comparing(index -> this.array[index])).orElse(-1);
+	public BigDecimal at(int index) {
+		return this.array[this.offset + index];
 	}
 
 	@Override
-	public BigDecimal at(int index) {
-		return this.array[index];
+	public double doubleAt(int index) {
+		return this.array[this.offset + index].doubleValue();
 	}
 
 	@Override
 	public void at(int i, Number value) {
-		this.array[i] = NumberUtils.convertNumberToTargetClass(value, BigDecimal.class);
+		this.array[this.offset + i] = this.precision.round(Converter.toDecimal(value));
+	}
+
+	@Override
+	public DecimalArray set(NumericArray from) {
+		this.lengthCheck(from);
+		System.arraycopy(buffer(from), offset(from), this.array, this.offset, this.length);
+		if (! this.precision.isExact()) {
+			for (int i = this.offset; i < this.offset + this.length; i++) {
+				this.array[i] = this.precision.round(this.array[i]);
+			}
+		}
+		return this;
 	}
 
 	@Override
 	public void sum(NumericArray with) {
-		BigDecimal[] others = with.decimals();
-		IntStream.range(0, this.array.length).forEach(i -> this.array[i] = this.array[i].add(others[i]));
+		this.lengthCheck(with);
+		BigDecimal[] others = buffer(with);
+		int from = offset(with);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] = this.precision.round(this.array[this.offset + i].add(others[from + i]));
+			}
+		});
 	}
 
 	@Override
 	public void sub(NumericArray with) {
-		BigDecimal[] others = with.decimals();
-		IntStream.range(0, this.array.length).forEach(i -> this.array[i] = this.array[i].subtract(others[i]));
+		this.lengthCheck(with);
+		BigDecimal[] others = buffer(with);
+		int from = offset(with);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] = this.precision.round(this.array[this.offset + i].subtract(others[from + i]));
+			}
+		});
 	}
 
 	@Override
 	public void mul(NumericArray with) {
-		BigDecimal[] others = with.decimals();
-		IntStream.range(0, this.array.length).forEach(i -> this.array[i] = this.array[i].multiply(others[i]));
+		this.lengthCheck(with);
+		BigDecimal[] others = buffer(with);
+		int from = offset(with);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] = this.precision.round(this.array[this.offset + i].multiply(others[from + i]));
+			}
+		});
 	}
 
 	@Override
 	public void div(NumericArray with) {
-		BigDecimal[] others = with.decimals();
-		IntStream.range(0, this.array.length).forEach(
-			i -> this.array[i] = this.array[i].divide(others[i], this.roundingMode)
-		);
+		this.lengthCheck(with);
+		BigDecimal[] others = buffer(with);
+		int from = offset(with);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] = this.divide(this.array[this.offset + i], others[from + i]);
+			}
+		});
+	}
+
+	/**
+	 * Normalize every value into the [0, 1] segment, dividing in the {@link #precision} math context.
+	 * An exact array divides at the scale of the values, with the {@link #roundingMode}.
+	 * @param min the values min bound inclusive
+	 * @param max the values max bound inclusive
+	 */
+	@Override
+	public void normalize(Number min, Number max) {
+		BigDecimal decimalMin = Converter.toDecimal(min);
+		BigDecimal decimalRange = Converter.toDecimal(max).subtract(decimalMin);
+		this.parallelOperation((array, i) -> this.at(i, this.divide(this.at(i).subtract(decimalMin), decimalRange)));
+	}
+
+	@Override
+	public void sum(NumericArray with, NumericArray into) {
+		this.lengthCheck(with);
+		this.lengthCheck(into);
+		BigDecimal[] others = buffer(with);
+		int from = offset(with);
+		DecimalArray out = this.into(into);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				out.array[out.offset + i] = out.precision.round(this.array[this.offset + i].add(others[from + i]));
+			}
+		});
+		if (out != into) {
+			into.set(out);
+		}
+	}
+
+	@Override
+	public void sub(NumericArray with, NumericArray into) {
+		this.lengthCheck(with);
+		this.lengthCheck(into);
+		BigDecimal[] others = buffer(with);
+		int from = offset(with);
+		DecimalArray out = this.into(into);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				out.array[out.offset + i] = out.precision.round(this.array[this.offset + i].subtract(others[from + i]));
+			}
+		});
+		if (out != into) {
+			into.set(out);
+		}
+	}
+
+	@Override
+	public void mul(NumericArray with, NumericArray into) {
+		this.lengthCheck(with);
+		this.lengthCheck(into);
+		BigDecimal[] others = buffer(with);
+		int from = offset(with);
+		DecimalArray out = this.into(into);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				out.array[out.offset + i] = out.precision.round(this.array[this.offset + i].multiply(others[from + i]));
+			}
+		});
+		if (out != into) {
+			into.set(out);
+		}
+	}
+
+	@Override
+	public void div(NumericArray with, NumericArray into) {
+		this.lengthCheck(with);
+		this.lengthCheck(into);
+		BigDecimal[] others = buffer(with);
+		int from = offset(with);
+		DecimalArray out = this.into(into);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				out.array[out.offset + i] = out.divide(this.array[this.offset + i], others[from + i]);
+			}
+		});
+		if (out != into) {
+			into.set(out);
+		}
+	}
+
+	@Override
+	public void axpy(float alpha, NumericArray x) {
+		this.lengthCheck(x);
+		BigDecimal[] others = buffer(x);
+		int from = offset(x);
+		BigDecimal factor = BigDecimal.valueOf(alpha);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] = this.precision.round(this.array[this.offset + i].add(factor.multiply(others[from + i])));
+			}
+		});
+	}
+
+	@Override
+	public void scaleAndSum(float scale, NumericArray x) {
+		this.lengthCheck(x);
+		BigDecimal[] others = buffer(x);
+		int from = offset(x);
+		BigDecimal factor = BigDecimal.valueOf(scale);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] = this.precision.round(factor.multiply(this.array[this.offset + i]).add(others[from + i]));
+			}
+		});
 	}
 
 	@Override
 	public void mul(float with) {
-		this.indexStream().forEach(i -> this.array[i] = this.array[i].multiply(BigDecimal.valueOf(with)));
+		this.mul(BigDecimal.valueOf(with));
 	}
 
 	@Override
 	public void mul(double with) {
-		this.indexStream().forEach(i -> this.array[i] = this.array[i].multiply(BigDecimal.valueOf(with)));
+		this.mul(BigDecimal.valueOf(with));
 	}
 
 	@Override
 	public void mul(BigDecimal with) {
-		this.indexStream().forEach(i -> this.array[i] = this.array[i].multiply(with));
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = this.offset + start; i < this.offset + end; i++) {
+				this.array[i] = this.precision.round(this.array[i].multiply(with));
+			}
+		});
 	}
 
 	@Override
 	public Number sum() {
-		return this.indexStream().mapToObj(i -> this.array[i]).reduce(BigDecimal.ZERO, BigDecimal::add);
+		BigDecimal sum = BigDecimal.ZERO;
+		for (int i = 0; i < this.length; i++) {
+			sum = sum.add(this.array[this.offset + i]);
+		}
+		return sum;
+	}
+
+	@Override
+	public int argmax() {
+		int top = -1;
+		BigDecimal max = null;
+		for (int i = 0; i < this.length; i++) {
+			BigDecimal value = this.array[this.offset + i];
+			if (top == -1 || value.compareTo(max) > 0) {
+				top = i;
+				max = value;
+			}
+		}
+		return top;
+	}
+
+	@Override
+	public int argmin() {
+		int bottom = -1;
+		BigDecimal min = null;
+		for (int i = 0; i < this.length; i++) {
+			BigDecimal value = this.array[this.offset + i];
+			if (bottom == -1 || value.compareTo(min) < 0) {
+				bottom = i;
+				min = value;
+			}
+		}
+		return bottom;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <br>
+	 * The values are converted to double : use {@link #sum()} for an exact sum.
+	 */
+	@Override
+	public double reduce(Summation summation, Summation.Term term, double shift) {
+		return summation.sum(this::doubleAt, this.length, term, shift);
 	}
 
 	@Override
 	public Number linearCombination(NumericArray with) {
-		return linearCombination(this.array, with.decimals());
+		return this.linearCombinationToDecimal(with);
 	}
 
 	@Override
 	public float linearCombinationToFloat(NumericArray with) {
-		return linearCombination(this.array, with.decimals()).floatValue();
+		return this.linearCombinationToDecimal(with).floatValue();
 	}
 
 	@Override
 	public double linearCombinationToDouble(NumericArray with) {
-		return linearCombination(this.array, with.decimals()).doubleValue();
+		return this.linearCombinationToDecimal(with).doubleValue();
 	}
 
 	@Override
 	public BigDecimal linearCombinationToDecimal(NumericArray with) {
-		return linearCombination(this.array, with.decimals());
+		if (this.length != with.length()) {
+			throw new IllegalArgumentException(
+				"Input size [" + this.length + "] does not match column size [" + with.length() + "]"
+			);
+		}
+		return linearCombination(this.array, this.offset, buffer(with), offset(with), this.length);
 	}
 
 	@Override
 	public float[] floats() {
-		return Floats.toArray(Doubles.asList(Arrays.stream(this.array).mapToDouble(BigDecimal::doubleValue).toArray()));
+		return Floats.toArray(Doubles.asList(this.doubles()));
 	}
 
 	@Override
 	public double[] doubles() {
-		return Arrays.stream(this.array).mapToDouble(BigDecimal::doubleValue).toArray();
+		return Arrays.stream(this.array, this.offset, this.offset + this.length).mapToDouble(BigDecimal::doubleValue).toArray();
 	}
 
+	/**
+	 * Get the array values as BigDecimals.
+	 * <br>
+	 * If this array is a view over a region of a bigger buffer, the values are copied.
+	 * @return the backing array if this array owns its whole buffer, a copy of the values else.
+	 */
 	@Override
 	public BigDecimal[] decimals() {
-		return this.array;
+		if (this.offset == 0 && this.length == this.array.length) {
+			return this.array;
+		}
+		return Arrays.copyOfRange(this.array, this.offset, this.offset + this.length);
+	}
+
+	/**
+	 * Get the array an operation result should be written to, so that the result loop is a plain buffer loop.
+	 * @param into the destination array
+	 * @return the destination array if it is a decimal array (or a view), a new temporary array else
+	 */
+	private DecimalArray into(NumericArray into) {
+		return into instanceof DecimalArray ? (DecimalArray) into : new DecimalArray(this.length).precision(this.precision);
+	}
+
+	/**
+	 * Divide two values : in the {@link #precision} math context, or with the {@link #roundingMode} if it is exact.
+	 * @param a the dividend
+	 * @param b the divisor
+	 * @return a / b
+	 */
+	private BigDecimal divide(BigDecimal a, BigDecimal b) {
+		return this.precision.isExact() ? a.divide(b, this.roundingMode) : a.divide(b, this.precision.mathContext());
+	}
+
+	/**
+	 * Get the BigDecimal buffer of an array, without any copy if it is a decimal array (or a view).
+	 * @param array the array
+	 * @return the array buffer, or {@link NumericArray#decimals()} if this is not a decimal array
+	 */
+	private static BigDecimal[] buffer(NumericArray array) {
+		return array instanceof DecimalArray ? ((DecimalArray) array).array : array.decimals();
 	}
-	
+
 	/**
-	 * Simple linear combination between an input vector and a column. <br>
+	 * Get the offset of an array values in the buffer returned by {@link #buffer(NumericArray)}.
+	 * @param array the array
+	 * @return the array offset, or 0 if this is not a decimal array
+	 */
+	private static int offset(NumericArray array) {
+		return array instanceof DecimalArray ? ((DecimalArray) array).offset : 0;
+	}
+
+	/**
+	 * Simple linear combination between an input vector and a column, both given as (buffer, offset). <br>
 	 * Sizes must match !
-	 * @param input the input vector
+	 * @param input       the input vector buffer
+	 * @param inputOffset the input vector offset in its buffer
+	 * @param column      the column buffer
+	 * @param colOffset   the column offset in its buffer
+	 * @param length      the number of values to combine
 	 * @return the linear combination between an input and a column.
 	 */
-	private static BigDecimal linearCombination(BigDecimal[] input, BigDecimal[] column){
-		if(input.length != column.length){
-			throw new IllegalArgumentException(
-				"Input size [" + input.length + "] does not match column size [" + column.length + "]"
-			);
-		}
+	private static BigDecimal linearCombination(
+		BigDecimal[] input,
+		int inputOffset,
+		BigDecimal[] column,
+		int colOffset,
+		int length){
 		BigDecimal out = new BigDecimal(0);
-		for (int i = 0; i < input.length; i++) {
+		for (int i = 0; i < length; i++) {
 			try {
-				out = out.add(input[i].multiply(column[i]));
+				out = out.add(input[inputOffset + i].multiply(column[colOffset + i]));
 			} catch (RuntimeException e) {
 				e.printStackTrace();
 			}
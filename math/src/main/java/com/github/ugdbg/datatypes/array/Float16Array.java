@@ -0,0 +1,443 @@
+package com.github.ugdbg.datatypes.array;
+
+import com.github.ugdbg.datatypes.Converter;
+import com.github.ugdbg.datatypes.Float16;
+import com.github.ugdbg.datatypes.Parallelism;
+import com.github.ugdbg.datatypes.Summation;
+import com.github.ugdbg.datatypes.TYPE;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * A numeric array implementation using 16 bits floats stored as shorts, i.e. {@link TYPE#HALF} or {@link TYPE#BFLOAT16}.
+ * <br><br>
+ * The array can either own its buffer or be a view over a region of a bigger buffer (e.g. a matrix line).
+ * The value at index i is stored at {@link #buffer()}[{@link #offset()} + i], encoded with {@link #format()}.
+ * <br>
+ * Arithmetic is done using primitive floats, as for {@link PrimitiveFloatArray} :
+ * values are decoded, computed and the result is rounded to 16 bits when it is stored.
+ */
+public class Float16Array implements NumericArray {
+	private final Float16 format;
+	private final short[] array;
+	private final int offset;
+	private final int length;
+
+	public Float16Array(Float16 format, int length) {
+		this(format, new short[length], 0, length);
+	}
+
+	public Float16Array(Float16 format, float[] values) {
+		this(format, values.length);
+		for (int i = 0; i < values.length; i++) {
+			this.array[i] = format.encode(values[i]);
+		}
+	}
+
+	/**
+	 * Create a view over a region of a buffer. Nothing is copied : any write is visible in the source buffer.
+	 * @param format the 16 bits encoding of the buffer values
+	 * @param buffer the source buffer
+	 * @param offset the index in the buffer of the first value of this array
+	 * @param length the array length
+	 */
+	public Float16Array(Float16 format, short[] buffer, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > buffer.length) {
+			throw new IllegalArgumentException(
+				"Bad view [" + offset + ", " + (offset + length) + "[ over a buffer of length [" + buffer.length + "]"
+			);
+		}
+		this.format = format;
+		this.array = buffer;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	@Override
+	public TYPE getType() {
+		return this.format.type();
+	}
+
+	@Override
+	public int length() {
+		return this.length;
+	}
+
+	/**
+	 * Get the 16 bits encoding of this array values.
+	 * @return {@link #format}
+	 */
+	public Float16 format() {
+		return this.format;
+	}
+
+	/**
+	 * Get the backing buffer. This array values are in [{@link #offset()}, {@link #offset()} + {@link #length()}[.
+	 * @return {@link #array}, not a copy
+	 */
+	public short[] buffer() {
+		return this.array;
+	}
+
+	/**
+	 * Get the index in {@link #buffer()} of the first value of this array.
+	 * @return {@link #offset}
+	 */
+	public int offset() {
+		return this.offset;
+	}
+
+	@Override
+	public Float16Array zero() {
+		Arrays.fill(this.array, this.offset, this.offset + this.length, (short) 0);
+		return this;
+	}
+
+	@Override
+	public Float16Array copy() {
+		return new Float16Array(this.format, Arrays.copyOfRange(this.array, this.offset, this.offset + this.length), 0, this.length);
+	}
+
+	@Override
+	public Float16Array oneHot(int index) {
+		short one = this.format.encode(1);
+		for (int i = 0; i < this.length; i++) {
+			this.array[this.offset + i] = index == i ? one : 0;
+		}
+		return this;
+	}
+
+	@Override
+	public Float at(int index) {
+		return this.floatAt(index);
+	}
+
+	@Override
+	public double doubleAt(int index) {
+		return this.floatAt(index);
+	}
+
+	/**
+	 * Get a value as a primitive float. Nothing is allocated.
+	 * @param index the value index
+	 * @return the decoded value at the given index
+	 */
+	public float floatAt(int index) {
+		return this.format.decode(this.array[this.offset + index]);
+	}
+
+	@Override
+	public void at(int i, Number value) {
+		this.array[this.offset + i] = this.format.encode(Converter.toFloat(value));
+	}
+
+	/**
+	 * Copy the values of an other array into the current array. Lengths should match !
+	 * <br>
+	 * The 16 bits values of an array with the same encoding are copied as is. Any other value is rounded.
+	 * @param from the array to copy
+	 * @return the current array instance
+	 */
+	@Override
+	public Float16Array set(NumericArray from) {
+		this.lengthCheck(from);
+		if (from instanceof Float16Array && ((Float16Array) from).format == this.format) {
+			Float16Array other = (Float16Array) from;
+			System.arraycopy(other.array, other.offset, this.array, this.offset, this.length);
+			return this;
+		}
+		Values others = values(from);
+		for (int i = 0; i < this.length; i++) {
+			this.array[this.offset + i] = this.format.encode(others.at(i));
+		}
+		return this;
+	}
+
+	@Override
+	public void sum(NumericArray with) {
+		this.sum(with, this);
+	}
+
+	@Override
+	public void sub(NumericArray with) {
+		this.sub(with, this);
+	}
+
+	@Override
+	public void mul(NumericArray with) {
+		this.mul(with, this);
+	}
+
+	@Override
+	public void div(NumericArray with) {
+		this.div(with, this);
+	}
+
+	@Override
+	public void sum(NumericArray with, NumericArray into) {
+		this.lengthCheck(with);
+		this.lengthCheck(into);
+		Values others = values(with);
+		this.into(into, i -> this.floatAt(i) + others.at(i));
+	}
+
+	@Override
+	public void sub(NumericArray with, NumericArray into) {
+		this.lengthCheck(with);
+		this.lengthCheck(into);
+		Values others = values(with);
+		this.into(into, i -> this.floatAt(i) - others.at(i));
+	}
+
+	@Override
+	public void mul(NumericArray with, NumericArray into) {
+		this.lengthCheck(with);
+		this.lengthCheck(into);
+		Values others = values(with);
+		this.into(into, i -> this.floatAt(i) * others.at(i));
+	}
+
+	@Override
+	public void div(NumericArray with, NumericArray into) {
+		this.lengthCheck(with);
+		this.lengthCheck(into);
+		Values others = values(with);
+		this.into(into, i -> this.floatAt(i) / others.at(i));
+	}
+
+	@Override
+	public void axpy(float alpha, NumericArray x) {
+		this.lengthCheck(x);
+		Values others = values(x);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] = this.format.encode(this.floatAt(i) + alpha * others.at(i));
+			}
+		});
+	}
+
+	@Override
+	public void scaleAndSum(float scale, NumericArray x) {
+		this.lengthCheck(x);
+		Values others = values(x);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] = this.format.encode(scale * this.floatAt(i) + others.at(i));
+			}
+		});
+	}
+
+	@Override
+	public void mul(float with) {
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] = this.format.encode(this.floatAt(i) * with);
+			}
+		});
+	}
+
+	@Override
+	public void mul(double with) {
+		this.mul((float) with);
+	}
+
+	@Override
+	public void mul(BigDecimal with) {
+		this.mul(with.floatValue());
+	}
+
+	@Override
+	public Number sum() {
+		return (float) this.sumToDouble();
+	}
+
+	@Override
+	public int argmax() {
+		int top = -1;
+		float max = 0;
+		for (int i = 0; i < this.length; i++) {
+			float value = this.floatAt(i);
+			if (top == -1 || value > max) {
+				top = i;
+				max = value;
+			}
+		}
+		return top;
+	}
+
+	@Override
+	public int argmin() {
+		int bottom = -1;
+		float min = 0;
+		for (int i = 0; i < this.length; i++) {
+			float value = this.floatAt(i);
+			if (bottom == -1 || value < min) {
+				bottom = i;
+				min = value;
+			}
+		}
+		return bottom;
+	}
+
+	@Override
+	public double reduce(Summation summation, Summation.Term term, double shift) {
+		return summation.sum(this::doubleAt, this.length, term, shift);
+	}
+
+	@Override
+	public Number linearCombination(NumericArray with) {
+		return this.linearCombinationToFloat(with);
+	}
+
+	/**
+	 * Linear combination with an other array, accumulated in a float.
+	 * Nothing is allocated if the other array is a primitive float or a 16 bits array (or a view).
+	 * @param with the other array. Lengths should match !
+	 * @return Σ this[i] * with[i]
+	 */
+	@Override
+	public float linearCombinationToFloat(NumericArray with) {
+		if (this.length != with.length()) {
+			throw new IllegalArgumentException(
+				"Input size [" + this.length + "] does not match column size [" + with.length() + "]"
+			);
+		}
+		if (with instanceof PrimitiveFloatArray) {
+			PrimitiveFloatArray floats = (PrimitiveFloatArray) with;
+			return linearCombination(this.format, this.array, this.offset, floats.buffer(), floats.offset(), this.length);
+		}
+		Values others = values(with);
+		float out = 0;
+		for (int i = 0; i < this.length; i++) {
+			out += this.floatAt(i) * others.at(i);
+		}
+		return out;
+	}
+
+	@Override
+	public double linearCombinationToDouble(NumericArray with) {
+		return this.linearCombinationToFloat(with);
+	}
+
+	@Override
+	public BigDecimal linearCombinationToDecimal(NumericArray with) {
+		return new BigDecimal(this.linearCombinationToFloat(with));
+	}
+
+	/**
+	 * Get the array values as primitive floats.
+	 * @return a new array : the values are always decoded.
+	 */
+	@Override
+	public float[] floats() {
+		float[] floats = new float[this.length];
+		for (int i = 0; i < this.length; i++) {
+			floats[i] = this.floatAt(i);
+		}
+		return floats;
+	}
+
+	@Override
+	public double[] doubles() {
+		double[] doubles = new double[this.length];
+		for (int i = 0; i < this.length; i++) {
+			doubles[i] = this.floatAt(i);
+		}
+		return doubles;
+	}
+
+	@Override
+	public BigDecimal[] decimals() {
+		BigDecimal[] decimals = new BigDecimal[this.length];
+		for (int i = 0; i < this.length; i++) {
+			decimals[i] = new BigDecimal(this.floatAt(i));
+		}
+		return decimals;
+	}
+
+	/**
+	 * Linear combination of 16 bits values with floats, both given as (buffer, offset). <br>
+	 * The 16 bits values are decoded on the fly and accumulated in a float. Sizes must match !
+	 * @param format       the 16 bits encoding of the values
+	 * @param values       the 16 bits values buffer
+	 * @param valuesOffset the 16 bits values offset in their buffer
+	 * @param floats       the float buffer
+	 * @param floatsOffset the floats offset in their buffer
+	 * @param length       the number of values to combine
+	 * @return Σ values[i] * floats[i]
+	 */
+	public static float linearCombination(
+		Float16 format,
+		short[] values,
+		int valuesOffset,
+		float[] floats,
+		int floatsOffset,
+		int length) {
+
+		float out = 0;
+		for (int i = 0; i < length; i++) {
+			out += format.decode(values[valuesOffset + i]) * floats[floatsOffset + i];
+		}
+		return out;
+	}
+
+	/**
+	 * Write the float result of an operation into the destination array, at the destination precision.
+	 * <br>
+	 * 16 bits, primitive float and double arrays (or views) are written in their buffer : nothing is allocated.
+	 * The result is only rounded to 16 bits if the destination is a 16 bits array. Else, see {@link NumericArray#at(int, Number)}.
+	 * @param into   the destination array
+	 * @param result the result of the operation
+	 */
+	private void into(NumericArray into, Values result) {
+		if (into instanceof Float16Array) {
+			Float16Array out = (Float16Array) into;
+			Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+				for (int i = start; i < end; i++) {
+					out.array[out.offset + i] = out.format.encode(result.at(i));
+				}
+			});
+		} else if (into instanceof PrimitiveFloatArray) {
+			float[] out = ((PrimitiveFloatArray) into).buffer();
+			int to = ((PrimitiveFloatArray) into).offset();
+			Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+				for (int i = start; i < end; i++) {
+					out[to + i] = result.at(i);
+				}
+			});
+		} else if (into instanceof PrimitiveDoubleArray) {
+			double[] out = ((PrimitiveDoubleArray) into).buffer();
+			int to = ((PrimitiveDoubleArray) into).offset();
+			Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+				for (int i = start; i < end; i++) {
+					out[to + i] = result.at(i);
+				}
+			});
+		} else {
+			for (int i = 0; i < this.length; i++) {
+				into.at(i, result.at(i));
+			}
+		}
+	}
+
+	/**
+	 * Read the values of an array as floats, without any copy if it is a primitive float or a 16 bits array (or a view).
+	 * @param array the array
+	 * @return the float values of the array
+	 */
+	private static Values values(NumericArray array) {
+		if (array instanceof Float16Array) {
+			return ((Float16Array) array)::floatAt;
+		}
+		float[] floats = array instanceof PrimitiveFloatArray ? ((PrimitiveFloatArray) array).buffer() : array.floats();
+		int offset = array instanceof PrimitiveFloatArray ? ((PrimitiveFloatArray) array).offset() : 0;
+		return index -> floats[offset + index];
+	}
+
+	/** The float values of an operand, or of an operation result */
+	@FunctionalInterface
+	private interface Values {
+		float at(int index);
+	}
+}
@@ -1,6 +1,9 @@
 package com.github.ugdbg.datatypes.array;
 
 import com.github.ugdbg.NumberUtils;
+import com.github.ugdbg.datatypes.Converter;
+import com.github.ugdbg.datatypes.Parallelism;
+import com.github.ugdbg.datatypes.Summation;
 import com.github.ugdbg.datatypes.TYPE;
 
 import java.io.Serializable;
@@ -20,35 +23,222 @@ public interface NumericArray extends Serializable {
 	
 	NumericArray oneHot(int index);
 	
-	int topIndex();
+	/**
+	 * Find the index of the highest value. See {@link #argmax()}.
+	 * @return the index of the first highest value, -1 if the array is empty
+	 */
+	default int topIndex() {
+		return this.argmax();
+	}
 	
 	Number at(int index);
 	
+	/**
+	 * Get a value as a primitive double. Nothing is allocated for the primitive types.
+	 * @param index the value index
+	 * @return the value at the given index
+	 */
+	double doubleAt(int index);
+	
 	void at(int i, Number value);
 	
+	/**
+	 * Copy the values of an other array into the current array. Lengths should match !
+	 * @param from the array to copy
+	 * @return the current array instance
+	 */
+	NumericArray set(NumericArray from);
+	
+	/**
+	 * Copy the current array into a new array of an other numeric type, e.g. floats to {@link TYPE#HALF} and back.
+	 * <br>
+	 * Values are rounded to the target type if required (see {@link #set(NumericArray)}).
+	 * @param type the numeric type of the copy
+	 * @return a new array of the given type, with the current array values
+	 */
+	default NumericArray convert(TYPE type) {
+		return type.array(this.length()).set(this);
+	}
+	
 	void sum(NumericArray with);
 	void sub(NumericArray with);
 	void mul(NumericArray with);
 	void div(NumericArray with);
 	
+	/**
+	 * Element-wise operations into a destination array : into = this [op] with. Lengths should match !
+	 * <br>
+	 * The destination can be the current array or 'with' : the operations are then done in place.
+	 * Nothing is allocated if the destination has the current array type.
+	 * @param with the right operand
+	 * @param into the destination array
+	 */
+	void sum(NumericArray with, NumericArray into);
+	void sub(NumericArray with, NumericArray into);
+	void mul(NumericArray with, NumericArray into);
+	void div(NumericArray with, NumericArray into);
+	
+	/**
+	 * Fused scaled sum, in place : this = this + alpha * x. Lengths should match !
+	 * @param alpha the scale factor of x
+	 * @param x     the array to scale and add
+	 */
+	void axpy(float alpha, NumericArray x);
+	
+	/**
+	 * Fused scale and sum, in place : this = scale * this + x. Lengths should match !
+	 * @param scale the scale factor of the current array
+	 * @param x     the array to add
+	 */
+	void scaleAndSum(float scale, NumericArray x);
+	
 	void mul(float with);
 	void mul(double with);
 	void mul(BigDecimal with);
 	
 	Number sum();
 	
+	/**
+	 * Find the index of the highest value.
+	 * @return the index of the first highest value, -1 if the array is empty
+	 */
+	int argmax();
+	
+	/**
+	 * Find the index of the lowest value.
+	 * @return the index of the first lowest value, -1 if the array is empty
+	 */
+	int argmin();
+	
+	/**
+	 * Reduce the values : Σ term(xᵢ - shift), in double precision. Nothing is allocated for the primitive types.
+	 * @param summation the summation algorithm
+	 * @param term      the summed term of every value
+	 * @param shift     the shift of every value
+	 * @return the reduced value. 0 if the array is empty.
+	 */
+	double reduce(Summation summation, Summation.Term term, double shift);
+	
+	/**
+	 * The highest value.
+	 * @return the highest value, NaN if the array is empty
+	 */
+	default double max() {
+		return this.length() == 0 ? Double.NaN : this.doubleAt(this.argmax());
+	}
+	
+	/**
+	 * The lowest value.
+	 * @return the lowest value, NaN if the array is empty
+	 */
+	default double min() {
+		return this.length() == 0 ? Double.NaN : this.doubleAt(this.argmin());
+	}
+	
+	/**
+	 * Sum the values in double precision, using {@link Summation#PAIRWISE} summation.
+	 * @return Σ xᵢ
+	 */
+	default double sumToDouble() {
+		return this.sumToDouble(Summation.PAIRWISE);
+	}
+	
+	/**
+	 * Sum the values in double precision.
+	 * @param summation the summation algorithm
+	 * @return Σ xᵢ
+	 */
+	default double sumToDouble(Summation summation) {
+		return this.reduce(summation, Summation.Term.VALUE, 0);
+	}
+	
+	/**
+	 * Sum the squared values, using {@link Summation#PAIRWISE} summation.
+	 * @return Σ xᵢ²
+	 */
+	default double sumOfSquares() {
+		return this.reduce(Summation.PAIRWISE, Summation.Term.SQUARE, 0);
+	}
+	
+	/**
+	 * The L1 norm, using {@link Summation#PAIRWISE} summation.
+	 * @return Σ |xᵢ|
+	 */
+	default double norm1() {
+		return this.reduce(Summation.PAIRWISE, Summation.Term.ABS, 0);
+	}
+	
+	/**
+	 * The L2 (euclidean) norm, using {@link Summation#PAIRWISE} summation.
+	 * @return √(Σ xᵢ²)
+	 */
+	default double norm2() {
+		return Math.sqrt(this.sumOfSquares());
+	}
+	
+	/**
+	 * The mean value, using {@link Summation#PAIRWISE} summation.
+	 * @return Σ xᵢ / n, NaN if the array is empty
+	 */
+	default double mean() {
+		return this.length() == 0 ? Double.NaN : this.sumToDouble() / this.length();
+	}
+	
+	/**
+	 * The (population) variance, using {@link Summation#PAIRWISE} summation.
+	 * <br>
+	 * Computed in 2 passes : the mean, then the sum of the squared deviations from the mean.
+	 * @return Σ (xᵢ - mean)² / n, NaN if the array is empty
+	 */
+	default double variance() {
+		double mean = this.mean();
+		return this.length() == 0 ? Double.NaN : this.reduce(Summation.PAIRWISE, Summation.Term.SQUARE, mean) / this.length();
+	}
+	
 	Number linearCombination(NumericArray with);
 	
 	float linearCombinationToFloat(NumericArray with);
 	double linearCombinationToDouble(NumericArray with);
 	BigDecimal linearCombinationToDecimal(NumericArray with);
 	
+	/**
+	 * Get the array values as primitive floats.
+	 * <br>
+	 * The result may be the live backing buffer : a {@link PrimitiveFloatArray} that owns its whole buffer
+	 * (offset 0, same length) returns it without any copy, so writes to it are writes to this array, and back.
+	 * A view over a region of a bigger buffer, or an other type, returns a new array.
+	 * Copy the result to get a snapshot, use {@link #at(int, Number)} or {@link #set(NumericArray)} to write.
+	 * @return the array values, live or copied
+	 */
 	float[] floats();
+
+	/**
+	 * Get the array values as primitive doubles. Same contract as {@link #floats()} :
+	 * the live backing buffer of a {@link PrimitiveDoubleArray} that owns its whole buffer, a new array else.
+	 * @return the array values, live or copied
+	 */
 	double[] doubles();
+
+	/**
+	 * Get the array values as BigDecimals. Same contract as {@link #floats()} :
+	 * the live backing buffer of a {@link DecimalArray} that owns its whole buffer, a new array else.
+	 * @return the array values, live or copied
+	 */
 	BigDecimal[] decimals();
 	
+	/**
+	 * Normalize every value (cross multiplication) into the [0, 1] segment. See {@link NumberUtils#normalize(Number, Number, Number)}.
+	 * <br>
+	 * Values are normalized in double precision (see {@link Converter}). 
+	 * {@link DecimalArray} normalizes as BigDecimal, in its {@link DecimalArray#precision()}.
+	 * Large arrays are normalized in parallel, see {@link #parallelOperation(Operation)}.
+	 * @param min the values min bound inclusive
+	 * @param max the values max bound inclusive
+	 */
 	default void normalize(Number min, Number max) {
-		this.operation((vector, i) -> this.at(i, NumberUtils.normalize(this.at(i), min, max)));
+		double doubleMin = Converter.toDouble(min);
+		double doubleRange = Converter.toDouble(max) - doubleMin;
+		this.parallelOperation((vector, i) -> this.at(i, (Converter.toDouble(this.at(i)) - doubleMin) / doubleRange));
 	}
 	
 	default List<Number> asList() {
@@ -70,4 +260,37 @@ public interface NumericArray extends Serializable {
 		}
 		return this;
 	}
+	
+	/**
+	 * Execute an operation on every value, in parallel chunks if the array is large enough (see {@link Parallelism#global()}).
+	 * <br>
+	 * The values are not visited in order : the operation must be thread-safe and only write the value at its index.
+	 * Use {@link #operation(Operation)} else.
+	 * @param operation the operation to execute
+	 * @return the current array instance
+	 */
+	@SuppressWarnings("unchecked")
+	default NumericArray parallelOperation(Operation operation) {
+		Parallelism.global().forRange(this.length(), this.getType(), (start, end) -> {
+			for (int index = start; index < end; index++) {
+				operation.apply(this, index);
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * Check that an other array has the same length as the current array instance.
+	 * <br>
+	 * An operand can be a view over a bigger buffer : a shorter one would silently read the neighbour values.
+	 * @param other the other array, i.e. an operand or a destination
+	 * @throws IllegalArgumentException if the lengths do not match
+	 */
+	default void lengthCheck(NumericArray other) {
+		if (this.length() != other.length()) {
+			throw new IllegalArgumentException(
+				"Input size [" + other.length() + "] does not match array size [" + this.length() + "]"
+			);
+		}
+	}
 }
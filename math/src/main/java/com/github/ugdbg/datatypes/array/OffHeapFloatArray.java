@@ -0,0 +1,476 @@
+package com.github.ugdbg.datatypes.array;
+
+import com.github.ugdbg.datatypes.Converter;
+import com.github.ugdbg.datatypes.DirectMemory;
+import com.github.ugdbg.datatypes.Parallelism;
+import com.github.ugdbg.datatypes.Releasable;
+import com.github.ugdbg.datatypes.Summation;
+import com.github.ugdbg.datatypes.TYPE;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * A numeric array implementation using floats stored off-heap in a direct buffer, i.e. {@link TYPE#OFFHEAP_FLOAT}.
+ * <br><br>
+ * The array can either own its memory or be a view over a region of a bigger buffer (e.g. a matrix line).
+ * The value at index i is stored at {@link #buffer()}[{@link #offset()} + i].
+ * <br>
+ * The memory is freed by {@link #release()} or when the array is garbage collected. See {@link Releasable}.
+ * <br>
+ * Arithmetic is done using primitive floats, as for {@link PrimitiveFloatArray}.
+ */
+public class OffHeapFloatArray implements NumericArray, Releasable {
+
+	/** The direct memory this array owns. Null for a view. */
+	private transient ByteBuffer memory;
+	private transient FloatBuffer buffer;
+	private transient int offset;
+	private transient int length;
+
+	/** The owner of the memory, if this array is a view. Null if the array owns its memory. */
+	private transient Releasable owner;
+	private transient boolean released;
+
+	public OffHeapFloatArray(int length) {
+		this.allocate(length);
+	}
+
+	public OffHeapFloatArray(float[] values) {
+		this(values.length);
+		this.buffer().put(values, 0, values.length);
+	}
+
+	/**
+	 * Create a view over a region of a float buffer. Nothing is copied : any write is visible in the source buffer.
+	 * @param buffer the source buffer
+	 * @param offset the index in the buffer of the first value of this array
+	 * @param length the array length
+	 * @param owner  the owner of the buffer memory (that can release it). Can be null.
+	 */
+	public OffHeapFloatArray(FloatBuffer buffer, int offset, int length, Releasable owner) {
+		if (offset < 0 || length < 0 || offset + length > buffer.capacity()) {
+			throw new IllegalArgumentException(
+				"Bad view [" + offset + ", " + (offset + length) + "[ over a buffer of length [" + buffer.capacity() + "]"
+			);
+		}
+		this.buffer = buffer;
+		this.offset = offset;
+		this.length = length;
+		this.owner = owner;
+	}
+
+	@Override
+	public TYPE getType() {
+		return TYPE.OFFHEAP_FLOAT;
+	}
+
+	@Override
+	public int length() {
+		return this.length;
+	}
+
+	/**
+	 * Get the backing buffer. This array values are in [{@link #offset()}, {@link #offset()} + {@link #length()}[.
+	 * <br>
+	 * Every access to the values goes through this method : a view fails fast once its memory owner is released.
+	 * @return {@link #buffer}, not a copy
+	 * @throws IllegalStateException if the memory of this array was released
+	 */
+	public FloatBuffer buffer() {
+		if (this.isReleased()) {
+			throw new IllegalStateException("Off-heap array memory was released");
+		}
+		return this.buffer;
+	}
+
+	/**
+	 * Get the index in {@link #buffer()} of the first value of this array.
+	 * @return {@link #offset}
+	 */
+	public int offset() {
+		return this.offset;
+	}
+
+	@Override
+	public void release() {
+		if (this.owner == null && ! this.released) {
+			DirectMemory.free(this.memory);
+			this.memory = null;
+			this.buffer = null;
+			this.released = true;
+		}
+	}
+
+	@Override
+	public boolean isReleased() {
+		return this.owner == null ? this.released : this.owner.isReleased();
+	}
+
+	@Override
+	public OffHeapFloatArray zero() {
+		for (int i = this.offset; i < this.offset + this.length; i++) {
+			this.buffer().put(i, 0);
+		}
+		return this;
+	}
+
+	@Override
+	public OffHeapFloatArray copy() {
+		OffHeapFloatArray copy = new OffHeapFloatArray(this.length);
+		copy.set(this);
+		return copy;
+	}
+
+	@Override
+	public OffHeapFloatArray oneHot(int index) {
+		for (int i = 0; i < this.length; i++) {
+			this.buffer().put(this.offset + i, index == i ? 1 : 0);
+		}
+		return this;
+	}
+
+	@Override
+	public Float at(int index) {
+		return this.buffer().get(this.offset + index);
+	}
+
+	@Override
+	public double doubleAt(int index) {
+		return this.buffer().get(this.offset + index);
+	}
+
+	@Override
+	public void at(int i, Number value) {
+		this.buffer().put(this.offset + i, Converter.toFloat(value));
+	}
+
+	@Override
+	public OffHeapFloatArray set(NumericArray from) {
+		this.lengthCheck(from);
+		FloatBuffer others = buffer(from);
+		int start = offset(from);
+		for (int i = 0; i < this.length; i++) {
+			this.buffer().put(this.offset + i, others.get(start + i));
+		}
+		return this;
+	}
+
+	@Override
+	public void sum(NumericArray with) {
+		this.sum(with, this);
+	}
+
+	@Override
+	public void sub(NumericArray with) {
+		this.sub(with, this);
+	}
+
+	@Override
+	public void mul(NumericArray with) {
+		this.mul(with, this);
+	}
+
+	@Override
+	public void div(NumericArray with) {
+		this.div(with, this);
+	}
+
+	@Override
+	public void sum(NumericArray with, NumericArray into) {
+		this.lengthCheck(with);
+		this.lengthCheck(into);
+		FloatBuffer others = buffer(with);
+		int from = offset(with);
+		this.into(into, i -> this.buffer().get(this.offset + i) + others.get(from + i));
+	}
+
+	@Override
+	public void sub(NumericArray with, NumericArray into) {
+		this.lengthCheck(with);
+		this.lengthCheck(into);
+		FloatBuffer others = buffer(with);
+		int from = offset(with);
+		this.into(into, i -> this.buffer().get(this.offset + i) - others.get(from + i));
+	}
+
+	@Override
+	public void mul(NumericArray with, NumericArray into) {
+		this.lengthCheck(with);
+		this.lengthCheck(into);
+		FloatBuffer others = buffer(with);
+		int from = offset(with);
+		this.into(into, i -> this.buffer().get(this.offset + i) * others.get(from + i));
+	}
+
+	@Override
+	public void div(NumericArray with, NumericArray into) {
+		this.lengthCheck(with);
+		this.lengthCheck(into);
+		FloatBuffer others = buffer(with);
+		int from = offset(with);
+		this.into(into, i -> this.buffer().get(this.offset + i) / others.get(from + i));
+	}
+
+	@Override
+	public void axpy(float alpha, NumericArray x) {
+		this.lengthCheck(x);
+		FloatBuffer others = buffer(x);
+		int from = offset(x);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				int index = this.offset + i;
+				this.buffer().put(index, this.buffer().get(index) + alpha * others.get(from + i));
+			}
+		});
+	}
+
+	@Override
+	public void scaleAndSum(float scale, NumericArray x) {
+		this.lengthCheck(x);
+		FloatBuffer others = buffer(x);
+		int from = offset(x);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				int index = this.offset + i;
+				this.buffer().put(index, scale * this.buffer().get(index) + others.get(from + i));
+			}
+		});
+	}
+
+	@Override
+	public void mul(float with) {
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = this.offset + start; i < this.offset + end; i++) {
+				this.buffer().put(i, this.buffer().get(i) * with);
+			}
+		});
+	}
+
+	@Override
+	public void mul(double with) {
+		this.mul((float) with);
+	}
+
+	@Override
+	public void mul(BigDecimal with) {
+		this.mul(with.floatValue());
+	}
+
+	@Override
+	public Number sum() {
+		return (float) this.sumToDouble();
+	}
+
+	@Override
+	public int argmax() {
+		int top = -1;
+		float max = 0;
+		for (int i = 0; i < this.length; i++) {
+			float value = this.buffer().get(this.offset + i);
+			if (top == -1 || value > max) {
+				top = i;
+				max = value;
+			}
+		}
+		return top;
+	}
+
+	@Override
+	public int argmin() {
+		int bottom = -1;
+		float min = 0;
+		for (int i = 0; i < this.length; i++) {
+			float value = this.buffer().get(this.offset + i);
+			if (bottom == -1 || value < min) {
+				bottom = i;
+				min = value;
+			}
+		}
+		return bottom;
+	}
+
+	@Override
+	public double reduce(Summation summation, Summation.Term term, double shift) {
+		return summation.sum(this.buffer(), this.offset, this.length, term, shift);
+	}
+
+	@Override
+	public Number linearCombination(NumericArray with) {
+		return this.linearCombinationToFloat(with);
+	}
+
+	@Override
+	public float linearCombinationToFloat(NumericArray with) {
+		if (this.length != with.length()) {
+			throw new IllegalArgumentException(
+				"Input size [" + this.length + "] does not match column size [" + with.length() + "]"
+			);
+		}
+		FloatBuffer others = buffer(with);
+		int from = offset(with);
+		float out = 0;
+		for (int i = 0; i < this.length; i++) {
+			out += this.buffer().get(this.offset + i) * others.get(from + i);
+		}
+		return out;
+	}
+
+	@Override
+	public double linearCombinationToDouble(NumericArray with) {
+		return this.linearCombinationToFloat(with);
+	}
+
+	@Override
+	public BigDecimal linearCombinationToDecimal(NumericArray with) {
+		return new BigDecimal(this.linearCombinationToFloat(with));
+	}
+
+	/**
+	 * Get the array values as primitive floats.
+	 * @return a new array : the values are always copied from the off-heap buffer.
+	 */
+	@Override
+	public float[] floats() {
+		float[] floats = new float[this.length];
+		for (int i = 0; i < this.length; i++) {
+			floats[i] = this.buffer().get(this.offset + i);
+		}
+		return floats;
+	}
+
+	@Override
+	public double[] doubles() {
+		double[] doubles = new double[this.length];
+		for (int i = 0; i < this.length; i++) {
+			doubles[i] = this.buffer().get(this.offset + i);
+		}
+		return doubles;
+	}
+
+	@Override
+	public BigDecimal[] decimals() {
+		BigDecimal[] decimals = new BigDecimal[this.length];
+		for (int i = 0; i < this.length; i++) {
+			decimals[i] = new BigDecimal(this.buffer().get(this.offset + i));
+		}
+		return decimals;
+	}
+
+	@Override
+	public void normalize(Number min, Number max) {
+		float from = min.floatValue();
+		float range = max.floatValue() - from;
+		for (int i = this.offset; i < this.offset + this.length; i++) {
+			this.buffer().put(i, (this.buffer().get(i) - from) / range);
+		}
+	}
+
+	/**
+	 * Allocate the direct memory of this array. Values are set to 0.
+	 * @param length the array length
+	 */
+	private void allocate(int length) {
+		this.memory = DirectMemory.allocateFloats(length);
+		this.buffer = DirectMemory.floats(this.memory);
+		this.offset = 0;
+		this.length = length;
+	}
+
+	/**
+	 * Write the result of an element-wise operation into a destination array. No temporary array is allocated.
+	 * <br>
+	 * The results are written to the destination buffer if it is a float (off-heap or primitive) or a double array
+	 * (or a view), in parallel chunks if there are enough values. They are set one by one else.
+	 * @param into   the destination array. Its length must match the current array.
+	 * @param result the float result of the operation at an index
+	 */
+	private void into(NumericArray into, Result result) {
+		if (into instanceof OffHeapFloatArray) {
+			FloatBuffer out = ((OffHeapFloatArray) into).buffer();
+			int to = ((OffHeapFloatArray) into).offset;
+			Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+				for (int i = start; i < end; i++) {
+					out.put(to + i, result.at(i));
+				}
+			});
+		} else if (into instanceof PrimitiveFloatArray) {
+			float[] out = ((PrimitiveFloatArray) into).buffer();
+			int to = ((PrimitiveFloatArray) into).offset();
+			Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+				for (int i = start; i < end; i++) {
+					out[to + i] = result.at(i);
+				}
+			});
+		} else if (into instanceof PrimitiveDoubleArray) {
+			double[] out = ((PrimitiveDoubleArray) into).buffer();
+			int to = ((PrimitiveDoubleArray) into).offset();
+			Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+				for (int i = start; i < end; i++) {
+					out[to + i] = result.at(i);
+				}
+			});
+		} else {
+			for (int i = 0; i < this.length; i++) {
+				into.at(i, result.at(i));
+			}
+		}
+	}
+
+	/**
+	 * Get a float buffer over the values of an array, without any copy if it is a float array (or a view).
+	 * @param array the array
+	 * @return the array off-heap buffer, a wrapper of its primitive buffer or of {@link NumericArray#floats()}
+	 */
+	private static FloatBuffer buffer(NumericArray array) {
+		if (array instanceof OffHeapFloatArray) {
+			return ((OffHeapFloatArray) array).buffer();
+		}
+		if (array instanceof PrimitiveFloatArray) {
+			return FloatBuffer.wrap(((PrimitiveFloatArray) array).buffer());
+		}
+		return FloatBuffer.wrap(array.floats());
+	}
+
+	/**
+	 * Get the offset of an array values in the buffer returned by {@link #buffer(NumericArray)}.
+	 * @param array the array
+	 * @return the array offset, or 0 if this is not a float array
+	 */
+	private static int offset(NumericArray array) {
+		if (array instanceof OffHeapFloatArray) {
+			return ((OffHeapFloatArray) array).offset;
+		}
+		if (array instanceof PrimitiveFloatArray) {
+			return ((PrimitiveFloatArray) array).offset();
+		}
+		return 0;
+	}
+
+	/**
+	 * Serialize the values only : a deserialized array always owns its memory.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.writeInt(this.length);
+		for (int i = 0; i < this.length; i++) {
+			out.writeFloat(this.buffer().get(this.offset + i));
+		}
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException {
+		this.allocate(in.readInt());
+		for (int i = 0; i < this.length; i++) {
+			this.buffer().put(i, in.readFloat());
+		}
+	}
+
+	/** The float result of an element-wise operation at an index */
+	@FunctionalInterface
+	private interface Result {
+		float at(int index);
+	}
+}
@@ -1,26 +1,51 @@
 package com.github.ugdbg.datatypes.array;
 
-import com.github.ugdbg.NumberUtils;
+import com.github.ugdbg.datatypes.Converter;
+import com.github.ugdbg.datatypes.Parallelism;
+import com.github.ugdbg.datatypes.Summation;
 import com.github.ugdbg.datatypes.TYPE;
 import com.google.common.primitives.Doubles;
 import com.google.common.primitives.Floats;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.stream.IntStream;
 
+/**
+ * A numeric array implementation using primitive doubles, i.e. {@link TYPE#PDOUBLE} type.
+ * <br><br>
+ * The array can either own its buffer or be a view over a region of a bigger buffer (e.g. a matrix line).
+ * The value at index i is stored at {@link #buffer()}[{@link #offset()} + i].
+ */
 public class PrimitiveDoubleArray implements NumericArray {
 	private final double[] array;
+	private final int offset;
+	private final int length;
 
 	public PrimitiveDoubleArray(int length) {
-		this.array = new double[length];
+		this(new double[length]);
 	}
 
 	public PrimitiveDoubleArray(double[] values) {
-		this.array = values;
+		this(values, 0, values.length);
 	}
-	
+
+	/**
+	 * Create a view over a region of a buffer. Nothing is copied : any write is visible in the source buffer.
+	 * @param buffer the source buffer
+	 * @param offset the index in the buffer of the first value of this array
+	 * @param length the array length
+	 */
+	public PrimitiveDoubleArray(double[] buffer, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > buffer.length) {
+			throw new IllegalArgumentException(
+				"Bad view [" + offset + ", " + (offset + length) + "[ over a buffer of length [" + buffer.length + "]"
+			);
+		}
+		this.array = buffer;
+		this.offset = offset;
+		this.length = length;
+	}
+
 	@Override
 	public TYPE getType() {
 		return TYPE.PDOUBLE;
@@ -28,137 +53,356 @@ public class PrimitiveDoubleArray implements NumericArray {
 
 	@Override
 	public int length() {
-		return this.array.length;
+		return this.length;
+	}
+
+	/**
+	 * Get the backing buffer. This array values are in [{@link #offset()}, {@link #offset()} + {@link #length()}[.
+	 * @return {@link #array}, not a copy
+	 */
+	public double[] buffer() {
+		return this.array;
+	}
+
+	/**
+	 * Get the index in {@link #buffer()} of the first value of this array.
+	 * @return {@link #offset}
+	 */
+	public int offset() {
+		return this.offset;
 	}
-	
+
 	@Override
 	public PrimitiveDoubleArray zero() {
-		IntStream.range(0, this.array.length).forEach(index -> this.array[index] = 0);
+		Arrays.fill(this.array, this.offset, this.offset + this.length, 0);
 		return this;
 	}
-	
+
 	@Override
 	public PrimitiveDoubleArray copy() {
-		return new PrimitiveDoubleArray(Arrays.copyOf(this.array, this.array.length));
+		return new PrimitiveDoubleArray(Arrays.copyOfRange(this.array, this.offset, this.offset + this.length));
 	}
-	
+
 	@Override
 	public PrimitiveDoubleArray oneHot(int index) {
 		return (PrimitiveDoubleArray) this.operation(
-			(Operation<PrimitiveDoubleArray>) (array, i) -> array.array[i] = index == i ? 1 : 0
+			(Operation<PrimitiveDoubleArray>) (array, i) -> array.array[array.offset + i] = index == i ? 1 : 0
 		);
 	}
-	
+
 	@Override
-	public int topIndex() {
-		return this.indexStream().boxed().max(Comparator.comparing(index -> this.array[index])).orElse(-1);
+	public Double at(int index) {
+		return this.array[this.offset + index];
 	}
-	
+
 	@Override
-	public Double at(int index) {
-		return this.array[index];
+	public double doubleAt(int index) {
+		return this.array[this.offset + index];
 	}
-	
+
 	@Override
 	public void at(int i, Number value) {
-		this.array[i] = NumberUtils.convertNumberToTargetClass(value, double.class);
+		this.array[this.offset + i] = Converter.toDouble(value);
 	}
-	
+
+	@Override
+	public PrimitiveDoubleArray set(NumericArray from) {
+		this.lengthCheck(from);
+		System.arraycopy(buffer(from), offset(from), this.array, this.offset, this.length);
+		return this;
+	}
+
 	@Override
 	public void sum(NumericArray with) {
-		double[] others = with.doubles();
-		IntStream.range(0, this.array.length).forEach(i -> this.array[i] += others[i]);
+		this.lengthCheck(with);
+		double[] others = buffer(with);
+		int from = offset(with);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] += others[from + i];
+			}
+		});
 	}
 
 	@Override
 	public void sub(NumericArray with) {
-		double[] others = with.doubles();
-		IntStream.range(0, this.array.length).forEach(i -> this.array[i] -= others[i]);
+		this.lengthCheck(with);
+		double[] others = buffer(with);
+		int from = offset(with);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] -= others[from + i];
+			}
+		});
 	}
 
 	@Override
 	public void mul(NumericArray with) {
-		double[] others = with.doubles();
-		IntStream.range(0, this.array.length).forEach(i -> this.array[i] *= others[i]);
+		this.lengthCheck(with);
+		double[] others = buffer(with);
+		int from = offset(with);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] *= others[from + i];
+			}
+		});
 	}
 
 	@Override
 	public void div(NumericArray with) {
-		double[] others = with.doubles();
-		IntStream.range(0, this.array.length).forEach(i -> this.array[i] /= others[i]);
+		this.lengthCheck(with);
+		double[] others = buffer(with);
+		int from = offset(with);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] /= others[from + i];
+			}
+		});
+	}
+
+	@Override
+	public void sum(NumericArray with, NumericArray into) {
+		this.lengthCheck(with);
+		this.lengthCheck(into);
+		double[] others = buffer(with);
+		int from = offset(with);
+		PrimitiveDoubleArray out = this.into(into);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				out.array[out.offset + i] = this.array[this.offset + i] + others[from + i];
+			}
+		});
+		if (out != into) {
+			into.set(out);
+		}
+	}
+
+	@Override
+	public void sub(NumericArray with, NumericArray into) {
+		this.lengthCheck(with);
+		this.lengthCheck(into);
+		double[] others = buffer(with);
+		int from = offset(with);
+		PrimitiveDoubleArray out = this.into(into);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				out.array[out.offset + i] = this.array[this.offset + i] - others[from + i];
+			}
+		});
+		if (out != into) {
+			into.set(out);
+		}
+	}
+
+	@Override
+	public void mul(NumericArray with, NumericArray into) {
+		this.lengthCheck(with);
+		this.lengthCheck(into);
+		double[] others = buffer(with);
+		int from = offset(with);
+		PrimitiveDoubleArray out = this.into(into);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				out.array[out.offset + i] = this.array[this.offset + i] * others[from + i];
+			}
+		});
+		if (out != into) {
+			into.set(out);
+		}
+	}
+
+	@Override
+	public void div(NumericArray with, NumericArray into) {
+		this.lengthCheck(with);
+		this.lengthCheck(into);
+		double[] others = buffer(with);
+		int from = offset(with);
+		PrimitiveDoubleArray out = this.into(into);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				out.array[out.offset + i] = this.array[this.offset + i] / others[from + i];
+			}
+		});
+		if (out != into) {
+			into.set(out);
+		}
+	}
+
+	@Override
+	public void axpy(float alpha, NumericArray x) {
+		this.lengthCheck(x);
+		double[] others = buffer(x);
+		int from = offset(x);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] += alpha * others[from + i];
+			}
+		});
 	}
-	
+
+	@Override
+	public void scaleAndSum(float scale, NumericArray x) {
+		this.lengthCheck(x);
+		double[] others = buffer(x);
+		int from = offset(x);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] = scale * this.array[this.offset + i] + others[from + i];
+			}
+		});
+	}
+
 	@Override
 	public void mul(float with) {
-		this.indexStream().forEach(i -> this.array[i] = this.array[i] * with);
+		this.mul((double) with);
 	}
 
 	@Override
 	public void mul(double with) {
-		this.indexStream().forEach(i -> this.array[i] = this.array[i] * with);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = this.offset + start; i < this.offset + end; i++) {
+				this.array[i] *= with;
+			}
+		});
 	}
 
 	@Override
 	public void mul(BigDecimal with) {
-		this.indexStream().forEach(i -> this.array[i] = this.array[i] * with.doubleValue());
+		this.mul(with.doubleValue());
 	}
 
 	@Override
 	public Number sum() {
-		return this.indexStream().mapToObj(i -> this.array[i]).reduce(0d, Double::sum);
+		return this.sumToDouble();
+	}
+
+	@Override
+	public int argmax() {
+		int top = -1;
+		double max = 0;
+		for (int i = 0; i < this.length; i++) {
+			double value = this.array[this.offset + i];
+			if (top == -1 || value > max) {
+				top = i;
+				max = value;
+			}
+		}
+		return top;
 	}
-	
+
+	@Override
+	public int argmin() {
+		int bottom = -1;
+		double min = 0;
+		for (int i = 0; i < this.length; i++) {
+			double value = this.array[this.offset + i];
+			if (bottom == -1 || value < min) {
+				bottom = i;
+				min = value;
+			}
+		}
+		return bottom;
+	}
+
+	@Override
+	public double reduce(Summation summation, Summation.Term term, double shift) {
+		return summation.sum(this.array, this.offset, this.length, term, shift);
+	}
+
 	@Override
 	public Number linearCombination(NumericArray with) {
-		return linearCombination(this.array, with.doubles());
+		return this.linearCombinationToDouble(with);
 	}
 
 	@Override
 	public float linearCombinationToFloat(NumericArray with) {
-		return (float) linearCombination(this.array, with.doubles());
+		return (float) this.linearCombinationToDouble(with);
 	}
 
 	@Override
 	public double linearCombinationToDouble(NumericArray with) {
-		return linearCombination(this.array, with.doubles());
+		if (this.length != with.length()) {
+			throw new IllegalArgumentException(
+				"Input size [" + this.length + "] does not match column size [" + with.length() + "]"
+			);
+		}
+		return linearCombination(this.array, this.offset, buffer(with), offset(with), this.length);
 	}
 
 	@Override
 	public BigDecimal linearCombinationToDecimal(NumericArray with) {
-		return new BigDecimal(linearCombination(this.array, with.doubles()));
+		return new BigDecimal(this.linearCombinationToDouble(with));
 	}
 
+	/**
+	 * Get the array values as primitive doubles.
+	 * <br>
+	 * If this array is a view over a region of a bigger buffer, the values are copied.
+	 * @return the backing array if this array owns its whole buffer, a copy of the values else.
+	 */
 	@Override
 	public double[] doubles() {
-		return this.array;
+		if (this.offset == 0 && this.length == this.array.length) {
+			return this.array;
+		}
+		return Arrays.copyOfRange(this.array, this.offset, this.offset + this.length);
 	}
 
 	@Override
 	public float[] floats() {
-		return Floats.toArray(Doubles.asList(this.array));
+		return Floats.toArray(Doubles.asList(this.array).subList(this.offset, this.offset + this.length));
 	}
 
 	@Override
 	public BigDecimal[] decimals() {
-		return Arrays.stream(this.array).mapToObj(BigDecimal::new).toArray(BigDecimal[]::new);
+		return Arrays
+			.stream(this.array, this.offset, this.offset + this.length)
+			.mapToObj(BigDecimal::new)
+			.toArray(BigDecimal[]::new);
+	}
+
+	/**
+	 * Get the array an operation result should be written to, so that the result loop is a plain buffer loop.
+	 * @param into the destination array
+	 * @return the destination array if it is a primitive double array (or a view), a new temporary array else
+	 */
+	private PrimitiveDoubleArray into(NumericArray into) {
+		return into instanceof PrimitiveDoubleArray ? (PrimitiveDoubleArray) into : new PrimitiveDoubleArray(this.length);
+	}
+
+	/**
+	 * Get the double buffer of an array, without any copy if it is a primitive double array (or a view).
+	 * @param array the array
+	 * @return the array buffer, or {@link NumericArray#doubles()} if this is not a primitive double array
+	 */
+	private static double[] buffer(NumericArray array) {
+		return array instanceof PrimitiveDoubleArray ? ((PrimitiveDoubleArray) array).array : array.doubles();
 	}
-	
+
 	/**
-	 * Simple linear combination between an input vector and a column. <br>
+	 * Get the offset of an array values in the buffer returned by {@link #buffer(NumericArray)}.
+	 * @param array the array
+	 * @return the array offset, or 0 if this is not a primitive double array
+	 */
+	private static int offset(NumericArray array) {
+		return array instanceof PrimitiveDoubleArray ? ((PrimitiveDoubleArray) array).offset : 0;
+	}
+
+	/**
+	 * Simple linear combination between an input vector and a column, both given as (buffer, offset). <br>
 	 * Sizes must match !
-	 * @param input the input vector
+	 * @param input       the input vector buffer
+	 * @param inputOffset the input vector offset in its buffer
+	 * @param column      the column buffer
+	 * @param colOffset   the column offset in its buffer
+	 * @param length      the number of values to combine
 	 * @return the linear combination between an input and a column.
 	 */
-	private static double linearCombination(double[] input, double[] column){
-		if(input.length != column.length){
-			throw new IllegalArgumentException(
-				"Input size [" + input.length + "] does not match column size [" + column.length + "]"
-			);
-		}
+	private static double linearCombination(double[] input, int inputOffset, double[] column, int colOffset, int length){
 		double out = 0;
-		for (int i = 0; i < input.length; i++) {
-			out += input[i] * column[i];
+		for (int i = 0; i < length; i++) {
+			out += input[inputOffset + i] * column[colOffset + i];
 		}
 		return out;
 	}
-}
\ No newline at end of file
+}
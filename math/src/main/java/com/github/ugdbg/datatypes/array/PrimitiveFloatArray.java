@@ -1,24 +1,50 @@
 package com.github.ugdbg.datatypes.array;
 
-import com.github.ugdbg.NumberUtils;
+import com.github.ugdbg.datatypes.Converter;
+import com.github.ugdbg.datatypes.Parallelism;
+import com.github.ugdbg.datatypes.Summation;
 import com.github.ugdbg.datatypes.TYPE;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.stream.IntStream;
 
+/**
+ * A numeric array implementation using primitive floats, i.e. {@link TYPE#PFLOAT} type.
+ * <br><br>
+ * The array can either own its buffer or be a view over a region of a bigger buffer (e.g. a matrix line).
+ * The value at index i is stored at {@link #buffer()}[{@link #offset()} + i].
+ */
 public class PrimitiveFloatArray implements NumericArray {
 	private final float[] array;
+	private final int offset;
+	private final int length;
 
 	public PrimitiveFloatArray(int length) {
-		this.array = new float[length];
+		this(new float[length]);
 	}
 
 	public PrimitiveFloatArray(float[] values) {
-		this.array = values;
+		this(values, 0, values.length);
 	}
-	
+
+	/**
+	 * Create a view over a region of a buffer. Nothing is copied : any write is visible in the source buffer.
+	 * @param buffer the source buffer
+	 * @param offset the index in the buffer of the first value of this array
+	 * @param length the array length
+	 */
+	public PrimitiveFloatArray(float[] buffer, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > buffer.length) {
+			throw new IllegalArgumentException(
+				"Bad view [" + offset + ", " + (offset + length) + "[ over a buffer of length [" + buffer.length + "]"
+			);
+		}
+		this.array = buffer;
+		this.offset = offset;
+		this.length = length;
+	}
+
 	@Override
 	public TYPE getType() {
 		return TYPE.PFLOAT;
@@ -26,149 +52,367 @@ public class PrimitiveFloatArray implements NumericArray {
 
 	@Override
 	public int length() {
-		return this.array.length;
+		return this.length;
+	}
+
+	/**
+	 * Get the backing buffer. This array values are in [{@link #offset()}, {@link #offset()} + {@link #length()}[.
+	 * @return {@link #array}, not a copy
+	 */
+	public float[] buffer() {
+		return this.array;
+	}
+
+	/**
+	 * Get the index in {@link #buffer()} of the first value of this array.
+	 * @return {@link #offset}
+	 */
+	public int offset() {
+		return this.offset;
 	}
-	
+
 	@Override
 	public PrimitiveFloatArray zero() {
-		IntStream.range(0, this.array.length).forEach(index -> this.array[index] = 0);
+		Arrays.fill(this.array, this.offset, this.offset + this.length, 0);
 		return this;
 	}
 
 	@Override
 	public PrimitiveFloatArray copy() {
-		return new PrimitiveFloatArray(Arrays.copyOf(this.array, this.array.length));
+		return new PrimitiveFloatArray(Arrays.copyOfRange(this.array, this.offset, this.offset + this.length));
 	}
 
 	@Override
 	public PrimitiveFloatArray oneHot(int index) {
 		return (PrimitiveFloatArray) this.operation(
-			(Operation<PrimitiveFloatArray>) (array, i) -> array.array[i] = index == i ? 1 : 0
+			(Operation<PrimitiveFloatArray>) (array, i) -> array.array[array.offset + i] = index == i ? 1 : 0
 		);
 	}
 
 	@Override
-	public int topIndex() {
-		return this.indexStream().boxed().max(Comparator.comparing(index -> this.array[index])).orElse(-1);
+	public Float at(int index) {
+		return this.array[this.offset + index];
 	}
 
 	@Override
-	public Float at(int index) {
-		return this.array[index];
+	public double doubleAt(int index) {
+		return this.array[this.offset + index];
 	}
-	
+
 	@Override
 	public void at(int i, Number value) {
-		this.array[i] = NumberUtils.convertNumberToTargetClass(value, float.class);
+		this.array[this.offset + i] = Converter.toFloat(value);
+	}
+
+	@Override
+	public PrimitiveFloatArray set(NumericArray from) {
+		this.lengthCheck(from);
+		System.arraycopy(buffer(from), offset(from), this.array, this.offset, this.length);
+		return this;
 	}
-	
+
 	@Override
 	public void sum(NumericArray with) {
-		float[] others = with.floats();
-		IntStream.range(0, this.array.length).forEach(i -> this.array[i] += others[i]);
+		this.lengthCheck(with);
+		float[] others = buffer(with);
+		int from = offset(with);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] += others[from + i];
+			}
+		});
 	}
 
 	@Override
 	public void sub(NumericArray with) {
-		float[] others = with.floats();
-		IntStream.range(0, this.array.length).forEach(i -> this.array[i] -= others[i]);
+		this.lengthCheck(with);
+		float[] others = buffer(with);
+		int from = offset(with);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] -= others[from + i];
+			}
+		});
 	}
 
 	@Override
 	public void mul(NumericArray with) {
-		float[] others = with.floats();
-		IntStream.range(0, this.array.length).forEach(i -> this.array[i] *= others[i]);
+		this.lengthCheck(with);
+		float[] others = buffer(with);
+		int from = offset(with);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] *= others[from + i];
+			}
+		});
 	}
 
 	@Override
 	public void div(NumericArray with) {
-		float[] others = with.floats();
-		IntStream.range(0, this.array.length).forEach(i -> this.array[i] /= others[i]);
+		this.lengthCheck(with);
+		float[] others = buffer(with);
+		int from = offset(with);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] /= others[from + i];
+			}
+		});
+	}
+
+	@Override
+	public void sum(NumericArray with, NumericArray into) {
+		this.lengthCheck(with);
+		this.lengthCheck(into);
+		float[] others = buffer(with);
+		int from = offset(with);
+		PrimitiveFloatArray out = this.into(into);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				out.array[out.offset + i] = this.array[this.offset + i] + others[from + i];
+			}
+		});
+		if (out != into) {
+			into.set(out);
+		}
+	}
+
+	@Override
+	public void sub(NumericArray with, NumericArray into) {
+		this.lengthCheck(with);
+		this.lengthCheck(into);
+		float[] others = buffer(with);
+		int from = offset(with);
+		PrimitiveFloatArray out = this.into(into);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				out.array[out.offset + i] = this.array[this.offset + i] - others[from + i];
+			}
+		});
+		if (out != into) {
+			into.set(out);
+		}
+	}
+
+	@Override
+	public void mul(NumericArray with, NumericArray into) {
+		this.lengthCheck(with);
+		this.lengthCheck(into);
+		float[] others = buffer(with);
+		int from = offset(with);
+		PrimitiveFloatArray out = this.into(into);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				out.array[out.offset + i] = this.array[this.offset + i] * others[from + i];
+			}
+		});
+		if (out != into) {
+			into.set(out);
+		}
 	}
-	
+
+	@Override
+	public void div(NumericArray with, NumericArray into) {
+		this.lengthCheck(with);
+		this.lengthCheck(into);
+		float[] others = buffer(with);
+		int from = offset(with);
+		PrimitiveFloatArray out = this.into(into);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				out.array[out.offset + i] = this.array[this.offset + i] / others[from + i];
+			}
+		});
+		if (out != into) {
+			into.set(out);
+		}
+	}
+
+	@Override
+	public void axpy(float alpha, NumericArray x) {
+		this.lengthCheck(x);
+		float[] others = buffer(x);
+		int from = offset(x);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] += alpha * others[from + i];
+			}
+		});
+	}
+
+	@Override
+	public void scaleAndSum(float scale, NumericArray x) {
+		this.lengthCheck(x);
+		float[] others = buffer(x);
+		int from = offset(x);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				this.array[this.offset + i] = scale * this.array[this.offset + i] + others[from + i];
+			}
+		});
+	}
+
 	@Override
 	public void mul(float with) {
-		this.indexStream().forEach(i -> this.array[i] = this.array[i] * with);
+		Parallelism.global().forRange(this.length, this.getType(), (start, end) -> {
+			for (int i = this.offset + start; i < this.offset + end; i++) {
+				this.array[i] *= with;
+			}
+		});
 	}
 
 	@Override
 	public void mul(double with) {
-		this.indexStream().forEach(i -> this.array[i] = this.array[i] * (float) with);
+		this.mul((float) with);
 	}
 
 	@Override
 	public void mul(BigDecimal with) {
-		this.indexStream().forEach(i -> this.array[i] = this.array[i] * with.floatValue());
+		this.mul(with.floatValue());
 	}
 
 	@Override
 	public Number sum() {
-		return this.indexStream().mapToObj(i -> this.array[i]).reduce(0f, Float::sum);
+		return (float) this.sumToDouble();
+	}
+
+	@Override
+	public int argmax() {
+		int top = -1;
+		float max = 0;
+		for (int i = 0; i < this.length; i++) {
+			float value = this.array[this.offset + i];
+			if (top == -1 || value > max) {
+				top = i;
+				max = value;
+			}
+		}
+		return top;
+	}
+
+	@Override
+	public int argmin() {
+		int bottom = -1;
+		float min = 0;
+		for (int i = 0; i < this.length; i++) {
+			float value = this.array[this.offset + i];
+			if (bottom == -1 || value < min) {
+				bottom = i;
+				min = value;
+			}
+		}
+		return bottom;
+	}
+
+	@Override
+	public double reduce(Summation summation, Summation.Term term, double shift) {
+		return summation.sum(this.array, this.offset, this.length, term, shift);
 	}
-	
+
 	@Override
 	public Number linearCombination(NumericArray with) {
-		return linearCombination(this.array, with.floats());
+		return this.linearCombinationToFloat(with);
 	}
 
 	@Override
 	public float linearCombinationToFloat(NumericArray with) {
-		return linearCombination(this.array, with.floats());
+		if (this.length != with.length()) {
+			throw new IllegalArgumentException(
+				"Input size [" + this.length + "] does not match column size [" + with.length() + "]"
+			);
+		}
+		return linearCombination(this.array, this.offset, buffer(with), offset(with), this.length);
 	}
 
 	@Override
 	public double linearCombinationToDouble(NumericArray with) {
-		return linearCombination(this.array, with.floats());
+		return this.linearCombinationToFloat(with);
 	}
 
 	@Override
 	public BigDecimal linearCombinationToDecimal(NumericArray with) {
-		return new BigDecimal(linearCombination(this.array, with.floats()));
+		return new BigDecimal(this.linearCombinationToFloat(with));
 	}
 
+	/**
+	 * Get the array values as primitive floats.
+	 * <br>
+	 * If this array is a view over a region of a bigger buffer, the values are copied.
+	 * @return the backing array if this array owns its whole buffer, a copy of the values else.
+	 */
 	@Override
 	public float[] floats() {
-		return this.array;
+		if (this.offset == 0 && this.length == this.array.length) {
+			return this.array;
+		}
+		return Arrays.copyOfRange(this.array, this.offset, this.offset + this.length);
 	}
 
 	@Override
 	public double[] doubles() {
-		return IntStream.range(0, this.array.length).mapToDouble(i -> this.array[i]).toArray();
+		return IntStream.range(0, this.length).mapToDouble(i -> this.array[this.offset + i]).toArray();
 	}
 
 	@Override
 	public BigDecimal[] decimals() {
 		return IntStream
-			.range(0, this.array.length)
-			.mapToObj(i -> new BigDecimal(this.array[i]))
+			.range(0, this.length)
+			.mapToObj(i -> new BigDecimal(this.array[this.offset + i]))
 			.toArray(BigDecimal[]::new);
 	}
-	
+
 	@Override
 	public void normalize(Number min, Number max) {
-		this.operation((vector, i) -> this.floats()[i] = normalize(this.floats()[i], min, max));
+		for (int i = this.offset; i < this.offset + this.length; i++) {
+			this.array[i] = normalize(this.array[i], min, max);
+		}
 	}
-		
+
 	/**
-	 * Simple linear combination between an input vector and a column. <br>
+	 * Get the array an operation result should be written to, so that the result loop is a plain buffer loop.
+	 * @param into the destination array
+	 * @return the destination array if it is a primitive float array (or a view), a new temporary array else
+	 */
+	private PrimitiveFloatArray into(NumericArray into) {
+		return into instanceof PrimitiveFloatArray ? (PrimitiveFloatArray) into : new PrimitiveFloatArray(this.length);
+	}
+
+	/**
+	 * Get the float buffer of an array, without any copy if it is a primitive float array (or a view).
+	 * @param array the array
+	 * @return the array buffer, or {@link NumericArray#floats()} if this is not a primitive float array
+	 */
+	private static float[] buffer(NumericArray array) {
+		return array instanceof PrimitiveFloatArray ? ((PrimitiveFloatArray) array).array : array.floats();
+	}
+
+	/**
+	 * Get the offset of an array values in the buffer returned by {@link #buffer(NumericArray)}.
+	 * @param array the array
+	 * @return the array offset, or 0 if this is not a primitive float array
+	 */
+	private static int offset(NumericArray array) {
+		return array instanceof PrimitiveFloatArray ? ((PrimitiveFloatArray) array).offset : 0;
+	}
+
+	/**
+	 * Simple linear combination between an input vector and a column, both given as (buffer, offset). <br>
 	 * Sizes must match !
-	 * @param input the input vector
+	 * @param input       the input vector buffer
+	 * @param inputOffset the input vector offset in its buffer
+	 * @param column      the column buffer
+	 * @param colOffset   the column offset in its buffer
+	 * @param length      the number of values to combine
 	 * @return the linear combination between an input and a column.
 	 */
-	private static float linearCombination(float[] input, float[] column){
-		if(input.length != column.length){
-			throw new IllegalArgumentException(
-				"Input size [" + input.length + "] does not match column size [" + column.length + "]"
-			);
-		}
+	private static float linearCombination(float[] input, int inputOffset, float[] column, int colOffset, int length){
 		float out = 0;
-		for (int i = 0; i < input.length; i++) {
-			out += input[i] * column[i];
+		for (int i = 0; i < length; i++) {
+			out += input[inputOffset + i] * column[colOffset + i];
 		}
 		return out;
 	}
-	
+
 	private static float normalize(float value, Number min, Number max) {
 		return (value - min.floatValue()) / (max.floatValue() - min.floatValue());
 	}
-}
\ No newline at end of file
+}
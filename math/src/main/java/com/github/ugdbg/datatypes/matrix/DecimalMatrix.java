@@ -1,25 +1,87 @@
 package com.github.ugdbg.datatypes.matrix;
 
-import com.github.ugdbg.NumberUtils;
+import com.github.ugdbg.datatypes.Converter;
+import com.github.ugdbg.datatypes.Precision;
 import com.github.ugdbg.datatypes.TYPE;
 import com.github.ugdbg.datatypes.array.DecimalArray;
+import com.github.ugdbg.datatypes.array.NumericArray;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 
 /**
  * A numeric matrix implementation using {@link BigDecimal}, i.e. {@link TYPE#DECIMAL} type.
+ * <br><br>
+ * Values are stored row-major in a single flat {@link #data} buffer : @(i, j) is at offset + i * stride + j.
+ * <br>
+ * {@link #line(int)}, {@link #rows(int, int)} and {@link #block(int, int, int, int)} are views over this buffer.
+ * <br><br>
+ * The values stored in the matrix are rounded to the matrix {@link #precision()} (see {@link Precision}).
+ * The views share the precision of the matrix when they are created.
  */
 public class DecimalMatrix implements NumericMatrix {
-	
-	private final BigDecimal[][] rows;
+
+	private final BigDecimal[] data;
+	private final int offset;
+	private final int m;
+	private final int n;
+	private final int stride;
+	private Precision precision = Precision.global();
 
 	public DecimalMatrix(int m, int n) {
-		this.rows = new BigDecimal[m][n];
-		this.operation((matrix, i, j) -> matrix.at(i, j, BigDecimal.ZERO));
+		this(new BigDecimal[m * n], 0, m, n, n);
+		Arrays.fill(this.data, BigDecimal.ZERO);
 	}
-	
+
+	/**
+	 * Create a new matrix from its lines. Values are copied into a flat buffer.
+	 * @param matrix the matrix lines. Every line must have the same length.
+	 */
 	public DecimalMatrix(BigDecimal[][] matrix) {
-		this.rows = matrix;
+		this(matrix.length, matrix.length == 0 ? 0 : matrix[0].length);
+		for (int i = 0; i < this.m; i++) {
+			System.arraycopy(matrix[i], 0, this.data, i * this.stride, this.n);
+		}
+	}
+
+	/**
+	 * Create a matrix over an existing row-major buffer. Nothing is copied.
+	 * @param data   the buffer
+	 * @param offset the index in the buffer of the value @(0, 0)
+	 * @param m      the matrix height
+	 * @param n      the matrix width
+	 * @param stride the distance in the buffer between the values @(i, j) and @(i + 1, j)
+	 */
+	public DecimalMatrix(BigDecimal[] data, int offset, int m, int n, int stride) {
+		NumericMatrix.layoutCheck(data.length, offset, m, n, stride);
+		this.data = data;
+		this.offset = offset;
+		this.m = m;
+		this.n = n;
+		this.stride = stride;
+	}
+
+	/**
+	 * Get the precision profile of this matrix.
+	 * @return {@link #precision}. Default to {@link Precision#global()} when the matrix is created.
+	 */
+	public Precision precision() {
+		return this.precision;
+	}
+
+	/**
+	 * Set the precision profile of this matrix : the values stored in the matrix are rounded to this precision.
+	 * The values that are already stored are not rounded.
+	 * @param precision the precision profile
+	 * @return the current matrix
+	 * @throws IllegalArgumentException if precision is null
+	 */
+	public DecimalMatrix precision(Precision precision) {
+		if (precision == null) {
+			throw new IllegalArgumentException("Decimal matrix precision cannot be null");
+		}
+		this.precision = precision;
+		return this;
 	}
 
 	@Override
@@ -32,15 +94,39 @@ public class DecimalMatrix implements NumericMatrix {
 	 * @return the matrix height
 	 */
 	public int getM() {
-		return this.rows.length;
+		return this.m;
 	}
 
 	/**
 	 * Get the matrix width, i.e. the input dimension
-	 * @return the matrix width (actually the length of the array at line #1
+	 * @return the matrix width
 	 */
 	public int getN() {
-		return this.rows[0].length;
+		return this.n;
+	}
+
+	/**
+	 * Get the flat row-major buffer of this matrix. It may be shared with other views.
+	 * @return {@link #data}, not a copy
+	 */
+	public BigDecimal[] buffer() {
+		return this.data;
+	}
+
+	/**
+	 * Get the index in {@link #buffer()} of the value @(0, 0).
+	 * @return {@link #offset}
+	 */
+	public int offset() {
+		return this.offset;
+	}
+
+	/**
+	 * Get the distance in {@link #buffer()} between two consecutive lines.
+	 * @return {@link #stride}
+	 */
+	public int stride() {
+		return this.stride;
 	}
 
 	@Override
@@ -52,88 +138,235 @@ public class DecimalMatrix implements NumericMatrix {
 	@Override
 	public float floatAt(int i, int j) {
 		this.dimensionCheck(i, j);
-		return this.rows[i][j].floatValue();
+		return this.data[this.index(i, j)].floatValue();
 	}
 
 	@Override
 	public double doubleAt(int i, int j) {
 		this.dimensionCheck(i, j);
-		return this.rows[i][j].doubleValue();
+		return this.data[this.index(i, j)].doubleValue();
 	}
 
 	@Override
 	public BigDecimal decimalAt(int i, int j) {
 		this.dimensionCheck(i, j);
-		return this.rows[i][j];
+		return this.data[this.index(i, j)];
 	}
 
 	@Override
 	public DecimalMatrix at(int i, int j, Number value) {
 		this.dimensionCheck(i, j);
-		this.rows[i][j] = NumberUtils.convertNumberToTargetClass(value, BigDecimal.class);
+		this.data[this.index(i, j)] = this.precision.round(Converter.toDecimal(value));
 		return this;
 	}
 
 	@Override
 	public DecimalMatrix at(int i, int j, float value) {
 		this.dimensionCheck(i, j);
-		this.rows[i][j] = new BigDecimal(value);
+		this.data[this.index(i, j)] = this.precision.round(Converter.toDecimal(value));
 		return this;
 	}
 
 	@Override
 	public DecimalMatrix at(int i, int j, double value) {
 		this.dimensionCheck(i, j);
-		this.rows[i][j] = new BigDecimal(value);
+		this.data[this.index(i, j)] = this.precision.round(Converter.toDecimal(value));
 		return this;
 	}
 
 	@Override
 	public DecimalMatrix at(int i, int j, BigDecimal value) {
 		this.dimensionCheck(i, j);
-		this.rows[i][j] = value;
+		this.data[this.index(i, j)] = this.precision.round(value);
 		return this;
 	}
 
 	@Override
 	public DecimalArray line(int x) {
 		this.dimensionCheck(x, 0);
-		return new DecimalArray(this.rows[x]);
+		return new DecimalArray(this.data, this.index(x, 0), this.n).precision(this.precision);
 	}
-	
+
 	@Override
 	public DecimalArray column(int y) {
 		this.dimensionCheck(0, y);
-		DecimalArray column = new DecimalArray(this.getM());
-		this.rowIndexStream().forEach(rowIndex -> column.decimals()[rowIndex] = this.decimalAt(rowIndex, y));
+		DecimalArray column = new DecimalArray(this.m).precision(this.precision);
+		BigDecimal[] values = column.decimals();
+		for (int i = 0; i < this.m; i++) {
+			values[i] = this.data[this.index(i, y)];
+		}
 		return column;
 	}
-	
+
+	@Override
+	public DecimalMatrix rows(int from, int to) {
+		this.blockCheck(from, 0, to - from, this.n);
+		return new DecimalMatrix(this.data, this.index(from, 0), to - from, this.n, this.stride).precision(this.precision);
+	}
+
+	@Override
+	public DecimalMatrix block(int i, int j, int m, int n) {
+		this.blockCheck(i, j, m, n);
+		return new DecimalMatrix(this.data, this.index(i, j), m, n, this.stride).precision(this.precision);
+	}
+
 	@Override
 	public void sum(NumericMatrix with) {
 		this.dimensionCheck(with);
-		this.operation(((matrix, i, j) -> matrix.at(i, j, this.decimalAt(i, j).add(with.decimalAt(i, j)))));
+		this.parallelOperation(((matrix, i, j) -> matrix.at(i, j, this.decimalAt(i, j).add(with.decimalAt(i, j)))));
 	}
 
 	@Override
 	public void mul(NumericMatrix with) {
 		this.dimensionCheck(with);
-		this.operation(((matrix, i, j) -> matrix.at(i, j, this.decimalAt(i, j).multiply(with.decimalAt(i, j)))));
+		this.parallelOperation(((matrix, i, j) -> matrix.at(i, j, this.decimalAt(i, j).multiply(with.decimalAt(i, j)))));
 	}
-	
+
+	@Override
+	public void product(
+		boolean transpose,
+		NumericMatrix with,
+		boolean withTranspose,
+		NumericMatrix into,
+		boolean accumulate) {
+		Gemm.dispatch(this, transpose, with, withTranspose, into, accumulate);
+	}
+
+	/**
+	 * Apply the current matrix to an array, into an existing array : into = this · x.
+	 * The values are rounded to the 'into' array precision.
+	 * This does not allocate anything but the values if both arrays are decimal arrays (or views).
+	 * @param x    the input array. Its length must match the current matrix width.
+	 * @param into the output array. Its length must match the current matrix height. It must not be x.
+	 */
+	@Override
+	public void apply(NumericArray x, NumericArray into) {
+		if (! (x instanceof DecimalArray && into instanceof DecimalArray)) {
+			NumericMatrix.super.apply(x, into);
+			return;
+		}
+		this.applyCheck(x, this.n, into, this.m);
+		BigDecimal[] in = ((DecimalArray) x).buffer();
+		int inOffset = ((DecimalArray) x).offset();
+		BigDecimal[] out = ((DecimalArray) into).buffer();
+		int outOffset = ((DecimalArray) into).offset();
+		Precision precision = ((DecimalArray) into).precision();
+		for (int i = 0; i < this.m; i++) {
+			int row = this.index(i, 0);
+			BigDecimal sum = BigDecimal.ZERO;
+			for (int j = 0; j < this.n; j++) {
+				BigDecimal value = in[inOffset + j];
+				if (value.signum() != 0) {
+					sum = sum.add(this.data[row + j].multiply(value));
+				}
+			}
+			out[outOffset + i] = precision.round(sum);
+		}
+	}
+
+	/**
+	 * Apply the transpose of the current matrix to an array, into an existing array : intoᵀ = xᵀ · this.
+	 * The lines are read contiguously : into += x[i] * line(i) for every i such as x[i] != 0.
+	 * The values are rounded to the 'into' array precision.
+	 * @param x    the input array. Its length must match the current matrix height.
+	 * @param into the output array. Its length must match the current matrix width. It must not be x.
+	 */
+	@Override
+	public void applyTransposed(NumericArray x, NumericArray into) {
+		if (! (x instanceof DecimalArray && into instanceof DecimalArray)) {
+			NumericMatrix.super.applyTransposed(x, into);
+			return;
+		}
+		this.applyCheck(x, this.m, into, this.n);
+		BigDecimal[] in = ((DecimalArray) x).buffer();
+		int inOffset = ((DecimalArray) x).offset();
+		BigDecimal[] out = ((DecimalArray) into).buffer();
+		int outOffset = ((DecimalArray) into).offset();
+		Arrays.fill(out, outOffset, outOffset + this.n, BigDecimal.ZERO);
+		for (int i = 0; i < this.m; i++) {
+			BigDecimal factor = in[inOffset + i];
+			if (factor.signum() == 0) {
+				continue;
+			}
+			int row = this.index(i, 0);
+			for (int j = 0; j < this.n; j++) {
+				out[outOffset + j] = out[outOffset + j].add(factor.multiply(this.data[row + j]));
+			}
+		}
+		Precision precision = ((DecimalArray) into).precision();
+		for (int j = outOffset; j < outOffset + this.n; j++) {
+			out[j] = precision.round(out[j]);
+		}
+	}
+
+	/**
+	 * Add the scaled outer product of 2 arrays to the current matrix, in place : this += α·a ⊗ b.
+	 * The values are rounded to the current matrix precision.
+	 * This does not allocate anything but the values if both arrays are decimal arrays (or views).
+	 * @param alpha the scale factor α
+	 * @param a     the left array. Its length must match the current matrix height.
+	 * @param b     the right array. Its length must match the current matrix width.
+	 */
+	@Override
+	public void accumulateOuter(float alpha, NumericArray a, NumericArray b) {
+		if (! (a instanceof DecimalArray && b instanceof DecimalArray)) {
+			NumericMatrix.super.accumulateOuter(alpha, a, b);
+			return;
+		}
+		this.applyCheck(b, this.n, a, this.m);
+		if (alpha == 0) {
+			return;
+		}
+		BigDecimal[] left = ((DecimalArray) a).buffer();
+		int leftOffset = ((DecimalArray) a).offset();
+		BigDecimal[] right = ((DecimalArray) b).buffer();
+		int rightOffset = ((DecimalArray) b).offset();
+		BigDecimal scale = BigDecimal.valueOf(alpha);
+		for (int i = 0; i < this.m; i++) {
+			if (left[leftOffset + i].signum() == 0) {
+				continue;
+			}
+			BigDecimal factor = scale.multiply(left[leftOffset + i]);
+			int row = this.index(i, 0);
+			for (int j = 0; j < this.n; j++) {
+				BigDecimal value = right[rightOffset + j];
+				if (value.signum() != 0) {
+					this.data[row + j] = this.precision.round(this.data[row + j].add(factor.multiply(value)));
+				}
+			}
+		}
+	}
+
 	@Override
 	public void mul(float with) {
-		this.operation(((matrix, i, j) -> matrix.at(i, j, this.decimalAt(i, j).multiply(BigDecimal.valueOf(with)))));
+		BigDecimal factor = BigDecimal.valueOf(with);
+		for (int i = 0; i < this.m; i++) {
+			int row = this.index(i, 0);
+			for (int j = row; j < row + this.n; j++) {
+				this.data[j] = this.precision.round(this.data[j].multiply(factor));
+			}
+		}
 	}
-	
+
 	@Override
 	public DecimalMatrix transpose() {
-		DecimalMatrix transpose = new DecimalMatrix(this.getN(), this.getM());
-		for (int i = 0; i < this.getM(); i++) {
-			for (int j = 0; j < this.getN(); j++) {
-				transpose.rows[j][i] = this.rows[i][j];
+		DecimalMatrix transpose = new DecimalMatrix(this.n, this.m).precision(this.precision);
+		for (int i = 0; i < this.m; i++) {
+			int row = this.index(i, 0);
+			for (int j = 0; j < this.n; j++) {
+				transpose.data[j * transpose.stride + i] = this.data[row + j];
 			}
 		}
 		return transpose;
 	}
+
+	/**
+	 * Get the index in {@link #data} of the value @(i, j). No check is done.
+	 * @param i the line index
+	 * @param j the column index
+	 * @return offset + i * stride + j
+	 */
+	private int index(int i, int j) {
+		return this.offset + i * this.stride + j;
+	}
 }
@@ -0,0 +1,307 @@
+package com.github.ugdbg.datatypes.matrix;
+
+import com.github.ugdbg.datatypes.Float16;
+import com.github.ugdbg.datatypes.Summation;
+import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.datatypes.array.Float16Array;
+import com.github.ugdbg.datatypes.array.NumericArray;
+import com.github.ugdbg.datatypes.array.PrimitiveFloatArray;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * A numeric matrix implementation using 16 bits floats stored as shorts, i.e. {@link TYPE#HALF} or {@link TYPE#BFLOAT16}.
+ * <br><br>
+ * Values are stored row-major in a single flat {@link #data} buffer : @(i, j) is at offset + i * stride + j.
+ * <br>
+ * {@link #line(int)}, {@link #rows(int, int)} and {@link #block(int, int, int, int)} are views over this buffer.
+ * <br><br>
+ * This is a storage type for weights that are read much more than they are written (e.g. after a training) :
+ * half the memory and half the memory bandwidth of {@link PrimitiveFloatMatrix}.
+ * Arithmetic is done using primitive floats : values are decoded on the fly and results are rounded to 16 bits when stored.
+ */
+public class Float16Matrix implements NumericMatrix {
+
+	private final Float16 format;
+	private final short[] data;
+	private final int offset;
+	private final int m;
+	private final int n;
+	private final int stride;
+
+	public Float16Matrix(Float16 format, int m, int n) {
+		this(format, new short[m * n], 0, m, n, n);
+	}
+
+	/**
+	 * Create a matrix over an existing row-major buffer. Nothing is copied.
+	 * @param format the 16 bits encoding of the buffer values
+	 * @param data   the buffer
+	 * @param offset the index in the buffer of the value @(0, 0)
+	 * @param m      the matrix height
+	 * @param n      the matrix width
+	 * @param stride the distance in the buffer between the values @(i, j) and @(i + 1, j)
+	 */
+	public Float16Matrix(Float16 format, short[] data, int offset, int m, int n, int stride) {
+		NumericMatrix.layoutCheck(data.length, offset, m, n, stride);
+		this.format = format;
+		this.data = data;
+		this.offset = offset;
+		this.m = m;
+		this.n = n;
+		this.stride = stride;
+	}
+
+	@Override
+	public TYPE getType() {
+		return this.format.type();
+	}
+
+	/**
+	 * Get the matrix height, i.e. the output dimension
+	 * @return the matrix height
+	 */
+	public int getM() {
+		return this.m;
+	}
+
+	/**
+	 * Get the matrix width, i.e. the input dimension
+	 * @return the matrix width
+	 */
+	public int getN() {
+		return this.n;
+	}
+
+	/**
+	 * Get the 16 bits encoding of this matrix values.
+	 * @return {@link #format}
+	 */
+	public Float16 format() {
+		return this.format;
+	}
+
+	/**
+	 * Get the flat row-major buffer of this matrix. It may be shared with other views.
+	 * @return {@link #data}, not a copy
+	 */
+	public short[] buffer() {
+		return this.data;
+	}
+
+	/**
+	 * Get the index in {@link #buffer()} of the value @(0, 0).
+	 * @return {@link #offset}
+	 */
+	public int offset() {
+		return this.offset;
+	}
+
+	/**
+	 * Get the distance in {@link #buffer()} between two consecutive lines.
+	 * @return {@link #stride}
+	 */
+	public int stride() {
+		return this.stride;
+	}
+
+	@Override
+	public Float at(int i, int j) {
+		return this.floatAt(i, j);
+	}
+
+	@Override
+	public Float16Array line(int x) {
+		this.dimensionCheck(x, 0);
+		return new Float16Array(this.format, this.data, this.index(x, 0), this.n);
+	}
+
+	@Override
+	public Float16Array column(int y) {
+		this.dimensionCheck(0, y);
+		Float16Array column = new Float16Array(this.format, this.m);
+		for (int i = 0; i < this.m; i++) {
+			column.buffer()[i] = this.data[this.index(i, y)];
+		}
+		return column;
+	}
+
+	@Override
+	public Float16Matrix rows(int from, int to) {
+		this.blockCheck(from, 0, to - from, this.n);
+		return new Float16Matrix(this.format, this.data, this.index(from, 0), to - from, this.n, this.stride);
+	}
+
+	@Override
+	public Float16Matrix block(int i, int j, int m, int n) {
+		this.blockCheck(i, j, m, n);
+		return new Float16Matrix(this.format, this.data, this.index(i, j), m, n, this.stride);
+	}
+
+	@Override
+	public float floatAt(int i, int j) {
+		this.dimensionCheck(i, j);
+		return this.format.decode(this.data[this.index(i, j)]);
+	}
+
+	@Override
+	public double doubleAt(int i, int j) {
+		return this.floatAt(i, j);
+	}
+
+	@Override
+	public BigDecimal decimalAt(int i, int j) {
+		return BigDecimal.valueOf(this.floatAt(i, j));
+	}
+
+	@Override
+	public Float16Matrix at(int i, int j, Number value) {
+		return this.at(i, j, value.floatValue());
+	}
+
+	@Override
+	public Float16Matrix at(int i, int j, float value) {
+		this.dimensionCheck(i, j);
+		this.data[this.index(i, j)] = this.format.encode(value);
+		return this;
+	}
+
+	@Override
+	public Float16Matrix at(int i, int j, double value) {
+		return this.at(i, j, (float) value);
+	}
+
+	@Override
+	public Float16Matrix at(int i, int j, BigDecimal value) {
+		return this.at(i, j, value.floatValue());
+	}
+
+	@Override
+	public double reduce(Summation summation, Summation.Term term, double shift) {
+		if (this.stride != this.n) {
+			return NumericMatrix.super.reduce(summation, term, shift);
+		}
+		return summation.sum(index -> this.format.decode(this.data[this.offset + index]), this.m * this.n, term, shift);
+	}
+
+	@Override
+	public void sum(NumericMatrix with) {
+		this.dimensionCheck(with);
+		for (int i = 0; i < this.m; i++) {
+			this.line(i).sum(with.line(i));
+		}
+	}
+
+	@Override
+	public void mul(NumericMatrix with) {
+		this.dimensionCheck(with);
+		for (int i = 0; i < this.m; i++) {
+			this.line(i).mul(with.line(i));
+		}
+	}
+
+	/**
+	 * Apply the current matrix to an array, into an existing array : into = this · x.
+	 * This does not allocate anything if both arrays are primitive float arrays (or views) :
+	 * every line is decoded on the fly and combined with x in a float (see {@link Float16Array#linearCombination}).
+	 * @param x    the input array. Its length must match the current matrix width.
+	 * @param into the output array. Its length must match the current matrix height. It must not be x.
+	 */
+	@Override
+	public void apply(NumericArray x, NumericArray into) {
+		if (! (x instanceof PrimitiveFloatArray && into instanceof PrimitiveFloatArray)) {
+			NumericMatrix.super.apply(x, into);
+			return;
+		}
+		this.applyCheck(x, this.n, into, this.m);
+		float[] in = ((PrimitiveFloatArray) x).buffer();
+		int inOffset = ((PrimitiveFloatArray) x).offset();
+		float[] out = ((PrimitiveFloatArray) into).buffer();
+		int outOffset = ((PrimitiveFloatArray) into).offset();
+		for (int i = 0; i < this.m; i++) {
+			out[outOffset + i] = Float16Array.linearCombination(this.format, this.data, this.index(i, 0), in, inOffset, this.n);
+		}
+	}
+
+	/**
+	 * Apply the transpose of the current matrix to an array, into an existing array : intoᵀ = xᵀ · this.
+	 * The lines are read contiguously : into += x[i] * line(i) for every i such as x[i] != 0.
+	 * This does not allocate anything if both arrays are primitive float arrays (or views).
+	 * @param x    the input array. Its length must match the current matrix height.
+	 * @param into the output array. Its length must match the current matrix width. It must not be x.
+	 */
+	@Override
+	public void applyTransposed(NumericArray x, NumericArray into) {
+		if (! (x instanceof PrimitiveFloatArray && into instanceof PrimitiveFloatArray)) {
+			NumericMatrix.super.applyTransposed(x, into);
+			return;
+		}
+		this.applyCheck(x, this.m, into, this.n);
+		float[] in = ((PrimitiveFloatArray) x).buffer();
+		int inOffset = ((PrimitiveFloatArray) x).offset();
+		float[] out = ((PrimitiveFloatArray) into).buffer();
+		int outOffset = ((PrimitiveFloatArray) into).offset();
+		Arrays.fill(out, outOffset, outOffset + this.n, 0);
+		for (int i = 0; i < this.m; i++) {
+			float factor = in[inOffset + i];
+			if (factor == 0) {
+				continue;
+			}
+			int row = this.index(i, 0);
+			for (int j = 0; j < this.n; j++) {
+				out[outOffset + j] += factor * this.format.decode(this.data[row + j]);
+			}
+		}
+	}
+
+	@Override
+	public void zero() {
+		for (int i = 0; i < this.m; i++) {
+			int row = this.index(i, 0);
+			Arrays.fill(this.data, row, row + this.n, (short) 0);
+		}
+	}
+
+	@Override
+	public void product(
+		boolean transpose,
+		NumericMatrix with,
+		boolean withTranspose,
+		NumericMatrix into,
+		boolean accumulate) {
+		Gemm.dispatch(this, transpose, with, withTranspose, into, accumulate);
+	}
+
+	@Override
+	public void mul(float with) {
+		for (int i = 0; i < this.m; i++) {
+			int row = this.index(i, 0);
+			for (int j = row; j < row + this.n; j++) {
+				this.data[j] = this.format.encode(this.format.decode(this.data[j]) * with);
+			}
+		}
+	}
+
+	@Override
+	public Float16Matrix transpose() {
+		Float16Matrix transpose = new Float16Matrix(this.format, this.n, this.m);
+		for (int i = 0; i < this.m; i++) {
+			int row = this.index(i, 0);
+			for (int j = 0; j < this.n; j++) {
+				transpose.data[j * transpose.stride + i] = this.data[row + j];
+			}
+		}
+		return transpose;
+	}
+
+	/**
+	 * Get the index in {@link #data} of the value @(i, j). No check is done.
+	 * @param i the line index
+	 * @param j the column index
+	 * @return offset + i * stride + j
+	 */
+	private int index(int i, int j) {
+		return this.offset + i * this.stride + j;
+	}
+}
@@ -0,0 +1,527 @@
+package com.github.ugdbg.datatypes.matrix;
+
+import com.github.ugdbg.datatypes.TYPE;
+
+import java.math.BigDecimal;
+import java.nio.FloatBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Blocked matrix-matrix multiplication (GEMM) kernels for the primitive matrices : C = op(A) · op(B) [+ C].
+ * <br><br>
+ * op(X) is either X or its transpose : an operand is read using an element stride along each of its 2 dimensions,
+ * so a transposed operand is just the same buffer read with swapped strides.
+ * <br>
+ * The output matrix is split into tiles ({@link #TILE_M} x {@link #TILE_N}) that are computed in parallel
+ * on the {@link ForkJoinPool#commonPool()}. Each tile is computed by blocks of {@link #TILE_K} along the inner
+ * dimension so that the lines of A and B read by a tile stay in cache.
+ * <br>
+ * Small products (less than {@link #PARALLEL_THRESHOLD} multiply-add operations) run in the caller thread.
+ * <br>
+ * Off-heap (or mapped) and 16 bits float operands are copied to primitive float matrices first, 
+ * so that they are multiplied with the float kernel too.
+ */
+final class Gemm {
+
+	/** Output tile height : how many lines of C a single task computes. */
+	static final int TILE_M = 64;
+
+	/** Output tile width : how many columns of C a single task computes. */
+	static final int TILE_N = 256;
+
+	/** Inner dimension block : how many values of a line of op(A) are read before moving to the next line. */
+	static final int TILE_K = 256;
+
+	/** Below this amount of multiply-add operations, the product is not split into parallel tasks. */
+	static final long PARALLEL_THRESHOLD = 1L << 18;
+
+	private Gemm() {}
+
+	/**
+	 * C = op(A) · op(B) [+ C] for any numeric matrices : choose the most appropriate kernel.
+	 * <br>
+	 * {@link TransposedMatrix} views are unwrapped : their source buffer is read transposed.
+	 * A transposed output is computed as Cᵀ = op(B)ᵀ · op(A)ᵀ.
+	 * @param a          the left operand
+	 * @param aT         true to use the transpose of a
+	 * @param b          the right operand
+	 * @param bT         true to use the transpose of b
+	 * @param c          the output matrix. Its dimension must match op(A) · op(B). It must not overlap a or b.
+	 * @param accumulate true to add the product to c, false to overwrite c
+	 */
+	static void dispatch(NumericMatrix a, boolean aT, NumericMatrix b, boolean bT, NumericMatrix c, boolean accumulate) {
+		if (c instanceof TransposedMatrix) {
+			check(a, aT, b, bT, c);
+			dispatch(b, ! bT, a, ! aT, ((TransposedMatrix) c).transposed(), accumulate);
+		} else if (a instanceof TransposedMatrix) {
+			dispatch(((TransposedMatrix) a).transposed(), ! aT, b, bT, c, accumulate);
+		} else if (b instanceof TransposedMatrix) {
+			dispatch(a, aT, ((TransposedMatrix) b).transposed(), ! bT, c, accumulate);
+		} else if (a instanceof PrimitiveFloatMatrix && b instanceof PrimitiveFloatMatrix && c instanceof PrimitiveFloatMatrix) {
+			product((PrimitiveFloatMatrix) a, aT, (PrimitiveFloatMatrix) b, bT, (PrimitiveFloatMatrix) c, accumulate);
+		} else if (isFloat(c) && ! (c instanceof Float16Matrix) && isFloat(a) && isFloat(b)) {
+			check(a, aT, b, bT, c);
+			PrimitiveFloatMatrix out = c instanceof PrimitiveFloatMatrix 
+				? (PrimitiveFloatMatrix) c 
+				: accumulate ? heap(c) : new PrimitiveFloatMatrix(c.getM(), c.getN());
+			product(heap(a), aT, heap(b), bT, out, accumulate);
+			if (out != c) {
+				store(out, (OffHeapFloatMatrix) c);
+			}
+		} else if (a instanceof PrimitiveDoubleMatrix && b instanceof PrimitiveDoubleMatrix && c instanceof PrimitiveDoubleMatrix) {
+			product((PrimitiveDoubleMatrix) a, aT, (PrimitiveDoubleMatrix) b, bT, (PrimitiveDoubleMatrix) c, accumulate);
+		} else {
+			reference(a, aT, b, bT, c, accumulate);
+		}
+	}
+
+	/**
+	 * Is this matrix stored as floats : primitive, off-heap (or mapped) or 16 bits floats ?
+	 * @param x the matrix
+	 * @return true if the float kernel can compute a product with this matrix, once copied to the heap
+	 */
+	private static boolean isFloat(NumericMatrix x) {
+		return x instanceof PrimitiveFloatMatrix || x instanceof OffHeapFloatMatrix || x instanceof Float16Matrix;
+	}
+
+	/**
+	 * Copy an off-heap or 16 bits operand to a primitive float matrix, so that the product uses the float kernel.
+	 * Copying is O(m·n) : it is small compared to the product.
+	 * @param x the operand (see {@link #isFloat(NumericMatrix)})
+	 * @return x if it is a primitive float matrix, a new primitive float matrix else
+	 */
+	private static PrimitiveFloatMatrix heap(NumericMatrix x) {
+		if (x instanceof PrimitiveFloatMatrix) {
+			return (PrimitiveFloatMatrix) x;
+		}
+		if (! (x instanceof OffHeapFloatMatrix)) {
+			return (PrimitiveFloatMatrix) x.convert(TYPE.PFLOAT);
+		}
+		OffHeapFloatMatrix offHeap = (OffHeapFloatMatrix) x;
+		PrimitiveFloatMatrix copy = new PrimitiveFloatMatrix(x.getM(), x.getN());
+		FloatBuffer from = offHeap.buffer().duplicate();
+		for (int i = 0; i < x.getM(); i++) {
+			from.position(offHeap.offset() + i * offHeap.stride());
+			from.get(copy.buffer(), i * x.getN(), x.getN());
+		}
+		return copy;
+	}
+
+	/**
+	 * Copy the values of a primitive float matrix to an off-heap matrix of the same dimension.
+	 * @param values the values
+	 * @param into   the off-heap matrix
+	 */
+	private static void store(PrimitiveFloatMatrix values, OffHeapFloatMatrix into) {
+		FloatBuffer to = into.buffer().duplicate();
+		for (int i = 0; i < values.getM(); i++) {
+			to.position(into.offset() + i * into.stride());
+			to.put(values.buffer(), values.offset() + i * values.stride(), values.getN());
+		}
+	}
+
+	/**
+	 * C = op(A) · op(B) [+ C] for primitive float matrices.
+	 * @param a          the left operand
+	 * @param aT         true to use the transpose of a
+	 * @param b          the right operand
+	 * @param bT         true to use the transpose of b
+	 * @param c          the output matrix. Its dimension must match op(A) · op(B). It must not overlap a or b.
+	 * @param accumulate true to add the product to c, false to overwrite c
+	 */
+	static void product(
+		PrimitiveFloatMatrix a,
+		boolean aT,
+		PrimitiveFloatMatrix b,
+		boolean bT,
+		PrimitiveFloatMatrix c,
+		boolean accumulate) {
+
+		int k = check(a, aT, b, bT, c);
+		if (! accumulate) {
+			c.zero();
+		}
+		FloatTask task = new FloatTask(a, aT, b, bT, c, k, 0, c.getM(), 0, c.getN());
+		if ((long) c.getM() * c.getN() * k < PARALLEL_THRESHOLD) {
+			task.tile();
+		} else {
+			ForkJoinPool.commonPool().invoke(task);
+		}
+	}
+
+	/**
+	 * C = op(A) · op(B) [+ C] for primitive double matrices.
+	 * @param a          the left operand
+	 * @param aT         true to use the transpose of a
+	 * @param b          the right operand
+	 * @param bT         true to use the transpose of b
+	 * @param c          the output matrix. Its dimension must match op(A) · op(B). It must not overlap a or b.
+	 * @param accumulate true to add the product to c, false to overwrite c
+	 */
+	static void product(
+		PrimitiveDoubleMatrix a,
+		boolean aT,
+		PrimitiveDoubleMatrix b,
+		boolean bT,
+		PrimitiveDoubleMatrix c,
+		boolean accumulate) {
+
+		int k = check(a, aT, b, bT, c);
+		if (! accumulate) {
+			c.zero();
+		}
+		DoubleTask task = new DoubleTask(a, aT, b, bT, c, k, 0, c.getM(), 0, c.getN());
+		if ((long) c.getM() * c.getN() * k < PARALLEL_THRESHOLD) {
+			task.tile();
+		} else {
+			ForkJoinPool.commonPool().invoke(task);
+		}
+	}
+
+	/**
+	 * Reference C = op(A) · op(B) [+ C] : a naive sequential triple loop, using the output matrix numeric type.
+	 * <br>
+	 * This is the {@link TYPE#DECIMAL} implementation 
+	 * and the fallback for matrices of different types (see {@link #dispatch}).
+	 * @param a          the left operand
+	 * @param aT         true to use the transpose of a
+	 * @param b          the right operand
+	 * @param bT         true to use the transpose of b
+	 * @param c          the output matrix. Its dimension must match op(A) · op(B). It must not overlap a or b.
+	 * @param accumulate true to add the product to c, false to overwrite c
+	 */
+	static void reference(
+		NumericMatrix a,
+		boolean aT,
+		NumericMatrix b,
+		boolean bT,
+		NumericMatrix c,
+		boolean accumulate) {
+
+		int k = check(a, aT, b, bT, c);
+		for (int i = 0; i < c.getM(); i++) {
+			for (int j = 0; j < c.getN(); j++) {
+				if (c.getType() == TYPE.DECIMAL) {
+					BigDecimal sum = accumulate ? c.decimalAt(i, j) : BigDecimal.ZERO;
+					for (int p = 0; p < k; p++) {
+						BigDecimal aip = aT ? a.decimalAt(p, i) : a.decimalAt(i, p);
+						BigDecimal bpj = bT ? b.decimalAt(j, p) : b.decimalAt(p, j);
+						sum = sum.add(aip.multiply(bpj));
+					}
+					c.at(i, j, sum);
+				} else {
+					double sum = accumulate ? c.doubleAt(i, j) : 0;
+					for (int p = 0; p < k; p++) {
+						sum += (aT ? a.doubleAt(p, i) : a.doubleAt(i, p)) * (bT ? b.doubleAt(j, p) : b.doubleAt(p, j));
+					}
+					c.at(i, j, sum);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Check that op(A) · op(B) is defined, that its dimension matches C and that C does not overlap A or B.
+	 * <br>
+	 * The kernels write C while they read A and B (and C is zeroed first if the product is not accumulated) : 
+	 * an output that shares values with an operand would read values that were already overwritten.
+	 * @return the inner dimension of the product
+	 * @throws IllegalArgumentException if the dimensions do not match or if C overlaps A or B
+	 */
+	static int check(NumericMatrix a, boolean aT, NumericMatrix b, boolean bT, NumericMatrix c) {
+		if (overlap(a, c) || overlap(b, c)) {
+			throw new IllegalArgumentException(
+				"Matrix product output " + c.shortLabel() + " overlaps an operand : " 
+				+ a.shortLabel() + (aT ? "ᵀ" : "") + " · " + b.shortLabel() + (bT ? "ᵀ" : "")
+			);
+		}
+		int m  = aT ? a.getN() : a.getM();
+		int k  = aT ? a.getM() : a.getN();
+		int kb = bT ? b.getN() : b.getM();
+		int n  = bT ? b.getM() : b.getN();
+		if (k != kb || c.getM() != m || c.getN() != n) {
+			throw new IllegalArgumentException(
+				"Matrix product dimension check failed : "
+				+ a.shortLabel() + (aT ? "ᵀ" : "") + " · " + b.shortLabel() + (bT ? "ᵀ" : "")
+				+ " into " + c.shortLabel()
+			);
+		}
+		return k;
+	}
+
+	/**
+	 * Do 2 matrices share at least one value : same matrix, or views over the same buffer whose regions overlap ?
+	 * <br>
+	 * Regions with the same stride are compared as rectangles of the buffer, other regions by their [first, last] index.
+	 * {@link TransposedMatrix} views are compared using their source.
+	 * @param x a matrix
+	 * @param y an other matrix
+	 * @return true if writing a value of y may change a value of x
+	 */
+	static boolean overlap(NumericMatrix x, NumericMatrix y) {
+		if (x instanceof TransposedMatrix) {
+			return overlap(((TransposedMatrix) x).transposed(), y);
+		}
+		if (y instanceof TransposedMatrix) {
+			return overlap(x, ((TransposedMatrix) y).transposed());
+		}
+		if (x == y) {
+			return true;
+		}
+		int[] rx = region(x);
+		int[] ry = region(y);
+		if (rx == null || ry == null || buffer(x) != buffer(y) || x.getM() == 0 || x.getN() == 0 || y.getM() == 0 || y.getN() == 0) {
+			return false;
+		}
+
+		int stride = rx[1];
+		if (stride == ry[1] && stride > 0 && rx[0] % stride + x.getN() <= stride && ry[0] % stride + y.getN() <= stride) {
+			int xi = rx[0] / stride, xj = rx[0] % stride;
+			int yi = ry[0] / stride, yj = ry[0] % stride;
+			return xi < yi + y.getM() && yi < xi + x.getM() && xj < yj + y.getN() && yj < xj + x.getN();
+		}
+		long xLast = rx[0] + (long) (x.getM() - 1) * rx[1] + x.getN() - 1;
+		long yLast = ry[0] + (long) (y.getM() - 1) * ry[1] + y.getN() - 1;
+		return rx[0] <= yLast && ry[0] <= xLast;
+	}
+
+	/**
+	 * The buffer of a matrix, for the matrices that are views over a buffer.
+	 * @return the matrix buffer, null if the matrix is not stored in a buffer
+	 */
+	private static Object buffer(NumericMatrix x) {
+		if (x instanceof PrimitiveFloatMatrix) {
+			return ((PrimitiveFloatMatrix) x).buffer();
+		} else if (x instanceof PrimitiveDoubleMatrix) {
+			return ((PrimitiveDoubleMatrix) x).buffer();
+		} else if (x instanceof OffHeapFloatMatrix) {
+			return ((OffHeapFloatMatrix) x).buffer();
+		} else if (x instanceof Float16Matrix) {
+			return ((Float16Matrix) x).buffer();
+		} else if (x instanceof DecimalMatrix) {
+			return ((DecimalMatrix) x).buffer();
+		}
+		return null;
+	}
+
+	/**
+	 * The region of the {@link #buffer(NumericMatrix)} of a matrix.
+	 * @return {offset, stride}, null if the matrix is not stored in a buffer
+	 */
+	private static int[] region(NumericMatrix x) {
+		if (x instanceof PrimitiveFloatMatrix) {
+			return new int[] {((PrimitiveFloatMatrix) x).offset(), ((PrimitiveFloatMatrix) x).stride()};
+		} else if (x instanceof PrimitiveDoubleMatrix) {
+			return new int[] {((PrimitiveDoubleMatrix) x).offset(), ((PrimitiveDoubleMatrix) x).stride()};
+		} else if (x instanceof OffHeapFloatMatrix) {
+			return new int[] {((OffHeapFloatMatrix) x).offset(), ((OffHeapFloatMatrix) x).stride()};
+		} else if (x instanceof Float16Matrix) {
+			return new int[] {((Float16Matrix) x).offset(), ((Float16Matrix) x).stride()};
+		} else if (x instanceof DecimalMatrix) {
+			return new int[] {((DecimalMatrix) x).offset(), ((DecimalMatrix) x).stride()};
+		}
+		return null;
+	}
+
+	/**
+	 * Split the [i0, i1[ x [j0, j1[ tile of C in 2 along its biggest dimension, if it is bigger than a tile.
+	 * @return the split index along the lines (positive), along the columns (negative) or 0 if no split is required
+	 */
+	private static int split(int i0, int i1, int j0, int j1) {
+		int rows = i1 - i0;
+		int cols = j1 - j0;
+		if (rows > TILE_M && rows * TILE_N >= cols * TILE_M) {
+			return i0 + Math.max(TILE_M, (rows / 2) / TILE_M * TILE_M);
+		}
+		if (cols > TILE_N) {
+			return -(j0 + Math.max(TILE_N, (cols / 2) / TILE_N * TILE_N));
+		}
+		return 0;
+	}
+
+	/**
+	 * Compute the [i0, i1[ x [j0, j1[ tile of C = op(A) · op(B) for primitive floats.
+	 */
+	private static class FloatTask extends RecursiveAction {
+		private final PrimitiveFloatMatrix a;
+		private final boolean aT;
+		private final PrimitiveFloatMatrix b;
+		private final boolean bT;
+		private final PrimitiveFloatMatrix c;
+		private final int k;
+		private final int i0, i1, j0, j1;
+
+		private FloatTask(
+			PrimitiveFloatMatrix a,
+			boolean aT,
+			PrimitiveFloatMatrix b,
+			boolean bT,
+			PrimitiveFloatMatrix c,
+			int k,
+			int i0,
+			int i1,
+			int j0,
+			int j1) {
+			this.a = a;
+			this.aT = aT;
+			this.b = b;
+			this.bT = bT;
+			this.c = c;
+			this.k = k;
+			this.i0 = i0;
+			this.i1 = i1;
+			this.j0 = j0;
+			this.j1 = j1;
+		}
+
+		@Override
+		protected void compute() {
+			int split = split(this.i0, this.i1, this.j0, this.j1);
+			if (split > 0) {
+				invokeAll(
+					new FloatTask(this.a, this.aT, this.b, this.bT, this.c, this.k, this.i0, split, this.j0, this.j1),
+					new FloatTask(this.a, this.aT, this.b, this.bT, this.c, this.k, split, this.i1, this.j0, this.j1)
+				);
+			} else if (split < 0) {
+				invokeAll(
+					new FloatTask(this.a, this.aT, this.b, this.bT, this.c, this.k, this.i0, this.i1, this.j0, -split),
+					new FloatTask(this.a, this.aT, this.b, this.bT, this.c, this.k, this.i0, this.i1, -split, this.j1)
+				);
+			} else {
+				this.tile();
+			}
+		}
+
+		private void tile() {
+			float[] a = this.a.buffer();
+			float[] b = this.b.buffer();
+			float[] c = this.c.buffer();
+
+			// Element strides of op(A) along (i, p) and of op(B) along (p, j)
+			int aI = this.aT ? 1 : this.a.stride();
+			int aP = this.aT ? this.a.stride() : 1;
+			int bP = this.bT ? 1 : this.b.stride();
+			int bJ = this.bT ? this.b.stride() : 1;
+
+			for (int p0 = 0; p0 < this.k; p0 += TILE_K) {
+				int p1 = Math.min(p0 + TILE_K, this.k);
+				for (int i = this.i0; i < this.i1; i++) {
+					int cRow = this.c.offset() + i * this.c.stride();
+					int aRow = this.a.offset() + i * aI;
+					if (bJ == 1) {
+						// C(i, .) += A(i, p) * B(p, .) : B lines and C lines are read contiguously
+						for (int p = p0; p < p1; p++) {
+							float aip = a[aRow + p * aP];
+							int bRow = this.b.offset() + p * bP;
+							for (int j = this.j0; j < this.j1; j++) {
+								c[cRow + j] += aip * b[bRow + j];
+							}
+						}
+					} else {
+						// C(i, j) += A(i, .) · B(., j) : B columns are the lines of the transposed buffer
+						for (int j = this.j0; j < this.j1; j++) {
+							int bCol = this.b.offset() + j * bJ;
+							float sum = 0;
+							for (int p = p0; p < p1; p++) {
+								sum += a[aRow + p * aP] * b[bCol + p];
+							}
+							c[cRow + j] += sum;
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Compute the [i0, i1[ x [j0, j1[ tile of C = op(A) · op(B) for primitive doubles.
+	 */
+	private static class DoubleTask extends RecursiveAction {
+		private final PrimitiveDoubleMatrix a;
+		private final boolean aT;
+		private final PrimitiveDoubleMatrix b;
+		private final boolean bT;
+		private final PrimitiveDoubleMatrix c;
+		private final int k;
+		private final int i0, i1, j0, j1;
+
+		private DoubleTask(
+			PrimitiveDoubleMatrix a,
+			boolean aT,
+			PrimitiveDoubleMatrix b,
+			boolean bT,
+			PrimitiveDoubleMatrix c,
+			int k,
+			int i0,
+			int i1,
+			int j0,
+			int j1) {
+			this.a = a;
+			this.aT = aT;
+			this.b = b;
+			this.bT = bT;
+			this.c = c;
+			this.k = k;
+			this.i0 = i0;
+			this.i1 = i1;
+			this.j0 = j0;
+			this.j1 = j1;
+		}
+
+		@Override
+		protected void compute() {
+			int split = split(this.i0, this.i1, this.j0, this.j1);
+			if (split > 0) {
+				invokeAll(
+					new DoubleTask(this.a, this.aT, this.b, this.bT, this.c, this.k, this.i0, split, this.j0, this.j1),
+					new DoubleTask(this.a, this.aT, this.b, this.bT, this.c, this.k, split, this.i1, this.j0, this.j1)
+				);
+			} else if (split < 0) {
+				invokeAll(
+					new DoubleTask(this.a, this.aT, this.b, this.bT, this.c, this.k, this.i0, this.i1, this.j0, -split),
+					new DoubleTask(this.a, this.aT, this.b, this.bT, this.c, this.k, this.i0, this.i1, -split, this.j1)
+				);
+			} else {
+				this.tile();
+			}
+		}
+
+		private void tile() {
+			double[] a = this.a.buffer();
+			double[] b = this.b.buffer();
+			double[] c = this.c.buffer();
+
+			int aI = this.aT ? 1 : this.a.stride();
+			int aP = this.aT ? this.a.stride() : 1;
+			int bP = this.bT ? 1 : this.b.stride();
+			int bJ = this.bT ? this.b.stride() : 1;
+
+			for (int p0 = 0; p0 < this.k; p0 += TILE_K) {
+				int p1 = Math.min(p0 + TILE_K, this.k);
+				for (int i = this.i0; i < this.i1; i++) {
+					int cRow = this.c.offset() + i * this.c.stride();
+					int aRow = this.a.offset() + i * aI;
+					if (bJ == 1) {
+						for (int p = p0; p < p1; p++) {
+							double aip = a[aRow + p * aP];
+							int bRow = this.b.offset() + p * bP;
+							for (int j = this.j0; j < this.j1; j++) {
+								c[cRow + j] += aip * b[bRow + j];
+							}
+						}
+					} else {
+						for (int j = this.j0; j < this.j1; j++) {
+							int bCol = this.b.offset() + j * bJ;
+							double sum = 0;
+							for (int p = p0; p < p1; p++) {
+								sum += a[aRow + p * aP] * b[bCol + p];
+							}
+							c[cRow + j] += sum;
+						}
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,201 @@
+package com.github.ugdbg.datatypes.matrix;
+
+import com.github.ugdbg.datatypes.DirectMemory;
+import com.github.ugdbg.datatypes.TYPE;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link TYPE#OFFHEAP_FLOAT} matrix whose values are a memory-mapped file.
+ * <br><br>
+ * Opening a matrix file neither reads nor copies its values : they are paged in on access, from the OS page cache.
+ * Several JVMs on the same host that open the same file share the same physical memory.
+ * <br>
+ * File layout (little-endian) :
+ * <ul>
+ *     <li>{@link #MAGIC} (int), M (int), N (int), 0 (int)</li>
+ *     <li>the M x N float values, row-major</li>
+ * </ul>
+ * A matrix opened read-only throws a {@link java.nio.ReadOnlyBufferException} on any write.
+ * <br>
+ * {@link #release()} unmaps the file. The matrix is serialized as a reference to its file :
+ * a deserialized mapped matrix maps the same file, read-only.
+ */
+public class MappedFloatMatrix extends OffHeapFloatMatrix {
+
+	/** The magic number at the beginning of a matrix file : 'MLMX'. */
+	public static final int MAGIC = 0x4D4C4D58;
+
+	/** The size of the file header, in bytes. */
+	private static final int HEADER_BYTES = 4 * Integer.BYTES;
+
+	private transient final Path file;
+	private transient final boolean readOnly;
+
+	private MappedFloatMatrix(Path file, ByteBuffer memory, int m, int n, boolean readOnly) {
+		super(memory, HEADER_BYTES / Float.BYTES, m, n);
+		this.file = file;
+		this.readOnly = readOnly;
+	}
+
+	/**
+	 * Create a new matrix file, or overwrite an existing one, and map it read-write. Values are set to 0.
+	 * <br>
+	 * The file is written next to the target and moved in place : an existing file is replaced, not truncated.
+	 * A matrix that is still mapped from the previous file keeps its values, 
+	 * e.g. to {@link #create(Path, NumericMatrix) copy} a mapped matrix to its own file.
+	 * @param file the matrix file
+	 * @param m    the matrix height
+	 * @param n    the matrix width
+	 * @return a new mapped matrix instance
+	 * @throws IllegalArgumentException if the matrix is too big to be mapped at once
+	 */
+	public static MappedFloatMatrix create(Path file, int m, int n) {
+		if (m < 0 || n < 0 || (long) m * n > DirectMemory.MAX_FLOATS - HEADER_BYTES / Float.BYTES) {
+			throw new IllegalArgumentException("Bad mapped matrix dimension M(" + m + ", " + n + ")");
+		}
+		Path temp = null;
+		try {
+			temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+			ByteBuffer memory;
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				memory = map(channel, FileChannel.MapMode.READ_WRITE, HEADER_BYTES + (long) m * n * Float.BYTES);
+			}
+			memory.putInt(0, MAGIC).putInt(4, m).putInt(8, n).putInt(12, 0);
+			try {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				DirectMemory.free(memory);
+				throw e;
+			}
+			return new MappedFloatMatrix(file, memory, m, n, false);
+		} catch (IOException e) {
+			if (temp != null) {
+				temp.toFile().delete();
+			}
+			throw new RuntimeException("Could not create matrix file [" + file + "]", e);
+		}
+	}
+
+	/**
+	 * Create a new matrix file, or overwrite an existing one, with the values of a matrix, and map it read-write.
+	 * @param file   the matrix file
+	 * @param values the matrix values to write. They are converted to floats.
+	 * @return a new mapped matrix instance
+	 */
+	public static MappedFloatMatrix create(Path file, NumericMatrix values) {
+		MappedFloatMatrix mapped = create(file, values.getM(), values.getN());
+		for (int i = 0; i < values.getM(); i++) {
+			mapped.line(i).set(values.line(i));
+		}
+		return mapped;
+	}
+
+	/**
+	 * Map an existing matrix file. Nothing is read but the header.
+	 * @param file     the matrix file
+	 * @param readOnly true to map the file read-only, false to map it read-write (writes go to the file)
+	 * @return a new mapped matrix instance
+	 * @throws IllegalArgumentException if the file is not a matrix file
+	 */
+	public static MappedFloatMatrix open(Path file, boolean readOnly) {
+		StandardOpenOption[] options = readOnly
+			? new StandardOpenOption[] {StandardOpenOption.READ}
+			: new StandardOpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE};
+		FileChannel.MapMode mode = readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE;
+
+		try (FileChannel channel = FileChannel.open(file, options)) {
+			long size = channel.size();
+			if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Not a matrix file [" + file + "] : bad size [" + size + "]");
+			}
+			ByteBuffer memory = map(channel, mode, size);
+			int m = memory.getInt(4);
+			int n = memory.getInt(8);
+			if (memory.getInt(0) != MAGIC || m < 0 || n < 0 || size != HEADER_BYTES + (long) m * n * Float.BYTES) {
+				DirectMemory.free(memory);
+				throw new IllegalArgumentException("Not a matrix file [" + file + "] : bad header");
+			}
+			return new MappedFloatMatrix(file, memory, m, n, readOnly);
+		} catch (IOException e) {
+			throw new RuntimeException("Could not map matrix file [" + file + "]", e);
+		}
+	}
+
+	/**
+	 * Get the file this matrix is mapped from.
+	 * @return {@link #file}
+	 */
+	public Path file() {
+		return this.file;
+	}
+
+	/**
+	 * Is this matrix mapped read-only ?
+	 * @return {@link #readOnly}
+	 */
+	public boolean isReadOnly() {
+		return this.readOnly;
+	}
+
+	/**
+	 * Write any change to this matrix values to the storage device now.
+	 * Changes are visible to the other JVMs that map the file without it.
+	 */
+	public void force() {
+		if (! this.readOnly && ! this.isReleased()) {
+			((MappedByteBuffer) this.memory()).force();
+		}
+	}
+
+	/**
+	 * Map a region of a file channel, in little-endian byte order.
+	 * @param channel the file channel
+	 * @param mode    the mapping mode
+	 * @param size    the region size, from the file beginning, in bytes
+	 * @return the mapped buffer
+	 */
+	private static ByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long size) throws IOException {
+		return channel.map(mode, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Serialize a reference to the matrix file, not the values.
+	 */
+	private Object writeReplace() {
+		return new Reference(this.file.toAbsolutePath().toString());
+	}
+
+	/**
+	 * The serialized form of a mapped matrix : its file path.
+	 */
+	private static class Reference implements Serializable {
+		private final String path;
+
+		private Reference(String path) {
+			this.path = path;
+		}
+
+		private Object readResolve() throws ObjectStreamException {
+			try {
+				return MappedFloatMatrix.open(Paths.get(this.path), true);
+			} catch (RuntimeException e) {
+				InvalidObjectException invalid = new InvalidObjectException("Could not map [" + this.path + "]");
+				invalid.initCause(e);
+				throw invalid;
+			}
+		}
+	}
+}
@@ -1,5 +1,8 @@
 package com.github.ugdbg.datatypes.matrix;
 
+import com.github.ugdbg.datatypes.Converter;
+import com.github.ugdbg.datatypes.Parallelism;
+import com.github.ugdbg.datatypes.Summation;
 import com.github.ugdbg.datatypes.TYPE;
 import com.github.ugdbg.datatypes.array.NumericArray;
 
@@ -10,6 +13,9 @@ import java.util.stream.IntStream;
 /**
  * An interface for a {@link #getM()} x {@link #getN()} matrix data store.
  * <br><br>
+ * Implementations store their values in a single flat row-major buffer with an explicit stride, 
+ * so that {@link #line(int)}, {@link #rows(int, int)} and {@link #block(int, int, int, int)} are zero-copy views.
+ * <br><br>
  * <b>
  *     The data type stored in the matrix is up to the implementation.
  *     However, the numeric matrix should implement operations for all the available numeric types.
@@ -35,7 +41,7 @@ public interface NumericMatrix extends Serializable {
 
 	/**
 	 * Get the matrix width, i.e. the input dimension
-	 * @return the matrix width (actually the length of the array at line #1
+	 * @return the matrix width
 	 */
 	int getN();
 
@@ -108,7 +114,9 @@ public interface NumericMatrix extends Serializable {
 	NumericMatrix at(int i, int j, BigDecimal value);
 
 	/**
-	 * Return an array representation of the matrix line @x
+	 * Return an array representation of the matrix line @x.
+	 * <br>
+	 * This is a view over the matrix buffer : writing to the array writes to the matrix.
 	 * @param x the matrix line index
 	 * @return an array representation of the line @x
 	 */
@@ -121,6 +129,39 @@ public interface NumericMatrix extends Serializable {
 	 */
 	NumericArray column(int y);
 
+	/**
+	 * Return a view over the lines [from, to[ of the current matrix. Nothing is copied.
+	 * @param from the first line index (inclusive)
+	 * @param to   the last line index (exclusive)
+	 * @return a (to - from) x {@link #getN()} matrix that shares the current matrix buffer
+	 */
+	NumericMatrix rows(int from, int to);
+
+	/**
+	 * Return a view over the m x n sub-block of the current matrix whose top-left corner is @(i, j). Nothing is copied.
+	 * @param i the line index of the block top-left corner
+	 * @param j the column index of the block top-left corner
+	 * @param m the block height
+	 * @param n the block width
+	 * @return a m x n matrix that shares the current matrix buffer
+	 */
+	NumericMatrix block(int i, int j, int m, int n);
+
+	/**
+	 * Copy the current matrix into a new matrix of an other numeric type, e.g. floats to {@link TYPE#HALF} and back.
+	 * <br>
+	 * This is done line by line. Values are rounded to the target type if required (see {@link NumericArray#set(NumericArray)}).
+	 * @param type the numeric type of the copy
+	 * @return a new {@link #getM()} x {@link #getN()} matrix of the given type, with the current matrix values
+	 */
+	default NumericMatrix convert(TYPE type) {
+		NumericMatrix converted = type.matrix(this.getM(), this.getN());
+		for (int i = 0; i < this.getM(); i++) {
+			converted.line(i).set(this.line(i));
+		}
+		return converted;
+	}
+
 	/**
 	 * Sum the current matrix instance with an other matrix 
 	 * @param with an other matrix instance
@@ -133,18 +174,352 @@ public interface NumericMatrix extends Serializable {
 	 */
 	void mul(NumericMatrix with);
 
+	/**
+	 * Fused scaled sum, in place : this = this + alpha * x. This is done line by line.
+	 * @param alpha the scale factor of x
+	 * @param x     the matrix to scale and add. Its dimension must match the current matrix.
+	 */
+	default void axpy(float alpha, NumericMatrix x) {
+		this.dimensionCheck(x);
+		for (int i = 0; i < this.getM(); i++) {
+			this.line(i).axpy(alpha, x.line(i));
+		}
+	}
+
+	/**
+	 * Matrix product of the current matrix instance with an other matrix : this · with.
+	 * <br>
+	 * Not to be confused with {@link #mul(NumericMatrix)}, which is element-wise.
+	 * @param with the right operand. Its height must match the current matrix width.
+	 * @return a new {@link #getM()} x with.{@link #getN()} matrix of the current matrix type
+	 */
+	default NumericMatrix product(NumericMatrix with) {
+		NumericMatrix product = this.getType().matrix(this.getM(), with.getN());
+		this.product(with, product, false);
+		return product;
+	}
+
+	/**
+	 * Matrix product of the current matrix instance with an other matrix, into an existing matrix :
+	 * into = this · with (+ into).
+	 * @param with       the right operand. Its height must match the current matrix width.
+	 * @param into       the output matrix. Its dimension must be {@link #getM()} x with.{@link #getN()}.
+	 *                   It must not share any value with the operands.
+	 * @param accumulate true to add the product to the 'into' values, false to overwrite them
+	 * @throws IllegalArgumentException if the dimensions do not match or if 'into' overlaps an operand
+	 */
+	default void product(NumericMatrix with, NumericMatrix into, boolean accumulate) {
+		this.product(false, with, false, into, accumulate);
+	}
+
+	/**
+	 * Generalized matrix product, into an existing matrix : into = op(this) · op(with) (+ into).
+	 * <br>
+	 * op(X) is either X or its transpose Xᵀ. The transpose is never computed : the operand is read transposed.
+	 * @param transpose     true to use the transpose of the current matrix
+	 * @param with          the right operand
+	 * @param withTranspose true to use the transpose of the right operand
+	 * @param into          the output matrix. Its dimension must match op(this) · op(with).
+	 *                      It must not share any value with the operands (e.g. a view of the same buffer).
+	 * @param accumulate    true to add the product to the 'into' values, false to overwrite them
+	 * @throws IllegalArgumentException if the dimensions do not match or if 'into' overlaps an operand
+	 */
+	void product(boolean transpose, NumericMatrix with, boolean withTranspose, NumericMatrix into, boolean accumulate);
+
+	/**
+	 * Apply the transpose of the current matrix to an array, without computing the transpose : yᵀ = xᵀ · this.
+	 * <br>
+	 * The current matrix lines are read contiguously : y += x[i] * line(i) for every i such as x[i] != 0.
+	 * The output array is the only allocation (see {@link #applyTransposed(NumericArray, NumericArray)}).
+	 * @param x the input array. Its length must match the current matrix height.
+	 * @return a new array of the current matrix {@link TYPE#heap()} type, of length {@link #getN()}
+	 */
+	default NumericArray applyTransposed(NumericArray x) {
+		if (x.length() != this.getM()) {
+			throw new IllegalArgumentException(
+				"Input size [" + x.length() + "] does not match matrix height " + this.shortLabel()
+			);
+		}
+		NumericArray out = this.getType().heap().array(this.getN());
+		this.applyTransposed(x, out);
+		return out;
+	}
+
+	/**
+	 * Apply the current matrix to an array, into an existing array : into = this · x.
+	 * <br>
+	 * into[i] is the linear combination of the line @i with x, computed with the 'into' array numeric type.
+	 * Implementations override this to compute it without any allocation.
+	 * @param x    the input array. Its length must match the current matrix width.
+	 * @param into the output array. Its length must match the current matrix height. It must not be x.
+	 */
+	default void apply(NumericArray x, NumericArray into) {
+		this.applyCheck(x, this.getN(), into, this.getM());
+		for (int i = 0; i < this.getM(); i++) {
+			switch (into.getType().heap()) {
+				case PFLOAT:  into.at(i, this.line(i).linearCombinationToFloat(x));   break;
+				case PDOUBLE: into.at(i, this.line(i).linearCombinationToDouble(x));  break;
+				case DECIMAL: into.at(i, this.line(i).linearCombinationToDecimal(x)); break;
+				default: throw new IllegalArgumentException("Unsupported output type [" + into.getType().name() + "]");
+			}
+		}
+	}
+
+	/**
+	 * Apply the transpose of the current matrix to an array, into an existing array : intoᵀ = xᵀ · this.
+	 * <br>
+	 * The current matrix lines are read contiguously : into += x[i] * line(i) for every i such as x[i] != 0,
+	 * computed with the 'into' array numeric type.
+	 * Implementations override this with tight loops.
+	 * @param x    the input array. Its length must match the current matrix height.
+	 * @param into the output array. Its length must match the current matrix width. It must not be x.
+	 */
+	default void applyTransposed(NumericArray x, NumericArray into) {
+		this.applyCheck(x, this.getM(), into, this.getN());
+		into.zero();
+		boolean decimal = into.getType().heap() == TYPE.DECIMAL;
+		for (int i = 0; i < this.getM(); i++) {
+			NumericArray line = this.line(i);
+			if (decimal) {
+				BigDecimal factor = Converter.toDecimal(x.at(i));
+				if (factor.signum() == 0) {
+					continue;
+				}
+				for (int j = 0; j < this.getN(); j++) {
+					into.at(j, Converter.toDecimal(into.at(j)).add(factor.multiply(Converter.toDecimal(line.at(j)))));
+				}
+			} else {
+				double factor = x.doubleAt(i);
+				if (factor == 0) {
+					continue;
+				}
+				for (int j = 0; j < this.getN(); j++) {
+					into.at(j, into.doubleAt(j) + factor * line.doubleAt(j));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Set the current matrix to the outer product of 2 arrays : this = a ⊗ b, i.e. @(i, j) = a[i] * b[j].
+	 * <br>
+	 * Implementations override this to compute it without any allocation.
+	 * @param a the left array. Its length must match the current matrix height.
+	 * @param b the right array. Its length must match the current matrix width.
+	 */
+	default void outer(NumericArray a, NumericArray b) {
+		this.applyCheck(b, this.getN(), a, this.getM());
+		for (int i = 0; i < this.getM(); i++) {
+			NumericArray line = this.line(i).set(b);
+			Number factor = a.at(i);
+			if (factor instanceof BigDecimal) {
+				line.mul((BigDecimal) factor);
+			} else {
+				line.mul(factor.doubleValue());
+			}
+		}
+	}
+
+	/**
+	 * Add the scaled outer product of 2 arrays to the current matrix, in place : this += α·a ⊗ b (i.e. a BLAS GER).
+	 * <br>
+	 * Nothing is computed for a zero entry of a or b : the outer product is never built.
+	 * Implementations override this with tight loops.
+	 * @param alpha the scale factor α
+	 * @param a     the left array. Its length must match the current matrix height.
+	 * @param b     the right array. Its length must match the current matrix width.
+	 */
+	default void accumulateOuter(float alpha, NumericArray a, NumericArray b) {
+		this.applyCheck(b, this.getN(), a, this.getM());
+		if (alpha == 0) {
+			return;
+		}
+
+		boolean decimal = this.getType().heap() == TYPE.DECIMAL;
+		for (int i = 0; i < this.getM(); i++) {
+			Number left = a.at(i);
+			if (left.doubleValue() == 0) {
+				continue;
+			}
+			BigDecimal decimalFactor = decimal ? BigDecimal.valueOf(alpha).multiply(Converter.toDecimal(left)) : null;
+			double factor = alpha * left.doubleValue();
+			for (int j = 0; j < this.getN(); j++) {
+				Number right = b.at(j);
+				if (right.doubleValue() == 0) {
+					continue;
+				}
+				if (decimal) {
+					this.at(i, j, this.decimalAt(i, j).add(decimalFactor.multiply(Converter.toDecimal(right))));
+				} else {
+					this.at(i, j, this.doubleAt(i, j) + factor * right.doubleValue());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Set every value of the current matrix to 0, in place.
+	 */
+	default void zero() {
+		for (int i = 0; i < this.getM(); i++) {
+			this.line(i).zero();
+		}
+	}
+
 	/**
 	 * Multiply the current matrix instance with a scalar 
 	 * @param with the scalar value as a float
 	 */
 	void mul(float with);
 
+	/**
+	 * Find the highest value.
+	 * @return the row-major index (i * {@link #getN()} + j) of the first highest value, -1 if the matrix is empty
+	 */
+	default int argmax() {
+		int top = -1;
+		double max = 0;
+		for (int i = 0; i < this.getM(); i++) {
+			for (int j = 0; j < this.getN(); j++) {
+				double value = this.doubleAt(i, j);
+				if (top == -1 || value > max) {
+					top = i * this.getN() + j;
+					max = value;
+				}
+			}
+		}
+		return top;
+	}
+
+	/**
+	 * Find the lowest value.
+	 * @return the row-major index (i * {@link #getN()} + j) of the first lowest value, -1 if the matrix is empty
+	 */
+	default int argmin() {
+		int bottom = -1;
+		double min = 0;
+		for (int i = 0; i < this.getM(); i++) {
+			for (int j = 0; j < this.getN(); j++) {
+				double value = this.doubleAt(i, j);
+				if (bottom == -1 || value < min) {
+					bottom = i * this.getN() + j;
+					min = value;
+				}
+			}
+		}
+		return bottom;
+	}
+
+	/**
+	 * Reduce the values : Σ term(xᵢⱼ - shift), in double precision, in row-major order.
+	 * <br>
+	 * The primitive matrices override this with a kernel on their buffer if their lines are contiguous.
+	 * @param summation the summation algorithm
+	 * @param term      the summed term of every value
+	 * @param shift     the shift of every value
+	 * @return the reduced value. 0 if the matrix is empty.
+	 */
+	default double reduce(Summation summation, Summation.Term term, double shift) {
+		int n = this.getN();
+		return summation.sum(index -> this.doubleAt(index / n, index % n), this.getM() * n, term, shift);
+	}
+
+	/**
+	 * The highest value.
+	 * @return the highest value, NaN if the matrix is empty
+	 */
+	default double max() {
+		int top = this.argmax();
+		return top == -1 ? Double.NaN : this.doubleAt(top / this.getN(), top % this.getN());
+	}
+
+	/**
+	 * The lowest value.
+	 * @return the lowest value, NaN if the matrix is empty
+	 */
+	default double min() {
+		int bottom = this.argmin();
+		return bottom == -1 ? Double.NaN : this.doubleAt(bottom / this.getN(), bottom % this.getN());
+	}
+
+	/**
+	 * Sum the values in double precision, using {@link Summation#PAIRWISE} summation.
+	 * @return Σ xᵢⱼ
+	 */
+	default double sumToDouble() {
+		return this.sumToDouble(Summation.PAIRWISE);
+	}
+
+	/**
+	 * Sum the values in double precision.
+	 * @param summation the summation algorithm
+	 * @return Σ xᵢⱼ
+	 */
+	default double sumToDouble(Summation summation) {
+		return this.reduce(summation, Summation.Term.VALUE, 0);
+	}
+
+	/**
+	 * Sum the squared values, using {@link Summation#PAIRWISE} summation.
+	 * @return Σ xᵢⱼ²
+	 */
+	default double sumOfSquares() {
+		return this.reduce(Summation.PAIRWISE, Summation.Term.SQUARE, 0);
+	}
+
+	/**
+	 * The entrywise L1 norm, using {@link Summation#PAIRWISE} summation.
+	 * @return Σ |xᵢⱼ|
+	 */
+	default double norm1() {
+		return this.reduce(Summation.PAIRWISE, Summation.Term.ABS, 0);
+	}
+
+	/**
+	 * The entrywise L2 (Frobenius) norm, using {@link Summation#PAIRWISE} summation.
+	 * @return √(Σ xᵢⱼ²)
+	 */
+	default double norm2() {
+		return Math.sqrt(this.sumOfSquares());
+	}
+
+	/**
+	 * The mean value, using {@link Summation#PAIRWISE} summation.
+	 * @return Σ xᵢⱼ / (m * n), NaN if the matrix is empty
+	 */
+	default double mean() {
+		int size = this.getM() * this.getN();
+		return size == 0 ? Double.NaN : this.sumToDouble() / size;
+	}
+
+	/**
+	 * The (population) variance, using {@link Summation#PAIRWISE} summation.
+	 * <br>
+	 * Computed in 2 passes : the mean, then the sum of the squared deviations from the mean.
+	 * @return Σ (xᵢⱼ - mean)² / (m * n), NaN if the matrix is empty
+	 */
+	default double variance() {
+		int size = this.getM() * this.getN();
+		return size == 0 ? Double.NaN : this.reduce(Summation.PAIRWISE, Summation.Term.SQUARE, this.mean()) / size;
+	}
+
 	/**
 	 * Create the transpose of the current matrix
 	 * @return a new matrix instance, transpose of the current instance
 	 */
 	NumericMatrix transpose();
 
+	/**
+	 * Get a lazy transpose view of the current matrix. Nothing is copied.
+	 * <br>
+	 * Writes to the view are writes to the current matrix.
+	 * A matrix product with the view reads the current matrix buffer transposed.
+	 * @return a {@link #getN()} x {@link #getM()} view over the current matrix
+	 */
+	default NumericMatrix transposed() {
+		return new TransposedMatrix(this);
+	}
+
 	/**
 	 * Create an integer stream that is set to match the current matrix heigth. 
 	 * @return an integer stream from 0 (inclusive) to {@link #getM()} (exclusive)
@@ -176,13 +551,61 @@ public interface NumericMatrix extends Serializable {
 	 * @param n the width index
 	 */
 	default void dimensionCheck(int m, int n) {
-		if (this.getM() < m || this.getN() < n) {
+		if (m < 0 || n < 0 || this.getM() <= m || this.getN() <= n) {
 			throw new IllegalArgumentException(
 				"Matrix dimension check failed : " + this.shortLabel() + " with (" + m + ", " + n + ")" 
 			);
 		}
 	}
 	
+	/**
+	 * Check if the m x n sub-block whose top-left corner is @(i, j) fits in the current matrix instance.
+	 * @param i the line index of the block top-left corner
+	 * @param j the column index of the block top-left corner
+	 * @param m the block height
+	 * @param n the block width
+	 */
+	default void blockCheck(int i, int j, int m, int n) {
+		if (i < 0 || j < 0 || m < 0 || n < 0 || i + m > this.getM() || j + n > this.getN()) {
+			throw new IllegalArgumentException(
+				"Matrix block check failed : " + this.shortLabel() + " with (" + i + ", " + j + ") + M(" + m + ", " + n + ")"
+			);
+		}
+	}
+
+	/**
+	 * Check if a m x n row-major layout with the given offset and stride fits in a buffer.
+	 * @param length the buffer length
+	 * @param offset the index in the buffer of the value @(0, 0)
+	 * @param m      the matrix height
+	 * @param n      the matrix width
+	 * @param stride the distance in the buffer between the values @(i, j) and @(i + 1, j)
+	 */
+	static void layoutCheck(int length, int offset, int m, int n, int stride) {
+		if (offset < 0 || m < 0 || n < 0 || stride < n || (m > 0 && offset + (m - 1) * stride + n > length)) {
+			throw new IllegalArgumentException(
+				"Bad M(" + m + ", " + n + ") layout with offset [" + offset + "] and stride [" + stride + "] " 
+				+ "over a buffer of length [" + length + "]"
+			);
+		}
+	}
+	
+	/**
+	 * Check the input and output array lengths of an apply operation on the current matrix instance.
+	 * @param x          the input array
+	 * @param xLength    the expected input length
+	 * @param into       the output array
+	 * @param intoLength the expected output length
+	 */
+	default void applyCheck(NumericArray x, int xLength, NumericArray into, int intoLength) {
+		if (x.length() != xLength || into.length() != intoLength) {
+			throw new IllegalArgumentException(
+				"Input size [" + x.length() + "] / output size [" + into.length() + "] "
+				+ "do not match matrix " + this.shortLabel()
+			);
+		}
+	}
+
 	/**
 	 * Check if the given matrix has the same dimension as the current matrix instance.
 	 * @param other the other matrix
@@ -208,4 +631,24 @@ public interface NumericMatrix extends Serializable {
 		}
 		return this;
 	}
+
+	/**
+	 * Execute an operation on every weight, by chunks of lines in parallel if the matrix is large enough
+	 * (see {@link Parallelism#global()}).
+	 * <br>
+	 * The weights are not visited in order : the operation must be thread-safe and only write the weight at its position.
+	 * Use {@link #operation(Operation)} else.
+	 * @param lambda the operation to execute
+	 * @return the current Matrix instance
+	 */
+	default NumericMatrix parallelOperation(Operation lambda) {
+		Parallelism.global().forRange(this.getM(), this.getN(), this.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				for (int j = 0; j < this.getN(); j++) {
+					lambda.apply(this, i, j);
+				}
+			}
+		});
+		return this;
+	}
 }
@@ -0,0 +1,389 @@
+package com.github.ugdbg.datatypes.matrix;
+
+import com.github.ugdbg.datatypes.DirectMemory;
+import com.github.ugdbg.datatypes.Releasable;
+import com.github.ugdbg.datatypes.Summation;
+import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.datatypes.array.NumericArray;
+import com.github.ugdbg.datatypes.array.OffHeapFloatArray;
+import com.github.ugdbg.datatypes.array.PrimitiveFloatArray;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * A numeric matrix implementation using floats stored off-heap in a direct buffer, i.e. {@link TYPE#OFFHEAP_FLOAT}.
+ * <br><br>
+ * Values are stored row-major in a single flat {@link #buffer} : @(i, j) is at offset + i * stride + j.
+ * <br>
+ * {@link #line(int)}, {@link #rows(int, int)} and {@link #block(int, int, int, int)} are views over this buffer.
+ * <br>
+ * The memory is freed by {@link #release()} or when the matrix is garbage collected. See {@link Releasable}.
+ */
+public class OffHeapFloatMatrix implements NumericMatrix, Releasable {
+
+	/** The direct memory this matrix owns. Null for a view. */
+	private transient ByteBuffer memory;
+	private transient FloatBuffer buffer;
+	private transient int offset;
+	private transient int m;
+	private transient int n;
+	private transient int stride;
+
+	/** The owner of the memory, if this matrix is a view. Null if the matrix owns its memory. */
+	private transient Releasable owner;
+	private transient boolean released;
+
+	public OffHeapFloatMatrix(int m, int n) {
+		this.allocate(m, n);
+	}
+
+	/**
+	 * Create a new matrix from its lines. Values are copied into a flat off-heap buffer.
+	 * @param matrix the matrix lines. Every line must have the same length.
+	 */
+	public OffHeapFloatMatrix(float[][] matrix) {
+		this(matrix.length, matrix.length == 0 ? 0 : matrix[0].length);
+		for (int i = 0; i < this.m; i++) {
+			for (int j = 0; j < this.n; j++) {
+				this.buffer().put(this.index(i, j), matrix[i][j]);
+			}
+		}
+	}
+
+	/**
+	 * Create a matrix over an existing row-major float buffer. Nothing is copied.
+	 * @param buffer the buffer
+	 * @param offset the index in the buffer of the value @(0, 0)
+	 * @param m      the matrix height
+	 * @param n      the matrix width
+	 * @param stride the distance in the buffer between the values @(i, j) and @(i + 1, j)
+	 * @param owner  the owner of the buffer memory (that can release it). Can be null.
+	 */
+	public OffHeapFloatMatrix(FloatBuffer buffer, int offset, int m, int n, int stride, Releasable owner) {
+		NumericMatrix.layoutCheck(buffer.capacity(), offset, m, n, stride);
+		this.buffer = buffer;
+		this.offset = offset;
+		this.m = m;
+		this.n = n;
+		this.stride = stride;
+		this.owner = owner;
+	}
+
+	/**
+	 * Create a matrix that owns an existing direct buffer (e.g. a memory-mapped file). Nothing is copied.
+	 * <br>
+	 * The buffer is freed (or unmapped) by {@link #release()}.
+	 * @param memory the direct buffer, with its byte order set. It must not be a slice or a duplicate.
+	 * @param offset the index in the float view of the buffer of the value @(0, 0)
+	 * @param m      the matrix height
+	 * @param n      the matrix width
+	 */
+	protected OffHeapFloatMatrix(ByteBuffer memory, int offset, int m, int n) {
+		this(DirectMemory.floats(memory), offset, m, n, n, null);
+		this.memory = memory;
+	}
+
+	@Override
+	public TYPE getType() {
+		return TYPE.OFFHEAP_FLOAT;
+	}
+
+	/**
+	 * Get the matrix height, i.e. the output dimension
+	 * @return the matrix height
+	 */
+	public int getM() {
+		return this.m;
+	}
+
+	/**
+	 * Get the matrix width, i.e. the input dimension
+	 * @return the matrix width
+	 */
+	public int getN() {
+		return this.n;
+	}
+
+	/**
+	 * Get the flat row-major buffer of this matrix. It may be shared with other views.
+	 * <br>
+	 * Every access to the values goes through this method : a view fails fast once its memory owner is released.
+	 * @return {@link #buffer}, not a copy
+	 * @throws IllegalStateException if the memory of this matrix was released
+	 */
+	public FloatBuffer buffer() {
+		if (this.isReleased()) {
+			throw new IllegalStateException("Off-heap matrix memory was released");
+		}
+		return this.buffer;
+	}
+
+	/**
+	 * Get the index in {@link #buffer()} of the value @(0, 0).
+	 * @return {@link #offset}
+	 */
+	public int offset() {
+		return this.offset;
+	}
+
+	/**
+	 * Get the distance in {@link #buffer()} between two consecutive lines.
+	 * @return {@link #stride}
+	 */
+	public int stride() {
+		return this.stride;
+	}
+
+	/**
+	 * Get the direct memory this matrix owns.
+	 * @return {@link #memory}. Null for a view or once released.
+	 */
+	protected ByteBuffer memory() {
+		return this.memory;
+	}
+
+	@Override
+	public void release() {
+		if (this.owner == null && ! this.released) {
+			DirectMemory.free(this.memory);
+			this.memory = null;
+			this.buffer = null;
+			this.released = true;
+		}
+	}
+
+	@Override
+	public boolean isReleased() {
+		return this.owner == null ? this.released : this.owner.isReleased();
+	}
+
+	@Override
+	public Float at(int i, int j) {
+		this.dimensionCheck(i, j);
+		return this.floatAt(i, j);
+	}
+
+	@Override
+	public OffHeapFloatArray line(int x) {
+		this.dimensionCheck(x, 0);
+		return new OffHeapFloatArray(this.buffer(), this.index(x, 0), this.n, this.memoryOwner());
+	}
+
+	@Override
+	public OffHeapFloatArray column(int y) {
+		this.dimensionCheck(0, y);
+		OffHeapFloatArray column = new OffHeapFloatArray(this.m);
+		for (int i = 0; i < this.m; i++) {
+			column.buffer().put(i, this.buffer().get(this.index(i, y)));
+		}
+		return column;
+	}
+
+	@Override
+	public OffHeapFloatMatrix rows(int from, int to) {
+		this.blockCheck(from, 0, to - from, this.n);
+		return new OffHeapFloatMatrix(this.buffer(), this.index(from, 0), to - from, this.n, this.stride, this.memoryOwner());
+	}
+
+	@Override
+	public OffHeapFloatMatrix block(int i, int j, int m, int n) {
+		this.blockCheck(i, j, m, n);
+		return new OffHeapFloatMatrix(this.buffer(), this.index(i, j), m, n, this.stride, this.memoryOwner());
+	}
+
+	@Override
+	public float floatAt(int i, int j) {
+		this.dimensionCheck(i, j);
+		return this.buffer().get(this.index(i, j));
+	}
+
+	@Override
+	public double doubleAt(int i, int j) {
+		this.dimensionCheck(i, j);
+		return this.buffer().get(this.index(i, j));
+	}
+
+	@Override
+	public BigDecimal decimalAt(int i, int j) {
+		this.dimensionCheck(i, j);
+		return BigDecimal.valueOf(this.buffer().get(this.index(i, j)));
+	}
+
+	@Override
+	public OffHeapFloatMatrix at(int i, int j, Number value) {
+		this.dimensionCheck(i, j);
+		this.buffer().put(this.index(i, j), value.floatValue());
+		return this;
+	}
+
+	@Override
+	public OffHeapFloatMatrix at(int i, int j, float value) {
+		this.dimensionCheck(i, j);
+		this.buffer().put(this.index(i, j), value);
+		return this;
+	}
+
+	@Override
+	public OffHeapFloatMatrix at(int i, int j, double value) {
+		this.dimensionCheck(i, j);
+		this.buffer().put(this.index(i, j), (float) value);
+		return this;
+	}
+
+	@Override
+	public OffHeapFloatMatrix at(int i, int j, BigDecimal value) {
+		this.dimensionCheck(i, j);
+		this.buffer().put(this.index(i, j), value.floatValue());
+		return this;
+	}
+
+	@Override
+	public double reduce(Summation summation, Summation.Term term, double shift) {
+		if (this.stride != this.n) {
+			return NumericMatrix.super.reduce(summation, term, shift);
+		}
+		return summation.sum(this.buffer(), this.offset, this.m * this.n, term, shift);
+	}
+
+	@Override
+	public void sum(NumericMatrix with) {
+		this.dimensionCheck(with);
+		for (int i = 0; i < this.m; i++) {
+			this.line(i).sum(with.line(i));
+		}
+	}
+
+	@Override
+	public void mul(NumericMatrix with) {
+		this.dimensionCheck(with);
+		for (int i = 0; i < this.m; i++) {
+			this.line(i).mul(with.line(i));
+		}
+	}
+
+	/**
+	 * Add the scaled outer product of 2 arrays to the current matrix, in place : this += α·a ⊗ b.
+	 * This reads and writes the off-heap buffer directly if both arrays are primitive float arrays (or views).
+	 * A line is skipped when a[i] is 0 and a value is skipped when b[j] is 0.
+	 * @param alpha the scale factor α
+	 * @param a     the left array. Its length must match the current matrix height.
+	 * @param b     the right array. Its length must match the current matrix width.
+	 */
+	@Override
+	public void accumulateOuter(float alpha, NumericArray a, NumericArray b) {
+		if (! (a instanceof PrimitiveFloatArray && b instanceof PrimitiveFloatArray)) {
+			NumericMatrix.super.accumulateOuter(alpha, a, b);
+			return;
+		}
+		this.applyCheck(b, this.n, a, this.m);
+		float[] left = ((PrimitiveFloatArray) a).buffer();
+		int leftOffset = ((PrimitiveFloatArray) a).offset();
+		float[] right = ((PrimitiveFloatArray) b).buffer();
+		int rightOffset = ((PrimitiveFloatArray) b).offset();
+		for (int i = 0; i < this.m; i++) {
+			float factor = alpha * left[leftOffset + i];
+			if (factor == 0) {
+				continue;
+			}
+			int row = this.index(i, 0);
+			for (int j = 0; j < this.n; j++) {
+				float value = right[rightOffset + j];
+				if (value != 0) {
+					this.buffer().put(row + j, this.buffer().get(row + j) + factor * value);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void product(
+		boolean transpose,
+		NumericMatrix with,
+		boolean withTranspose,
+		NumericMatrix into,
+		boolean accumulate) {
+		Gemm.dispatch(this, transpose, with, withTranspose, into, accumulate);
+	}
+
+	@Override
+	public void mul(float with) {
+		for (int i = 0; i < this.m; i++) {
+			int row = this.index(i, 0);
+			for (int j = row; j < row + this.n; j++) {
+				this.buffer().put(j, this.buffer().get(j) * with);
+			}
+		}
+	}
+
+	@Override
+	public OffHeapFloatMatrix transpose() {
+		OffHeapFloatMatrix transpose = new OffHeapFloatMatrix(this.n, this.m);
+		for (int i = 0; i < this.m; i++) {
+			int row = this.index(i, 0);
+			for (int j = 0; j < this.n; j++) {
+				transpose.buffer.put(j * transpose.stride + i, this.buffer().get(row + j));
+			}
+		}
+		return transpose;
+	}
+
+	/**
+	 * Get the index in {@link #buffer} of the value @(i, j). No check is done.
+	 * @param i the line index
+	 * @param j the column index
+	 * @return offset + i * stride + j
+	 */
+	private int index(int i, int j) {
+		return this.offset + i * this.stride + j;
+	}
+
+	/**
+	 * The owner of the memory, for a new view over this matrix.
+	 * @return {@link #owner} if this matrix is a view, the current matrix else
+	 */
+	private Releasable memoryOwner() {
+		return this.owner == null ? this : this.owner;
+	}
+
+	/**
+	 * Allocate the direct memory of this matrix. Values are set to 0.
+	 * @param m the matrix height
+	 * @param n the matrix width
+	 */
+	private void allocate(int m, int n) {
+		if (m < 0 || n < 0) {
+			throw new IllegalArgumentException("Bad matrix dimension M(" + m + ", " + n + ")");
+		}
+		this.memory = DirectMemory.allocateFloats((long) m * n);
+		this.buffer = DirectMemory.floats(this.memory);
+		this.offset = 0;
+		this.m = m;
+		this.n = n;
+		this.stride = n;
+	}
+
+	/**
+	 * Serialize the dimension and the values only : a deserialized matrix always owns its memory.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.writeInt(this.m);
+		out.writeInt(this.n);
+		for (int i = 0; i < this.m; i++) {
+			for (int j = 0; j < this.n; j++) {
+				out.writeFloat(this.buffer().get(this.index(i, j)));
+			}
+		}
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException {
+		this.allocate(in.readInt(), in.readInt());
+		for (int i = 0; i < this.m * this.n; i++) {
+			this.buffer().put(i, in.readFloat());
+		}
+	}
+}
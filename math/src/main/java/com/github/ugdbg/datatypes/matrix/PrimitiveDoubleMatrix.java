@@ -1,22 +1,60 @@
 package com.github.ugdbg.datatypes.matrix;
 
+import com.github.ugdbg.datatypes.Summation;
 import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.datatypes.array.NumericArray;
 import com.github.ugdbg.datatypes.array.PrimitiveDoubleArray;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 
+/**
+ * A numeric matrix implementation using primitive doubles, i.e. {@link TYPE#PDOUBLE} type.
+ * <br><br>
+ * Values are stored row-major in a single flat {@link #data} buffer : @(i, j) is at offset + i * stride + j.
+ * <br>
+ * {@link #line(int)}, {@link #rows(int, int)} and {@link #block(int, int, int, int)} are views over this buffer.
+ */
 public class PrimitiveDoubleMatrix implements NumericMatrix {
-	
-	private final double[][] rows;
+
+	private final double[] data;
+	private final int offset;
+	private final int m;
+	private final int n;
+	private final int stride;
 
 	public PrimitiveDoubleMatrix(int m, int n) {
-		this.rows = new double[m][n];
+		this(new double[m * n], 0, m, n, n);
 	}
 
+	/**
+	 * Create a new matrix from its lines. Values are copied into a flat buffer.
+	 * @param matrix the matrix lines. Every line must have the same length.
+	 */
 	public PrimitiveDoubleMatrix(double[][] matrix) {
-		this.rows = matrix;
+		this(matrix.length, matrix.length == 0 ? 0 : matrix[0].length);
+		for (int i = 0; i < this.m; i++) {
+			System.arraycopy(matrix[i], 0, this.data, i * this.stride, this.n);
+		}
+	}
+
+	/**
+	 * Create a matrix over an existing row-major buffer. Nothing is copied.
+	 * @param data   the buffer
+	 * @param offset the index in the buffer of the value @(0, 0)
+	 * @param m      the matrix height
+	 * @param n      the matrix width
+	 * @param stride the distance in the buffer between the values @(i, j) and @(i + 1, j)
+	 */
+	public PrimitiveDoubleMatrix(double[] data, int offset, int m, int n, int stride) {
+		NumericMatrix.layoutCheck(data.length, offset, m, n, stride);
+		this.data = data;
+		this.offset = offset;
+		this.m = m;
+		this.n = n;
+		this.stride = stride;
 	}
-	
+
 	@Override
 	public TYPE getType() {
 		return TYPE.PDOUBLE;
@@ -27,100 +65,371 @@ public class PrimitiveDoubleMatrix implements NumericMatrix {
 	 * @return the matrix height
 	 */
 	public int getM() {
-		return this.rows.length;
+		return this.m;
 	}
 
 	/**
 	 * Get the matrix width, i.e. the input dimension
-	 * @return the matrix width (actually the length of the array at line #1
+	 * @return the matrix width
 	 */
 	public int getN() {
-		return this.rows[0].length;
+		return this.n;
+	}
+
+	/**
+	 * Get the flat row-major buffer of this matrix. It may be shared with other views.
+	 * @return {@link #data}, not a copy
+	 */
+	public double[] buffer() {
+		return this.data;
+	}
+
+	/**
+	 * Get the index in {@link #buffer()} of the value @(0, 0).
+	 * @return {@link #offset}
+	 */
+	public int offset() {
+		return this.offset;
+	}
+
+	/**
+	 * Get the distance in {@link #buffer()} between two consecutive lines.
+	 * @return {@link #stride}
+	 */
+	public int stride() {
+		return this.stride;
 	}
 
 	@Override
 	public Double at(int i, int j) {
+		this.dimensionCheck(i, j);
 		return this.doubleAt(i, j);
 	}
-	
+
+	@Override
+	public PrimitiveDoubleArray line(int x) {
+		this.dimensionCheck(x, 0);
+		return new PrimitiveDoubleArray(this.data, this.index(x, 0), this.n);
+	}
+
+	@Override
+	public PrimitiveDoubleArray column(int y) {
+		this.dimensionCheck(0, y);
+		PrimitiveDoubleArray column = new PrimitiveDoubleArray(this.m);
+		double[] values = column.doubles();
+		for (int i = 0; i < this.m; i++) {
+			values[i] = this.data[this.index(i, y)];
+		}
+		return column;
+	}
+
+	@Override
+	public PrimitiveDoubleMatrix rows(int from, int to) {
+		this.blockCheck(from, 0, to - from, this.n);
+		return new PrimitiveDoubleMatrix(this.data, this.index(from, 0), to - from, this.n, this.stride);
+	}
+
+	@Override
+	public PrimitiveDoubleMatrix block(int i, int j, int m, int n) {
+		this.blockCheck(i, j, m, n);
+		return new PrimitiveDoubleMatrix(this.data, this.index(i, j), m, n, this.stride);
+	}
+
 	@Override
 	public float floatAt(int i, int j) {
-		return (float) this.rows[i][j];
+		this.dimensionCheck(i, j);
+		return (float) this.data[this.index(i, j)];
 	}
 
 	@Override
 	public double doubleAt(int i, int j) {
-		return this.rows[i][j];
+		this.dimensionCheck(i, j);
+		return this.data[this.index(i, j)];
 	}
 
 	@Override
 	public BigDecimal decimalAt(int i, int j) {
-		return BigDecimal.valueOf(this.rows[i][j]);
+		this.dimensionCheck(i, j);
+		return BigDecimal.valueOf(this.data[this.index(i, j)]);
 	}
 
 	@Override
 	public PrimitiveDoubleMatrix at(int i, int j, Number value) {
-		this.rows[i][j] = value.doubleValue();
+		this.dimensionCheck(i, j);
+		this.data[this.index(i, j)] = value.doubleValue();
 		return this;
 	}
 
 	@Override
 	public PrimitiveDoubleMatrix at(int i, int j, float value) {
-		this.rows[i][j] = value;
+		this.dimensionCheck(i, j);
+		this.data[this.index(i, j)] = value;
 		return this;
 	}
 
 	@Override
 	public PrimitiveDoubleMatrix at(int i, int j, double value) {
-		this.rows[i][j] = value;
+		this.dimensionCheck(i, j);
+		this.data[this.index(i, j)] = value;
 		return this;
 	}
 
 	@Override
 	public PrimitiveDoubleMatrix at(int i, int j, BigDecimal value) {
-		this.rows[i][j] = value.doubleValue();
+		this.dimensionCheck(i, j);
+		this.data[this.index(i, j)] = value.doubleValue();
 		return this;
 	}
 
 	@Override
-	public PrimitiveDoubleArray line(int x) {
-		this.dimensionCheck(x, 0);
-		return new PrimitiveDoubleArray(this.rows[x]);
-	}
-	
-	@Override
-	public PrimitiveDoubleArray column(int y) {
-		this.dimensionCheck(0, y);
-		PrimitiveDoubleArray column = new PrimitiveDoubleArray(this.getM());
-		this.rowIndexStream().forEach(rowIndex -> column.doubles()[rowIndex] = this.doubleAt(rowIndex, y));
-		return column;
+	public double reduce(Summation summation, Summation.Term term, double shift) {
+		if (this.stride != this.n) {
+			return NumericMatrix.super.reduce(summation, term, shift);
+		}
+		return summation.sum(this.data, this.offset, this.m * this.n, term, shift);
 	}
-	
+
 	@Override
 	public void sum(NumericMatrix with) {
 		this.dimensionCheck(with);
-		this.operation(((matrix, i, j) -> matrix.at(i, j, this.doubleAt(i, j) + with.doubleAt(i, j))));
+		if (with instanceof PrimitiveDoubleMatrix) {
+			PrimitiveDoubleMatrix other = (PrimitiveDoubleMatrix) with;
+			for (int i = 0; i < this.m; i++) {
+				int row = this.index(i, 0);
+				int otherRow = other.index(i, 0);
+				for (int j = 0; j < this.n; j++) {
+					this.data[row + j] += other.data[otherRow + j];
+				}
+			}
+			return;
+		}
+		this.parallelOperation(((matrix, i, j) -> matrix.at(i, j, this.doubleAt(i, j) + with.doubleAt(i, j))));
 	}
 
 	@Override
 	public void mul(NumericMatrix with) {
 		this.dimensionCheck(with);
-		this.operation(((matrix, i, j) -> matrix.at(i, j, this.doubleAt(i, j) * with.doubleAt(i, j))));
+		if (with instanceof PrimitiveDoubleMatrix) {
+			PrimitiveDoubleMatrix other = (PrimitiveDoubleMatrix) with;
+			for (int i = 0; i < this.m; i++) {
+				int row = this.index(i, 0);
+				int otherRow = other.index(i, 0);
+				for (int j = 0; j < this.n; j++) {
+					this.data[row + j] *= other.data[otherRow + j];
+				}
+			}
+			return;
+		}
+		this.parallelOperation(((matrix, i, j) -> matrix.at(i, j, this.doubleAt(i, j) * with.doubleAt(i, j))));
 	}
-	
+
+	/**
+	 * Fused scaled sum, in place : this = this + alpha * x. 
+	 * This is a plain buffer loop if x is a primitive double matrix (or a view).
+	 * @param alpha the scale factor of x
+	 * @param x     the matrix to scale and add. Its dimension must match the current matrix.
+	 */
+	@Override
+	public void axpy(float alpha, NumericMatrix x) {
+		if (! (x instanceof PrimitiveDoubleMatrix)) {
+			NumericMatrix.super.axpy(alpha, x);
+			return;
+		}
+		this.dimensionCheck(x);
+		PrimitiveDoubleMatrix other = (PrimitiveDoubleMatrix) x;
+		for (int i = 0; i < this.m; i++) {
+			int row = this.index(i, 0);
+			int otherRow = other.index(i, 0);
+			for (int j = 0; j < this.n; j++) {
+				this.data[row + j] += alpha * other.data[otherRow + j];
+			}
+		}
+	}
+
+	/**
+	 * Apply the current matrix to an array, into an existing array : into = this · x.
+	 * This does not allocate anything if both arrays are primitive double arrays (or views).
+	 * @param x    the input array. Its length must match the current matrix width.
+	 * @param into the output array. Its length must match the current matrix height. It must not be x.
+	 */
+	@Override
+	public void apply(NumericArray x, NumericArray into) {
+		if (! (x instanceof PrimitiveDoubleArray && into instanceof PrimitiveDoubleArray)) {
+			NumericMatrix.super.apply(x, into);
+			return;
+		}
+		this.applyCheck(x, this.n, into, this.m);
+		double[] in = ((PrimitiveDoubleArray) x).buffer();
+		int inOffset = ((PrimitiveDoubleArray) x).offset();
+		double[] out = ((PrimitiveDoubleArray) into).buffer();
+		int outOffset = ((PrimitiveDoubleArray) into).offset();
+		for (int i = 0; i < this.m; i++) {
+			int row = this.index(i, 0);
+			double sum = 0;
+			for (int j = 0; j < this.n; j++) {
+				sum += this.data[row + j] * in[inOffset + j];
+			}
+			out[outOffset + i] = sum;
+		}
+	}
+
+	/**
+	 * Apply the transpose of the current matrix to an array, into an existing array : intoᵀ = xᵀ · this.
+	 * The lines are read contiguously : into += x[i] * line(i) for every i such as x[i] != 0.
+	 * This does not allocate anything if both arrays are primitive double arrays (or views).
+	 * @param x    the input array. Its length must match the current matrix height.
+	 * @param into the output array. Its length must match the current matrix width. It must not be x.
+	 */
+	@Override
+	public void applyTransposed(NumericArray x, NumericArray into) {
+		if (! (x instanceof PrimitiveDoubleArray && into instanceof PrimitiveDoubleArray)) {
+			NumericMatrix.super.applyTransposed(x, into);
+			return;
+		}
+		this.applyCheck(x, this.m, into, this.n);
+		double[] in = ((PrimitiveDoubleArray) x).buffer();
+		int inOffset = ((PrimitiveDoubleArray) x).offset();
+		double[] out = ((PrimitiveDoubleArray) into).buffer();
+		int outOffset = ((PrimitiveDoubleArray) into).offset();
+		Arrays.fill(out, outOffset, outOffset + this.n, 0);
+		for (int i = 0; i < this.m; i++) {
+			double factor = in[inOffset + i];
+			if (factor == 0) {
+				continue;
+			}
+			int row = this.index(i, 0);
+			for (int j = 0; j < this.n; j++) {
+				out[outOffset + j] += factor * this.data[row + j];
+			}
+		}
+	}
+
+	/**
+	 * Set the current matrix to the outer product of 2 arrays : this = a ⊗ b.
+	 * This does not allocate anything if both arrays are primitive double arrays (or views).
+	 * @param a the left array. Its length must match the current matrix height.
+	 * @param b the right array. Its length must match the current matrix width.
+	 */
+	@Override
+	public void outer(NumericArray a, NumericArray b) {
+		if (! (a instanceof PrimitiveDoubleArray && b instanceof PrimitiveDoubleArray)) {
+			NumericMatrix.super.outer(a, b);
+			return;
+		}
+		this.applyCheck(b, this.n, a, this.m);
+		double[] left = ((PrimitiveDoubleArray) a).buffer();
+		int leftOffset = ((PrimitiveDoubleArray) a).offset();
+		double[] right = ((PrimitiveDoubleArray) b).buffer();
+		int rightOffset = ((PrimitiveDoubleArray) b).offset();
+		for (int i = 0; i < this.m; i++) {
+			int row = this.index(i, 0);
+			double factor = left[leftOffset + i];
+			for (int j = 0; j < this.n; j++) {
+				this.data[row + j] = factor * right[rightOffset + j];
+			}
+		}
+	}
+
+	/**
+	 * Add the scaled outer product of 2 arrays to the current matrix, in place : this += α·a ⊗ b.
+	 * This does not allocate anything if both arrays are primitive double arrays (or views).
+	 * <br>
+	 * A line is skipped when a[i] is 0. When most b[j] are 0 (e.g. a sparse input), only the non zero b[j] columns are updated.
+	 * @param alpha the scale factor α
+	 * @param a     the left array. Its length must match the current matrix height.
+	 * @param b     the right array. Its length must match the current matrix width.
+	 */
+	@Override
+	public void accumulateOuter(float alpha, NumericArray a, NumericArray b) {
+		if (! (a instanceof PrimitiveDoubleArray && b instanceof PrimitiveDoubleArray)) {
+			NumericMatrix.super.accumulateOuter(alpha, a, b);
+			return;
+		}
+		this.applyCheck(b, this.n, a, this.m);
+		double[] left = ((PrimitiveDoubleArray) a).buffer();
+		int leftOffset = ((PrimitiveDoubleArray) a).offset();
+		double[] right = ((PrimitiveDoubleArray) b).buffer();
+		int rightOffset = ((PrimitiveDoubleArray) b).offset();
+
+		int nonZero = 0;
+		for (int j = 0; j < this.n; j++) {
+			if (right[rightOffset + j] != 0) {
+				nonZero++;
+			}
+		}
+		if (nonZero == 0 || alpha == 0) {
+			return;
+		}
+
+		boolean sparse = nonZero < this.n / 2;
+		for (int i = 0; i < this.m; i++) {
+			double factor = alpha * left[leftOffset + i];
+			if (factor == 0) {
+				continue;
+			}
+			int row = this.index(i, 0);
+			if (sparse) {
+				for (int j = 0; j < this.n; j++) {
+					double value = right[rightOffset + j];
+					if (value != 0) {
+						this.data[row + j] += factor * value;
+					}
+				}
+			} else {
+				for (int j = 0; j < this.n; j++) {
+					this.data[row + j] += factor * right[rightOffset + j];
+				}
+			}
+		}
+	}
+
+	@Override
+	public void zero() {
+		for (int i = 0; i < this.m; i++) {
+			int row = this.index(i, 0);
+			Arrays.fill(this.data, row, row + this.n, 0);
+		}
+	}
+
+	@Override
+	public void product(
+		boolean transpose,
+		NumericMatrix with,
+		boolean withTranspose,
+		NumericMatrix into,
+		boolean accumulate) {
+		Gemm.dispatch(this, transpose, with, withTranspose, into, accumulate);
+	}
+
 	@Override
 	public void mul(float with) {
-		this.operation(((matrix, i, j) -> matrix.at(i, j, this.doubleAt(i, j) * with)));
+		for (int i = 0; i < this.m; i++) {
+			int row = this.index(i, 0);
+			for (int j = row; j < row + this.n; j++) {
+				this.data[j] *= with;
+			}
+		}
 	}
-	
+
 	@Override
 	public PrimitiveDoubleMatrix transpose() {
-		PrimitiveDoubleMatrix transpose = new PrimitiveDoubleMatrix(this.getN(), this.getM());
-		for (int i = 0; i < this.getM(); i++) {
-			for (int j = 0; j < this.getN(); j++) {
-				transpose.rows[j][i] = this.rows[i][j];
+		PrimitiveDoubleMatrix transpose = new PrimitiveDoubleMatrix(this.n, this.m);
+		for (int i = 0; i < this.m; i++) {
+			int row = this.index(i, 0);
+			for (int j = 0; j < this.n; j++) {
+				transpose.data[j * transpose.stride + i] = this.data[row + j];
 			}
 		}
 		return transpose;
 	}
+
+	/**
+	 * Get the index in {@link #data} of the value @(i, j). No check is done.
+	 * @param i the line index
+	 * @param j the column index
+	 * @return offset + i * stride + j
+	 */
+	private int index(int i, int j) {
+		return this.offset + i * this.stride + j;
+	}
 }
@@ -0,0 +1,245 @@
+package com.github.ugdbg.datatypes.matrix;
+
+import com.github.ugdbg.datatypes.Summation;
+import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.datatypes.array.NumericArray;
+
+import java.math.BigDecimal;
+
+/**
+ * A lazy transpose view over a {@link NumericMatrix} : @(i, j) is the {@link #source} value @(j, i).
+ * <br><br>
+ * Nothing is copied : any write to this view is a write to the source matrix.
+ * <br>
+ * The matrix product reads the source buffer transposed (see {@link Gemm#dispatch}).
+ * Since the source is row-major, {@link #column(int)} is a view but {@link #line(int)} is a copy.
+ */
+final class TransposedMatrix implements NumericMatrix {
+
+	private final NumericMatrix source;
+
+	TransposedMatrix(NumericMatrix source) {
+		this.source = source;
+	}
+
+	@Override
+	public TYPE getType() {
+		return this.source.getType();
+	}
+
+	@Override
+	public int getM() {
+		return this.source.getN();
+	}
+
+	@Override
+	public int getN() {
+		return this.source.getM();
+	}
+
+	@Override
+	public Number at(int i, int j) {
+		this.dimensionCheck(i, j);
+		return this.source.at(j, i);
+	}
+
+	@Override
+	public float floatAt(int i, int j) {
+		this.dimensionCheck(i, j);
+		return this.source.floatAt(j, i);
+	}
+
+	@Override
+	public double doubleAt(int i, int j) {
+		this.dimensionCheck(i, j);
+		return this.source.doubleAt(j, i);
+	}
+
+	@Override
+	public BigDecimal decimalAt(int i, int j) {
+		this.dimensionCheck(i, j);
+		return this.source.decimalAt(j, i);
+	}
+
+	@Override
+	public TransposedMatrix at(int i, int j, Number value) {
+		this.dimensionCheck(i, j);
+		this.source.at(j, i, value);
+		return this;
+	}
+
+	@Override
+	public TransposedMatrix at(int i, int j, float value) {
+		this.dimensionCheck(i, j);
+		this.source.at(j, i, value);
+		return this;
+	}
+
+	@Override
+	public TransposedMatrix at(int i, int j, double value) {
+		this.dimensionCheck(i, j);
+		this.source.at(j, i, value);
+		return this;
+	}
+
+	@Override
+	public TransposedMatrix at(int i, int j, BigDecimal value) {
+		this.dimensionCheck(i, j);
+		this.source.at(j, i, value);
+		return this;
+	}
+
+	/**
+	 * Return the line @x, i.e. the source column @x.
+	 * <br>
+	 * <b>This is a copy</b> : the source matrix is row-major.
+	 * @param x the matrix line index
+	 * @return a copy of the line @x
+	 */
+	@Override
+	public NumericArray line(int x) {
+		this.dimensionCheck(x, 0);
+		return this.source.column(x);
+	}
+
+	/**
+	 * Return the column @y, i.e. the source line @y.
+	 * <br>
+	 * This is a view over the source matrix buffer.
+	 * @param y the matrix column index
+	 * @return the source line @y
+	 */
+	@Override
+	public NumericArray column(int y) {
+		this.dimensionCheck(0, y);
+		return this.source.line(y);
+	}
+
+	@Override
+	public NumericMatrix rows(int from, int to) {
+		this.blockCheck(from, 0, to - from, this.getN());
+		return this.source.block(0, from, this.getN(), to - from).transposed();
+	}
+
+	@Override
+	public NumericMatrix block(int i, int j, int m, int n) {
+		this.blockCheck(i, j, m, n);
+		return this.source.block(j, i, n, m).transposed();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <br>
+	 * The view has the values of the source matrix : the source matrix is reduced, in its own row-major order.
+	 */
+	@Override
+	public double reduce(Summation summation, Summation.Term term, double shift) {
+		return this.source.reduce(summation, term, shift);
+	}
+
+	@Override
+	public void sum(NumericMatrix with) {
+		this.dimensionCheck(with);
+		this.source.sum(with.transposed());
+	}
+
+	@Override
+	public void mul(NumericMatrix with) {
+		this.dimensionCheck(with);
+		this.source.mul(with.transposed());
+	}
+
+	/**
+	 * Fused scaled sum, in place, on the source matrix : the lines of this view are copies.
+	 * @param alpha the scale factor of x
+	 * @param x     the matrix to scale and add. Its dimension must match the current matrix.
+	 */
+	@Override
+	public void axpy(float alpha, NumericMatrix x) {
+		this.dimensionCheck(x);
+		this.source.axpy(alpha, x.transposed());
+	}
+
+	/**
+	 * Apply this view to an array : into = sourceᵀ · x, i.e. the transposed apply of the source.
+	 * @param x    the input array. Its length must match the view width.
+	 * @param into the output array. Its length must match the view height. It must not be x.
+	 */
+	@Override
+	public void apply(NumericArray x, NumericArray into) {
+		this.source.applyTransposed(x, into);
+	}
+
+	/**
+	 * Apply the transpose of this view to an array : into = source · x.
+	 * @param x    the input array. Its length must match the view height.
+	 * @param into the output array. Its length must match the view width. It must not be x.
+	 */
+	@Override
+	public void applyTransposed(NumericArray x, NumericArray into) {
+		this.source.apply(x, into);
+	}
+
+	/**
+	 * Outer product, in place, on the source matrix : this = a ⊗ b, i.e. source = b ⊗ a. The lines of this view are copies.
+	 * @param a the left array. Its length must match the view height.
+	 * @param b the right array. Its length must match the view width.
+	 */
+	@Override
+	public void outer(NumericArray a, NumericArray b) {
+		this.source.outer(b, a);
+	}
+
+	/**
+	 * Accumulate an outer product, in place, on the source matrix : this += α·a ⊗ b, i.e. source += α·b ⊗ a.
+	 * @param alpha the scale factor α
+	 * @param a     the left array. Its length must match the view height.
+	 * @param b     the right array. Its length must match the view width.
+	 */
+	@Override
+	public void accumulateOuter(float alpha, NumericArray a, NumericArray b) {
+		this.source.accumulateOuter(alpha, b, a);
+	}
+
+	@Override
+	public void zero() {
+		this.source.zero();
+	}
+
+	@Override
+	public void product(
+		boolean transpose,
+		NumericMatrix with,
+		boolean withTranspose,
+		NumericMatrix into,
+		boolean accumulate) {
+		Gemm.dispatch(this, transpose, with, withTranspose, into, accumulate);
+	}
+
+	@Override
+	public void mul(float with) {
+		this.source.mul(with);
+	}
+
+	/**
+	 * Create the transpose of this view, i.e. a copy of the source matrix.
+	 * @return a new matrix instance, with the same values as {@link #source}
+	 */
+	@Override
+	public NumericMatrix transpose() {
+		NumericMatrix copy = this.getType().matrix(this.source.getM(), this.source.getN());
+		for (int i = 0; i < copy.getM(); i++) {
+			copy.line(i).set(this.source.line(i));
+		}
+		return copy;
+	}
+
+	/**
+	 * The transpose view of a transpose view is the source matrix.
+	 * @return {@link #source}
+	 */
+	@Override
+	public NumericMatrix transposed() {
+		return this.source;
+	}
+}
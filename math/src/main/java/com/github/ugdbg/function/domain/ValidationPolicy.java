@@ -0,0 +1,164 @@
+package com.github.ugdbg.function.domain;
+
+import com.github.ugdbg.function.vector.VFunction;
+
+import java.io.Serializable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * When should the domain of a function be validated ?
+ * <ul>
+ *     <li>{@link Mode#OFF} : never</li>
+ *     <li>{@link Mode#FIRST_CALLS} : for the first N calls, then never</li>
+ *     <li>{@link Mode#SAMPLED} : for a random sample of the calls</li>
+ *     <li>{@link Mode#ALWAYS} : for every call</li>
+ * </ul>
+ * A vector function with domain check enabled asks its policy before every {@link VFunction#apply(com.github.ugdbg.vector.Vector)} call
+ * (see {@link VFunction#validation()}). A validated input outside of the domain still raises a {@link DomainCheckException}.
+ * <br>
+ * The process-wide policy is {@link #global()}, {@link #always()} by default. It can be overridden per function.
+ * <br><br>
+ * A {@link Mode#FIRST_CALLS} policy counts the calls of every function it is set on : share it to validate N calls overall,
+ * or set a {@link #copy()} on every function to validate the N first calls of each.
+ */
+public final class ValidationPolicy implements Serializable {
+
+	/** The validation modes */
+	public enum Mode {OFF, FIRST_CALLS, SAMPLED, ALWAYS}
+
+	private static final ValidationPolicy OFF = new ValidationPolicy(Mode.OFF, 0, 0);
+	private static final ValidationPolicy ALWAYS = new ValidationPolicy(Mode.ALWAYS, 0, 1);
+
+	/** The process-wide validation policy */
+	private static volatile ValidationPolicy global = ALWAYS;
+
+	private final Mode mode;
+
+	/** The number of validated calls, for {@link Mode#FIRST_CALLS} */
+	private final long firstCalls;
+
+	/** The validated calls rate, for {@link Mode#SAMPLED} */
+	private final double rate;
+
+	/** The number of calls so far, for {@link Mode#FIRST_CALLS} */
+	private final AtomicLong calls = new AtomicLong();
+
+	private ValidationPolicy(Mode mode, long firstCalls, double rate) {
+		this.mode = mode;
+		this.firstCalls = firstCalls;
+		this.rate = rate;
+	}
+
+	/**
+	 * Never validate.
+	 * @return the 'off' policy
+	 */
+	public static ValidationPolicy off() {
+		return OFF;
+	}
+
+	/**
+	 * Validate every call.
+	 * @return the 'always' policy
+	 */
+	public static ValidationPolicy always() {
+		return ALWAYS;
+	}
+
+	/**
+	 * Validate the first calls only.
+	 * @param calls the number of calls to validate
+	 * @return a new policy, with its own call counter
+	 * @throws IllegalArgumentException if calls is negative
+	 */
+	public static ValidationPolicy firstCalls(long calls) {
+		if (calls < 0) {
+			throw new IllegalArgumentException("Validated calls count must be positive [" + calls + "]");
+		}
+		return new ValidationPolicy(Mode.FIRST_CALLS, calls, 0);
+	}
+
+	/**
+	 * Validate a random sample of the calls.
+	 * @param rate the validated calls rate, in [0, 1]
+	 * @return a new policy
+	 * @throws IllegalArgumentException if rate is not in [0, 1]
+	 */
+	public static ValidationPolicy sampled(double rate) {
+		if (! (rate >= 0 && rate <= 1)) {
+			throw new IllegalArgumentException("Validated calls rate must be in [0, 1] [" + rate + "]");
+		}
+		return new ValidationPolicy(Mode.SAMPLED, 0, rate);
+	}
+
+	/**
+	 * Get a policy with the same mode and its own call counter, e.g. to validate the first calls of several functions.
+	 * @return a new {@link Mode#FIRST_CALLS} policy that counts from 0. The current policy for the other modes : they have no state.
+	 */
+	public ValidationPolicy copy() {
+		return this.mode == Mode.FIRST_CALLS ? new ValidationPolicy(this.mode, this.firstCalls, this.rate) : this;
+	}
+
+	/**
+	 * Get the process-wide validation policy.
+	 * @return the global policy. {@link #always()} by default.
+	 */
+	public static ValidationPolicy global() {
+		return global;
+	}
+
+	/**
+	 * Set the process-wide validation policy.
+	 * @param policy the global policy for the functions that do not have their own
+	 * @throws IllegalArgumentException if policy is null
+	 */
+	public static void global(ValidationPolicy policy) {
+		if (policy == null) {
+			throw new IllegalArgumentException("Global validation policy cannot be null");
+		}
+		global = policy;
+	}
+
+	/**
+	 * Should the current call be validated ?
+	 * @return true if the domain must be checked for this call
+	 */
+	public boolean validate() {
+		switch (this.mode) {
+			case OFF:         return false;
+			case FIRST_CALLS: return this.calls.get() < this.firstCalls && this.calls.getAndIncrement() < this.firstCalls;
+			case SAMPLED:     return ThreadLocalRandom.current().nextDouble() < this.rate;
+			default:          return true;
+		}
+	}
+
+	/**
+	 * Get the validation mode.
+	 * @return {@link #mode}
+	 */
+	public Mode getMode() {
+		return this.mode;
+	}
+
+	@Override
+	public String toString() {
+		switch (this.mode) {
+			case FIRST_CALLS: return this.mode + "(" + this.firstCalls + ")";
+			case SAMPLED:     return this.mode + "(" + this.rate + ")";
+			default:          return this.mode.toString();
+		}
+	}
+
+	/**
+	 * Keep the {@link #off()} and {@link #always()} singletons when deserialized.
+	 * @return the deserialized policy
+	 */
+	private Object readResolve() {
+		switch (this.mode) {
+			case OFF:    return OFF;
+			case ALWAYS: return ALWAYS;
+			default:     return this;
+		}
+	}
+}
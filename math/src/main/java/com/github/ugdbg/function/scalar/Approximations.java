@@ -0,0 +1,129 @@
+package com.github.ugdbg.function.scalar;
+
+/**
+ * Fast approximations of the exponential based functions, in float and double precision.
+ * <br>
+ * These are used by {@link Sigmoid}, {@link Tanh} and {@link Exp} when their approximate mode is enabled.
+ * <ul>
+ *     <li>sigmoid : absolute error below {@link #SIGMOID_MAX_ERROR}</li>
+ *     <li>tanh : absolute error below {@link #TANH_MAX_ERROR} (tanh(x) = 1 - 2 / (1 + e(2x)))</li>
+ *     <li>exp : relative error below {@link #EXP_MAX_RELATIVE_ERROR}</li>
+ * </ul>
+ * e(x) = 2^t where t = x * log2(e) = k + f, k = floor(t) and 0 &lt;= f &lt; 1. 
+ * 2^f = √2 * 2^(f - 1/2) is a degree 6 polynomial : its relative error is below (ln(2) / 2)^7 / 7! &lt; 1.2e-7.
+ * 2^k is built from the exponent bits, as 2^(k/2) * 2^(k - k/2) so that both factors are normal numbers
+ * and the product overflows to infinity or underflows to 0 as e(x) does.
+ * <br>
+ * The float computation stays in float, with no branch and no table lookup.
+ * The bounds are clamped with {@link Math#min(float, float)} and {@link Math#max(float, float)}, NaN is kept.
+ * <br>
+ * The JDK 17 JIT does not vectorize the float/int bit conversions though : the loop remains scalar.
+ * ActivationBenchmark, 784 floats, 1 CPU, exact vs approximate :
+ * sigmoid 8.9 vs 10.1 µs (no gain), tanh 63.7 vs 10.4 µs (6x), exp 17.5 vs 9.9 µs (1.8x).
+ */
+final class Approximations {
+
+	/** Maximum absolute error of {@link #sigmoid(double)} and {@link #sigmoid(float)} */
+	static final double SIGMOID_MAX_ERROR = 5e-6;
+
+	/** Maximum absolute error of {@link #tanh(double)} and {@link #tanh(float)} */
+	static final double TANH_MAX_ERROR = 1e-5;
+
+	/** Maximum relative error of {@link #exp(double)} and {@link #exp(float)} */
+	static final double EXP_MAX_RELATIVE_ERROR = 5e-6;
+
+	private static final double LOG2_E = 1 / Math.log(2);
+
+	/** The coefficients of 2^f = √2 * 2^g, g = f - 1/2 : √2 * ln(2)^i / i! */
+	private static final double C0 = Math.sqrt(2);
+	private static final double C1 = C0 * Math.log(2);
+	private static final double C2 = C1 * Math.log(2) / 2;
+	private static final double C3 = C2 * Math.log(2) / 3;
+	private static final double C4 = C3 * Math.log(2) / 4;
+	private static final double C5 = C4 * Math.log(2) / 5;
+	private static final double C6 = C5 * Math.log(2) / 6;
+
+	/** The float coefficients */
+	private static final float F0 = (float) C0, F1 = (float) C1, F2 = (float) C2, F3 = (float) C3;
+	private static final float F4 = (float) C4, F5 = (float) C5, F6 = (float) C6;
+	private static final float LOG2_E_FLOAT = (float) LOG2_E;
+
+	/** Beyond these exponents, e(x) is 0 or infinite for any float or double */
+	private static final int FLOAT_EXPONENT_BOUND = 160;
+	private static final int DOUBLE_EXPONENT_BOUND = 1100;
+
+	private Approximations() {}
+
+	/**
+	 * Approximate sigmoid : 1 / (1 + e(-x)), with an absolute error below {@link #SIGMOID_MAX_ERROR}.
+	 * @param x the input value
+	 * @return the approximate sigmoid of x
+	 */
+	static double sigmoid(double x) {
+		return 1 / (1 + exp(-x));
+	}
+
+	/**
+	 * Approximate sigmoid in float precision : 1 / (1 + e(-x)), with an absolute error below {@link #SIGMOID_MAX_ERROR}.
+	 * @param x the input value
+	 * @return the approximate sigmoid of x
+	 */
+	static float sigmoid(float x) {
+		return 1f / (1f + exp(-x));
+	}
+
+	/**
+	 * Approximate hyperbolic tangent : 1 - 2 / (1 + e(2x)), with an absolute error below {@link #TANH_MAX_ERROR}.
+	 * @param x the input value
+	 * @return the approximate tanh of x
+	 */
+	static double tanh(double x) {
+		return 1 - 2 / (1 + exp(2 * x));
+	}
+
+	/**
+	 * Approximate hyperbolic tangent in float precision : 1 - 2 / (1 + e(2x)), 
+	 * with an absolute error below {@link #TANH_MAX_ERROR}.
+	 * @param x the input value
+	 * @return the approximate tanh of x
+	 */
+	static float tanh(float x) {
+		return 1f - 2f / (1f + exp(2f * x));
+	}
+
+	/**
+	 * Approximate exponential : e(x) = 2^k * 2^f, where x * log2(e) = k + f and 2^f is a polynomial.
+	 * <br>
+	 * The relative error is below {@link #EXP_MAX_RELATIVE_ERROR}, for any result that is a normal double.
+	 * @param x the input value
+	 * @return the approximate exponential of x
+	 */
+	static double exp(double x) {
+		double t = Math.min(Math.max(x * LOG2_E, -DOUBLE_EXPONENT_BOUND), DOUBLE_EXPONENT_BOUND);
+		int k = (int) (t + DOUBLE_EXPONENT_BOUND) - DOUBLE_EXPONENT_BOUND;
+		int half = k >> 1;
+		double g = t - k - 0.5;
+		double p = C0 + g * (C1 + g * (C2 + g * (C3 + g * (C4 + g * (C5 + g * C6)))));
+		return p 
+			* Double.longBitsToDouble((long) (half + Double.MAX_EXPONENT) << 52) 
+			* Double.longBitsToDouble((long) (k - half + Double.MAX_EXPONENT) << 52);
+	}
+
+	/**
+	 * Approximate exponential in float precision : e(x) = 2^k * 2^f, where x * log2(e) = k + f and 2^f is a polynomial.
+	 * <br>
+	 * The relative error is below {@link #EXP_MAX_RELATIVE_ERROR}, for any result that is a normal float.
+	 * @param x the input value
+	 * @return the approximate exponential of x
+	 */
+	static float exp(float x) {
+		float t = Math.min(Math.max(x * LOG2_E_FLOAT, -FLOAT_EXPONENT_BOUND), FLOAT_EXPONENT_BOUND);
+		int k = (int) (t + FLOAT_EXPONENT_BOUND) - FLOAT_EXPONENT_BOUND;
+		int half = k >> 1;
+		float g = t - k - 0.5f;
+		float p = F0 + g * (F1 + g * (F2 + g * (F3 + g * (F4 + g * (F5 + g * F6)))));
+		return p 
+			* Float.intBitsToFloat((half + Float.MAX_EXPONENT) << 23) 
+			* Float.intBitsToFloat((k - half + Float.MAX_EXPONENT) << 23);
+	}
+}
@@ -1,5 +1,7 @@
 package com.github.ugdbg.function.scalar;
 
+import com.github.ugdbg.function.domain.Domain;
+
 /**
  * u:x → (f ∘ g) (x) 
  */
@@ -14,6 +16,31 @@ public interface Composed extends Function {
 		return this.f().apply(this.g().apply(input));
 	}
 	
+	/**
+	 * (f ∘ g)(input) : the image of g, through f.
+	 * @param input the input domain
+	 * @return a domain that contains the image. null if the image cannot be bounded.
+	 */
+	@Override
+	default Domain<Float> image(Domain<Float> input) {
+		Domain<Float> image = this.g().image(input);
+		return image == null ? null : this.f().image(image);
+	}
+
+	/**
+	 * g must be safe for the input and f must be safe for the image of g.
+	 * @param input the input domain
+	 * @return true if every domain check is proved to pass for the input domain
+	 */
+	@Override
+	default boolean isSafe(Domain<Float> input) {
+		if (! this.g().isSafe(input)) {
+			return false;
+		}
+		Domain<Float> image = this.g().image(input);
+		return image != null && this.f().isSafe(image);
+	}
+
 	static Composed of(Function f, Function g) {
 		return new Composed() {
 			@Override
@@ -1,6 +1,8 @@
 package com.github.ugdbg.function.scalar;
 
+import com.github.ugdbg.function.domain.Domain;
 import com.github.ugdbg.function.scalar.domain.Domains;
+import com.github.ugdbg.function.scalar.domain.IntervalArithmetic;
 
 /**
  * u:x → k
@@ -24,6 +26,11 @@ public class Constant extends DomainCheckedFunction<Constant> implements Derivab
 		return this.k;
 	}
 
+	@Override
+	public Domain<Float> image(Domain<Float> input) {
+		return IntervalArithmetic.closed(this.k, this.k);
+	}
+
 	@Override
 	public String label() {
 		return String.valueOf(this.k);
@@ -2,6 +2,7 @@ package com.github.ugdbg.function.scalar;
 
 import com.github.ugdbg.function.vector.VDerivable;
 import com.github.ugdbg.function.vector.VFunction;
+import com.github.ugdbg.function.vector.domain.VDomain;
 import com.github.ugdbg.vector.Vector;
 
 /**
@@ -30,10 +31,25 @@ public interface Derivable extends Function {
 				return Derivable.this.label();
 			}
 
+			@Override
+			public VDomain image(VDomain input) {
+				return input.map(Derivable.this::image);
+			}
+
+			@Override
+			public boolean isSafe(VDomain input) {
+				return input.allMatch(Derivable.this::isSafe);
+			}
+
 			@Override
 			public Vector doApply(Vector input) {
 				return Derivable.this.apply(input);
 			}
+
+			@Override
+			public Vector doApplyInto(Vector input, Vector into) {
+				return Derivable.this.applyInto(input, into);
+			}
 		};
 	}
 }
@@ -1,5 +1,6 @@
 package com.github.ugdbg.function.scalar;
 
+import com.github.ugdbg.datatypes.Precision;
 import com.github.ugdbg.function.domain.Domain;
 import com.github.ugdbg.function.scalar.domain.Domains;
 
@@ -7,6 +8,7 @@ abstract class DomainCheckedFunction<F extends DomainCheckedFunction> implements
 	
 	private boolean domainCheck = false;
 	protected Domain<Float> domain = Domains.R_CLOSED;
+	private Precision precision;
 	
 	@SuppressWarnings("unchecked")
 	public F domainCheck(boolean domainCheck) {
@@ -20,6 +22,22 @@ abstract class DomainCheckedFunction<F extends DomainCheckedFunction> implements
 		return (F) this;
 	}
 	
+	/**
+	 * Set the precision profile of the BigDecimal computations of this function.
+	 * @param precision the precision profile. null to use {@link Precision#global()}.
+	 * @return the current function
+	 */
+	@SuppressWarnings("unchecked")
+	public F precision(Precision precision) {
+		this.precision = precision;
+		return (F) this;
+	}
+	
+	@Override
+	public Precision precision() {
+		return this.precision == null ? Precision.global() : this.precision;
+	}
+	
 	@Override
 	public boolean domainCheck() {
 		return this.domainCheck;
@@ -1,10 +1,36 @@
 package com.github.ugdbg.function.scalar;
 
+import com.github.ugdbg.function.domain.Domain;
+import com.github.ugdbg.function.scalar.domain.IntervalArithmetic;
+
 /**
  * u:x → e(x)
+ * <br>
+ * The {@link #approximate(boolean)} mode uses a polynomial of 2^x instead of {@link Math#exp(double)},
+ * with a relative error below 5e-6 (see {@link Approximations}).
  */
 public class Exp extends DomainCheckedFunction<Exp> implements Derivable {
 
+	private boolean approximate = false;
+
+	/**
+	 * Enable or disable the approximate mode : faster, with a relative error below 5e-6.
+	 * @param approximate true to use the approximate exp
+	 * @return the current Exp instance
+	 */
+	public Exp approximate(boolean approximate) {
+		this.approximate = approximate;
+		return this;
+	}
+
+	/**
+	 * Is the approximate mode enabled ?
+	 * @return true if the exp is approximated
+	 */
+	public boolean isApproximate() {
+		return this.approximate;
+	}
+
 	@Override
 	public Derivable derive() {
 		return this;
@@ -12,7 +38,58 @@ public class Exp extends DomainCheckedFunction<Exp> implements Derivable {
 
 	@Override
 	public float doApply(float input) {
-		return (float) Math.exp(input);
+		return this.exp(input);
+	}
+
+	@Override
+	public double doApply(double input) {
+		return this.exp(input);
+	}
+
+	@Override
+	public void applyInto(float[] input, int inputOffset, float[] into, int intoOffset, int length) {
+		this.checkDomain(input, inputOffset, length);
+		for (int i = 0; i < length; i++) {
+			float x = input[inputOffset + i];
+			into[intoOffset + i] = this.exp(x);
+		}
+	}
+
+	@Override
+	public void applyInto(double[] input, int inputOffset, double[] into, int intoOffset, int length) {
+		this.checkDomain(input, inputOffset, length);
+		for (int i = 0; i < length; i++) {
+			double x = input[inputOffset + i];
+			into[intoOffset + i] = this.exp(x);
+		}
+	}
+
+	/**
+	 * The exp value, exact or approximate depending on {@link #approximate}.
+	 * @param x the input value
+	 * @return exp(x)
+	 */
+	private double exp(double x) {
+		return this.approximate ? Approximations.exp(x) : Math.exp(x);
+	}
+
+	/**
+	 * The exp value in float precision, exact or approximate depending on {@link #approximate}.
+	 * The exact value is computed in double precision.
+	 * @param x the input value
+	 * @return exp(x)
+	 */
+	private float exp(float x) {
+		return this.approximate ? Approximations.exp(x) : (float) Math.exp(x);
+	}
+
+	@Override
+	public Domain<Float> image(Domain<Float> input) {
+		Domain<Float> image = IntervalArithmetic.increasing(input, Math::exp);
+		return this.approximate ? IntervalArithmetic.multiply(image, IntervalArithmetic.closed(
+			1 - Approximations.EXP_MAX_RELATIVE_ERROR, 
+			1 + Approximations.EXP_MAX_RELATIVE_ERROR
+		)) : image;
 	}
 
 	@Override
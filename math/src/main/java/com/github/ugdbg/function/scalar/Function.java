@@ -1,13 +1,22 @@
 package com.github.ugdbg.function.scalar;
 
-import com.github.ugdbg.NumberUtils;
+import com.github.ugdbg.datatypes.Converter;
+import com.github.ugdbg.datatypes.Precision;
+import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.datatypes.array.NumericArray;
+import com.github.ugdbg.datatypes.array.PrimitiveDoubleArray;
+import com.github.ugdbg.datatypes.array.PrimitiveFloatArray;
 import com.github.ugdbg.function.domain.Domain;
 import com.github.ugdbg.function.domain.DomainCheckException;
 import com.github.ugdbg.function.scalar.domain.Domains;
+import com.github.ugdbg.function.scalar.domain.IntervalArithmetic;
+import com.github.ugdbg.function.scalar.domain.Intervals;
 import com.github.ugdbg.function.vector.VFunction;
+import com.github.ugdbg.function.vector.domain.VDomain;
 import com.github.ugdbg.vector.Vector;
 
 import java.io.Serializable;
+import java.math.BigDecimal;
 import java.math.MathContext;
 import java.util.Objects;
 
@@ -23,16 +32,31 @@ public interface Function extends Serializable {
 	 */
 	float doApply(float input);
 
+	/**
+	 * Apply the function on an input ℝ number, in double precision.
+	 * <br>
+	 * Defaults to {@link #doApply(float)} : override to compute the function in double precision.
+	 * @param input the input double value
+	 * @return the output double value of the function
+	 */
+	default double doApply(double input) {
+		return this.doApply((float) input);
+	}
+
 	/**
 	 * Apply the function on an input ℝ number.
 	 * <br>
-	 * Defaults to {@link #doApply(float)} using {@link Number#floatValue()}.
+	 * Defaults to {@link #doApply(double)} for {@link BigDecimal} and {@link Double} inputs, 
+	 * to {@link #doApply(float)} using {@link Number#floatValue()} else.
 	 * <br>
-	 * Override to provide a specific implementation
+	 * Override to provide a specific implementation, e.g. in arbitrary precision using {@link #mathContext()}.
 	 * @param input the input value
 	 * @return the output value of the function
 	 */
 	default Number doApply(Number input) {
+		if (input instanceof BigDecimal || input instanceof Double) {
+			return this.doApply(input.doubleValue());
+		}
 		return this.doApply(input.floatValue());
 	}
 	
@@ -49,6 +73,116 @@ public interface Function extends Serializable {
 		return this.doApply(input);
 	}
 
+	/**
+	 * Check the domain of every input value of a bulk operation, once, before the operation is computed.
+	 * <br>
+	 * Nothing is done if the domain check is disabled : the bulk kernels do not check anything else.
+	 * If the domain compiles to {@link Intervals}, the values are checked with a tight loop, without boxing.
+	 * @param input  the input values
+	 * @param offset the index of the first input value
+	 * @param length the number of input values
+	 * @throws DomainCheckException if domain check is enable, domain is not null and an input is outside of domain.
+	 */
+	default void checkDomain(float[] input, int offset, int length) {
+		if (this.domainCheck() && this.domain() != null) {
+			Intervals intervals = Intervals.of(this.domain());
+			if (intervals != null) {
+				int outside = intervals.firstOutside(input, offset, length);
+				if (outside >= 0) {
+					throw new DomainCheckException(this, input[outside]);
+				}
+				return;
+			}
+			for (int i = offset; i < offset + length; i++) {
+				if (! this.domain().isIn(input[i])) {
+					throw new DomainCheckException(this, input[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Check the domain of every input value of a bulk operation : see {@link #checkDomain(float[], int, int)}.
+	 * The domain is a float domain : values are checked as floats.
+	 * @param input  the input values
+	 * @param offset the index of the first input value
+	 * @param length the number of input values
+	 * @throws DomainCheckException if domain check is enable, domain is not null and an input is outside of domain.
+	 */
+	default void checkDomain(double[] input, int offset, int length) {
+		if (this.domainCheck() && this.domain() != null) {
+			Intervals intervals = Intervals.of(this.domain());
+			if (intervals != null) {
+				int outside = intervals.firstOutside(input, offset, length);
+				if (outside >= 0) {
+					throw new DomainCheckException(this, input[outside]);
+				}
+				return;
+			}
+			for (int i = offset; i < offset + length; i++) {
+				if (! this.domain().isIn((float) input[i])) {
+					throw new DomainCheckException(this, input[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Bulk kernel : apply the function to input values, into output values, in float precision. 
+	 * <br>
+	 * The domain is checked once for all the values (see {@link #checkDomain(float[], int, int)}).
+	 * Implementations override this with a tight loop.
+	 * @param input       the input values
+	 * @param inputOffset the index of the first input value
+	 * @param into        the output values. It can be the input array (in place, with the same offset).
+	 * @param intoOffset  the index of the first output value
+	 * @param length      the number of values
+	 */
+	default void applyInto(float[] input, int inputOffset, float[] into, int intoOffset, int length) {
+		this.checkDomain(input, inputOffset, length);
+		for (int i = 0; i < length; i++) {
+			into[intoOffset + i] = this.doApply(input[inputOffset + i]);
+		}
+	}
+
+	/**
+	 * Bulk kernel : apply the function to input values, into output values, in double precision. 
+	 * <br>
+	 * The domain is checked once for all the values (see {@link #checkDomain(double[], int, int)}).
+	 * Implementations override this with a tight loop.
+	 * @param input       the input values
+	 * @param inputOffset the index of the first input value
+	 * @param into        the output values. It can be the input array (in place, with the same offset).
+	 * @param intoOffset  the index of the first output value
+	 * @param length      the number of values
+	 */
+	default void applyInto(double[] input, int inputOffset, double[] into, int intoOffset, int length) {
+		this.checkDomain(input, inputOffset, length);
+		for (int i = 0; i < length; i++) {
+			into[intoOffset + i] = this.doApply(input[inputOffset + i]);
+		}
+	}
+
+	/**
+	 * Bulk kernel : apply the function to every value, in place, in float precision.
+	 * @param values the values
+	 * @param offset the index of the first value
+	 * @param length the number of values
+	 */
+	default void applyInPlace(float[] values, int offset, int length) {
+		this.applyInto(values, offset, values, offset, length);
+	}
+
+	/**
+	 * Bulk kernel : apply the function to every value, in place, in double precision.
+	 * @param values the values
+	 * @param offset the index of the first value
+	 * @param length the number of values
+	 */
+	default void applyInPlace(double[] values, int offset, int length) {
+		this.applyInto(values, offset, values, offset, length);
+	}
+
 	/**
 	 * What is the domain of this function ?
 	 * <br>
@@ -59,6 +193,31 @@ public interface Function extends Serializable {
 		return Domains.R;
 	}
 
+	/**
+	 * Interval extension of this function : bound the image of the input domain, f(input).
+	 * <br>
+	 * The image contains every value the function can output for an input in the domain. It is usually wider.
+	 * Default to null : the image is unknown.
+	 * @param input the input domain
+	 * @return a domain that contains the image. null if the image cannot be bounded.
+	 * @see IntervalArithmetic
+	 */
+	default Domain<Float> image(Domain<Float> input) {
+		return null;
+	}
+
+	/**
+	 * Is it proved that the domain of this function (and of every function it is made of) includes any input value ?
+	 * <br>
+	 * If it is, the domain checks for these inputs can be skipped : they always pass.
+	 * Default to input ⊆ {@link #domain()}.
+	 * @param input the input domain
+	 * @return true if every domain check is proved to pass for the input domain. false if it cannot be proved.
+	 */
+	default boolean isSafe(Domain<Float> input) {
+		return IntervalArithmetic.includes(this.domain(), input);
+	}
+
 	/**
 	 * Should the domain be checked ? 
 	 * <br>
@@ -102,10 +261,25 @@ public interface Function extends Serializable {
 				return Function.this.apply(input);
 			}
 
+			@Override
+			public Vector doApplyInto(Vector input, Vector into) {
+				return Function.this.applyInto(input, into);
+			}
+
 			@Override
 			public String label() {
 				return Function.this.label();
 			}
+
+			@Override
+			public VDomain image(VDomain input) {
+				return input.map(Function.this::image);
+			}
+
+			@Override
+			public boolean isSafe(VDomain input) {
+				return input.allMatch(Function.this::isSafe);
+			}
 		};
 	}
 
@@ -116,22 +290,105 @@ public interface Function extends Serializable {
 	 */
 	default float[] apply(float[] input) {
 		float[] out = new float[input.length];
-		for (int i = 0; i < input.length; i++) {
-			out[i] = this.apply(input[i]);
-		}
+		this.applyInto(input, 0, out, 0, input.length);
 		return out;
 	}
 	
 	/**
 	 * Apply the current function to a vector.
+	 * <br>
+	 * The output type is the input {@link TYPE#heap()} type and values are computed in that type precision
+	 * (see {@link #applyInto(Vector, Vector)}).
 	 * @param input the input vector
 	 * @return an output vector y(y₁,y₂,y₃...yₙ) where yᵢ = this(xᵢ)
 	 */
 	default Vector apply(Vector input) {
-		return Vector.of(input.getValue().getType(), this.apply(input.floats()));
+		return this.applyInto(input, Vector.of(input.getValue().getType().heap(), input.dimension()));
+	}
+
+	/**
+	 * Apply the current function to a vector, in place : inputᵢ = this(inputᵢ).
+	 * @param input the input vector, that is also the output
+	 * @return the input vector
+	 */
+	default Vector applyInPlace(Vector input) {
+		return this.applyInto(input, input);
+	}
+
+	/**
+	 * Apply the current function to a vector, into an existing vector : intoᵢ = this(inputᵢ).
+	 * <br>
+	 * The values are computed in the output vector precision :
+	 * <ul>
+	 *     <li>primitive float or double vectors (or views) : the bulk kernels, nothing is allocated</li>
+	 *     <li>
+	 *         {@link TYPE#DECIMAL} : value by value, using {@link #doApply(Number)} and {@link #mathContext()}, 
+	 *         rounded to the output array precision. 
+	 *         A NaN or infinite result (e.g. ln of a negative value without domain check) is a {@link DomainCheckException}.
+	 *     </li>
+	 *     <li>else, value by value, in float precision</li>
+	 * </ul>
+	 * @param input the input vector
+	 * @param into  the output vector. Its dimension must match the input. It can be the input (in place).
+	 * @return the output vector
+	 * @throws DomainCheckException if an input is outside of the checked domain or has no decimal image
+	 */
+	default Vector applyInto(Vector input, Vector into) {
+		NumericArray in = input.getValue();
+		NumericArray out = into.getValue();
+		if (in.length() != out.length()) {
+			throw new IllegalArgumentException(
+				"Input size [" + in.length() + "] does not match output size [" + out.length() + "]"
+			);
+		}
+		
+		if (in instanceof PrimitiveFloatArray && out instanceof PrimitiveFloatArray) {
+			PrimitiveFloatArray from = (PrimitiveFloatArray) in;
+			PrimitiveFloatArray to = (PrimitiveFloatArray) out;
+			this.applyInto(from.buffer(), from.offset(), to.buffer(), to.offset(), in.length());
+		} else if (in instanceof PrimitiveDoubleArray && out instanceof PrimitiveDoubleArray) {
+			PrimitiveDoubleArray from = (PrimitiveDoubleArray) in;
+			PrimitiveDoubleArray to = (PrimitiveDoubleArray) out;
+			this.applyInto(from.buffer(), from.offset(), to.buffer(), to.offset(), in.length());
+		} else {
+			TYPE type = out.getType().heap();
+			for (int i = 0; i < in.length(); i++) {
+				Number value = in.at(i);
+				if (this.domainCheck() && this.domain() != null && ! this.domain().isIn(value.floatValue())) {
+					throw new DomainCheckException(this, value);
+				}
+				switch (type) {
+					case DECIMAL: 
+						Number result = this.doApply(value);
+						if (! (result instanceof BigDecimal) 
+							&& (Double.isNaN(result.doubleValue()) || Double.isInfinite(result.doubleValue()))) {
+							throw new DomainCheckException(this, value);
+						}
+						out.at(i, Converter.toDecimal(result).round(this.mathContext())); 
+						break;
+					case PDOUBLE: out.at(i, this.doApply(value.doubleValue())); break;
+					default: out.at(i, this.doApply(value.floatValue()));
+				}
+			}
+		}
+		return into;
 	}
 	
+	/**
+	 * The precision profile of the {@link BigDecimal} computations of this function (see {@link #doApply(Number)}).
+	 * <br>
+	 * Default to the process-wide {@link Precision#global()}.
+	 * @return the precision profile of this function
+	 */
+	default Precision precision() {
+		return Precision.global();
+	}
+
+	/**
+	 * The math context of the {@link BigDecimal} computations of this function.
+	 * @return the {@link #precision()} math context
+	 */
 	default MathContext mathContext() {
-		return NumberUtils.MATH_CONTEXT;
+		return this.precision().mathContext();
 	}
 }
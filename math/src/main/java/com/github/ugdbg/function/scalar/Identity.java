@@ -1,5 +1,8 @@
 package com.github.ugdbg.function.scalar;
 
+import com.github.ugdbg.function.domain.Domain;
+import com.github.ugdbg.function.scalar.domain.IntervalArithmetic;
+
 /**
  * u:x → x
  */
@@ -14,6 +17,11 @@ public class Identity extends DomainCheckedFunction<Identity> implements Derivab
 		return input;
 	}
 
+	@Override
+	public Domain<Float> image(Domain<Float> input) {
+		return IntervalArithmetic.increasing(input, x -> x);
+	}
+
 	@Override
 	public String label() {
 		return "x";
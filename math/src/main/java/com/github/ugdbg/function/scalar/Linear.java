@@ -1,5 +1,8 @@
 package com.github.ugdbg.function.scalar;
 
+import com.github.ugdbg.function.domain.Domain;
+import com.github.ugdbg.function.scalar.domain.IntervalArithmetic;
+
 /**
  * u:x → a * x + b
  */
@@ -24,6 +27,34 @@ public class Linear extends DomainCheckedFunction<Linear> implements Derivable {
 		return this.a * input + this.b;
 	}
 
+	@Override
+	public double doApply(double input) {
+		return this.a * input + this.b;
+	}
+
+	@Override
+	public void applyInto(float[] input, int inputOffset, float[] into, int intoOffset, int length) {
+		this.checkDomain(input, inputOffset, length);
+		for (int i = 0; i < length; i++) {
+			float x = input[inputOffset + i];
+			into[intoOffset + i] = this.a * x + this.b;
+		}
+	}
+
+	@Override
+	public void applyInto(double[] input, int inputOffset, double[] into, int intoOffset, int length) {
+		this.checkDomain(input, inputOffset, length);
+		for (int i = 0; i < length; i++) {
+			double x = input[inputOffset + i];
+			into[intoOffset + i] = this.a * x + this.b;
+		}
+	}
+
+	@Override
+	public Domain<Float> image(Domain<Float> input) {
+		return IntervalArithmetic.linear(input, this.a, this.b);
+	}
+
 	@Override
 	public String label() {
 		return this.a + "*x + " + this.b;
@@ -1,6 +1,8 @@
 package com.github.ugdbg.function.scalar;
 
+import com.github.ugdbg.function.domain.Domain;
 import com.github.ugdbg.function.scalar.domain.Domains;
+import com.github.ugdbg.function.scalar.domain.IntervalArithmetic;
 
 /**
  * u:x → ln(x)
@@ -21,6 +23,39 @@ public class Ln extends DomainCheckedFunction<Ln> implements Derivable {
 		return (float) Math.log(input);
 	}
 
+	@Override
+	public double doApply(double input) {
+		return Math.log(input);
+	}
+
+	@Override
+	public void applyInto(float[] input, int inputOffset, float[] into, int intoOffset, int length) {
+		this.checkDomain(input, inputOffset, length);
+		for (int i = 0; i < length; i++) {
+			float x = input[inputOffset + i];
+			into[intoOffset + i] = (float) Math.log(x);
+		}
+	}
+
+	@Override
+	public void applyInto(double[] input, int inputOffset, double[] into, int intoOffset, int length) {
+		this.checkDomain(input, inputOffset, length);
+		for (int i = 0; i < length; i++) {
+			double x = input[inputOffset + i];
+			into[intoOffset + i] = Math.log(x);
+		}
+	}
+
+	/**
+	 * ln is increasing on its domain : the image is only bounded if the input is in the domain.
+	 * @param input the input domain
+	 * @return a segment that contains the image. null if the input can be out of the domain.
+	 */
+	@Override
+	public Domain<Float> image(Domain<Float> input) {
+		return this.isSafe(input) ? IntervalArithmetic.increasing(input, Math::log) : null;
+	}
+
 	@Override
 	public String label() {
 		return "ln(x)";
@@ -1,5 +1,7 @@
 package com.github.ugdbg.function.scalar;
 
+import com.github.ugdbg.function.domain.Domain;
+import com.github.ugdbg.function.scalar.domain.IntervalArithmetic;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -46,9 +48,41 @@ public class Polynomial extends DomainCheckedFunction<Polynomial> implements Der
 
 	@Override
 	public float doApply(float input) {
-		float sum = 0;
-		for (int i = 0; i < this.factors.length; i++) {
-			sum += this.factors[i] * Math.pow(input, i);
+		return (float) this.horner(input);
+	}
+
+	@Override
+	public double doApply(double input) {
+		return this.horner(input);
+	}
+
+	@Override
+	public void applyInto(float[] input, int inputOffset, float[] into, int intoOffset, int length) {
+		this.checkDomain(input, inputOffset, length);
+		for (int i = 0; i < length; i++) {
+			float x = input[inputOffset + i];
+			into[intoOffset + i] = (float) this.horner(x);
+		}
+	}
+
+	@Override
+	public void applyInto(double[] input, int inputOffset, double[] into, int intoOffset, int length) {
+		this.checkDomain(input, inputOffset, length);
+		for (int i = 0; i < length; i++) {
+			double x = input[inputOffset + i];
+			into[intoOffset + i] = this.horner(x);
+		}
+	}
+
+	/**
+	 * Evaluate the polynomial with the Horner method : (((α*x + β)*x + ...)*x + λ)*x + μ.
+	 * @param x the input value
+	 * @return the polynomial value for x
+	 */
+	private double horner(double x) {
+		double sum = 0;
+		for (int i = this.factors.length - 1; i >= 0; i--) {
+			sum = sum * x + this.factors[i];
 		}
 		return sum;
 	}
@@ -58,6 +92,20 @@ public class Polynomial extends DomainCheckedFunction<Polynomial> implements Der
 		return "u:x → " + this.label();
 	}
 
+	/**
+	 * Interval Horner evaluation : every step is an interval product and sum. 
+	 * @param input the input domain
+	 * @return a segment that contains the image
+	 */
+	@Override
+	public Domain<Float> image(Domain<Float> input) {
+		Domain<Float> sum = IntervalArithmetic.closed(0, 0);
+		for (int i = this.factors.length - 1; i >= 0; i--) {
+			sum = IntervalArithmetic.linear(IntervalArithmetic.multiply(sum, input), 1, this.factors[i]);
+		}
+		return sum;
+	}
+
 	@Override
 	public String label() {
 		StringBuilder builder = new StringBuilder();
@@ -1,5 +1,8 @@
 package com.github.ugdbg.function.scalar;
 
+import com.github.ugdbg.function.domain.Domain;
+import com.github.ugdbg.function.scalar.domain.IntervalArithmetic;
+
 /**
  * u:x → f(x) * g(x)
  */
@@ -34,6 +37,16 @@ public class Product extends DomainCheckedFunction<Product> implements Derivable
 		return this.f.apply(input) * this.g.apply(input);
 	}
 
+	@Override
+	public Domain<Float> image(Domain<Float> input) {
+		return IntervalArithmetic.multiply(this.f.image(input), this.g.image(input));
+	}
+
+	@Override
+	public boolean isSafe(Domain<Float> input) {
+		return super.isSafe(input) && this.f.isSafe(input) && this.g.isSafe(input);
+	}
+
 	@Override
 	public String label() {
 		return this.f.toString() + " + " + this.g.toString();
@@ -1,5 +1,8 @@
 package com.github.ugdbg.function.scalar;
 
+import com.github.ugdbg.function.domain.Domain;
+import com.github.ugdbg.function.scalar.domain.IntervalArithmetic;
+
 /**
  * Rectified Linear Units function.
  * <br>
@@ -15,6 +18,27 @@ public class ReLu extends DomainCheckedFunction<ReLu> implements Derivable {
 				return input > 0 ? 1 : 0;
 			}
 
+			@Override
+			public double doApply(double input) {
+				return input > 0 ? 1 : 0;
+			}
+
+			@Override
+			public void applyInto(float[] input, int inputOffset, float[] into, int intoOffset, int length) {
+				ReLu.this.checkDomain(input, inputOffset, length);
+				for (int i = 0; i < length; i++) {
+					into[intoOffset + i] = input[inputOffset + i] > 0 ? 1 : 0;
+				}
+			}
+
+			@Override
+			public void applyInto(double[] input, int inputOffset, double[] into, int intoOffset, int length) {
+				ReLu.this.checkDomain(input, inputOffset, length);
+				for (int i = 0; i < length; i++) {
+					into[intoOffset + i] = input[inputOffset + i] > 0 ? 1 : 0;
+				}
+			}
+
 			@Override
 			public String label() {
 				return "1 if x > 0, 0 else";
@@ -27,6 +51,34 @@ public class ReLu extends DomainCheckedFunction<ReLu> implements Derivable {
 		return input > 0 ? input : 0;
 	}
 
+	@Override
+	public double doApply(double input) {
+		return input > 0 ? input : 0;
+	}
+
+	@Override
+	public void applyInto(float[] input, int inputOffset, float[] into, int intoOffset, int length) {
+		this.checkDomain(input, inputOffset, length);
+		for (int i = 0; i < length; i++) {
+			float x = input[inputOffset + i];
+			into[intoOffset + i] = x > 0 ? x : 0;
+		}
+	}
+
+	@Override
+	public void applyInto(double[] input, int inputOffset, double[] into, int intoOffset, int length) {
+		this.checkDomain(input, inputOffset, length);
+		for (int i = 0; i < length; i++) {
+			double x = input[inputOffset + i];
+			into[intoOffset + i] = x > 0 ? x : 0;
+		}
+	}
+
+	@Override
+	public Domain<Float> image(Domain<Float> input) {
+		return IntervalArithmetic.increasing(input, x -> Math.max(0, x));
+	}
+
 	@Override
 	public String label() {
 		return "max(O, x)";
@@ -1,5 +1,8 @@
 package com.github.ugdbg.function.scalar;
 
+import com.github.ugdbg.function.domain.Domain;
+import com.github.ugdbg.function.scalar.domain.IntervalArithmetic;
+
 /**
  * u:x → f(x) + g(x) 
  */
@@ -28,6 +31,16 @@ public class Sum extends DomainCheckedFunction<Sum> implements Derivable {
 		return input -> this.f.derive().apply(input) + this.g.derive().apply(input);
 	}
 
+	@Override
+	public Domain<Float> image(Domain<Float> input) {
+		return IntervalArithmetic.add(this.f.image(input), this.g.image(input));
+	}
+
+	@Override
+	public boolean isSafe(Domain<Float> input) {
+		return super.isSafe(input) && this.f.isSafe(input) && this.g.isSafe(input);
+	}
+
 	@Override
 	public String label() {
 		return this.f.label() + this.g.label();
@@ -1,12 +1,39 @@
 package com.github.ugdbg.function.scalar;
 
+import com.github.ugdbg.function.domain.Domain;
+import com.github.ugdbg.function.scalar.domain.IntervalArithmetic;
+
 /**
  * u:x → tanh(x)
+ * <br>
+ * The {@link #approximate(boolean)} mode uses a polynomial of 2^x instead of {@link Math#tanh(double)},
+ * with an absolute error below 1e-5 for tanh and 2e-5 for its derivative (see {@link Approximations}).
  */
 public class Tanh extends DomainCheckedFunction<Tanh> implements Derivable {
+
+	private boolean approximate = false;
+
+	/**
+	 * Enable or disable the approximate mode : faster, with an absolute error below 1e-5.
+	 * @param approximate true to use the approximate tanh
+	 * @return the current Tanh instance
+	 */
+	public Tanh approximate(boolean approximate) {
+		this.approximate = approximate;
+		return this;
+	}
+
+	/**
+	 * Is the approximate mode enabled ?
+	 * @return true if the tanh is approximated
+	 */
+	public boolean isApproximate() {
+		return this.approximate;
+	}
+
 	@Override
 	public float doApply(float input) {
-		return (float) Math.tanh(input);
+		return this.tanh(input);
 	}
 
 	/**
@@ -15,7 +42,84 @@ public class Tanh extends DomainCheckedFunction<Tanh> implements Derivable {
 	 */
 	@Override
 	public Function derive() {
-		return (Function) input -> (float) (1 - Math.pow(Tanh.this.apply(input), 2));
+		return new Function() {
+			@Override
+			public float doApply(float input) {
+				return (float) (1 - Math.pow(Tanh.this.apply(input), 2));
+			}
+
+			@Override
+			public double doApply(double input) {
+				double tanh = Tanh.this.tanh(input);
+				return 1 - tanh * tanh;
+			}
+
+			@Override
+			public void applyInto(float[] input, int inputOffset, float[] into, int intoOffset, int length) {
+				Tanh.this.checkDomain(input, inputOffset, length);
+				for (int i = 0; i < length; i++) {
+					float tanh = Tanh.this.tanh(input[inputOffset + i]);
+					into[intoOffset + i] = 1f - tanh * tanh;
+				}
+			}
+
+			@Override
+			public void applyInto(double[] input, int inputOffset, double[] into, int intoOffset, int length) {
+				Tanh.this.checkDomain(input, inputOffset, length);
+				for (int i = 0; i < length; i++) {
+					double tanh = Tanh.this.tanh(input[inputOffset + i]);
+					into[intoOffset + i] = 1 - tanh * tanh;
+				}
+			}
+		};
+	}
+
+	@Override
+	public double doApply(double input) {
+		return this.tanh(input);
+	}
+
+	@Override
+	public void applyInto(float[] input, int inputOffset, float[] into, int intoOffset, int length) {
+		this.checkDomain(input, inputOffset, length);
+		for (int i = 0; i < length; i++) {
+			float x = input[inputOffset + i];
+			into[intoOffset + i] = this.tanh(x);
+		}
+	}
+
+	@Override
+	public void applyInto(double[] input, int inputOffset, double[] into, int intoOffset, int length) {
+		this.checkDomain(input, inputOffset, length);
+		for (int i = 0; i < length; i++) {
+			double x = input[inputOffset + i];
+			into[intoOffset + i] = this.tanh(x);
+		}
+	}
+
+	/**
+	 * The tanh value, exact or approximate depending on {@link #approximate}.
+	 * @param x the input value
+	 * @return tanh(x)
+	 */
+	private double tanh(double x) {
+		return this.approximate ? Approximations.tanh(x) : Math.tanh(x);
+	}
+
+	/**
+	 * The tanh value in float precision, exact or approximate depending on {@link #approximate}.
+	 * The exact value is computed in double precision.
+	 * @param x the input value
+	 * @return tanh(x)
+	 */
+	private float tanh(float x) {
+		return this.approximate ? Approximations.tanh(x) : (float) Math.tanh(x);
+	}
+
+	@Override
+	public Domain<Float> image(Domain<Float> input) {
+		Domain<Float> image = IntervalArithmetic.increasing(input, Math::tanh);
+		return IntervalArithmetic.widen(image, this.approximate ? Approximations.TANH_MAX_ERROR : 0, -1, 1);
 	}
 
 	@Override
@@ -1,5 +1,8 @@
 package com.github.ugdbg.function.scalar;
 
+import com.github.ugdbg.function.domain.Domain;
+import com.github.ugdbg.function.scalar.domain.IntervalArithmetic;
+
 /**
  * u:x → 0
  */
@@ -14,6 +17,11 @@ public class Zero extends DomainCheckedFunction<Zero> implements Derivable {
 		return 0;
 	}
 
+	@Override
+	public Domain<Float> image(Domain<Float> input) {
+		return IntervalArithmetic.closed(0, 0);
+	}
+
 	@Override
 	public String label() {
 		return "0";
@@ -0,0 +1,167 @@
+package com.github.ugdbg.function.scalar.domain;
+
+import com.github.ugdbg.function.domain.Domain;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Interval arithmetic on float domains : bound the image of a function over an input domain.
+ * <br>
+ * Every operation returns a closed {@link Segment} that contains all the values the operation can output in float
+ * precision : the bounds are computed in double precision and rounded outwards to floats.
+ * An operation returns null if the image cannot be bounded (e.g. a division by an interval that contains 0, ∞ - ∞, NaN).
+ * <br><br>
+ * Only the hull of a domain is used : the image of ]0, 1[ ⋃ ]2, 3[ is bounded as the image of [0, 3].
+ */
+public final class IntervalArithmetic {
+
+	private IntervalArithmetic() {}
+
+	/**
+	 * Does the domain include every value of the subset ? This is a proof that the domain check of the values always passes.
+	 * @param domain the domain. null is considered as any value.
+	 * @param subset the domain of the values to check
+	 * @return true if subset ⊆ domain. false if it cannot be proved.
+	 */
+	public static boolean includes(Domain<Float> domain, Domain<Float> subset) {
+		if (domain == null) {
+			return true;
+		}
+		if (subset == null) {
+			return false;
+		}
+		Intervals including = Intervals.of(domain);
+		Intervals included = Intervals.of(subset);
+		return including != null && included != null && including.includes(included);
+	}
+
+	/**
+	 * The closed segment [from, to], rounded outwards to floats.
+	 * @param from the lower bound
+	 * @param to   the upper bound
+	 * @return a new closed Segment. null if a bound is NaN or from &gt; to.
+	 */
+	public static Segment closed(double from, double to) {
+		if (! (from <= to)) {
+			return null;
+		}
+		float lower = (float) from;
+		float upper = (float) to;
+		lower = lower > from ? Math.nextDown(lower) : lower;
+		upper = upper < to ? Math.nextUp(upper) : upper;
+		return new Segment(lower, upper).open(false, false);
+	}
+
+	/**
+	 * The image of x → a * x + b.
+	 * @param x the input domain
+	 * @param a the x factor
+	 * @param b the constant
+	 * @return the image segment. null if it cannot be bounded.
+	 */
+	public static Segment linear(Domain<Float> x, double a, double b) {
+		return add(multiply(x, closed(a, a)), closed(b, b));
+	}
+
+	/**
+	 * The image of x + y, for any x and y in the input domains.
+	 * @param x the first input domain
+	 * @param y the second input domain
+	 * @return the image segment. null if it cannot be bounded.
+	 */
+	public static Segment add(Domain<Float> x, Domain<Float> y) {
+		Intervals a = hull(x);
+		Intervals b = hull(y);
+		if (a == null || b == null) {
+			return null;
+		}
+		return closed((double) a.min() + b.min(), (double) a.max() + b.max());
+	}
+
+	/**
+	 * The image of x * y, for any x and y in the input domains.
+	 * @param x the first input domain
+	 * @param y the second input domain
+	 * @return the image segment. null if it cannot be bounded.
+	 */
+	public static Segment multiply(Domain<Float> x, Domain<Float> y) {
+		Intervals a = hull(x);
+		Intervals b = hull(y);
+		if (a == null || b == null) {
+			return null;
+		}
+		double[] products = {
+			(double) a.min() * b.min(), (double) a.min() * b.max(), 
+			(double) a.max() * b.min(), (double) a.max() * b.max()
+		};
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for (double product : products) {
+			if (Double.isNaN(product)) {
+				return null;
+			}
+			min = Math.min(min, product);
+			max = Math.max(max, product);
+		}
+		return closed(min, max);
+	}
+
+	/**
+	 * The image of x / y, for any x and y in the input domains.
+	 * @param x the numerator domain
+	 * @param y the denominator domain
+	 * @return the image segment. null if it cannot be bounded, i.e. if y can be 0.
+	 */
+	public static Segment divide(Domain<Float> x, Domain<Float> y) {
+		Intervals b = hull(y);
+		if (b == null || b.min() <= 0 && b.max() >= 0) {
+			return null;
+		}
+		return multiply(x, closed(1 / (double) b.max(), 1 / (double) b.min()));
+	}
+
+	/**
+	 * The image of an increasing function : [f(min), f(max)].
+	 * @param x the input domain
+	 * @param f the increasing function, in double precision
+	 * @return the image segment. null if it cannot be bounded.
+	 */
+	public static Segment increasing(Domain<Float> x, DoubleUnaryOperator f) {
+		Intervals a = hull(x);
+		return a == null ? null : closed(f.applyAsDouble(a.min()), f.applyAsDouble(a.max()));
+	}
+
+	/**
+	 * The image of a decreasing function : [f(max), f(min)].
+	 * @param x the input domain
+	 * @param f the decreasing function, in double precision
+	 * @return the image segment. null if it cannot be bounded.
+	 */
+	public static Segment decreasing(Domain<Float> x, DoubleUnaryOperator f) {
+		Intervals a = hull(x);
+		return a == null ? null : closed(f.applyAsDouble(a.max()), f.applyAsDouble(a.min()));
+	}
+
+	/**
+	 * The image segment, widened by an absolute error and clamped to [min, max].
+	 * @param image the image segment
+	 * @param error the absolute error
+	 * @param min   the lowest possible value
+	 * @param max   the highest possible value
+	 * @return the widened segment. null if the image is null.
+	 */
+	public static Segment widen(Domain<Float> image, double error, double min, double max) {
+		Intervals a = hull(image);
+		return a == null ? null : closed(Math.max(min, a.min() - error), Math.min(max, a.max() + error));
+	}
+
+	/**
+	 * Get the intervals of a domain, if it is a non empty domain that can be compiled (see {@link Intervals#of(Domain)}).
+	 * @param domain the domain
+	 * @return the domain intervals, null if the domain is null, empty or cannot be compiled
+	 */
+	private static Intervals hull(Domain<Float> domain) {
+		Intervals intervals = domain == null ? null : Intervals.of(domain);
+		return intervals == null || intervals.isEmpty() ? null : intervals;
+	}
+}
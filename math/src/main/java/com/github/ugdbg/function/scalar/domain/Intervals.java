@@ -0,0 +1,390 @@
+package com.github.ugdbg.function.scalar.domain;
+
+import com.github.ugdbg.function.domain.Domain;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A primitive representation of a float domain : a set of intervals, stored as float bound arrays with open flags.
+ * <br>
+ * {@link Segment} and {@link Union} compile down to it (see {@link #of(Domain)}),
+ * so that values can be checked with a tight loop over float[] or double[], without boxing.
+ * <br><br>
+ * A value x is in the i-th interval if lower[i] &lt; x &lt; upper[i], or x equals a closed bound.
+ * NaN is never in an interval.
+ * <br><br>
+ * Several intervals are always normalized : sorted, disjoint, non adjacent and non empty.
+ * Membership is then a binary search, in O(log k), and {@link #union(Intervals)} / {@link #inter(Intervals)}
+ * are linear merges of the sorted intervals.
+ */
+public final class Intervals implements Serializable {
+
+	private final float[] lower;
+	private final float[] upper;
+	private final boolean[] lowerOpen;
+	private final boolean[] upperOpen;
+
+	/**
+	 * Private constructor, using the bounds arrays, that must have the same length.
+	 * @param lower     the lower bounds
+	 * @param upper     the upper bounds
+	 * @param lowerOpen the lower bounds open statuses. true is open. false is closed.
+	 * @param upperOpen the upper bounds open statuses. true is open. false is closed.
+	 */
+	private Intervals(float[] lower, float[] upper, boolean[] lowerOpen, boolean[] upperOpen) {
+		this.lower = lower;
+		this.upper = upper;
+		this.lowerOpen = lowerOpen;
+		this.upperOpen = upperOpen;
+	}
+
+	/**
+	 * Create a single interval.
+	 * @param from     the lower bound
+	 * @param fromOpen the lower bound open status
+	 * @param to       the upper bound
+	 * @param toOpen   the upper bound open status
+	 * @return a new Intervals instance, with 1 interval
+	 */
+	public static Intervals of(float from, boolean fromOpen, float to, boolean toOpen) {
+		return new Intervals(new float[] {from}, new float[] {to}, new boolean[] {fromOpen}, new boolean[] {toOpen});
+	}
+
+	/**
+	 * Compile a float domain into its primitive intervals.
+	 * @param domain the domain to compile
+	 * @return the domain intervals, null if the domain is neither a {@link Segment} nor a {@link Union} of segments
+	 */
+	public static Intervals of(Domain<Float> domain) {
+		if (domain instanceof Segment) {
+			return ((Segment) domain).intervals();
+		}
+		if (domain instanceof Union) {
+			return ((Union) domain).intervals();
+		}
+		return null;
+	}
+
+	/**
+	 * The union of some intervals, in any order : the intervals are sorted, then merged.
+	 * @param intervals the intervals
+	 * @return a new normalized Intervals instance
+	 */
+	static Intervals union(Intervals... intervals) {
+		int size = Arrays.stream(intervals).mapToInt(Intervals::size).sum();
+		float[] lower = new float[size];
+		float[] upper = new float[size];
+		boolean[] lowerOpen = new boolean[size];
+		boolean[] upperOpen = new boolean[size];
+
+		int index = 0;
+		for (Intervals union : intervals) {
+			System.arraycopy(union.lower,     0, lower,     index, union.size());
+			System.arraycopy(union.upper,     0, upper,     index, union.size());
+			System.arraycopy(union.lowerOpen, 0, lowerOpen, index, union.size());
+			System.arraycopy(union.upperOpen, 0, upperOpen, index, union.size());
+			index += union.size();
+		}
+
+		Integer[] sorted = new Integer[size];
+		Arrays.setAll(sorted, i -> i);
+		Arrays.sort(sorted, (a, b) -> lower[a] != lower[b] 
+			? Float.compare(lower[a], lower[b]) 
+			: Boolean.compare(lowerOpen[a], lowerOpen[b])
+		);
+
+		Builder builder = new Builder(size);
+		for (int i : sorted) {
+			builder.append(lower[i], lowerOpen[i], upper[i], upperOpen[i]);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * The union of these intervals and some other intervals, in O(k + k') : a merge of the sorted intervals.
+	 * @param other the other intervals
+	 * @return a new normalized Intervals instance
+	 */
+	public Intervals union(Intervals other) {
+		Builder builder = new Builder(this.size() + other.size());
+		int i = 0;
+		int j = 0;
+		while (i < this.size() || j < other.size()) {
+			boolean fromThis = j == other.size() 
+				|| (i < this.size() && (this.lower[i] < other.lower[j] || this.lower[i] == other.lower[j] && ! this.lowerOpen[i]));
+			Intervals from = fromThis ? this : other;
+			int index = fromThis ? i++ : j++;
+			builder.append(from.lower[index], from.lowerOpen[index], from.upper[index], from.upperOpen[index]);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * The intersection of these intervals and some other intervals, in O(k + k') : a sweep of the sorted intervals.
+	 * @param other the other intervals
+	 * @return a new normalized Intervals instance
+	 */
+	public Intervals inter(Intervals other) {
+		Builder builder = new Builder(this.size() + other.size());
+		int i = 0;
+		int j = 0;
+		while (i < this.size() && j < other.size()) {
+			float from;
+			boolean fromOpen;
+			if (this.lower[i] != other.lower[j]) {
+				boolean max = this.lower[i] > other.lower[j];
+				from     = max ? this.lower[i]     : other.lower[j];
+				fromOpen = max ? this.lowerOpen[i] : other.lowerOpen[j];
+			} else {
+				from     = this.lower[i];
+				fromOpen = this.lowerOpen[i] || other.lowerOpen[j];
+			}
+
+			float to;
+			boolean toOpen;
+			if (this.upper[i] != other.upper[j]) {
+				boolean min = this.upper[i] < other.upper[j];
+				to     = min ? this.upper[i]     : other.upper[j];
+				toOpen = min ? this.upperOpen[i] : other.upperOpen[j];
+			} else {
+				to     = this.upper[i];
+				toOpen = this.upperOpen[i] || other.upperOpen[j];
+			}
+			builder.append(from, fromOpen, to, toOpen);
+
+			if (this.upper[i] < other.upper[j] || this.upper[i] == other.upper[j] && this.upperOpen[i]) {
+				i++;
+			} else {
+				j++;
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Get the i-th interval.
+	 * @param interval the interval index
+	 * @return a new Intervals instance, with 1 interval
+	 */
+	Intervals get(int interval) {
+		return of(this.lower[interval], this.lowerOpen[interval], this.upper[interval], this.upperOpen[interval]);
+	}
+
+	/**
+	 * Get the i-th interval, as a segment.
+	 * @param interval the interval index
+	 * @return a new Segment instance
+	 */
+	Segment segment(int interval) {
+		return new Segment(this.lower[interval], this.upper[interval]).open(this.lowerOpen[interval], this.upperOpen[interval]);
+	}
+
+	/**
+	 * The number of intervals.
+	 * @return the intervals count
+	 */
+	public int size() {
+		return this.lower.length;
+	}
+
+	/**
+	 * Is there any value in these intervals ?
+	 * @return true if there is no interval, or a single empty interval
+	 */
+	public boolean isEmpty() {
+		return this.lower.length == 0 || this.lower.length == 1 && ! isValid(this.lower[0], this.lowerOpen[0], this.upper[0], this.upperOpen[0]);
+	}
+
+	/**
+	 * Do these intervals include all the values of some other intervals ?
+	 * @param other the other intervals
+	 * @return true if other ⊆ this
+	 */
+	public boolean includes(Intervals other) {
+		return other.inter(this).equals(other);
+	}
+
+	/**
+	 * The lowest bound of the intervals, for a non empty intervals set.
+	 * @return the lower bound of the first interval
+	 */
+	float min() {
+		return this.lower[0];
+	}
+
+	/**
+	 * The highest bound of the intervals, for a non empty intervals set.
+	 * @return the upper bound of the last interval
+	 */
+	float max() {
+		return this.upper[this.upper.length - 1];
+	}
+
+	/**
+	 * Is the given value in one of the intervals ? This is a binary search on the lower bounds.
+	 * @param x the value to check
+	 * @return true if x is in one of the intervals
+	 */
+	public boolean isIn(float x) {
+		int low = 0;
+		int high = this.lower.length - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (this.lower[middle] <= x) {
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return high >= 0 && this.isIn(high, x);
+	}
+
+	/**
+	 * Find the first value that is outside the intervals.
+	 * @param values the values to check
+	 * @param offset the index of the first value
+	 * @param length the number of values
+	 * @return the index of the first value outside the intervals. -1 if all the values are in.
+	 */
+	public int firstOutside(float[] values, int offset, int length) {
+		if (this.lower.length == 1) {
+			float from = this.lower[0];
+			float to = this.upper[0];
+			boolean fromOpen = this.lowerOpen[0];
+			boolean toOpen = this.upperOpen[0];
+			for (int i = offset; i < offset + length; i++) {
+				float x = values[i];
+				if (! ((fromOpen ? x > from : x >= from) && (toOpen ? x < to : x <= to))) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		for (int i = offset; i < offset + length; i++) {
+			if (! this.isIn(values[i])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Find the first value that is outside the intervals. Values are checked as floats.
+	 * @param values the values to check
+	 * @param offset the index of the first value
+	 * @param length the number of values
+	 * @return the index of the first value outside the intervals. -1 if all the values are in.
+	 */
+	public int firstOutside(double[] values, int offset, int length) {
+		if (this.lower.length == 1) {
+			float from = this.lower[0];
+			float to = this.upper[0];
+			boolean fromOpen = this.lowerOpen[0];
+			boolean toOpen = this.upperOpen[0];
+			for (int i = offset; i < offset + length; i++) {
+				float x = (float) values[i];
+				if (! ((fromOpen ? x > from : x >= from) && (toOpen ? x < to : x <= to))) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		for (int i = offset; i < offset + length; i++) {
+			if (! this.isIn((float) values[i])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || this.getClass() != o.getClass()) return false;
+		Intervals intervals = (Intervals) o;
+		return Arrays.equals(this.lower, intervals.lower)
+			&& Arrays.equals(this.upper, intervals.upper)
+			&& Arrays.equals(this.lowerOpen, intervals.lowerOpen)
+			&& Arrays.equals(this.upperOpen, intervals.upperOpen);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Arrays.hashCode(this.lower) + Arrays.hashCode(this.upper);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder();
+		for (int i = 0; i < this.lower.length; i++) {
+			out.append(i == 0 ? "" : " ⋃ ")
+				.append(this.lowerOpen[i] ? "]" : "[").append(this.lower[i])
+				.append(", ")
+				.append(this.upper[i]).append(this.upperOpen[i] ? "[" : "]");
+		}
+		return out.length() == 0 ? "∅" : out.toString();
+	}
+
+	private static boolean isValid(float from, boolean fromOpen, float to, boolean toOpen) {
+		return from < to || from == to && ! fromOpen && ! toOpen;
+	}
+
+	private boolean isIn(int interval, float x) {
+		return (this.lowerOpen[interval] ? x > this.lower[interval] : x >= this.lower[interval])
+			&& (this.upperOpen[interval] ? x < this.upper[interval] : x <= this.upper[interval]);
+	}
+
+	/**
+	 * Build normalized intervals, from intervals appended by ascending lower bound.
+	 * An appended interval is merged into the last one if they overlap or are adjacent. Empty intervals are skipped.
+	 */
+	private static class Builder {
+		private final float[] lower;
+		private final float[] upper;
+		private final boolean[] lowerOpen;
+		private final boolean[] upperOpen;
+		private int size = 0;
+
+		private Builder(int capacity) {
+			this.lower = new float[capacity];
+			this.upper = new float[capacity];
+			this.lowerOpen = new boolean[capacity];
+			this.upperOpen = new boolean[capacity];
+		}
+
+		private void append(float from, boolean fromOpen, float to, boolean toOpen) {
+			if (! isValid(from, fromOpen, to, toOpen)) {
+				return;
+			}
+
+			int last = this.size - 1;
+			if (last >= 0 && (from < this.upper[last] || from == this.upper[last] && ! (fromOpen && this.upperOpen[last]))) {
+				if (to > this.upper[last]) {
+					this.upper[last] = to;
+					this.upperOpen[last] = toOpen;
+				} else if (to == this.upper[last]) {
+					this.upperOpen[last] &= toOpen;
+				}
+				return;
+			}
+
+			this.lower[this.size] = from;
+			this.upper[this.size] = to;
+			this.lowerOpen[this.size] = fromOpen;
+			this.upperOpen[this.size] = toOpen;
+			this.size++;
+		}
+
+		private Intervals build() {
+			return new Intervals(
+				Arrays.copyOf(this.lower, this.size),
+				Arrays.copyOf(this.upper, this.size),
+				Arrays.copyOf(this.lowerOpen, this.size),
+				Arrays.copyOf(this.upperOpen, this.size)
+			);
+		}
+	}
+}
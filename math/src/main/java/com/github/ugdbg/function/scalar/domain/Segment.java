@@ -7,10 +7,11 @@ import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * A line segment is a part of a line that is bounded by two distinct end points.
@@ -25,6 +26,9 @@ public class Segment implements Domain<Float> {
 	private final LeftBorder  from;
 	private final RightBorder to;
 
+	/** The compiled primitive interval. Reset when the borders open statuses are updated. */
+	private transient Intervals intervals;
+
 	/**
 	 * A segment border : a number and open status.
 	 * <br>
@@ -59,14 +63,6 @@ public class Segment implements Domain<Float> {
 		public int hashCode() {
 			return Objects.hash(this.at, this.open);
 		}
-		
-		boolean bigger(Float than) {
-			return this.open ? this.at.compareTo(than) > 0 : this.at.compareTo(than) >= 0;
-		}
-
-		boolean smaller(Float than) {
-			return this.open ? this.at.compareTo(than) < 0 : this.at.compareTo(than) <= 0;
-		}
 	}
 	
 	/**
@@ -144,6 +140,7 @@ public class Segment implements Domain<Float> {
 	public Segment open(boolean from, boolean right) {
 		this.from.open = from;
 		this.to.open   = right;
+		this.intervals = null;
 		return this;
 	}
 
@@ -160,7 +157,18 @@ public class Segment implements Domain<Float> {
 		if (x == null) {
 			throw new IllegalArgumentException("null value cannot be checked in segment [" + this + "]");
 		}
-		return this.from.smaller(x) && this.to.bigger(x);
+		return this.intervals().isIn(x);
+	}
+
+	/**
+	 * Get this segment as a primitive interval, to check values without boxing.
+	 * @return the segment interval
+	 */
+	public Intervals intervals() {
+		if (this.intervals == null) {
+			this.intervals = Intervals.of(this.from.at, this.from.open, this.to.at, this.to.open);
+		}
+		return this.intervals;
 	}
 	
 	@Override
@@ -194,9 +202,9 @@ public class Segment implements Domain<Float> {
 	@Override
 	@SafeVarargs
 	public final Domain<Float> union(Domain<Float>... other) {
-		Union domain = new Union(other);
-		domain.add(this);
-		return domain;
+		List<Domain<Float>> domains = new ArrayList<>(Arrays.asList(other));
+		domains.add(this);
+		return new Union(domains);
 	}
 
 	@Override
@@ -205,7 +213,7 @@ public class Segment implements Domain<Float> {
 			return this.inter((Segment) other);
 		}
 		if (other instanceof Union) {
-			return new Union(((Union) other).stream().map(d -> d.inter(this)).collect(Collectors.toList()));
+			return ((Union) other).inter(this);
 		}
 		
 		throw new IllegalArgumentException("Unsupported domain type [" + other.getClass() + "]");
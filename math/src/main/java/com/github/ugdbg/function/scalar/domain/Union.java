@@ -3,31 +3,48 @@ package com.github.ugdbg.function.scalar.domain;
 import com.github.ugdbg.function.domain.Domain;
 import com.google.common.base.Joiner;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 /**
  * A union (denoted by ⋃) of a collection of domains is the domain of all elements in the collection.
+ * <br><br>
+ * A union of segments is normalized : its members are sorted, disjoint and non adjacent segments.
+ * Overlapping or adjacent segments are merged, e.g. [0, 2[ ⋃ ]1, 3] is [0, 3].
+ * A member that is not merged is kept as is, so a named domain (e.g. {@link Domains#R_PLUS}) keeps its label.
+ * <br>
+ * The union is indexed with {@link Intervals} : {@link #isIn(Float)} is a binary search,
+ * {@link #union(Domain[])} and {@link #inter(Domain)} with other segments or unions are linear merges.
  */
 public class Union extends TreeSet<Domain<Float>> implements Domain<Float> {
 
+	/** The normalized intervals index. Reset when the union members are updated. */
+	private transient Intervals intervals;
+
 	/**
 	 * Default constructor : empty domain
 	 */
 	public Union() {}
 
 	/**
-	 * Create a new Union domain from this collection of domains 
+	 * Create a new Union domain from this collection of domains
 	 * @param domains the collection of domains
 	 */
 	public Union(Collection<Domain<Float>> domains) {
-		super(domains.stream().filter(d -> ! d.isEmpty()).collect(Collectors.toList()));
+		super(normalize(domains));
 	}
 
 	/**
-	 * Create a new Union domain from this collection of domains 
+	 * Create a new Union domain from this collection of domains
 	 * @param domains the collection of domains
 	 */
 	@SafeVarargs
@@ -35,11 +52,40 @@ public class Union extends TreeSet<Domain<Float>> implements Domain<Float> {
 		this(Arrays.asList(domains));
 	}
 
+	/**
+	 * Create a new Union domain from normalized intervals.
+	 * @param intervals the normalized intervals
+	 * @param originals the original domains : their segments are reused if they match an interval
+	 */
+	private Union(Intervals intervals, Collection<Domain<Float>> originals) {
+		super(segments(intervals, originals));
+		this.intervals = intervals;
+	}
+
 	@Override
 	public boolean isIn(Float x) {
+		if (x == null) {
+			throw new IllegalArgumentException("null value cannot be checked in union [" + this + "]");
+		}
+		Intervals intervals = this.intervals();
+		if (intervals != null) {
+			return intervals.isIn(x);
+		}
 		return this.stream().map(s -> s.isIn(x)).filter(Boolean::booleanValue).findFirst().orElse(false);
 	}
 
+	/**
+	 * Compile this union into normalized primitive intervals, to check values without boxing.
+	 * The intervals are computed once, then reused until the union members are updated.
+	 * @return the union intervals. null if a member of the union cannot be compiled (see {@link Intervals#of(Domain)}).
+	 */
+	public Intervals intervals() {
+		if (this.intervals == null) {
+			this.intervals = compile(this);
+		}
+		return this.intervals;
+	}
+
 	@Override
 	public String toString() {
 		return this.isEmpty() ? "∅" : Joiner.on(" ⋃ ").join(this);
@@ -50,17 +96,28 @@ public class Union extends TreeSet<Domain<Float>> implements Domain<Float> {
 		return this.stream().allMatch(Domain::isEmpty);
 	}
 
-	
 	@Override
 	@SafeVarargs
 	public final Union union(Domain<Float>... other) {
-		Union domains = new Union(other);
-		domains.add(this);
-		return domains;
+		List<Domain<Float>> originals = new ArrayList<>(this);
+		Intervals union = this.intervals();
+		for (Domain<Float> domain : other) {
+			Intervals intervals = Intervals.of(domain);
+			union = union == null || intervals == null ? null : union.union(intervals);
+			originals.add(domain);
+		}
+		return union == null ? new Union(originals) : new Union(union, members(originals));
 	}
 
 	@Override
 	public Union inter(Domain<Float> other) {
+		Intervals intervals = this.intervals();
+		Intervals with = Intervals.of(other);
+		if (intervals != null && with != null) {
+			List<Domain<Float>> originals = new ArrayList<>(this);
+			originals.add(other);
+			return new Union(intervals.inter(with), members(originals));
+		}
 		return this.stream().map(d -> d.inter(other)).collect(Collectors.toCollection(Union::new));
 	}
 
@@ -77,13 +134,196 @@ public class Union extends TreeSet<Domain<Float>> implements Domain<Float> {
 	 * @return the lowest segment. null if this union is empty
 	 */
 	public Segment lowest() {
-		Domain lowest = this.pollFirst();
-		if (lowest == null) {
+		if (super.isEmpty()) {
 			return null;
 		}
+		Domain lowest = this.first();
 		if (lowest instanceof Segment) {
 			return (Segment) lowest;
 		}
 		return ((Union) lowest).lowest();
 	}
+
+	@Override
+	public boolean add(Domain<Float> domain) {
+		this.intervals = null;
+		return super.add(domain);
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends Domain<Float>> domains) {
+		this.intervals = null;
+		return super.addAll(domains);
+	}
+
+	@Override
+	public boolean remove(Object domain) {
+		this.intervals = null;
+		return super.remove(domain);
+	}
+
+	@Override
+	public Domain<Float> pollFirst() {
+		this.intervals = null;
+		return super.pollFirst();
+	}
+
+	@Override
+	public Domain<Float> pollLast() {
+		this.intervals = null;
+		return super.pollLast();
+	}
+
+	@Override
+	public void clear() {
+		this.intervals = null;
+		super.clear();
+	}
+
+	/**
+	 * Iterate over the union members. Removing a member with the iterator resets the intervals index.
+	 * <br>
+	 * {@link #removeIf}, {@link #removeAll} and {@link #retainAll} remove members with this iterator.
+	 * @return an iterator over the union members, in ascending order
+	 */
+	@Override
+	public Iterator<Domain<Float>> iterator() {
+		return this.resetting(super.iterator());
+	}
+
+	@Override
+	public Iterator<Domain<Float>> descendingIterator() {
+		return this.resetting(super.descendingIterator());
+	}
+
+	/**
+	 * A read-only view : a change through a subset view would not reset the intervals index.
+	 */
+	@Override
+	public NavigableSet<Domain<Float>> subSet(
+		Domain<Float> fromElement,
+		boolean fromInclusive,
+		Domain<Float> toElement,
+		boolean toInclusive) {
+		return Collections.unmodifiableNavigableSet(super.subSet(fromElement, fromInclusive, toElement, toInclusive));
+	}
+
+	/**
+	 * A read-only view : a change through a subset view would not reset the intervals index.
+	 */
+	@Override
+	public NavigableSet<Domain<Float>> headSet(Domain<Float> toElement, boolean inclusive) {
+		return Collections.unmodifiableNavigableSet(super.headSet(toElement, inclusive));
+	}
+
+	/**
+	 * A read-only view : a change through a subset view would not reset the intervals index.
+	 */
+	@Override
+	public NavigableSet<Domain<Float>> tailSet(Domain<Float> fromElement, boolean inclusive) {
+		return Collections.unmodifiableNavigableSet(super.tailSet(fromElement, inclusive));
+	}
+
+	/**
+	 * A read-only view : a change through a subset view would not reset the intervals index.
+	 */
+	@Override
+	public NavigableSet<Domain<Float>> descendingSet() {
+		return Collections.unmodifiableNavigableSet(super.descendingSet());
+	}
+
+	/**
+	 * Wrap an iterator over the union members, so that a removal resets the intervals index.
+	 * @param iterator the iterator over the members
+	 * @return an iterator that resets {@link #intervals} on {@link Iterator#remove()}
+	 */
+	private Iterator<Domain<Float>> resetting(Iterator<Domain<Float>> iterator) {
+		return new Iterator<Domain<Float>>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public Domain<Float> next() {
+				return iterator.next();
+			}
+
+			@Override
+			public void remove() {
+				Union.this.intervals = null;
+				iterator.remove();
+			}
+		};
+	}
+
+	/**
+	 * Normalize a collection of domains into disjoint segments.
+	 * If a domain cannot be compiled (see {@link Intervals#of(Domain)}), the non empty domains are kept as is.
+	 * @param domains the domains
+	 * @return the normalized union members
+	 */
+	private static Collection<Domain<Float>> normalize(Collection<Domain<Float>> domains) {
+		Intervals intervals = compile(domains);
+		if (intervals == null) {
+			return domains.stream().filter(d -> ! d.isEmpty()).collect(Collectors.toList());
+		}
+		return segments(intervals, members(domains));
+	}
+
+	/**
+	 * Compile a collection of domains into normalized intervals.
+	 * @param domains the domains
+	 * @return the normalized intervals, null if a domain cannot be compiled
+	 */
+	private static Intervals compile(Collection<Domain<Float>> domains) {
+		Intervals[] intervals = new Intervals[domains.size()];
+		int index = 0;
+		for (Domain<Float> domain : domains) {
+			intervals[index] = Intervals.of(domain);
+			if (intervals[index++] == null) {
+				return null;
+			}
+		}
+		return Intervals.union(intervals);
+	}
+
+	/**
+	 * Convert normalized intervals to segments. An original segment is reused if it matches an interval.
+	 * @param intervals the normalized intervals
+	 * @param originals the original segments
+	 * @return the segments, sorted
+	 */
+	private static List<Domain<Float>> segments(Intervals intervals, Collection<Domain<Float>> originals) {
+		Map<Intervals, Domain<Float>> segments = new HashMap<>();
+		for (Domain<Float> original : originals) {
+			if (original instanceof Segment) {
+				segments.putIfAbsent(((Segment) original).intervals(), original);
+			}
+		}
+
+		List<Domain<Float>> out = new ArrayList<>(intervals.size());
+		for (int i = 0; i < intervals.size(); i++) {
+			Domain<Float> segment = segments.get(intervals.get(i));
+			out.add(segment == null ? intervals.segment(i) : segment);
+		}
+		return out;
+	}
+
+	/**
+	 * Flatten some domains : the members of a union are added instead of the union itself.
+	 * @param domains the domains
+	 * @return the domains, where unions are replaced by their members
+	 */
+	private static List<Domain<Float>> members(Collection<Domain<Float>> domains) {
+		List<Domain<Float>> members = new ArrayList<>();
+		for (Domain<Float> domain : domains) {
+			if (domain instanceof Union) {
+				members.addAll(members((Union) domain));
+			} else {
+				members.add(domain);
+			}
+		}
+		return members;
+	}
 }
@@ -30,7 +30,7 @@ public class CrossEntropy extends DomainCheckedFunction<CrossEntropy> implements
 
 	@Override
 	public Vector doApply(Vector output) {
-		Vector error = Vector.of(output.getValue().getType(), output.dimension());
+		Vector error = Vector.of(output.getValue().getType().heap(), output.dimension());
 
 		IntStream stream = output.getValue().indexStream();
 		switch (error.getValue().getType()) {
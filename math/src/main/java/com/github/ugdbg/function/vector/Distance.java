@@ -24,7 +24,7 @@ public class Distance extends DomainCheckedFunction<Distance> implements ErrorFu
 
 	@Override
 	public Vector doApply(Vector output) {
-		TYPE type = output.getValue().getType();
+		TYPE type = output.getValue().getType().heap();
 		Vector distance = Vector.of(type, output.dimension());
 		IntStream stream = output.getValue().indexStream();
 
@@ -49,7 +49,7 @@ public class Distance extends DomainCheckedFunction<Distance> implements ErrorFu
 	@Override
 	public VFunction derive() {
 		return (VFunction) input -> {
-			TYPE type = input.getValue().getType();
+			TYPE type = input.getValue().getType().heap();
 			Vector out = Vector.of(type, input.dimension());
 			IntStream stream = input.getValue().indexStream();
 
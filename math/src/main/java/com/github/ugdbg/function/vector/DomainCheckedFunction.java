@@ -1,5 +1,7 @@
 package com.github.ugdbg.function.vector;
 
+import com.github.ugdbg.datatypes.Precision;
+import com.github.ugdbg.function.domain.ValidationPolicy;
 import com.github.ugdbg.function.vector.domain.VDomain;
 import com.github.ugdbg.function.vector.domain.VDomains;
 
@@ -7,6 +9,8 @@ abstract class DomainCheckedFunction<F extends DomainCheckedFunction> implements
 	
 	private boolean domainCheck = true;
 	protected VDomain domain = VDomains.R_ANY;
+	private ValidationPolicy validation = null;
+	private Precision precision;
 	
 	@SuppressWarnings("unchecked")
 	public F domainCheck(boolean domainCheck) {
@@ -20,6 +24,28 @@ abstract class DomainCheckedFunction<F extends DomainCheckedFunction> implements
 		return (F) this;
 	}
 	
+	/**
+	 * Set the validation policy of this function, instead of the process-wide {@link ValidationPolicy#global()}.
+	 * @param validation the validation policy. null to use the global policy.
+	 * @return the current function instance
+	 */
+	@SuppressWarnings("unchecked")
+	public F validation(ValidationPolicy validation) {
+		this.validation = validation;
+		return (F) this;
+	}
+	
+	/**
+	 * Set the precision profile of the BigDecimal computations of this function.
+	 * @param precision the precision profile. null to use {@link Precision#global()}.
+	 * @return the current function
+	 */
+	@SuppressWarnings("unchecked")
+	public F precision(Precision precision) {
+		this.precision = precision;
+		return (F) this;
+	}
+	
 	@Override
 	public boolean domainCheck() {
 		return this.domainCheck;
@@ -29,5 +55,14 @@ abstract class DomainCheckedFunction<F extends DomainCheckedFunction> implements
 	public VDomain domain() {
 		return this.domain;
 	}
-}
 
+	@Override
+	public ValidationPolicy validation() {
+		return this.validation == null ? ValidationPolicy.global() : this.validation;
+	}
+
+	@Override
+	public Precision precision() {
+		return this.precision == null ? Precision.global() : this.precision;
+	}
+}
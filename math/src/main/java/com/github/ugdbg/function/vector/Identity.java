@@ -1,5 +1,6 @@
 package com.github.ugdbg.function.vector;
 
+import com.github.ugdbg.function.vector.domain.VDomain;
 import com.github.ugdbg.vector.Vector;
 
 import java.util.Arrays;
@@ -12,4 +13,9 @@ public class Identity extends DomainCheckedFunction<Identity> {
 	public Vector doApply(Vector input) {
 		return input.copy();
 	}
+
+	@Override
+	public VDomain image(VDomain input) {
+		return input;
+	}
 }
@@ -1,16 +1,20 @@
 package com.github.ugdbg.function.vector;
 
-import com.github.ugdbg.NumberUtils;
+import com.github.ugdbg.datatypes.Parallelism;
+import com.github.ugdbg.datatypes.Precision;
+import com.github.ugdbg.datatypes.Releasable;
 import com.github.ugdbg.datatypes.TYPE;
 import com.github.ugdbg.datatypes.array.NumericArray;
+import com.github.ugdbg.datatypes.matrix.DecimalMatrix;
 import com.github.ugdbg.datatypes.matrix.NumericMatrix;
+import com.github.ugdbg.function.domain.Domain;
+import com.github.ugdbg.function.scalar.domain.IntervalArithmetic;
 import com.github.ugdbg.function.vector.domain.VDomain;
 import com.github.ugdbg.function.vector.domain.VDomains;
 import com.github.ugdbg.vector.Vector;
 import com.github.ugdbg.vector.format.FloatFormat;
 import com.github.ugdbg.vector.format.Format;
 import com.google.common.base.Joiner;
-import com.google.common.util.concurrent.AtomicDouble;
 import org.apache.commons.lang3.ArrayUtils;
 
 import java.math.BigDecimal;
@@ -61,6 +65,7 @@ public class Matrix extends DomainCheckedFunction<Matrix> implements VFunction {
 
 	private Matrix(NumericMatrix matrix) {
 		this.weights = matrix;
+		this.domain = VDomains.R(this.getN());
 	}
 
 	@Override
@@ -73,23 +78,79 @@ public class Matrix extends DomainCheckedFunction<Matrix> implements VFunction {
 
 	@Override
 	public Vector doApply(Vector input) {
-		int height = this.getM();
-
-		NumericArray value = input.getValue();
-		TYPE type = value.getType();
-		Vector out = Vector.of(type, height);
-		for (int i = 0; i < height; i++) {
-			switch (type) {
-				case PFLOAT:  out.floats()[i]   = value.linearCombinationToFloat(this.line(i).getValue());   break; 
-				case PDOUBLE: out.doubles()[i]  = value.linearCombinationToDouble(this.line(i).getValue());  break; 
-				case DECIMAL: out.decimals()[i] = value.linearCombinationToDecimal(this.line(i).getValue()); break;
-				default:      throw new IllegalArgumentException("Unsupported input type [" + type.name() + "]");
+		return this.doApplyInto(input, Vector.of(input.getValue().getType().heap(), this.getM()));
+	}
+
+	/**
+	 * Apply this matrix to a vector, into an existing vector : into = M · input.
+	 * <br>
+	 * See {@link NumericMatrix#apply(NumericArray, NumericArray)} : nothing is allocated for primitive types.
+	 * @param input the input vector. Its dimension must match the matrix width {@link #getN()}.
+	 * @param into  the output vector. Its dimension must match the matrix height {@link #getM()}.
+	 * @return the output vector
+	 * @throws IllegalArgumentException if a dimension does not match
+	 */
+	@Override
+	public Vector doApplyInto(Vector input, Vector into) {
+		this.weights.apply(input.getValue(), into.getValue());
+		return into;
+	}
+	
+	/**
+	 * Apply the transpose of this matrix to a vector, without computing the transpose : yᵀ = xᵀ · M.
+	 * <br>
+	 * See {@link NumericMatrix#applyTransposed(NumericArray)}. There is no domain check.
+	 * @param input the input vector. Its dimension must match the matrix height {@link #getM()}.
+	 * @return a new vector of dimension {@link #getN()}
+	 * @throws IllegalArgumentException if the input dimension does not match the matrix height
+	 */
+	public Vector applyTransposed(Vector input) {
+		return Vector.of(this.weights.applyTransposed(input.getValue()));
+	}
+
+	/**
+	 * Apply the transpose of this matrix to a vector, into an existing vector : intoᵀ = inputᵀ · M.
+	 * <br>
+	 * See {@link NumericMatrix#applyTransposed(NumericArray, NumericArray)}. There is no domain check.
+	 * @param input the input vector. Its dimension must match the matrix height {@link #getM()}.
+	 * @param into  the output vector. Its dimension must match the matrix width {@link #getN()}.
+	 * @return the output vector
+	 * @throws IllegalArgumentException if a dimension does not match
+	 */
+	public Vector applyTransposedInto(Vector input, Vector into) {
+		this.weights.applyTransposed(input.getValue(), into.getValue());
+		return into;
+	}
+	
+	/**
+	 * Bound the image of the input domain by this matrix : for every line i, ∑ⱼ wᵢⱼ · xⱼ where xⱼ ∈ input(j).
+	 * <br>
+	 * The image depends on the current weights : it must be computed again when the weights are updated.
+	 * @param input the input domain. Its dimension must match the matrix width {@link #getN()}.
+	 * @return the image domain, of dimension {@link #getM()}. null if the image cannot be bounded.
+	 */
+	@Override
+	public VDomain image(VDomain input) {
+		if (input.dimension() != Integer.MAX_VALUE && input.dimension() != this.getN()) {
+			return null;
+		}
+		List<Domain<Float>> image = new ArrayList<>(this.getM());
+		for (int i = 0; i < this.getM(); i++) {
+			Domain<Float> line = IntervalArithmetic.closed(0, 0);
+			for (int j = 0; j < this.getN() && line != null; j++) {
+				float weight = this.at(i, j);
+				if (weight != 0) {
+					line = IntervalArithmetic.add(line, IntervalArithmetic.linear(input.domain(j), weight, 0));
+				}
 			}
+			if (line == null) {
+				return null;
+			}
+			image.add(line);
 		}
-		
-		return out;
+		return VDomain.of(image);
 	}
-	
+
 	@Override
 	public String label() {
 		return this.shortLabel();
@@ -110,7 +171,7 @@ public class Matrix extends DomainCheckedFunction<Matrix> implements VFunction {
 
 	/**
 	 * Get the matrix width, i.e. the input dimension
-	 * @return the matrix width (actually the length of the array at line #1
+	 * @return the matrix width
 	 */
 	public int getN() {
 		return this.weights.getN();
@@ -124,15 +185,40 @@ public class Matrix extends DomainCheckedFunction<Matrix> implements VFunction {
 	 * @return a new matrix instance
 	 */
 	public static Matrix randomGaussian(int m, int n, TYPE type, Random random) {
-		@SuppressWarnings("unchecked")
-		Class<? extends Number> target = type.targetClass();
-		
 		Matrix gaussian = new Matrix(m, n, type);
-		gaussian.weights.operation(
-			(matrix, i, j) -> matrix.at(i, j, NumberUtils.convertNumberToTargetClass(random.nextGaussian(), target)));
+		gaussian.weights.operation((matrix, i, j) -> matrix.at(i, j, random.nextGaussian()));
 		return gaussian;
 	}
 
+	/**
+	 * Create a new matrix over the given numeric matrix. Nothing is copied.
+	 * @param weights the numeric matrix (e.g. a {@link com.github.ugdbg.datatypes.matrix.MappedFloatMatrix})
+	 * @return a new Matrix instance
+	 */
+	public static Matrix of(NumericMatrix weights) {
+		return new Matrix(weights);
+	}
+
+	/**
+	 * Create a new M(m,n) matrix whose lines are the given vectors. Values are copied.
+	 * @param type  the matrix numeric type
+	 * @param lines the matrix lines (m vectors of dimension n)
+	 * @return a new Matrix instance
+	 * @throws IllegalArgumentException if the lines dimensions do not match
+	 */
+	public static Matrix of(TYPE type, List<Vector> lines) {
+		Matrix matrix = new Matrix(lines.size(), lines.isEmpty() ? 0 : lines.get(0).dimension(), type);
+		for (int i = 0; i < lines.size(); i++) {
+			if (lines.get(i).dimension() != matrix.getN()) {
+				throw new IllegalArgumentException(
+					"Line [" + i + "] dimension [" + lines.get(i).dimension() + "] does not match [" + matrix.getN() + "]"
+				);
+			}
+			matrix.weights.line(i).set(lines.get(i).getValue());
+		}
+		return matrix;
+	}
+
 	/**
 	 * Return the outer product of 2 vectors : a ⊗ b.
 	 * <br>
@@ -142,15 +228,83 @@ public class Matrix extends DomainCheckedFunction<Matrix> implements VFunction {
 	 * @return a new Matrix instance.
 	 */
 	public static Matrix outer(Vector a, Vector b) {
-		TYPE type = a.getValue().getType();
+		TYPE type = a.getValue().getType().heap();
 		Matrix matrix = new Matrix(a.dimension(), b.dimension(), type);
 		switch (type) {
-			case PFLOAT  : return matrix.operation((outer, i, j) -> outer.at(i, j, a.floats()[i] * b.floats()[j]));
-			case PDOUBLE : return matrix.operation((outer, i, j) -> outer.at(i, j, a.doubles()[i] * b.doubles()[j]));
-			case DECIMAL : return matrix.operation((outer, i, j) -> outer.at(i, j, a.decimals()[i].multiply(b.decimals()[j])));
-			default:      throw new IllegalArgumentException("Unsupported input type [" + type.name() + "]");
+			case PFLOAT:
+				float[] aFloats = a.floats();
+				float[] bFloats = b.floats();
+				return matrix.parallelOperation((outer, i, j) -> outer.at(i, j, aFloats[i] * bFloats[j]));
+			case PDOUBLE:
+				double[] aDoubles = a.doubles();
+				double[] bDoubles = b.doubles();
+				return matrix.parallelOperation((outer, i, j) -> outer.at(i, j, aDoubles[i] * bDoubles[j]));
+			case DECIMAL:
+				BigDecimal[] aDecimals = a.decimals();
+				BigDecimal[] bDecimals = b.decimals();
+				return matrix.parallelOperation((outer, i, j) -> outer.at(i, j, aDecimals[i].multiply(bDecimals[j])));
+			default: throw new IllegalArgumentException("Unsupported input type [" + type.name() + "]");
+		}
+	}
+
+	/**
+	 * Set a matrix to the outer product of 2 vectors : into = a ⊗ b. Nothing is allocated for primitive types.
+	 * @param a    vector a
+	 * @param b    vector b
+	 * @param into the output matrix. Its dimension must be a.{@link Vector#dimension()} x b.{@link Vector#dimension()}.
+	 * @return the output matrix
+	 * @throws IllegalArgumentException if a dimension does not match
+	 */
+	public static Matrix outer(Vector a, Vector b, Matrix into) {
+		into.weights.outer(a.getValue(), b.getValue());
+		return into;
+	}
+
+	/**
+	 * Add the scaled outer product of 2 vectors to this matrix, in place : this += α·a ⊗ b.
+	 * <br>
+	 * The outer product matrix is never built and the zero entries of a and b are skipped
+	 * (see {@link NumericMatrix#accumulateOuter(float, NumericArray, NumericArray)}).
+	 * @param alpha the scale factor α
+	 * @param a     vector a. Its dimension must match the matrix height.
+	 * @param b     vector b. Its dimension must match the matrix width.
+	 * @return the current Matrix instance
+	 * @throws IllegalArgumentException if a dimension does not match
+	 */
+	public Matrix accumulateOuter(float alpha, Vector a, Vector b) {
+		this.weights.accumulateOuter(alpha, a.getValue(), b.getValue());
+		return this;
+	}
+
+	/**
+	 * Set every weight of this matrix to 0.
+	 * @return the current Matrix instance
+	 */
+	public Matrix zero() {
+		this.weights.zero();
+		return this;
+	}
+
+	/**
+	 * Free the memory of this matrix now if it is off-heap (see {@link Releasable}). Do nothing else.
+	 * <br>
+	 * An off-heap matrix must not be used once released.
+	 */
+	public void release() {
+		Releasable.release(this.weights);
+	}
+
+	/**
+	 * Set the precision profile of this function and of its weights if it is a {@link TYPE#DECIMAL} matrix (see {@link Precision}).
+	 * @param precision the precision profile
+	 * @return the current Matrix instance
+	 */
+	@Override
+	public Matrix precision(Precision precision) {
+		if (this.weights instanceof DecimalMatrix) {
+			((DecimalMatrix) this.weights).precision(precision);
 		}
-		
+		return super.precision(precision);
 	}
 
 	/**
@@ -176,12 +330,34 @@ public class Matrix extends DomainCheckedFunction<Matrix> implements VFunction {
 
 	/**
 	 * Flip a matrix over its diagonal, i.e. switch the row and column indices of the matrix.
+	 * <br>
+	 * This is a copy. See {@link #transposed()} for a view.
 	 * @return a new Matrix instance, B | B = t(A)
 	 */
 	public Matrix transpose() {
 		return new Matrix(this.weights.transpose());
 	}
 
+	/**
+	 * Copy this matrix into an other numeric type, e.g. floats to {@link TYPE#HALF} to halve the memory of trained weights.
+	 * See {@link NumericMatrix#convert(TYPE)}.
+	 * @param type the numeric type of the copy
+	 * @return a new Matrix instance, whose values are the current matrix values rounded to the given type
+	 */
+	public Matrix convert(TYPE type) {
+		return new Matrix(this.weights.convert(type));
+	}
+
+	/**
+	 * Get a lazy transpose view of this matrix. Nothing is copied : see {@link NumericMatrix#transposed()}.
+	 * <br>
+	 * Prefer {@link #applyTransposed(Vector)} to apply the transpose to a vector.
+	 * @return a new Matrix instance, whose values are the current matrix values
+	 */
+	public Matrix transposed() {
+		return new Matrix(this.weights.transposed());
+	}
+
 	/**
 	 * Set the Matrix value @(i=x,j=y)
 	 * @param x     the height coordinate
@@ -233,9 +409,11 @@ public class Matrix extends DomainCheckedFunction<Matrix> implements VFunction {
 	}
 	
 	/**
-	 * Get a line of the matrix @(i=x) as a FloatVector 
+	 * Get a line of the matrix @(i=x) as a Vector.
+	 * <br>
+	 * The vector is a view over the matrix line : any write to the vector values is a write to the matrix.
 	 * @param x the height coordinate
-	 * @return a new FloatVector of dimension {@link #getN()}
+	 * @return a Vector of dimension {@link #getN()}
 	 */
 	public Vector line(int x) {
 		return Vector.of(this.weights.line(x));
@@ -251,7 +429,7 @@ public class Matrix extends DomainCheckedFunction<Matrix> implements VFunction {
 	}
 
 	/**
-	 * Get a representation of this matrix as a list of line vectors.
+	 * Get a representation of this matrix as a list of line vectors (views over the matrix lines, see {@link #line(int)}).
 	 * @return a {@link #getM()} sized list of Vectors of dimension {@link #getN()}
 	 */
 	public List<Vector> lines() {
@@ -283,6 +461,60 @@ public class Matrix extends DomainCheckedFunction<Matrix> implements VFunction {
 		this.weights.sum(other.weights);
 	}
 
+	/**
+	 * Fused scaled sum, in place : this = this + alpha * x. The x matrix is not modified.
+	 * @param alpha the scale factor of x
+	 * @param x     the matrix to scale and add. Dimension must match.
+	 * @return the current Matrix instance
+	 * @throws IllegalArgumentException if x dimensions does not match the current ones.
+	 */
+	public Matrix axpy(float alpha, Matrix x) {
+		this.weights.axpy(alpha, x.weights);
+		return this;
+	}
+
+	/**
+	 * Element-wise (Hadamard) product of this matrix with an other one : this = this ⊙ other.
+	 * @param other the matrix to multiply the current one with. Dimension must match.
+	 * @return the current Matrix instance
+	 * @throws IllegalArgumentException if other matrix dimensions does not match the current ones.
+	 */
+	public Matrix mult(Matrix other) {
+		this.weights.mul(other.weights);
+		return this;
+	}
+
+	/**
+	 * Matrix product of this matrix with an other one : this · other.
+	 * <br>
+	 * See {@link NumericMatrix#product(NumericMatrix)}.
+	 * @param other the right operand. Its height must match the current matrix width.
+	 * @return a new Matrix instance of dimension {@link #getM()} x other.{@link #getN()}
+	 */
+	public Matrix product(Matrix other) {
+		return new Matrix(this.weights.product(other.weights));
+	}
+
+	/**
+	 * Generalized matrix product of this matrix with an other one : op(this) · op(other), where op(X) is X or Xᵀ.
+	 * <br>
+	 * Transposed operands are read in place, see {@link NumericMatrix#product(boolean, NumericMatrix, boolean, NumericMatrix, boolean)}.
+	 * e.g. for a batch of input lines X, X · Wᵀ is the batch of lines W · x.
+	 * @param transpose      true to use the transpose of the current matrix
+	 * @param other          the right operand
+	 * @param otherTranspose true to use the transpose of the right operand
+	 * @return a new Matrix instance
+	 * @throws IllegalArgumentException if op(this) width does not match op(other) height
+	 */
+	public Matrix product(boolean transpose, Matrix other, boolean otherTranspose) {
+		NumericMatrix product = this.weights.getType().matrix(
+			transpose ? this.getN() : this.getM(),
+			otherTranspose ? other.getM() : other.getN()
+		);
+		this.weights.product(transpose, other.weights, otherTranspose, product, false);
+		return new Matrix(product);
+	}
+
 	/**
 	 * Multiply this matrix with a scalar.
 	 * Every weight will be multiplied.
@@ -299,9 +531,7 @@ public class Matrix extends DomainCheckedFunction<Matrix> implements VFunction {
 	 * @return the max weight of this matrix
 	 */
 	public float max() {
-		AtomicDouble max = new AtomicDouble(Double.NEGATIVE_INFINITY);
-		this.operation((matrix, i, j) -> max.set(Math.max(matrix.at(i, j), max.get())));
-		return max.floatValue();
+		return (float) this.weights.max();
 	}
 
 	/**
@@ -318,6 +548,25 @@ public class Matrix extends DomainCheckedFunction<Matrix> implements VFunction {
 		return this;
 	}
 
+	/**
+	 * Execute an operation on every weight, by chunks of lines in parallel if the matrix is large enough.
+	 * <br>
+	 * See {@link NumericMatrix#parallelOperation(com.github.ugdbg.datatypes.matrix.Operation)} :
+	 * the operation must be thread-safe and only write the weight at its position.
+	 * @param lambda the operation to execute
+	 * @return the current Matrix instance
+	 */
+	public Matrix parallelOperation(Operation lambda) {
+		Parallelism.global().forRange(this.getM(), this.getN(), this.weights.getType(), (start, end) -> {
+			for (int i = start; i < end; i++) {
+				for (int j = 0; j < this.getN(); j++) {
+					lambda.apply(this, i, j);
+				}
+			}
+		});
+		return this;
+	}
+
 	/**
 	 * Get a multiline full label for this matrix.
 	 * Example : 
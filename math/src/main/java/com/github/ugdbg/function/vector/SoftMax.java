@@ -1,50 +1,167 @@
 package com.github.ugdbg.function.vector;
 
+import com.github.ugdbg.datatypes.Converter;
 import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.datatypes.array.NumericArray;
+import com.github.ugdbg.datatypes.array.PrimitiveDoubleArray;
+import com.github.ugdbg.datatypes.array.PrimitiveFloatArray;
+import com.github.ugdbg.function.scalar.domain.IntervalArithmetic;
+import com.github.ugdbg.function.vector.domain.VDomain;
 import com.github.ugdbg.vector.Vector;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.Arrays;
-import java.util.stream.IntStream;
+import java.math.MathContext;
 
 /**
  * sm:x(x₁,x₂,x₃...xₙ) → y(y₁,y₂,y₃...yₙ)
  * <br>
  * where yₖ = exp(xₖ) / ∑₁→ₙ (exp(x₁),exp(x₂),exp(x₃)...exp(xₙ)) .
+ * <br><br>
+ * The output is computed in O(n) : max, exp(xₖ - max) and their sum, normalization.
+ * Subtracting the max does not change the output but exp never overflows, even for large inputs.
+ * <br>
+ * The Jacobian is J(x)ᵢⱼ = yⱼ(δᵢⱼ - yᵢ). It is never built : see {@link #jacobianProduct(Vector, Vector)}.
  */
 public class SoftMax extends DomainCheckedFunction<SoftMax> implements VDerivable {
 	@Override
 	public Vector doApply(Vector input) {
-		TYPE type = input.getValue().getType();
-		Vector out = Vector.of(type, input.dimension());
-		IntStream stream = input.getValue().indexStream();
-		
+		return this.doApplyInto(input, Vector.of(input.getValue().getType().heap(), input.dimension()));
+	}
+
+	/**
+	 * Compute the softmax of the input into the output vector, in O(n).
+	 * Nothing is allocated if the vectors are primitive float or double vectors.
+	 * @param input the input vector
+	 * @param into  the output vector. Its dimension must match the input dimension. It can be the input.
+	 * @return the output vector
+	 * @throws IllegalArgumentException if the dimensions do not match
+	 */
+	@Override
+	public Vector doApplyInto(Vector input, Vector into) {
+		dimensionCheck(input, into);
+		NumericArray x = input.getValue();
+		NumericArray y = into.getValue();
+		int n = x.length();
+
+		TYPE type = y.getType().heap();
 		switch (type) {
 			case PFLOAT:
-				float[] floats = input.floats();
-				stream.forEach(index -> out.floats()[index] = (float) (Math.exp(floats[index]) / this.expSum(floats)));
+				if (x instanceof PrimitiveFloatArray && y instanceof PrimitiveFloatArray) {
+					PrimitiveFloatArray from = (PrimitiveFloatArray) x;
+					PrimitiveFloatArray to = (PrimitiveFloatArray) y;
+					softMax(from.buffer(), from.offset(), to.buffer(), to.offset(), n);
+				} else {
+					float[] out = new float[n];
+					softMax(x.floats(), 0, out, 0, n);
+					y.set(new PrimitiveFloatArray(out));
+				}
 				break;
 			case PDOUBLE:
-				double[] doubles = input.doubles();
-				stream.forEach(index -> out.doubles()[index] = Math.exp(doubles[index]) / this.expSum(doubles));
+				if (x instanceof PrimitiveDoubleArray && y instanceof PrimitiveDoubleArray) {
+					PrimitiveDoubleArray from = (PrimitiveDoubleArray) x;
+					PrimitiveDoubleArray to = (PrimitiveDoubleArray) y;
+					softMax(from.buffer(), from.offset(), to.buffer(), to.offset(), n);
+				} else {
+					double[] out = new double[n];
+					softMax(x.doubles(), 0, out, 0, n);
+					y.set(new PrimitiveDoubleArray(out));
+				}
 				break;
 			case DECIMAL:
-				BigDecimal[] decimals = input.decimals();
-				stream.forEach(index -> out.decimals()[index] = 
-					BigDecimal
-					.valueOf(Math.exp(decimals[index].doubleValue()))
-					.divide(this.expSum(decimals), RoundingMode.HALF_DOWN)
-				);
+				BigDecimal[] decimals = softMax(x.decimals(), this.mathContext());
+				for (int i = 0; i < n; i++) {
+					y.at(i, decimals[i]);
+				}
 				break;
+			default: throw new IllegalArgumentException("Unsupported output vector type [" + type + "]");
 		}
-		
-		return out;
+		return into;
 	}
 
+	/**
+	 * The derivative of the softmax, as the product of the Jacobian with the input : x → J(x) · x.
+	 * <br>
+	 * This is {@link #jacobianProduct(Vector, Vector)} with v = x : the Jacobian matrix is never built.
+	 * @return a new vectorial function
+	 */
 	@Override
 	public VFunction derive() {
-		return (VFunction) input -> this.jacobian(input).apply(input);
+		return new VFunction() {
+			@Override
+			public Vector doApply(Vector input) {
+				return SoftMax.this.jacobianProduct(input, input);
+			}
+
+			@Override
+			public Vector doApplyInto(Vector input, Vector into) {
+				return SoftMax.this.jacobianProductInto(input, input, into);
+			}
+		};
+	}
+
+	/**
+	 * The Jacobian-vector product J(x) · v, in O(n), without building the n x n Jacobian :
+	 * <br>
+	 * (J(x) · v)ᵢ = ∑ⱼ yⱼ(δᵢⱼ - yᵢ)vⱼ = yᵢ(vᵢ - y · v), where y = sm(x).
+	 * @param input the point x where the Jacobian is computed
+	 * @param v     the vector to multiply. Its dimension must match the input dimension.
+	 * @return a new vector of the input {@link TYPE#heap()} type
+	 * @throws IllegalArgumentException if the dimensions do not match
+	 */
+	public Vector jacobianProduct(Vector input, Vector v) {
+		return this.jacobianProductInto(input, v, Vector.of(input.getValue().getType().heap(), input.dimension()));
+	}
+
+	/**
+	 * The Jacobian-vector product J(x) · v, in O(n), into an existing vector : see {@link #jacobianProduct(Vector, Vector)}.
+	 * Nothing is allocated if the vectors are primitive float or double vectors.
+	 * @param input the point x where the Jacobian is computed
+	 * @param v     the vector to multiply. Its dimension must match the input dimension.
+	 * @param into  the output vector. Its dimension must match the input dimension. It can be the input if the input is not v.
+	 * @return the output vector
+	 * @throws IllegalArgumentException if the dimensions do not match or if the output vector is v
+	 */
+	public Vector jacobianProductInto(Vector input, Vector v, Vector into) {
+		dimensionCheck(v, into);
+		if (v.getValue() == into.getValue()) {
+			throw new IllegalArgumentException("The Jacobian-vector product output cannot be the multiplied vector");
+		}
+
+		this.doApplyInto(input, into);
+		NumericArray y = into.getValue();
+		NumericArray with = v.getValue();
+		int n = y.length();
+
+		if (y instanceof PrimitiveFloatArray && with instanceof PrimitiveFloatArray) {
+			PrimitiveFloatArray out = (PrimitiveFloatArray) y;
+			PrimitiveFloatArray vector = (PrimitiveFloatArray) with;
+			jacobianProduct(out.buffer(), out.offset(), vector.buffer(), vector.offset(), n);
+		} else if (y instanceof PrimitiveDoubleArray && with instanceof PrimitiveDoubleArray) {
+			PrimitiveDoubleArray out = (PrimitiveDoubleArray) y;
+			PrimitiveDoubleArray vector = (PrimitiveDoubleArray) with;
+			jacobianProduct(out.buffer(), out.offset(), vector.buffer(), vector.offset(), n);
+		} else if (y.getType() == TYPE.DECIMAL) {
+			BigDecimal dot = y.linearCombinationToDecimal(with);
+			for (int i = 0; i < n; i++) {
+				y.at(i, Converter.toDecimal(y.at(i)).multiply(Converter.toDecimal(with.at(i)).subtract(dot)));
+			}
+		} else {
+			double dot = y.linearCombinationToDouble(with);
+			for (int i = 0; i < n; i++) {
+				y.at(i, y.at(i).doubleValue() * (with.at(i).doubleValue() - dot));
+			}
+		}
+		return into;
+	}
+
+	/**
+	 * Every softmax output is a probability : the image is [0, 1]ⁿ, whatever the input domain.
+	 * @param input the input domain
+	 * @return [0, 1] for every input dimension
+	 */
+	@Override
+	public VDomain image(VDomain input) {
+		return input.map(domain -> IntervalArithmetic.closed(0, 1));
 	}
 
 	@Override
@@ -52,53 +169,88 @@ public class SoftMax extends DomainCheckedFunction<SoftMax> implements VDerivabl
 		return "e(xₖ) / ∑₁→ₙ (e(x₁),e(x₂),e(x₃)...e(xₙ))";
 	}
 
-	private Matrix jacobian(Vector input) {
-		int dimension = input.dimension();
-		Vector softmaxOut = SoftMax.this.apply(input);
-
-		TYPE type = input.getValue().getType();
-		Matrix jacobian = new Matrix(dimension, dimension, type);
-		switch (type) {
-			case PFLOAT:
-				return jacobian.operation(
-					(matrix, i, j) -> matrix.at(i, j, jacobianOperation(i, j, softmaxOut.floats()))
-				);
-			case PDOUBLE:
-				return jacobian.operation(
-					(matrix, i, j) -> matrix.at(i, j, jacobianOperation(i, j, softmaxOut.doubles()))
-				);
-			case DECIMAL:
-				return jacobian.operation(
-					(matrix, i, j) -> matrix.at(i, j, jacobianOperation(i, j, softmaxOut.decimals()))
-				);
-			default: throw new IllegalArgumentException("Unsupported input vector type [" + type + "]");
+	private static void dimensionCheck(Vector input, Vector into) {
+		if (input.dimension() != into.dimension()) {
+			throw new IllegalArgumentException(
+				"Input dimension [" + input.dimension() + "] does not match output dimension [" + into.dimension() + "]"
+			);
 		}
 	}
-	
-	private static float jacobianOperation(int i, int j, float[] softmaxOut) {
-		return softmaxOut[j] * (Matrix.kroneckerDelta(i, j) - softmaxOut[i]);
-	}
-	
-	private static double jacobianOperation(int i, int j, double[] softmaxOut) {
-		return softmaxOut[j] * (Matrix.kroneckerDelta(i, j) - softmaxOut[i]);
+
+	private static void softMax(float[] x, int xOffset, float[] y, int yOffset, int n) {
+		float max = Float.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			max = Math.max(max, x[xOffset + i]);
+		}
+
+		double sum = 0;
+		for (int i = 0; i < n; i++) {
+			float exp = (float) Math.exp(x[xOffset + i] - max);
+			y[yOffset + i] = exp;
+			sum += exp;
+		}
+
+		float inverse = (float) (1 / sum);
+		for (int i = 0; i < n; i++) {
+			y[yOffset + i] *= inverse;
+		}
 	}
-	
-	private static BigDecimal jacobianOperation(int i, int j, BigDecimal[] softmaxOut) {
-		return softmaxOut[j].multiply(BigDecimal.valueOf(Matrix.kroneckerDelta(i, j)).subtract(softmaxOut[i]));
+
+	private static void softMax(double[] x, int xOffset, double[] y, int yOffset, int n) {
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			max = Math.max(max, x[xOffset + i]);
+		}
+
+		double sum = 0;
+		for (int i = 0; i < n; i++) {
+			double exp = Math.exp(x[xOffset + i] - max);
+			y[yOffset + i] = exp;
+			sum += exp;
+		}
+
+		double inverse = 1 / sum;
+		for (int i = 0; i < n; i++) {
+			y[yOffset + i] *= inverse;
+		}
 	}
-	
-	private float expSum(float[] input) {
-		return (float) IntStream.range(0, input.length).mapToDouble(i -> Math.exp(input[i])).sum();
+
+	private static BigDecimal[] softMax(BigDecimal[] x, MathContext context) {
+		BigDecimal max = null;
+		for (BigDecimal value : x) {
+			max = max == null || value.compareTo(max) > 0 ? value : max;
+		}
+
+		BigDecimal[] y = new BigDecimal[x.length];
+		BigDecimal sum = BigDecimal.ZERO;
+		for (int i = 0; i < x.length; i++) {
+			y[i] = BigDecimal.valueOf(Math.exp(x[i].subtract(max).doubleValue()));
+			sum = sum.add(y[i]);
+		}
+
+		for (int i = 0; i < x.length; i++) {
+			y[i] = y[i].divide(sum, context);
+		}
+		return y;
 	}
-	
-	private double expSum(double[] input) {
-		return (float) Arrays.stream(input).map(Math::exp).sum();
+
+	private static void jacobianProduct(float[] y, int yOffset, float[] v, int vOffset, int n) {
+		double dot = 0;
+		for (int i = 0; i < n; i++) {
+			dot += y[yOffset + i] * v[vOffset + i];
+		}
+		for (int i = 0; i < n; i++) {
+			y[yOffset + i] *= v[vOffset + i] - (float) dot;
+		}
 	}
-	
-	private BigDecimal expSum(BigDecimal[] input) {
-		return IntStream
-			.of(0, input.length)
-			.mapToObj(i -> BigDecimal.valueOf(Math.exp(input[i].doubleValue())))
-			.reduce(BigDecimal.ZERO, BigDecimal::add);
+
+	private static void jacobianProduct(double[] y, int yOffset, double[] v, int vOffset, int n) {
+		double dot = 0;
+		for (int i = 0; i < n; i++) {
+			dot += y[yOffset + i] * v[vOffset + i];
+		}
+		for (int i = 0; i < n; i++) {
+			y[yOffset + i] *= v[vOffset + i] - dot;
+		}
 	}
 }
@@ -1,12 +1,15 @@
 package com.github.ugdbg.function.vector;
 
+import com.github.ugdbg.datatypes.Precision;
 import com.github.ugdbg.function.domain.DomainCheckException;
+import com.github.ugdbg.function.domain.ValidationPolicy;
 import com.github.ugdbg.function.vector.domain.VDomain;
 import com.github.ugdbg.function.vector.domain.VDomains;
 import com.github.ugdbg.vector.Vector;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.math.MathContext;
 import java.util.Objects;
 
 /**
@@ -22,15 +25,54 @@ public interface VFunction extends Serializable {
 	 * @return the output
 	 */
 	Vector doApply(Vector input);
-	
+
+	/**
+	 * Check the domain and apply the function to an input vector.
+	 * <br>
+	 * The domain is checked if {@link #domainCheck()} is enabled and the {@link #validation()} policy validates the call.
+	 * @param input the input vector
+	 * @return the output
+	 * @throws DomainCheckException if the domain is checked and the input is outside of the domain
+	 */
 	default Vector apply(Vector input) {
-		if (this.domainCheck() && this.domain() != null) {
+		if (this.domainCheck() && this.domain() != null && this.validation().validate()) {
 			if (! this.domain().isIn(input)) {
 				throw new DomainCheckException(this, input);
 			}
 		}
 		return this.doApply(input);
 	}
+
+	/**
+	 * Apply the function to an input vector, into an existing output vector.
+	 * <br>
+	 * The domain is checked as in {@link #apply(Vector)}.
+	 * @param input the input vector
+	 * @param into  the output vector. Its dimension must match the output dimension. It must not be the input.
+	 * @return the output vector
+	 */
+	default Vector applyInto(Vector input, Vector into) {
+		if (this.domainCheck() && this.domain() != null && this.validation().validate()) {
+			if (! this.domain().isIn(input)) {
+				throw new DomainCheckException(this, input);
+			}
+		}
+		return this.doApplyInto(input, into);
+	}
+
+	/**
+	 * Apply the function to an input vector, into an existing output vector.
+	 * <br>
+	 * Defaults to {@link #doApply(Vector)}, whose result is copied.
+	 * Override to write the output values without allocating anything.
+	 * @param input the input vector
+	 * @param into  the output vector
+	 * @return the output vector
+	 */
+	default Vector doApplyInto(Vector input, Vector into) {
+		into.getValue().set(this.doApply(input).getValue());
+		return into;
+	}
 	
 	/**
 	 * What is the domain of this function ? 
@@ -51,6 +93,58 @@ public interface VFunction extends Serializable {
 		return false;
 	}
 	
+	/**
+	 * When should the domain be checked, if {@link #domainCheck()} is enabled ?
+	 * <br>
+	 * Default to the process-wide {@link ValidationPolicy#global()}.
+	 * @return the validation policy of this function
+	 */
+	default ValidationPolicy validation() {
+		return ValidationPolicy.global();
+	}
+	
+	/**
+	 * The precision profile of the {@link BigDecimal} computations of this function.
+	 * <br>
+	 * Default to the process-wide {@link Precision#global()}.
+	 * @return the precision profile of this function
+	 */
+	default Precision precision() {
+		return Precision.global();
+	}
+	
+	/**
+	 * The math context of the {@link BigDecimal} computations of this function.
+	 * @return the {@link #precision()} math context
+	 */
+	default MathContext mathContext() {
+		return this.precision().mathContext();
+	}
+	
+	/**
+	 * Interval extension of this function : bound the image of the input domain, f(input).
+	 * <br>
+	 * Default to null : the image is unknown.
+	 * @param input the input domain
+	 * @return a domain that contains the image. null if the image cannot be bounded.
+	 * @see com.github.ugdbg.function.scalar.domain.IntervalArithmetic
+	 */
+	default VDomain image(VDomain input) {
+		return null;
+	}
+
+	/**
+	 * Is it proved that the domain of this function includes any input vector ?
+	 * <br>
+	 * If it is, the domain checks for these inputs can be skipped (see {@link ValidationPolicy#off()}) : they always pass.
+	 * Default to input ⊆ {@link #domain()}.
+	 * @param input the input domain
+	 * @return true if every domain check is proved to pass for the input domain. false if it cannot be proved.
+	 */
+	default boolean isSafe(VDomain input) {
+		return this.domain() == null || this.domain().includes(input);
+	}
+	
 	/**
 	 * A label for this function. Default to {@link Objects#toString(Object)}.
 	 * <br>
@@ -1,38 +1,49 @@
 package com.github.ugdbg.function.vector.domain;
 
+import com.github.ugdbg.datatypes.array.NumericArray;
+import com.github.ugdbg.datatypes.array.PrimitiveDoubleArray;
+import com.github.ugdbg.datatypes.array.PrimitiveFloatArray;
 import com.github.ugdbg.function.domain.Domain;
 import com.github.ugdbg.function.scalar.domain.Domains;
+import com.github.ugdbg.function.scalar.domain.IntervalArithmetic;
+import com.github.ugdbg.function.scalar.domain.Intervals;
 import com.github.ugdbg.vector.Vector;
 import com.github.ugdbg.vector.format.Format;
 import com.google.common.base.Joiner;
 import org.apache.commons.lang3.builder.CompareToBuilder;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.IntStream;
 
 /**
  * A domain for vectors.
  * <br>
  * e.g. ℝⁿ
+ * <br>
+ * Each dimension has a float domain. Domains that compile to {@link Intervals} (see {@link Domains}) are checked
+ * on the primitive vector values, without boxing.
  */
 public class VDomain implements Domain<Vector> {
 	
-	private Domain<Float>[] domains;
+	private final Domain<Float>[] domains;
+	
+	/** Is the same domain used for every dimension ? */
+	private final boolean uniform;
 
 	private VDomain(Domain<Float>[] domains) {
 		this.domains = domains;
+		this.uniform = domains.length > 0 && Arrays.stream(domains).allMatch(domain -> domain.equals(domains[0]));
 	}
 
-	@SuppressWarnings("unchecked")
 	public VDomain(int dimension) {
-		this.domains = new Domain[dimension];
-		IntStream.range(0, dimension).forEach(value -> this.domains[value] = Domains.R_CLOSED);
+		this(uniform(Domains.R_CLOSED, dimension));
 	}
 	
 	public static VDomain of(Domain<Float> domain, int dimension) {
-		VDomain vDomain = new VDomain(dimension);
-		IntStream.range(0, dimension).forEach(value -> vDomain.domains[value] = domain);
-		return vDomain;
+		return new VDomain(uniform(domain, dimension));
 	}
 	
 	@SuppressWarnings("unchecked")
@@ -45,7 +56,7 @@ public class VDomain implements Domain<Vector> {
 
 			@Override
 			public boolean isIn(Vector x) {
-				return Arrays.stream(x.getValue().asArray()).allMatch(number -> domain.isIn(number.floatValue()));
+				return this.allIn(x.getValue());
 			}
 
 			@Override
@@ -55,6 +66,77 @@ public class VDomain implements Domain<Vector> {
 		};
 	}
 	
+	/**
+	 * A vector domain, with a domain for each dimension.
+	 * @param domains the domain of every dimension
+	 * @return a new VDomain instance
+	 */
+	@SuppressWarnings("unchecked")
+	public static VDomain of(List<Domain<Float>> domains) {
+		return new VDomain(domains.toArray(new Domain[0]));
+	}
+
+	/**
+	 * Get the domain of a dimension.
+	 * @param dimension the dimension index
+	 * @return the dimension domain
+	 */
+	public Domain<Float> domain(int dimension) {
+		return this.uniform ? this.domains[0] : this.domains[dimension];
+	}
+
+	/**
+	 * Map the domain of every dimension, e.g. to get the image of a function.
+	 * The vector domain dimension is kept ({@link #anyDimension(Domain)} is kept as well).
+	 * @param mapper the dimension domain mapper
+	 * @return a new VDomain instance. null if the mapper returns null for a dimension.
+	 */
+	public VDomain map(java.util.function.Function<Domain<Float>, Domain<Float>> mapper) {
+		if (this.dimension() == Integer.MAX_VALUE) {
+			Domain<Float> mapped = mapper.apply(this.domains[0]);
+			return mapped == null ? null : anyDimension(mapped);
+		}
+		List<Domain<Float>> mapped = new ArrayList<>(this.domains.length);
+		for (int i = 0; i < this.domains.length; i++) {
+			Domain<Float> domain = this.uniform && i > 0 ? mapped.get(0) : mapper.apply(this.domains[i]);
+			if (domain == null) {
+				return null;
+			}
+			mapped.add(domain);
+		}
+		return of(mapped);
+	}
+
+	/**
+	 * Does the domain of every dimension match the predicate ?
+	 * @param predicate the dimension domain predicate
+	 * @return true if the predicate is true for every dimension domain
+	 */
+	public boolean allMatch(Predicate<Domain<Float>> predicate) {
+		return this.uniform ? predicate.test(this.domains[0]) : Arrays.stream(this.domains).allMatch(predicate);
+	}
+
+	/**
+	 * Does this domain include every vector of the other domain ? 
+	 * This is a proof that the domain check of these vectors always passes.
+	 * @param other the other domain
+	 * @return true if other ⊆ this. false if it cannot be proved.
+	 */
+	public boolean includes(VDomain other) {
+		if (other.dimension() == Integer.MAX_VALUE) {
+			return this.dimension() == Integer.MAX_VALUE && IntervalArithmetic.includes(this.domain(0), other.domain(0));
+		}
+		if (this.dimension() != Integer.MAX_VALUE && this.dimension() != other.dimension()) {
+			return false;
+		}
+		for (int i = 0; i < other.dimension(); i++) {
+			if (! IntervalArithmetic.includes(this.domain(i), other.domain(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
 	public int dimension() {
 		return this.domains.length;
 	}
@@ -62,10 +144,54 @@ public class VDomain implements Domain<Vector> {
 	@Override
 	public boolean isIn(Vector x) {
 		this.dimensionCheck(x);
-		return ! IntStream.range(0, this.domains.length)
-			.filter(value -> ! this.domains[value].isIn(x.at(value).floatValue()))
-			.findFirst()
-			.isPresent();
+		return this.allIn(x.getValue());
+	}
+
+	/**
+	 * Are all the values in their dimension domain ?
+	 * <br>
+	 * Domains that compile to {@link Intervals} are checked without boxing the values :
+	 * a uniform domain is compiled once and checked with a tight loop on the primitive float/double buffers.
+	 * @param values the values to check
+	 * @return true if every value is in its dimension domain
+	 */
+	boolean allIn(NumericArray values) {
+		int n = values.length();
+		Intervals shared = this.uniform ? Intervals.of(this.domains[0]) : null;
+		if (values instanceof PrimitiveFloatArray) {
+			PrimitiveFloatArray floats = (PrimitiveFloatArray) values;
+			if (shared != null) {
+				return shared.firstOutside(floats.buffer(), floats.offset(), n) < 0;
+			}
+			float[] buffer = floats.buffer();
+			for (int i = 0; i < n; i++) {
+				if (! this.isIn(i, buffer[floats.offset() + i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (values instanceof PrimitiveDoubleArray) {
+			PrimitiveDoubleArray doubles = (PrimitiveDoubleArray) values;
+			if (shared != null) {
+				return shared.firstOutside(doubles.buffer(), doubles.offset(), n) < 0;
+			}
+			double[] buffer = doubles.buffer();
+			for (int i = 0; i < n; i++) {
+				if (! this.isIn(i, (float) buffer[doubles.offset() + i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		for (int i = 0; i < n; i++) {
+			float x = values.at(i).floatValue();
+			if (! (shared != null ? shared.isIn(x) : this.isIn(i, x))) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	@Override
@@ -113,6 +239,19 @@ public class VDomain implements Domain<Vector> {
 		return "(" + Joiner.on(") X (").join(this.domains) + ")";
 	}
 
+	private boolean isIn(int dimension, float x) {
+		Domain<Float> domain = this.uniform ? this.domains[0] : this.domains[dimension];
+		Intervals intervals = Intervals.of(domain);
+		return intervals != null ? intervals.isIn(x) : domain.isIn(x);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Domain<Float>[] uniform(Domain<Float> domain, int dimension) {
+		Domain<Float>[] domains = new Domain[dimension];
+		Arrays.fill(domains, domain);
+		return domains;
+	}
+
 	private void dimensionCheck(Vector input) {
 		if (this.dimension() != input.dimension()) {
 			throw new RuntimeException(
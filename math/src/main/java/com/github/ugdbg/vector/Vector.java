@@ -1,6 +1,8 @@
 package com.github.ugdbg.vector;
 
 import com.github.ugdbg.NumberUtils;
+import com.github.ugdbg.datatypes.Precision;
+import com.github.ugdbg.datatypes.Releasable;
 import com.github.ugdbg.datatypes.TYPE;
 import com.github.ugdbg.datatypes.array.DecimalArray;
 import com.github.ugdbg.datatypes.array.NumericArray;
@@ -13,8 +15,6 @@ import com.google.common.base.Joiner;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -82,7 +82,7 @@ public class Vector implements Serializable {
 		}
 		
 		Vector out = Vector.of(type, values.length);
-		out.getValue().operation((array, index) -> array.at(index, values[index]));
+		out.getValue().parallelOperation((array, index) -> array.at(index, values[index]));
 		return out;
 	}
 	
@@ -121,6 +121,27 @@ public class Vector implements Serializable {
 		return new Vector(type.array(dimension).zero());
 	}
 
+	/**
+	 * Free the memory of this vector now if it is off-heap (see {@link Releasable}). Do nothing else.
+	 * <br>
+	 * An off-heap vector must not be used once released.
+	 */
+	public void release() {
+		Releasable.release(this.value);
+	}
+
+	/**
+	 * Set the precision profile of this vector if it is a {@link TYPE#DECIMAL} vector (see {@link Precision}). Do nothing else.
+	 * @param precision the precision profile
+	 * @return the current vector
+	 */
+	public Vector precision(Precision precision) {
+		if (this.value instanceof DecimalArray) {
+			((DecimalArray) this.value).precision(precision);
+		}
+		return this;
+	}
+
 	/**
 	 * Copy current vector. Array implementation is preserved.
 	 * @return a copy of the current vector
@@ -129,6 +150,16 @@ public class Vector implements Serializable {
 		return new Vector(this.value.copy());
 	}
 
+	/**
+	 * Copy current vector into an other array implementation, e.g. floats to {@link TYPE#HALF}.
+	 * See {@link NumericArray#convert(TYPE)}.
+	 * @param type the numeric type of the copy
+	 * @return a new vector of the given type
+	 */
+	public Vector convert(TYPE type) {
+		return new Vector(this.value.convert(type));
+	}
+
 	/**
 	 * The vector index with the highest value.
 	 * @return {@link NumericArray#topIndex()} for {@link #value}
@@ -171,9 +202,10 @@ public class Vector implements Serializable {
 	}
 
 	/**
-	 * Add the given vector value to the current instance
+	 * Add the given vector value to a copy of the current instance.
+	 * See {@link #sumInto(Vector, Vector)} to avoid the copy.
 	 * @param other the vector to add to the current vector
-	 * @return the current vector instance instance
+	 * @return a new vector instance
 	 */
 	public Vector sum(Vector other) {
 		Vector output = this.copy();
@@ -182,9 +214,10 @@ public class Vector implements Serializable {
 	}
 
 	/**
-	 * Subtract the given vector value to the current instance
+	 * Subtract the given vector value to a copy of the current instance.
+	 * See {@link #subInto(Vector, Vector)} to avoid the copy.
 	 * @param other the vector to subtract to the current vector
-	 * @return the current vector instance instance
+	 * @return a new vector instance
 	 */
 	public Vector sub(Vector other) {
 		Vector output = this.copy();
@@ -193,9 +226,10 @@ public class Vector implements Serializable {
 	}
 	
 	/**
-	 * Multiply the given vector value to the current instance
+	 * Multiply the given vector value to a copy of the current instance.
+	 * See {@link #multInto(Vector, Vector)} to avoid the copy.
 	 * @param other the vector to multiply to the current vector with
-	 * @return the current vector instance instance
+	 * @return a new vector instance
 	 */
 	public Vector mult(Vector other) {
 		Vector output = this.copy();
@@ -204,9 +238,10 @@ public class Vector implements Serializable {
 	}
 
 	/**
-	 * Divide the given vector value to the current instance
+	 * Divide a copy of the current instance by the given vector value.
+	 * See {@link #divInto(Vector, Vector)} to avoid the copy.
 	 * @param other the vector to divide to the current vector with
-	 * @return the current vector instance instance
+	 * @return a new vector instance
 	 */
 	public Vector div(Vector other) {
 		Vector output = this.copy();
@@ -215,9 +250,10 @@ public class Vector implements Serializable {
 	}
 	
 	/**
-	 * Multiply the current vector instance with a scalar
+	 * Multiply a copy of the current vector instance with a scalar.
+	 * See {@link #multInto(float, Vector)} to avoid the copy.
 	 * @param scalar the scalar factor
-	 * @return the current vector instance
+	 * @return a new vector instance
 	 */
 	public Vector mult(float scalar) {
 		Vector output = this.copy();
@@ -225,6 +261,96 @@ public class Vector implements Serializable {
 		return output;
 	}
 
+	/**
+	 * Add the given vector value to the current instance, into a destination vector : into = this + other.
+	 * <br>
+	 * The destination can be the current vector or 'other' (in place). Dimensions should be compatible !
+	 * @param other the vector to add to the current vector
+	 * @param into  the destination vector
+	 * @return the destination vector
+	 */
+	public Vector sumInto(Vector other, Vector into) {
+		this.value.sum(other.value, into.value);
+		return into;
+	}
+
+	/**
+	 * Subtract the given vector value to the current instance, into a destination vector : into = this - other.
+	 * <br>
+	 * The destination can be the current vector or 'other' (in place). Dimensions should be compatible !
+	 * @param other the vector to subtract to the current vector
+	 * @param into  the destination vector
+	 * @return the destination vector
+	 */
+	public Vector subInto(Vector other, Vector into) {
+		this.value.sub(other.value, into.value);
+		return into;
+	}
+
+	/**
+	 * Multiply the given vector value to the current instance, into a destination vector : into = this * other.
+	 * <br>
+	 * The destination can be the current vector or 'other' (in place). Dimensions should be compatible !
+	 * @param other the vector to multiply the current vector with
+	 * @param into  the destination vector
+	 * @return the destination vector
+	 */
+	public Vector multInto(Vector other, Vector into) {
+		this.value.mul(other.value, into.value);
+		return into;
+	}
+
+	/**
+	 * Divide the current instance by the given vector value, into a destination vector : into = this / other.
+	 * <br>
+	 * The destination can be the current vector or 'other' (in place). Dimensions should be compatible !
+	 * @param other the vector to divide the current vector with
+	 * @param into  the destination vector
+	 * @return the destination vector
+	 */
+	public Vector divInto(Vector other, Vector into) {
+		this.value.div(other.value, into.value);
+		return into;
+	}
+
+	/**
+	 * Multiply the current vector instance with a scalar, into a destination vector : into = scalar * this.
+	 * <br>
+	 * The destination can be the current vector (in place). Dimensions should be compatible !
+	 * @param scalar the scalar factor
+	 * @param into   the destination vector
+	 * @return the destination vector
+	 */
+	public Vector multInto(float scalar, Vector into) {
+		if (into != this) {
+			into.value.set(this.value);
+		}
+		into.value.mul(scalar);
+		return into;
+	}
+
+	/**
+	 * Fused scaled sum, in place : this = this + alpha * x.
+	 * @param alpha the scale factor of x
+	 * @param x     the vector to scale and add. Dimensions should be compatible !
+	 * @return the current vector instance
+	 */
+	public Vector axpy(float alpha, Vector x) {
+		this.value.axpy(alpha, x.value);
+		return this;
+	}
+
+	/**
+	 * Fused scale and sum, in place : this = scale * this + x.
+	 * @param scale the scale factor of the current vector
+	 * @param x     the vector to add. Dimensions should be compatible !
+	 * @return the current vector instance
+	 */
+	public Vector scaleAndSum(float scale, Vector x) {
+		this.value.scaleAndSum(scale, x.value);
+		return this;
+	}
+
 	/**
 	 * Sum all the current instance values.
 	 * @return the sum of the current vector values
@@ -235,23 +361,42 @@ public class Vector implements Serializable {
 	
 	/**
 	 * Compute the current instance average value.
+	 * <br>
+	 * {@link TYPE#DECIMAL} vectors : the exact sum, divided with the array {@link DecimalArray#precision()}.
+	 * Else, see {@link NumericArray#mean()} and {@link NumericArray#norm1()} : the values are summed in double precision.
 	 * @param abs true to use absolute values
-	 * @return the average value of the current vector values
+	 * @return the average value of the current vector values, as the vector type. 0 if the vector is empty.
 	 */
-	@SuppressWarnings("unchecked")
 	public Number avg(boolean abs) {
-		return NumberUtils.avg(this.value.getType().targetClass(), this.value.asList(), abs);
+		int dimension = this.dimension();
+		if (this.value instanceof DecimalArray && dimension > 0) {
+			DecimalArray decimals = (DecimalArray) this.value;
+			BigDecimal sum = BigDecimal.ZERO;
+			for (int i = 0; i < dimension; i++) {
+				sum = sum.add(abs ? decimals.at(i).abs() : decimals.at(i));
+			}
+			return sum.divide(BigDecimal.valueOf(dimension), decimals.precision().mathContext());
+		}
+		double avg = dimension == 0 ? 0 : abs ? this.value.norm1() / dimension : this.value.mean();
+		return this.value.getType().converter().convert(avg);
 	}
 
 	/**
 	 * Find the max value of the current instance
 	 * @param abs true to use absolute values
-	 * @return the max value of the current vector values
+	 * @return the max value of the current vector values, 0 if the vector is empty
 	 */
-	@SuppressWarnings("unchecked")
 	public Number max(boolean abs) {
-		Function<Number, Number> mapper = abs ? NumberUtils::abs : Function.identity();
-		return (Number) this.value.asList().stream().map(mapper).max((Comparator) Comparator.naturalOrder()).orElse(0);
+		if (this.dimension() == 0) {
+			return this.value.getType().converter().convert(0);
+		}
+		int top = this.value.argmax();
+		if (abs) {
+			int bottom = this.value.argmin();
+			top = Math.abs(this.value.doubleAt(bottom)) > Math.abs(this.value.doubleAt(top)) ? bottom : top;
+		}
+		Number max = this.value.at(top);
+		return abs ? NumberUtils.abs(max) : max;
 	}
 
 	/**
@@ -264,8 +409,8 @@ public class Vector implements Serializable {
 	@SuppressWarnings("unchecked")
 	public Vector normalize(float min, float max) {
 		return this.normalize(
-			NumberUtils.convertNumberToTargetClass(min, this.value.getType().targetClass()), 
-			NumberUtils.convertNumberToTargetClass(max, this.value.getType().targetClass())
+			this.value.getType().converter().convert(min), 
+			this.value.getType().converter().convert(max)
 		);
 	}
 	
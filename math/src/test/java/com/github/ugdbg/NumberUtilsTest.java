@@ -0,0 +1,43 @@
+package com.github.ugdbg;
+
+import ch.obermuhlner.math.big.BigDecimalMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Test case for the {@link NumberUtils} constants.
+ */
+public class NumberUtilsTest {
+
+	private static final MathContext CONTEXT = new MathContext(50, RoundingMode.HALF_EVEN);
+
+	@Test
+	public void testConstants() {
+		Assert.assertEquals(new BigDecimal("2.7182818284590452353602874713526624977572470937000"), NumberUtils.e(CONTEXT));
+		Assert.assertEquals(new BigDecimal("0.69314718055994530941723212145817656807550013436026"), NumberUtils.ln2(CONTEXT));
+		Assert.assertEquals(new BigDecimal("3.1415926535897932384626433832795028841971693993751"), NumberUtils.pi(CONTEXT));
+
+		Assert.assertSame(NumberUtils.e(CONTEXT), NumberUtils.e(new MathContext(50, RoundingMode.HALF_EVEN)));
+		Assert.assertSame(NumberUtils.ln2(CONTEXT), NumberUtils.ln2(CONTEXT));
+		Assert.assertSame(NumberUtils.pi(CONTEXT), NumberUtils.pi(CONTEXT));
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testDeprecatedE() {
+		Assert.assertSame(NumberUtils.e(), NumberUtils.E());
+	}
+
+	@Test
+	public void testComputeE() {
+		MathContext context = new MathContext(1000);
+		BigDecimal e = NumberUtils.computeE(context);
+		Assert.assertEquals(1000, e.precision());
+		Assert.assertEquals(BigDecimalMath.e(context), e);
+		Assert.assertEquals(new BigDecimal("2.718"), NumberUtils.computeE(new MathContext(4)));
+	}
+}
@@ -0,0 +1,80 @@
+package com.github.ugdbg.datatypes;
+
+import com.github.ugdbg.datatypes.array.NumericArray;
+import com.github.ugdbg.datatypes.matrix.NumericMatrix;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Test case for the {@link Converter} table.
+ */
+public class ConverterTest {
+
+	@Test
+	public void testToDecimal() {
+		BigDecimal decimal = new BigDecimal("1.25");
+		Assert.assertSame(decimal, Converter.toDecimal(decimal));
+		Assert.assertEquals(new BigDecimal("0.1"), Converter.toDecimal(0.1f));
+		Assert.assertEquals(new BigDecimal("0.1"), Converter.toDecimal((Number) 0.1f));
+		Assert.assertEquals(new BigDecimal("0.1"), Converter.toDecimal(0.1d));
+		Assert.assertEquals(new BigDecimal("42"), Converter.toDecimal(42));
+		Assert.assertEquals(new BigDecimal("-42"), Converter.toDecimal((short) -42));
+		Assert.assertEquals(new BigDecimal("12345678901234567890"), Converter.toDecimal(new BigInteger("12345678901234567890")));
+	}
+
+	@Test
+	public void testConvert() {
+		for (TYPE type : TYPE.values()) {
+			Converter converter = type.converter();
+			Assert.assertSame(converter, Converter.of(type));
+			Assert.assertEquals(type.name(), 0.5, converter.convert(new BigDecimal("0.5")).doubleValue(), 0);
+			Assert.assertEquals(type.name(), 2, converter.convert(2L).doubleValue(), 0);
+			Assert.assertEquals(type.name(), 0.25, converter.convert(0.25).doubleValue(), 0);
+
+			Class<?> target = type.targetClass() == float.class ? Float.class : type.targetClass() == double.class ? Double.class : BigDecimal.class;
+			Assert.assertEquals(type.name(), target, converter.convert(3).getClass());
+			Assert.assertEquals(type.name(), target, converter.convert(3d).getClass());
+		}
+		Float value = 1.5f;
+		Assert.assertSame(value, TYPE.PFLOAT.converter().convert(value));
+	}
+
+	@Test
+	public void testStorage() {
+		for (TYPE type : TYPE.values()) {
+			NumericArray array = type.array(3);
+			array.at(0, 0.1f);
+			array.at(1, new BigDecimal("0.75"));
+			array.at(2, 1.5f);
+			Assert.assertEquals(type.name(), 0.1f, array.at(0).floatValue(), tolerance(type, 0.1));
+			Assert.assertEquals(type.name(), 0.75, array.at(1).doubleValue(), 0);
+			Assert.assertEquals(type.name(), 1.5, array.at(2).doubleValue(), 0);
+
+			array.normalize(0, 3);
+			Assert.assertEquals(type.name(), 0.5, array.at(2).doubleValue(), 0);
+
+			NumericMatrix matrix = type.matrix(1, 2);
+			matrix.at(0, 0, 0.1f);
+			matrix.at(0, 1, 0.1d);
+			Assert.assertEquals(type.name(), matrix.at(0, 0).floatValue(), matrix.at(0, 1).floatValue(), 0);
+		}
+		Assert.assertEquals(new BigDecimal("0.1"), TYPE.DECIMAL.matrix(1, 1).at(0, 0, 0.1f).at(0, 0));
+	}
+
+	/**
+	 * The rounding error allowed for a stored value : a few units in the last place for the 16 bits types, 0 else.
+	 * @param type     the numeric type
+	 * @param expected the expected value
+	 * @return the assertion delta
+	 */
+	private static double tolerance(TYPE type, double expected) {
+		switch (type) {
+			case HALF:     return 4 * Math.abs(expected) * 0x1p-11;
+			case BFLOAT16: return 4 * Math.abs(expected) * 0x1p-8;
+			default:       return 0;
+		}
+	}
+}
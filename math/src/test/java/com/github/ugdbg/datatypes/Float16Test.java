@@ -0,0 +1,78 @@
+package com.github.ugdbg.datatypes;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Test case for the {@link Float16} encodings of the {@link TYPE#HALF} and {@link TYPE#BFLOAT16} types.
+ */
+public class Float16Test {
+
+	@Test
+	public void testHalf() {
+		Float16 half = Float16.HALF;
+		Assert.assertEquals(0x3c00, half.encode(1f));
+		Assert.assertEquals((short) 0xc000, half.encode(-2f));
+		Assert.assertEquals(0x7bff, half.encode(65504f));
+		Assert.assertEquals(0x7bff, half.encode(65519f));
+		Assert.assertEquals(0x7c00, half.encode(65520f));
+		Assert.assertEquals(0x0001, half.encode(0x1p-24f));
+		Assert.assertEquals(0x0000, half.encode(0x1p-25f));
+		Assert.assertEquals(0x0001, half.encode(0x1.8p-25f));
+		Assert.assertEquals(0x0400, half.encode(0x1p-14f));
+		Assert.assertEquals(0x3555, half.encode(1f / 3));
+
+		// ties to even : 1 + 2⁻¹¹ is between 1 and 1 + 2⁻¹⁰
+		Assert.assertEquals(0x3c00, half.encode(1 + 0x1p-11f));
+		Assert.assertEquals(0x3c02, half.encode(1 + 3 * 0x1p-11f));
+
+		Assert.assertEquals(Float.POSITIVE_INFINITY, half.decode(half.encode(Float.POSITIVE_INFINITY)), 0);
+		Assert.assertEquals(Float.NEGATIVE_INFINITY, half.decode(half.encode(-1e10f)), 0);
+		Assert.assertTrue(Float.isNaN(half.decode(half.encode(Float.NaN))));
+		Assert.assertEquals(0x1p-24f, half.decode((short) 0x0001), 0);
+		Assert.assertEquals(Float.floatToIntBits(-0f), Float.floatToIntBits(half.decode(half.encode(-0f))));
+	}
+
+	@Test
+	public void testBFloat16() {
+		Float16 bfloat16 = Float16.BFLOAT16;
+		Assert.assertEquals(0x3f80, bfloat16.encode(1f));
+		Assert.assertEquals((short) 0xc000, bfloat16.encode(-2f));
+		Assert.assertEquals(0x3eab, bfloat16.encode(1f / 3));
+		Assert.assertEquals(0x3f80, bfloat16.encode(1 + 0x1p-8f));
+		Assert.assertEquals(0x3f82, bfloat16.encode(1 + 3 * 0x1p-8f));
+		Assert.assertEquals(3e38f, bfloat16.decode(bfloat16.encode(3e38f)), 3e38f * 0x1p-8f);
+		Assert.assertEquals(Float.POSITIVE_INFINITY, bfloat16.decode(bfloat16.encode(Float.MAX_VALUE)), 0);
+		Assert.assertTrue(Float.isNaN(bfloat16.decode(bfloat16.encode(Float.intBitsToFloat(0x7f800001)))));
+	}
+
+	@Test
+	public void testRoundTrip() {
+		for (Float16 format : Float16.values()) {
+			for (int bits = 0; bits <= 0xffff; bits++) {
+				float value = format.decode((short) bits);
+				if (! Float.isNaN(value)) {
+					Assert.assertEquals(format + " " + Integer.toHexString(bits), (short) bits, format.encode(value));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testNearest() {
+		Random random = new Random(7);
+		for (Float16 format : Float16.values()) {
+			for (int i = 0; i < 100_000; i++) {
+				float value = (float) (random.nextGaussian() * Math.pow(2, random.nextInt(40) - 28));
+				short encoded = format.encode(value);
+				float error = Math.abs(format.decode(encoded) - value);
+				for (int step : new int[] {-1, 1}) {
+					float neighbour = format.decode((short) (encoded + step));
+					Assert.assertTrue(format + " " + value, Float.isNaN(neighbour) || error <= Math.abs(neighbour - value));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package com.github.ugdbg.datatypes;
+
+import com.github.ugdbg.datatypes.array.NumericArray;
+import com.github.ugdbg.datatypes.matrix.NumericMatrix;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Test case for the {@link Parallelism} policy of the element-wise operations.
+ */
+public class ParallelismTest {
+
+	private static final int LENGTH = 1000;
+
+	private final ForkJoinPool pool = new ForkJoinPool(4);
+	private final Parallelism global = Parallelism.global();
+
+	@After
+	public void tearDown() {
+		Parallelism.global(this.global);
+		this.pool.shutdown();
+	}
+
+	private static NumericArray array(TYPE type, long seed) {
+		Random random = new Random(seed);
+		return type.array(LENGTH).operation((array, i) -> array.at(i, random.nextFloat() + 0.5f));
+	}
+
+	private static NumericArray operations(TYPE type) {
+		NumericArray a = array(type, 0);
+		NumericArray b = array(type, 1);
+		NumericArray into = type.array(LENGTH);
+		a.sum(b, into);
+		into.mul(b);
+		into.axpy(0.5f, a);
+		into.scaleAndSum(2f, b);
+		into.div(a);
+		into.mul(3f);
+		into.normalize(0, 10);
+		return into;
+	}
+
+	@Test
+	public void testParallelOperations() {
+		for (TYPE type : TYPE.values()) {
+			Parallelism.global(Parallelism.off());
+			NumericArray sequential = operations(type);
+
+			Parallelism.global(Parallelism.of(16, 4).on(this.pool));
+			NumericArray parallel = operations(type);
+			for (int i = 0; i < LENGTH; i++) {
+				Assert.assertEquals(type.name() + "@" + i, sequential.at(i), parallel.at(i));
+			}
+		}
+	}
+
+	@Test
+	public void testRanges() {
+		Parallelism parallelism = Parallelism.of(16, 4).on(this.pool);
+		Assert.assertTrue(parallelism.isParallel(LENGTH, TYPE.PFLOAT));
+		Assert.assertFalse(parallelism.isParallel(15, TYPE.PFLOAT));
+		Assert.assertTrue(parallelism.isParallel(4, TYPE.DECIMAL));
+		Assert.assertFalse(Parallelism.off().isParallel(Integer.MAX_VALUE, TYPE.DECIMAL));
+
+		AtomicIntegerArray visits = new AtomicIntegerArray(LENGTH);
+		parallelism.forRange(LENGTH, TYPE.PFLOAT, (from, to) -> {
+			for (int i = from; i < to; i++) {
+				visits.incrementAndGet(i);
+			}
+		});
+		for (int i = 0; i < LENGTH; i++) {
+			Assert.assertEquals(1, visits.get(i));
+		}
+	}
+
+	@Test
+	public void testParallelMatrixOperation() {
+		Parallelism.global(Parallelism.of(16, 4).on(this.pool));
+		for (TYPE type : TYPE.values()) {
+			NumericMatrix matrix = type.matrix(50, 20).parallelOperation((m, i, j) -> m.at(i, j, (float) (i * 20 + j)));
+			NumericMatrix twice = type.matrix(50, 20).operation((m, i, j) -> m.at(i, j, (float) (i * 20 + j)));
+			matrix.sum(twice);
+			for (int i = 0; i < 50; i++) {
+				for (int j = 0; j < 20; j++) {
+					Assert.assertEquals(type.name(), 2 * (i * 20 + j), matrix.floatAt(i, j), tolerance(type, 2 * (i * 20 + j)));
+				}
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadThreshold() {
+		Parallelism.of(0, 1);
+	}
+
+	/**
+	 * The rounding error allowed for a stored value : a few units in the last place for the 16 bits types, 0 else.
+	 * @param type     the numeric type
+	 * @param expected the expected value
+	 * @return the assertion delta
+	 */
+	private static double tolerance(TYPE type, double expected) {
+		switch (type) {
+			case HALF:     return 4 * Math.abs(expected) * 0x1p-11;
+			case BFLOAT16: return 4 * Math.abs(expected) * 0x1p-8;
+			default:       return 0;
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package com.github.ugdbg.datatypes;
+
+import com.github.ugdbg.datatypes.array.DecimalArray;
+import com.github.ugdbg.datatypes.matrix.DecimalMatrix;
+import com.github.ugdbg.function.scalar.Sigmoid;
+import com.github.ugdbg.vector.Vector;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * Test case for the {@link Precision} profiles of the {@link TYPE#DECIMAL} arithmetic.
+ */
+public class PrecisionTest {
+
+	@Test
+	public void testProfiles() {
+		Assert.assertSame(Precision.DECIMAL128, Precision.of(34));
+		Assert.assertSame(Precision.of(64), Precision.of(64));
+		Assert.assertEquals(MathContext.DECIMAL64.getPrecision(), Precision.DECIMAL64.digits());
+		Assert.assertSame(Precision.EXACT, Precision.global());
+		Assert.assertTrue(Precision.EXACT.isExact());
+
+		BigDecimal third = BigDecimal.ONE.divide(BigDecimal.valueOf(3), new MathContext(100));
+		Assert.assertSame(third, Precision.EXACT.round(third));
+		Assert.assertEquals(7, Precision.DECIMAL32.round(third).precision());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadDigits() {
+		Precision.of(0);
+	}
+
+	@Test
+	public void testE() {
+		BigDecimal e = Precision.of(64).e();
+		Assert.assertSame(e, Precision.of(64).e());
+		Assert.assertEquals(64, e.precision());
+		Assert.assertEquals(
+			new BigDecimal("2.718281828459045235360287471352662497757247093699959574966967628"),
+			e.round(new MathContext(64))
+		);
+	}
+
+	@Test
+	public void testDecimalArrayNormalize() {
+		DecimalArray array = new DecimalArray(new BigDecimal[] {BigDecimal.ONE, new BigDecimal("2")}).precision(Precision.DECIMAL128);
+		array.normalize(0, 3);
+		Assert.assertEquals(34, array.at(0).precision());
+		Assert.assertEquals(BigDecimal.ONE.divide(BigDecimal.valueOf(3), MathContext.DECIMAL128), array.at(0));
+
+		DecimalArray exact = new DecimalArray(new BigDecimal[] {new BigDecimal("1.00"), new BigDecimal("2.00")}).precision(Precision.EXACT);
+		exact.normalize(0, 3);
+		Assert.assertEquals(new BigDecimal("0.33"), exact.at(0));
+	}
+
+	@Test
+	public void testDecimalArrayRounding() {
+		DecimalArray array = new DecimalArray(2).zero().precision(Precision.DECIMAL32);
+		array.at(0, new BigDecimal("1.23456789"));
+		Assert.assertEquals(new BigDecimal("1.234568"), array.at(0));
+
+		DecimalArray with = new DecimalArray(new BigDecimal[] {new BigDecimal("1.1111111"), new BigDecimal("3")});
+		array.sum(with);
+		Assert.assertEquals(new BigDecimal("2.345679"), array.at(0));
+		array.div(with);
+		Assert.assertEquals(new BigDecimal("2.111111"), array.at(0));
+		Assert.assertEquals(0, BigDecimal.ONE.compareTo(array.at(1)));
+
+		for (int i = 0; i < 20; i++) {
+			array.mul(with);
+		}
+		Assert.assertTrue(array.at(0).precision() <= 7);
+		Assert.assertSame(Precision.DECIMAL32, array.copy().precision());
+	}
+
+	@Test
+	public void testDecimalMatrixRounding() {
+		DecimalMatrix matrix = new DecimalMatrix(2, 2).precision(Precision.DECIMAL32);
+		matrix.at(0, 0, 1 / 3d);
+		Assert.assertEquals(new BigDecimal("0.3333333"), matrix.at(0, 0));
+		Assert.assertSame(Precision.DECIMAL32, matrix.line(1).precision());
+		Assert.assertSame(Precision.DECIMAL32, matrix.rows(0, 1).precision());
+
+		matrix.line(1).at(1, new BigDecimal("2.71828182845"));
+		Assert.assertEquals(new BigDecimal("2.718282"), matrix.at(1, 1));
+	}
+
+	@Test
+	public void testDecimalVectorAverage() {
+		Vector vector = Vector.of(new BigDecimal("0.1"), new BigDecimal("-0.2"), new BigDecimal("1e-20"));
+		Assert.assertEquals(new BigDecimal("-0.03333333333333333333"), vector.avg(false));
+
+		vector.precision(Precision.DECIMAL32);
+		Assert.assertEquals(new BigDecimal("-0.03333333"), vector.avg(false));
+		Assert.assertEquals(new BigDecimal("0.1000000"), vector.avg(true));
+	}
+
+	@Test
+	public void testSigmoid() {
+		Sigmoid sigmoid = new Sigmoid(1).precision(Precision.DECIMAL128);
+		BigDecimal out = (BigDecimal) sigmoid.doApply(new BigDecimal("0.5"));
+		Assert.assertEquals(1 / (1 + Math.exp(-0.5)), out.doubleValue(), 1e-15);
+		Assert.assertTrue(out.precision() <= 34);
+
+		BigDecimal prime = (BigDecimal) sigmoid.derive().doApply(new BigDecimal("0.5"));
+		Assert.assertEquals(out.doubleValue() * (1 - out.doubleValue()), prime.doubleValue(), 1e-15);
+	}
+}
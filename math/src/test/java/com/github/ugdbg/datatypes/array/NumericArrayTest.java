@@ -0,0 +1,216 @@
+package com.github.ugdbg.datatypes.array;
+
+import com.github.ugdbg.datatypes.Summation;
+import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.datatypes.matrix.NumericMatrix;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test case for the {@link NumericArray} implementations, for every {@link TYPE}.
+ */
+public class NumericArrayTest {
+
+	private static NumericArray array(TYPE type, float... values) {
+		NumericArray array = type.array(values.length);
+		return array.operation((a, i) -> a.at(i, values[i]));
+	}
+
+	private static void assertValues(TYPE type, NumericArray array, float... expected) {
+		Assert.assertEquals(type.name(), expected.length, array.length());
+		for (int i = 0; i < expected.length; i++) {
+			Assert.assertEquals(type.name() + "@" + i, expected[i], array.at(i).floatValue(), 1e-6f);
+		}
+	}
+
+	@Test
+	public void testInto() {
+		for (TYPE type : TYPE.values()) {
+			NumericArray a = array(type, 1, 2, 3);
+			NumericArray b = array(type, 4, 5, 6);
+			NumericArray into = type.array(3);
+
+			a.sum(b, into);
+			assertValues(type, into, 5, 7, 9);
+			a.sub(b, into);
+			assertValues(type, into, -3, -3, -3);
+			a.mul(b, into);
+			assertValues(type, into, 4, 10, 18);
+			b.div(array(type, 2, 5, 4), into);
+			assertValues(type, into, 2, 1, 1.5f);
+
+			assertValues(type, a, 1, 2, 3);
+			assertValues(type, b, 4, 5, 6);
+
+			// In place, into any operand
+			a.sub(b, b);
+			assertValues(type, b, -3, -3, -3);
+			a.mul(b, a);
+			assertValues(type, a, -3, -6, -9);
+
+			// Destination of an other type
+			for (TYPE otherType : TYPE.values()) {
+				NumericArray other = otherType.array(3);
+				a.sum(b, other);
+				assertValues(type, other, -6, -9, -12);
+			}
+		}
+	}
+
+	@Test
+	public void testFloat16IntoPrimitive() {
+		for (TYPE type : new TYPE[] {TYPE.HALF, TYPE.BFLOAT16}) {
+			NumericArray a = array(type, 1, 2);
+			NumericArray b = array(type, 3, 3);
+
+			// The float result is not rounded to 16 bits
+			NumericArray floats = TYPE.PFLOAT.matrix(2, 2).line(1);
+			a.div(b, floats);
+			Assert.assertEquals(type.name(), 1f / 3, floats.at(0).floatValue(), 0f);
+			Assert.assertEquals(type.name(), 2f / 3, floats.at(1).floatValue(), 0f);
+
+			NumericArray doubles = TYPE.PDOUBLE.array(2);
+			a.div(b, doubles);
+			Assert.assertEquals(type.name(), 1f / 3, doubles.at(0).doubleValue(), 0);
+
+			a.div(b, b);
+			Assert.assertNotEquals(type.name(), 1f / 3, b.at(0).floatValue(), 0f);
+		}
+	}
+
+	@Test
+	public void testFusedOperations() {
+		for (TYPE type : TYPE.values()) {
+			NumericArray a = array(type, 1, 2, 3);
+			a.axpy(-2f, array(type, 1, 0, 0.5f));
+			assertValues(type, a, -1, 2, 2);
+
+			a.scaleAndSum(0.5f, array(type, 1, 1, 1));
+			assertValues(type, a, 0.5f, 2, 2);
+
+			a.set(array(type, 7, 8, 9));
+			assertValues(type, a, 7, 8, 9);
+		}
+	}
+
+	@Test
+	public void testOperationsOnViews() {
+		for (TYPE type : TYPE.values()) {
+			NumericMatrix matrix = type.matrix(2, 3);
+			matrix.line(0).set(array(type, 1, 2, 3));
+			matrix.line(1).set(array(type, 10, 20, 30));
+
+			matrix.line(0).sum(matrix.line(1), matrix.line(1));
+			assertValues(type, matrix.line(1), 11, 22, 33);
+			matrix.line(0).axpy(2f, matrix.line(1));
+			assertValues(type, matrix.line(0), 23, 46, 69);
+			Assert.assertEquals(type.name(), 11f, matrix.floatAt(1, 0), 0f);
+		}
+	}
+
+	@Test
+	public void testBufferAccessors() {
+		float[] floats = {1, 2, 3};
+		Assert.assertSame(floats, new PrimitiveFloatArray(floats).floats());
+		Assert.assertNotSame(floats, new PrimitiveFloatArray(floats, 1, 2).floats());
+		Assert.assertArrayEquals(new float[] {2, 3}, new PrimitiveFloatArray(floats, 1, 2).floats(), 0);
+
+		double[] doubles = {1, 2, 3};
+		Assert.assertSame(doubles, new PrimitiveDoubleArray(doubles).doubles());
+		Assert.assertArrayEquals(new double[] {1, 2}, new PrimitiveDoubleArray(doubles, 0, 2).doubles(), 0);
+
+		NumericArray offHeap = array(TYPE.OFFHEAP_FLOAT, 1, 2, 3);
+		offHeap.floats()[0] = 5;
+		Assert.assertEquals(1f, offHeap.at(0).floatValue(), 0);
+	}
+
+	@Test
+	public void testLengthCheck() {
+		for (TYPE type : TYPE.values()) {
+			// A shorter operand must not read the next matrix line
+			NumericMatrix matrix = type.matrix(2, 3);
+			NumericArray shorter = matrix.block(0, 0, 1, 2).line(0);
+			NumericArray a = array(type, 1, 2, 3);
+			for (Runnable operation : new Runnable[] {
+				() -> a.set(shorter),
+				() -> a.sum(shorter),
+				() -> a.div(shorter),
+				() -> a.mul(a, shorter),
+				() -> a.sub(shorter, a),
+				() -> a.axpy(1f, shorter),
+				() -> a.scaleAndSum(1f, shorter),
+			}) {
+				try {
+					operation.run();
+					Assert.fail(type.name() + " : a shorter operand should be rejected");
+				} catch (IllegalArgumentException e) {
+					Assert.assertTrue(e.getMessage(), e.getMessage().contains("[2]"));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testReductions() {
+		for (TYPE type : TYPE.values()) {
+			NumericMatrix matrix = type.matrix(2, 5);
+			NumericArray array = matrix.line(1);
+			array.set(array(type, 3, -4, 1, 5, -4));
+
+			Assert.assertEquals(type.name(), 3, array.argmax());
+			Assert.assertEquals(type.name(), 3, array.topIndex());
+			Assert.assertEquals(type.name(), 1, array.argmin());
+			Assert.assertEquals(type.name(), 5, array.max(), 0);
+			Assert.assertEquals(type.name(), -4, array.min(), 0);
+			for (Summation summation : Summation.values()) {
+				Assert.assertEquals(type.name(), 1, array.sumToDouble(summation), 1e-12);
+			}
+			Assert.assertEquals(type.name(), 1, array.sum().doubleValue(), 1e-12);
+			Assert.assertEquals(type.name(), 67, array.sumOfSquares(), 1e-12);
+			Assert.assertEquals(type.name(), 17, array.norm1(), 1e-12);
+			Assert.assertEquals(type.name(), Math.sqrt(67), array.norm2(), 1e-12);
+			Assert.assertEquals(type.name(), 0.2, array.mean(), 1e-12);
+			Assert.assertEquals(type.name(), 13.36, array.variance(), 1e-12);
+
+			NumericArray empty = type.array(0);
+			Assert.assertEquals(type.name(), -1, empty.argmax());
+			Assert.assertEquals(type.name(), -1, empty.argmin());
+			Assert.assertTrue(type.name(), Double.isNaN(empty.max()));
+			Assert.assertTrue(type.name(), Double.isNaN(empty.mean()));
+			Assert.assertTrue(type.name(), Double.isNaN(empty.variance()));
+			Assert.assertEquals(type.name(), 0, empty.sumToDouble(), 0);
+		}
+	}
+
+	@Test
+	public void testConvert() {
+		NumericArray floats = array(TYPE.PFLOAT, 1, -2.5f, 1f / 3, 70000);
+		for (TYPE type : TYPE.values()) {
+			NumericArray converted = floats.convert(type);
+			Assert.assertEquals(type, converted.getType());
+			Assert.assertEquals(type.name(), -2.5, converted.doubleAt(1), 0);
+			Assert.assertEquals(type.name(), 1f / 3, converted.doubleAt(2), 1e-2);
+			Assert.assertEquals(type.name(), -2.5, converted.convert(TYPE.PFLOAT).doubleAt(1), 0);
+		}
+
+		NumericArray half = floats.convert(TYPE.HALF);
+		Assert.assertEquals(0.333251953125, half.convert(TYPE.PFLOAT).doubleAt(2), 0);
+		Assert.assertEquals(Float.POSITIVE_INFINITY, half.doubleAt(3), 0);
+		Assert.assertEquals(70144, floats.convert(TYPE.BFLOAT16).doubleAt(3), 0);
+		Assert.assertArrayEquals(half.floats(), half.convert(TYPE.BFLOAT16).convert(TYPE.HALF).floats(), 1e-2f);
+	}
+
+	@Test
+	public void testSummations() {
+		NumericArray cancellation = array(TYPE.PDOUBLE, 1, 1e30f, 1, -1e30f);
+		Assert.assertEquals(0, cancellation.sumToDouble(Summation.NAIVE), 0);
+		Assert.assertEquals(2, cancellation.sumToDouble(Summation.KAHAN), 0);
+
+		int length = 1_000_000;
+		NumericArray tenths = TYPE.PFLOAT.array(length).operation((a, i) -> a.at(i, 0.1f));
+		double exact = (double) 0.1f * length;
+		Assert.assertEquals(exact, tenths.sumToDouble(Summation.KAHAN), 0);
+		Assert.assertEquals(exact, tenths.sumToDouble(Summation.PAIRWISE), exact * 1e-15);
+		Assert.assertEquals(exact, tenths.sumToDouble(Summation.NAIVE), exact * 1e-9);
+	}
+}
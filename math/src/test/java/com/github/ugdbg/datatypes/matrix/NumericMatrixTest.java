@@ -0,0 +1,560 @@
+package com.github.ugdbg.datatypes.matrix;
+
+import com.github.ugdbg.datatypes.Releasable;
+import com.github.ugdbg.datatypes.Summation;
+import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.datatypes.array.NumericArray;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ReadOnlyBufferException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Test case for the {@link NumericMatrix} implementations, for every {@link TYPE}.
+ */
+public class NumericMatrixTest {
+
+	private static NumericMatrix matrix(TYPE type, int m, int n) {
+		NumericMatrix matrix = type.matrix(m, n);
+		return matrix.operation((M, i, j) -> M.at(i, j, (float) (10 * i + j)));
+	}
+
+	@Test
+	public void testLineIsAView() {
+		for (TYPE type : TYPE.values()) {
+			NumericMatrix matrix = matrix(type, 3, 4);
+			NumericArray line = matrix.line(1);
+			Assert.assertEquals(4, line.length());
+			Assert.assertEquals(12f, line.at(2).floatValue(), 0f);
+
+			line.at(2, 42f);
+			Assert.assertEquals(type.name(), 42f, matrix.floatAt(1, 2), 0f);
+			Assert.assertEquals(type.name(), 20f, matrix.floatAt(2, 0), 0f);
+		}
+	}
+
+	@Test
+	public void testRowsAndBlocks() {
+		for (TYPE type : TYPE.values()) {
+			NumericMatrix matrix = matrix(type, 5, 6);
+
+			NumericMatrix rows = matrix.rows(1, 3);
+			Assert.assertEquals(2, rows.getM());
+			Assert.assertEquals(6, rows.getN());
+			Assert.assertEquals(25f, rows.floatAt(1, 5), 0f);
+
+			NumericMatrix block = matrix.block(2, 1, 3, 2);
+			Assert.assertEquals("M(3, 2)", block.shortLabel());
+			Assert.assertEquals(21f, block.floatAt(0, 0), 0f);
+			Assert.assertEquals(42f, block.floatAt(2, 1), 0f);
+			Assert.assertEquals(32f, block.line(1).at(1).floatValue(), 0f);
+
+			block.mul(-1f);
+			Assert.assertEquals(type.name(), -31f, matrix.floatAt(3, 1), 0f);
+			Assert.assertEquals(type.name(), 33f, matrix.floatAt(3, 3), 0f);
+			Assert.assertEquals(type.name(), 10f, matrix.floatAt(1, 0), 0f);
+
+			NumericMatrix transpose = block.transpose();
+			Assert.assertEquals("M(2, 3)", transpose.shortLabel());
+			Assert.assertEquals(-42f, transpose.floatAt(1, 2), 0f);
+		}
+	}
+
+	@Test
+	public void testSumOnViews() {
+		for (TYPE type : TYPE.values()) {
+			NumericMatrix matrix = matrix(type, 4, 4);
+			matrix.block(0, 0, 2, 2).sum(matrix.block(2, 2, 2, 2));
+			Assert.assertEquals(type.name(), 22f, matrix.floatAt(0, 0), 0f);
+			Assert.assertEquals(type.name(), 44f, matrix.floatAt(1, 1), 0f);
+			Assert.assertEquals(type.name(), 2f, matrix.floatAt(0, 2), 0f);
+		}
+	}
+
+	@Test
+	public void testReductions() {
+		for (TYPE type : TYPE.values()) {
+			NumericMatrix matrix = matrix(type, 3, 4);
+			Assert.assertEquals(type.name(), 11, matrix.argmax());
+			Assert.assertEquals(type.name(), 0, matrix.argmin());
+			Assert.assertEquals(type.name(), 23, matrix.max(), 0);
+			Assert.assertEquals(type.name(), 0, matrix.min(), 0);
+			Assert.assertEquals(type.name(), 138, matrix.sumToDouble(), 0);
+			Assert.assertEquals(type.name(), 138, matrix.sumToDouble(Summation.KAHAN), 0);
+			Assert.assertEquals(type.name(), 138, matrix.norm1(), 0);
+			Assert.assertEquals(type.name(), 11.5, matrix.mean(), 0);
+			Assert.assertEquals(type.name(), matrix.sumOfSquares() / 12 - 11.5 * 11.5, matrix.variance(), 1e-9);
+			Assert.assertEquals(type.name(), Math.sqrt(matrix.sumOfSquares()), matrix.norm2(), 0);
+
+			NumericMatrix block = matrix.block(1, 1, 2, 2);
+			Assert.assertEquals(type.name(), 66, block.sumToDouble(), 0);
+			Assert.assertEquals(type.name(), 3, block.argmax());
+			Assert.assertEquals(type.name(), 138, matrix.transposed().sumToDouble(), 0);
+			Assert.assertEquals(type.name(), 11, matrix.transposed().argmax());
+			Assert.assertTrue(type.name(), Double.isNaN(type.matrix(0, 3).max()));
+		}
+	}
+
+	@Test
+	public void testProduct() {
+		for (TYPE type : TYPE.values()) {
+			NumericMatrix a = matrix(type, 2, 3);
+			NumericMatrix b = matrix(type, 3, 2);
+			NumericMatrix product = a.product(b);
+
+			Assert.assertEquals("M(2, 2)", product.shortLabel());
+			Assert.assertEquals(type.name(), 50f,  product.floatAt(0, 0), 0f);
+			Assert.assertEquals(type.name(), 53f,  product.floatAt(0, 1), 0f);
+			Assert.assertEquals(type.name(), 350f, product.floatAt(1, 0), 0f);
+			Assert.assertEquals(type.name(), 383f, product.floatAt(1, 1), tolerance(type, 383));
+
+			a.product(b, product, true);
+			Assert.assertEquals(type.name(), 766f, product.floatAt(1, 1), tolerance(type, 766));
+		}
+	}
+
+	@Test
+	public void testBlockedProduct() {
+		Random random = new Random(7);
+		for (TYPE type : new TYPE[] {TYPE.PFLOAT, TYPE.PDOUBLE}) {
+			NumericMatrix a = type.matrix(131, 300).operation((M, i, j) -> M.at(i, j, random.nextGaussian()));
+			NumericMatrix b = type.matrix(300, 517).operation((M, i, j) -> M.at(i, j, random.nextGaussian()));
+
+			NumericMatrix expected = type.matrix(131, 517);
+			Gemm.reference(a, false, b, false, expected, false);
+			NumericMatrix product = a.product(b);
+			expected.operation((M, i, j) -> Assert.assertEquals(M.doubleAt(i, j), product.doubleAt(i, j), 1e-3));
+
+			// Product of views, over a non contiguous output block
+			NumericMatrix into = type.matrix(100, 400);
+			a.block(1, 2, 70, 250).product(b.block(3, 4, 250, 300), into.block(20, 50, 70, 300), false);
+			Gemm.reference(a.block(1, 2, 70, 250), false, b.block(3, 4, 250, 300), false, expected.block(0, 0, 70, 300), false);
+			expected.block(0, 0, 70, 300).operation(
+				(M, i, j) -> Assert.assertEquals(M.doubleAt(i, j), into.doubleAt(20 + i, 50 + j), 1e-3)
+			);
+			Assert.assertEquals(0, into.doubleAt(19, 50), 0);
+			Assert.assertEquals(0, into.doubleAt(20, 49), 0);
+		}
+	}
+
+	@Test
+	public void testOffHeapProduct() throws IOException {
+		Random random = new Random(5);
+		NumericMatrix weights = TYPE.PFLOAT.matrix(200, 300).operation((M, i, j) -> M.at(i, j, random.nextGaussian()));
+		NumericMatrix batch = TYPE.PFLOAT.matrix(30, 300).operation((M, i, j) -> M.at(i, j, random.nextGaussian()));
+		NumericMatrix expected = TYPE.PFLOAT.matrix(30, 200);
+		Gemm.reference(batch, false, weights, true, expected, false);
+
+		Path file = Files.createTempFile("matrix", ".weights");
+		file.toFile().deleteOnExit();
+		MappedFloatMatrix mapped = MappedFloatMatrix.create(file, weights);
+		NumericMatrix offHeap = weights.convert(TYPE.OFFHEAP_FLOAT);
+		for (NumericMatrix operand : new NumericMatrix[] {mapped, offHeap}) {
+			// Heap output, off-heap weights read transposed
+			NumericMatrix product = TYPE.PFLOAT.matrix(30, 200);
+			batch.product(false, operand, true, product, false);
+			expected.operation((M, i, j) -> Assert.assertEquals(M.doubleAt(i, j), product.doubleAt(i, j), 1e-3));
+
+			// Off-heap operands and output block, accumulated
+			NumericMatrix into = TYPE.OFFHEAP_FLOAT.matrix(40, 210);
+			NumericMatrix block = into.block(5, 10, 30, 200);
+			batch.convert(TYPE.OFFHEAP_FLOAT).product(false, operand, true, block, false);
+			batch.product(false, operand, true, block, true);
+			expected.operation((M, i, j) -> Assert.assertEquals(2 * M.doubleAt(i, j), block.doubleAt(i, j), 2e-3));
+			Assert.assertEquals(0, into.doubleAt(4, 10), 0);
+			Assert.assertEquals(0, into.doubleAt(5, 9), 0);
+			Releasable.release(into);
+		}
+		mapped.release();
+		Releasable.release(offHeap);
+	}
+
+	@Test
+	public void testProductNonFinite() {
+		for (TYPE type : new TYPE[] {TYPE.PFLOAT, TYPE.PDOUBLE}) {
+			// A NaN in a reused output is overwritten
+			NumericMatrix a = matrix(type, 2, 3);
+			NumericMatrix b = matrix(type, 3, 2);
+			NumericMatrix into = type.matrix(2, 2).operation((M, i, j) -> M.at(i, j, Float.NaN));
+			a.product(b, into, false);
+			Assert.assertEquals(type.name(), 383f, into.floatAt(1, 1), 0f);
+
+			// 0 · NaN is NaN, as in the naive product
+			NumericMatrix zeros = type.matrix(1, 2);
+			NumericMatrix nan = type.matrix(2, 1).at(0, 0, Float.NaN);
+			Assert.assertTrue(type.name(), Float.isNaN(zeros.product(nan).floatAt(0, 0)));
+		}
+	}
+
+	@Test
+	public void testTransposedProduct() {
+		Random random = new Random(11);
+		for (TYPE type : TYPE.values()) {
+			NumericMatrix a = type.matrix(30, 70).operation((M, i, j) -> M.at(i, j, (float) random.nextGaussian()));
+			NumericMatrix b = type.matrix(20, 70).operation((M, i, j) -> M.at(i, j, (float) random.nextGaussian()));
+
+			// a · bᵀ
+			NumericMatrix product = type.matrix(30, 20);
+			a.product(false, b, true, product, false);
+			NumericMatrix expected = a.product(b.transpose());
+			expected.operation((M, i, j) -> Assert.assertEquals(M.doubleAt(i, j), product.doubleAt(i, j), 1e-4));
+
+			// aᵀ · a
+			NumericMatrix gram = type.matrix(70, 70);
+			a.product(true, a, false, gram, false);
+			NumericMatrix expectedGram = a.transpose().product(a);
+			expectedGram.operation((M, i, j) -> Assert.assertEquals(M.doubleAt(i, j), gram.doubleAt(i, j), 1e-4));
+		}
+	}
+
+	@Test
+	public void testTransposedView() {
+		for (TYPE type : TYPE.values()) {
+			NumericMatrix matrix = matrix(type, 3, 5);
+			NumericMatrix transposed = matrix.transposed();
+			Assert.assertEquals("M(5, 3)", transposed.shortLabel());
+			Assert.assertEquals(24f, transposed.floatAt(4, 2), 0f);
+			Assert.assertSame(matrix, transposed.transposed());
+
+			transposed.at(4, 2, -1f);
+			Assert.assertEquals(type.name(), -1f, matrix.floatAt(2, 4), 0f);
+			Assert.assertEquals(type.name(), 13f, transposed.block(1, 1, 3, 2).floatAt(2, 0), 0f);
+			Assert.assertEquals(type.name(), 12f, transposed.column(1).at(2).floatValue(), 0f);
+
+			// (Mᵀ)ᵀ · Mᵀ = M · Mᵀ, with both operands read from the same buffer
+			NumericMatrix expected = matrix.product(matrix.transpose());
+			NumericMatrix product = transposed.transposed().product(transposed);
+			expected.operation((M, i, j) -> Assert.assertEquals(M.doubleAt(i, j), product.doubleAt(i, j), 1e-4));
+
+			// Product into a transposed view : (M · Mᵀ)ᵀ
+			NumericMatrix into = type.matrix(3, 3);
+			matrix.product(transposed, into.transposed(), false);
+			expected.operation((M, i, j) -> Assert.assertEquals(M.doubleAt(j, i), into.doubleAt(i, j), 1e-4));
+		}
+	}
+
+	@Test
+	public void testApplyTransposed() {
+		for (TYPE type : TYPE.values()) {
+			NumericMatrix matrix = matrix(type, 3, 4);
+			NumericArray x = type.array(3).zero();
+			x.at(0, 1f);
+			x.at(2, 2f);
+
+			NumericArray y = matrix.applyTransposed(x);
+			Assert.assertEquals(4, y.length());
+			Assert.assertEquals(type.name(), 40f, y.at(0).floatValue(), 0f);
+			Assert.assertEquals(type.name(), 49f, y.at(3).floatValue(), 0f);
+
+			// Mixed types : the default line by line loop, into a dirty output
+			for (TYPE other : new TYPE[] {TYPE.PDOUBLE, TYPE.DECIMAL}) {
+				NumericArray into = other.array(4);
+				into.at(3, 7f);
+				matrix.applyTransposed(other == type ? TYPE.PFLOAT.array(3).set(x) : x, into);
+				Assert.assertEquals(type.name() + "/" + other.name(), 40f, into.at(0).floatValue(), 0f);
+				Assert.assertEquals(type.name() + "/" + other.name(), 49f, into.at(3).floatValue(), 0f);
+			}
+
+			NumericArray z = matrix.transposed().applyTransposed(matrix.line(1));
+			Assert.assertEquals(3, z.length());
+			Assert.assertEquals(type.name(), 74f, z.at(0).floatValue(), 0f);
+		}
+	}
+
+	@Test
+	public void testApplyInto() {
+		for (TYPE type : TYPE.values()) {
+			NumericMatrix matrix = matrix(type, 3, 4);
+			NumericArray x = type.array(4).zero();
+			x.at(0, 1f);
+			x.at(2, 2f);
+			x.at(3, 1f);
+
+			for (TYPE intoType : new TYPE[] {type, TYPE.PDOUBLE}) {
+				NumericArray y = intoType.array(3);
+				matrix.apply(x, y);
+				Assert.assertEquals(type.name(), 7f, y.at(0).floatValue(), 0f);
+				Assert.assertEquals(type.name(), 87f, y.at(2).floatValue(), 0f);
+
+				NumericArray z = intoType.array(4);
+				matrix.applyTransposed(type.array(3).oneHot(2), z);
+				Assert.assertEquals(type.name(), 20f, z.at(0).floatValue(), 0f);
+				Assert.assertEquals(type.name(), 23f, z.at(3).floatValue(), 0f);
+			}
+
+			NumericArray t = type.array(3);
+			matrix.transposed().applyTransposed(x, t);
+			Assert.assertEquals(type.name(), 47f, t.at(1).floatValue(), 0f);
+		}
+	}
+
+	@Test
+	public void testOuterAndZero() {
+		for (TYPE type : TYPE.values()) {
+			NumericMatrix matrix = matrix(type, 3, 4);
+			NumericArray a = type.array(3).oneHot(1);
+			a.at(2, 3f);
+			NumericArray b = type.array(4).oneHot(3);
+			b.at(2, 2f);
+
+			matrix.outer(a, b);
+			Assert.assertEquals(type.name(), 6f, matrix.floatAt(2, 2), 0f);
+			Assert.assertEquals(type.name(), 1f, matrix.floatAt(1, 3), 0f);
+			Assert.assertEquals(type.name(), 0f, matrix.floatAt(0, 3), 0f);
+
+			matrix.transposed().outer(b, a);
+			Assert.assertEquals(type.name(), 3f, matrix.floatAt(2, 3), 0f);
+
+			matrix.operation((M, i, j) -> M.at(i, j, 1f)).block(1, 1, 2, 2).zero();
+			Assert.assertEquals(type.name(), 0f, matrix.floatAt(2, 2), 0f);
+			Assert.assertEquals(type.name(), 1f, matrix.floatAt(2, 3), 0f);
+			matrix.transposed().zero();
+			Assert.assertEquals(type.name(), 0f, matrix.floatAt(0, 0), 0f);
+		}
+	}
+
+	@Test
+	public void testAccumulateOuter() {
+		Random random = new Random(7);
+		for (TYPE type : TYPE.values()) {
+			for (boolean sparse : new boolean[] {true, false}) {
+				NumericMatrix matrix = matrix(type, 5, 7);
+				NumericArray a = type.array(5).operation((array, i) -> array.at(i, i == 1 ? 0f : (float) random.nextGaussian()));
+				NumericArray b = type.array(7).operation((array, i) -> array.at(i, sparse && i % 3 != 0 ? 0f : (float) random.nextGaussian()));
+
+				NumericMatrix expected = matrix(type, 5, 7);
+				NumericMatrix outer = type.matrix(5, 7);
+				outer.outer(a, b);
+				expected.axpy(0.5f, outer);
+
+				matrix.accumulateOuter(0.5f, a, b);
+				expected.operation((M, i, j) -> Assert.assertEquals(M.doubleAt(i, j), matrix.doubleAt(i, j), 1e-5 + tolerance(type, M.doubleAt(i, j))));
+
+				NumericMatrix transposed = matrix(type, 7, 5);
+				transposed.transposed().accumulateOuter(0.5f, a, b);
+				expected.operation((M, i, j) -> Assert.assertEquals(M.doubleAt(i, j) - 10 * i - j + 10 * j + i, transposed.doubleAt(j, i), 1e-5 + tolerance(type, 100)));
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadAccumulateOuter() {
+		matrix(TYPE.PFLOAT, 3, 4).accumulateOuter(1f, TYPE.PFLOAT.array(4), TYPE.PFLOAT.array(3));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadApplyInto() {
+		matrix(TYPE.PFLOAT, 3, 4).apply(TYPE.PFLOAT.array(4), TYPE.PFLOAT.array(4));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadApplyTransposed() {
+		matrix(TYPE.PFLOAT, 3, 4).applyTransposed(TYPE.PFLOAT.array(4));
+	}
+
+	@Test
+	public void testFloat16() {
+		Random random = new Random(7);
+		NumericMatrix floats = TYPE.PFLOAT.matrix(17, 33).operation((M, i, j) -> M.at(i, j, random.nextGaussian()));
+		NumericArray x = TYPE.PFLOAT.array(33).operation((array, i) -> array.at(i, (float) random.nextGaussian()));
+		NumericArray y = TYPE.PFLOAT.array(17).operation((array, i) -> array.at(i, (float) random.nextGaussian()));
+		NumericMatrix batch = TYPE.PFLOAT.matrix(5, 33).operation((M, i, j) -> M.at(i, j, random.nextGaussian()));
+
+		for (TYPE type : new TYPE[] {TYPE.HALF, TYPE.BFLOAT16}) {
+			NumericMatrix converted = floats.convert(type);
+			Assert.assertEquals(type, converted.getType());
+			Assert.assertEquals(type, converted.line(3).getType());
+			Assert.assertEquals(TYPE.PFLOAT, type.heap());
+			double epsilon = type == TYPE.HALF ? 0x1p-11 : 0x1p-8;
+			floats.operation((M, i, j) -> Assert.assertEquals(M.doubleAt(i, j), converted.doubleAt(i, j), Math.abs(M.doubleAt(i, j)) * epsilon + 0x1p-24));
+
+			// 16 bits values are decoded exactly : the kernels compute what the float kernels compute on the decoded values
+			NumericMatrix decoded = converted.convert(TYPE.PFLOAT);
+			NumericArray expected = TYPE.PFLOAT.array(17);
+			NumericArray actual = TYPE.PFLOAT.array(17);
+			decoded.apply(x, expected);
+			converted.apply(x, actual);
+			Assert.assertArrayEquals(type.name(), expected.floats(), actual.floats(), 0);
+
+			NumericArray expectedTransposed = TYPE.PFLOAT.array(33);
+			NumericArray actualTransposed = TYPE.PFLOAT.array(33);
+			decoded.applyTransposed(y, expectedTransposed);
+			converted.applyTransposed(y, actualTransposed);
+			Assert.assertArrayEquals(type.name(), expectedTransposed.floats(), actualTransposed.floats(), 0);
+
+			NumericMatrix expectedProduct = TYPE.PFLOAT.matrix(5, 17);
+			NumericMatrix actualProduct = TYPE.PFLOAT.matrix(5, 17);
+			batch.product(false, decoded, true, expectedProduct, false);
+			batch.product(false, converted, true, actualProduct, false);
+			expectedProduct.operation((M, i, j) -> Assert.assertEquals(M.floatAt(i, j), actualProduct.floatAt(i, j), 0));
+
+			NumericMatrix block = converted.block(2, 3, 4, 5);
+			block.mul(2f);
+			Assert.assertEquals(type.name(), 2 * decoded.floatAt(2, 3), converted.floatAt(2, 3), 0);
+			Assert.assertEquals(type.name(), decoded.floatAt(1, 3), converted.floatAt(1, 3), 0);
+			Assert.assertEquals(type.name(), decoded.floatAt(5, 7), converted.transpose().floatAt(7, 5) / 2, 0);
+		}
+	}
+
+	@Test
+	public void testOffHeapRelease() {
+		OffHeapFloatMatrix matrix = (OffHeapFloatMatrix) matrix(TYPE.OFFHEAP_FLOAT, 3, 3);
+		NumericArray line = matrix.line(1);
+		OffHeapFloatMatrix block = matrix.block(1, 1, 2, 2);
+		Assert.assertEquals(11f, block.floatAt(0, 0), 0f);
+
+		block.release();
+		Assert.assertFalse(matrix.isReleased());
+		Assert.assertEquals(11f, line.at(1).floatValue(), 0f);
+
+		matrix.release();
+		matrix.release();
+		Assert.assertTrue(matrix.isReleased());
+		Assert.assertTrue(block.isReleased());
+		Assert.assertTrue(((Releasable) line).isReleased());
+
+		// Any access through a view (or a new view) fails fast instead of reading freed memory
+		for (Runnable access : new Runnable[] {
+			() -> line.at(1),
+			() -> line.at(1, 2f),
+			() -> line.sum(TYPE.PFLOAT.array(3)),
+			() -> block.floatAt(0, 0),
+			() -> matrix.line(0),
+			() -> matrix.line(0).at(0),
+		}) {
+			try {
+				access.run();
+				Assert.fail("Off-heap memory was released");
+			} catch (IllegalStateException e) {
+				Assert.assertTrue(e.getMessage(), e.getMessage().contains("released"));
+			}
+		}
+	}
+
+	@Test
+	public void testMappedMatrix() throws IOException, ClassNotFoundException {
+		Path file = Files.createTempFile("matrix", ".weights");
+		file.toFile().deleteOnExit();
+
+		MappedFloatMatrix written = MappedFloatMatrix.create(file, matrix(TYPE.PFLOAT, 3, 4));
+		Assert.assertEquals(TYPE.OFFHEAP_FLOAT, written.getType());
+		Assert.assertEquals(16 + 3 * 4 * Float.BYTES, Files.size(file));
+		written.line(2).at(3, 42f);
+		written.force();
+
+		MappedFloatMatrix shared = MappedFloatMatrix.open(file, true);
+		Assert.assertEquals("M(3, 4)", shared.shortLabel());
+		Assert.assertEquals(12f, shared.floatAt(1, 2), 0f);
+		Assert.assertEquals(42f, shared.floatAt(2, 3), 0f);
+		Assert.assertEquals(21f, shared.block(1, 1, 2, 2).floatAt(1, 0), 0f);
+		written.at(0, 1, -1f);
+		Assert.assertEquals(-1f, shared.floatAt(0, 1), 0f);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(written);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			MappedFloatMatrix deserialized = (MappedFloatMatrix) in.readObject();
+			Assert.assertTrue(deserialized.isReadOnly());
+			Assert.assertEquals(42f, deserialized.floatAt(2, 3), 0f);
+			deserialized.release();
+		}
+
+		try {
+			shared.at(0, 0, 1f);
+			Assert.fail("A read-only mapped matrix should not be writable");
+		} catch (ReadOnlyBufferException expected) {
+			Assert.assertEquals(0f, shared.floatAt(0, 0), 0f);
+		}
+
+		// Overwrite the file with its own mapped values
+		MappedFloatMatrix rewritten = MappedFloatMatrix.create(file, shared);
+		Assert.assertEquals(42f, rewritten.floatAt(2, 3), 0f);
+		Assert.assertEquals(-1f, rewritten.floatAt(0, 1), 0f);
+		Assert.assertEquals(42f, shared.floatAt(2, 3), 0f);
+		rewritten.release();
+
+		NumericArray line = written.line(0);
+		written.release();
+		shared.release();
+		Assert.assertTrue(written.isReleased());
+		Assert.assertTrue(((Releasable) line).isReleased());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadMappedMatrix() throws IOException {
+		Path file = Files.createTempFile("matrix", ".weights");
+		file.toFile().deleteOnExit();
+		Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20});
+		MappedFloatMatrix.open(file, true);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadProduct() {
+		matrix(TYPE.PFLOAT, 3, 3).product(matrix(TYPE.PFLOAT, 4, 3));
+	}
+
+	@Test
+	public void testProductAliasing() {
+		for (TYPE type : TYPE.values()) {
+			NumericMatrix matrix = matrix(type, 4, 4);
+			NumericMatrix other = matrix(type, 4, 4);
+			assertBadProduct(type, () -> matrix.product(other, matrix, false));
+			assertBadProduct(type, () -> other.product(matrix, matrix, true));
+			assertBadProduct(type, () -> matrix.product(true, other, false, matrix.transposed(), false));
+			assertBadProduct(type, () -> matrix.block(0, 0, 2, 2).product(other.block(0, 0, 2, 2), matrix.block(1, 1, 2, 2), false));
+
+			NumericMatrix expected = matrix.block(0, 0, 2, 2).product(other.block(0, 0, 2, 2));
+			matrix.block(0, 0, 2, 2).product(other.block(0, 0, 2, 2), matrix.block(0, 2, 2, 2), false);
+			matrix.block(0, 0, 2, 2).product(other.block(0, 0, 2, 2), matrix.block(2, 0, 2, 2), false);
+			for (int i = 0; i < 2; i++) {
+				for (int j = 0; j < 2; j++) {
+					Assert.assertEquals(type.name(), expected.doubleAt(i, j), matrix.doubleAt(i, 2 + j), 0);
+					Assert.assertEquals(type.name(), expected.doubleAt(i, j), matrix.doubleAt(2 + i, j), 0);
+				}
+			}
+		}
+	}
+
+	private static void assertBadProduct(TYPE type, Runnable product) {
+		try {
+			product.run();
+			Assert.fail(type.name() + " : product into an operand should fail");
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("overlaps an operand"));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadBlock() {
+		matrix(TYPE.PFLOAT, 3, 3).block(1, 1, 2, 3);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOutOfBounds() {
+		matrix(TYPE.PFLOAT, 3, 3).floatAt(0, 3);
+	}
+
+	/**
+	 * The rounding error allowed for a stored value : a few units in the last place for the 16 bits types, 0 else.
+	 * @param type     the numeric type
+	 * @param expected the expected value
+	 * @return the assertion delta
+	 */
+	private static double tolerance(TYPE type, double expected) {
+		switch (type) {
+			case HALF:     return 4 * Math.abs(expected) * 0x1p-11;
+			case BFLOAT16: return 4 * Math.abs(expected) * 0x1p-8;
+			default:       return 0;
+		}
+	}
+}
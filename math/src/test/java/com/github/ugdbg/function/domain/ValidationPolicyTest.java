@@ -0,0 +1,86 @@
+package com.github.ugdbg.function.domain;
+
+import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.function.vector.Matrix;
+import com.github.ugdbg.vector.Vector;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test case for the {@link ValidationPolicy} of the vector functions domain checks.
+ */
+public class ValidationPolicyTest {
+
+	private static final Vector NAN = Vector.of(1f, Float.NaN);
+
+	private static boolean rejects(Matrix matrix, Vector input) {
+		try {
+			matrix.apply(input);
+			return false;
+		} catch (DomainCheckException e) {
+			return true;
+		}
+	}
+
+	@Test
+	public void testModes() {
+		Assert.assertFalse(ValidationPolicy.off().validate());
+		Assert.assertTrue(ValidationPolicy.always().validate());
+		Assert.assertFalse(ValidationPolicy.sampled(0).validate());
+		Assert.assertTrue(ValidationPolicy.sampled(1).validate());
+
+		ValidationPolicy firstCalls = ValidationPolicy.firstCalls(2);
+		Assert.assertTrue(firstCalls.validate());
+		Assert.assertTrue(firstCalls.validate());
+		Assert.assertFalse(firstCalls.validate());
+		Assert.assertEquals("FIRST_CALLS(2)", firstCalls.toString());
+
+		// A copy counts its own calls
+		ValidationPolicy copy = firstCalls.copy();
+		Assert.assertTrue(copy.validate());
+		Assert.assertEquals("FIRST_CALLS(2)", copy.toString());
+		Assert.assertSame(ValidationPolicy.always(), ValidationPolicy.always().copy());
+
+		int validated = 0;
+		ValidationPolicy sampled = ValidationPolicy.sampled(0.25);
+		for (int i = 0; i < 10000; i++) {
+			validated += sampled.validate() ? 1 : 0;
+		}
+		Assert.assertEquals(2500, validated, 250);
+	}
+
+	@Test
+	public void testFunctionPolicy() {
+		Matrix matrix = new Matrix(2, 2, TYPE.PFLOAT);
+		Assert.assertSame(ValidationPolicy.global(), matrix.validation());
+		Assert.assertTrue(rejects(matrix, NAN));
+
+		matrix.validation(ValidationPolicy.firstCalls(1));
+		Assert.assertFalse(rejects(matrix, Vector.of(1f, 2f)));
+		Assert.assertFalse(rejects(matrix, NAN));
+
+		matrix.validation(ValidationPolicy.off());
+		Assert.assertFalse(rejects(matrix, NAN));
+
+		matrix.validation(ValidationPolicy.always()).domainCheck(false);
+		Assert.assertFalse(rejects(matrix, NAN));
+	}
+
+	@Test
+	public void testGlobalPolicy() {
+		ValidationPolicy global = ValidationPolicy.global();
+		try {
+			ValidationPolicy.global(ValidationPolicy.off());
+			Matrix matrix = new Matrix(2, 2, TYPE.PFLOAT);
+			Assert.assertFalse(rejects(matrix, NAN));
+			Assert.assertTrue(rejects(matrix.validation(ValidationPolicy.always()), NAN));
+		} finally {
+			ValidationPolicy.global(global);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadRate() {
+		ValidationPolicy.sampled(1.5);
+	}
+}
@@ -0,0 +1,163 @@
+package com.github.ugdbg.function.scalar;
+
+import com.github.ugdbg.datatypes.Precision;
+import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.function.domain.DomainCheckException;
+import com.github.ugdbg.vector.Vector;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Test case for the {@link Function} bulk kernels and their vector application.
+ */
+public class FunctionTest {
+
+	private static final List<Function> FUNCTIONS = Arrays.asList(
+		new Sigmoid(1),
+		new Sigmoid(1).derive(),
+		new Tanh(),
+		new Tanh().derive(),
+		new ReLu(),
+		new ReLu().derive(),
+		new Exp(),
+		new Ln(),
+		new Linear(2, -1),
+		new Polynomial(1, -2, 0.5f, 3)
+	);
+
+	private static final float[] INPUT = {0.1f, 0.5f, 1f, 2.5f, 3f, 0.75f};
+
+	@Test
+	public void testBulkKernels() {
+		for (Function function : FUNCTIONS) {
+			float[] floats = new float[INPUT.length + 2];
+			function.applyInto(INPUT, 0, floats, 1, INPUT.length);
+
+			double[] doubles = new double[INPUT.length];
+			for (int i = 0; i < INPUT.length; i++) {
+				doubles[i] = INPUT[i];
+			}
+			function.applyInPlace(doubles, 0, doubles.length);
+
+			for (int i = 0; i < INPUT.length; i++) {
+				Assert.assertEquals(function.label(), function.doApply(INPUT[i]), floats[i + 1], 1e-5);
+				Assert.assertEquals(function.label(), function.doApply(INPUT[i]), doubles[i], 1e-5);
+				Assert.assertEquals(function.label(), function.doApply((double) INPUT[i]), doubles[i], 0);
+			}
+			Assert.assertEquals(0, floats[0], 0);
+			Assert.assertEquals(0, floats[INPUT.length + 1], 0);
+		}
+	}
+
+	@Test
+	public void testTypePreservingApply() {
+		for (TYPE type : TYPE.values()) {
+			Vector out = new Sigmoid(1).precision(Precision.DECIMAL64).apply(Vector.of(type, INPUT));
+			Assert.assertEquals(type.heap(), out.getValue().getType());
+			for (int i = 0; i < INPUT.length; i++) {
+				Assert.assertEquals(type.name(), 1 / (1 + Math.exp(-INPUT[i])), out.at(i).doubleValue(), 1e-6 + tolerance(type, INPUT[i]));
+			}
+		}
+
+		double precise = 1 + 1e-12;
+		Vector doubles = Vector.of(precise);
+		Assert.assertEquals(2 * precise - 1, new Linear(2, -1).apply(doubles).at(0).doubleValue(), 0);
+
+		Vector decimals = Vector.of(BigDecimal.valueOf(precise));
+		Assert.assertEquals(2 * precise - 1, new Linear(2, -1).apply(decimals).at(0).doubleValue(), 0);
+	}
+
+	@Test
+	public void testDecimalApply() {
+		Sigmoid sigmoid = new Sigmoid(1).precision(Precision.DECIMAL128);
+		BigDecimal out = (BigDecimal) sigmoid.apply(Vector.of(BigDecimal.ONE)).at(0);
+		Assert.assertEquals(34, out.precision());
+		Assert.assertEquals(sigmoid.doApply(BigDecimal.ONE), out);
+
+		try {
+			new Ln().apply(Vector.of(BigDecimal.valueOf(-1)));
+			Assert.fail("ln(-1) has no decimal value");
+		} catch (DomainCheckException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("[-1]"));
+		}
+	}
+
+	@Test
+	public void testApplyInPlace() {
+		Vector vector = Vector.of(TYPE.PDOUBLE, INPUT);
+		Assert.assertSame(vector, new Exp().applyInPlace(vector));
+		for (int i = 0; i < INPUT.length; i++) {
+			Assert.assertEquals(Math.exp(INPUT[i]), vector.at(i).doubleValue(), 1e-6);
+		}
+	}
+
+	@Test
+	public void testApproximations() {
+		Function sigmoid = new Sigmoid(1);
+		Function sigmoidPrime = new Sigmoid(1).derive();
+		Function tanh = new Tanh();
+		Function tanhPrime = new Tanh().derive();
+		Function approximateSigmoid = new Sigmoid(1).approximate(true);
+		Function approximateSigmoidPrime = new Sigmoid(1).approximate(true).derive();
+		Function approximateTanh = new Tanh().approximate(true);
+		Function approximateTanhPrime = new Tanh().approximate(true).derive();
+		Exp approximateExp = new Exp().approximate(true);
+
+		for (double x = -20; x <= 20; x += 0.001) {
+			Assert.assertEquals(sigmoid.doApply(x), approximateSigmoid.doApply(x), Approximations.SIGMOID_MAX_ERROR);
+			Assert.assertEquals(sigmoidPrime.doApply(x), approximateSigmoidPrime.doApply(x), Approximations.SIGMOID_MAX_ERROR);
+			Assert.assertEquals(tanh.doApply(x), approximateTanh.doApply(x), Approximations.TANH_MAX_ERROR);
+			Assert.assertEquals(tanhPrime.doApply(x), approximateTanhPrime.doApply(x), 2 * Approximations.TANH_MAX_ERROR);
+		}
+		for (double x = -700; x <= 700; x += 0.01) {
+			double exp = Math.exp(x);
+			Assert.assertEquals(exp, approximateExp.doApply(x), exp * Approximations.EXP_MAX_RELATIVE_ERROR);
+		}
+		Assert.assertEquals(Double.POSITIVE_INFINITY, approximateExp.doApply(1000d), 0);
+		Assert.assertEquals(0, approximateExp.doApply(-1000d), 0);
+		Assert.assertTrue(Double.isNaN(approximateSigmoid.doApply(Double.NaN)));
+
+		float[] floats = new float[INPUT.length];
+		approximateSigmoid.applyInto(INPUT, 0, floats, 0, INPUT.length);
+		for (int i = 0; i < INPUT.length; i++) {
+			Assert.assertEquals(sigmoid.doApply(INPUT[i]), floats[i], Approximations.SIGMOID_MAX_ERROR);
+		}
+		for (float x = -80; x <= 80; x += 0.01f) {
+			double exp = Math.exp(x);
+			Assert.assertEquals(exp, approximateExp.doApply(x), exp * 2 * Approximations.EXP_MAX_RELATIVE_ERROR);
+		}
+		Assert.assertEquals(Float.POSITIVE_INFINITY, approximateExp.doApply(100f), 0);
+		Assert.assertEquals(0, approximateExp.doApply(-120f), 0);
+		Assert.assertTrue(Float.isNaN(approximateSigmoid.doApply(Float.NaN)));
+		Assert.assertTrue(approximateExp.isApproximate());
+		Assert.assertFalse(new Exp().isApproximate());
+	}
+
+	@Test(expected = DomainCheckException.class)
+	public void testBulkDomainCheck() {
+		new Ln().domainCheck(true).applyInto(new double[] {1, 2, -3}, 0, new double[3], 0, 3);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadApplyInto() {
+		new Tanh().applyInto(Vector.of(1f, 2f), Vector.of(TYPE.PFLOAT, 3));
+	}
+
+	/**
+	 * The rounding error allowed for a stored value : a few units in the last place for the 16 bits types, 0 else.
+	 * @param type     the numeric type
+	 * @param expected the expected value
+	 * @return the assertion delta
+	 */
+	private static double tolerance(TYPE type, double expected) {
+		switch (type) {
+			case HALF:     return 4 * Math.abs(expected) * 0x1p-11;
+			case BFLOAT16: return 4 * Math.abs(expected) * 0x1p-8;
+			default:       return 0;
+		}
+	}
+}
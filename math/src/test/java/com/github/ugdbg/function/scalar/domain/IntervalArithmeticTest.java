@@ -0,0 +1,91 @@
+package com.github.ugdbg.function.scalar.domain;
+
+import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.function.domain.Domain;
+import com.github.ugdbg.function.scalar.Exp;
+import com.github.ugdbg.function.scalar.Linear;
+import com.github.ugdbg.function.scalar.Ln;
+import com.github.ugdbg.function.scalar.Polynomial;
+import com.github.ugdbg.function.scalar.Sigmoid;
+import com.github.ugdbg.function.vector.Matrix;
+import com.github.ugdbg.function.vector.SoftMax;
+import com.github.ugdbg.function.vector.domain.VDomain;
+import com.github.ugdbg.vector.Vector;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Test case for the {@link IntervalArithmetic} domain proofs.
+ */
+public class IntervalArithmeticTest {
+
+	private static final Domain<Float> UNIT = IntervalArithmetic.closed(0, 1);
+
+	@Test
+	public void testOperations() {
+		Domain<Float> x = IntervalArithmetic.closed(-1, 2);
+		Domain<Float> y = IntervalArithmetic.closed(3, 4);
+		Assert.assertEquals(Intervals.of(2f, false, 6f, false), Intervals.of(IntervalArithmetic.add(x, y)));
+		Assert.assertEquals(Intervals.of(-4f, false, 8f, false), Intervals.of(IntervalArithmetic.multiply(x, y)));
+		Assert.assertEquals(Intervals.of(-3f, false, 3f, false), Intervals.of(IntervalArithmetic.linear(x, -2, 1)));
+		Assert.assertNull(IntervalArithmetic.divide(y, x));
+		Assert.assertNull(IntervalArithmetic.multiply(Domains.R_CLOSED, IntervalArithmetic.closed(0, 0)));
+		Assert.assertNull(IntervalArithmetic.closed(1, 0));
+
+		Segment third = IntervalArithmetic.closed(1 / 3d, 1 / 3d);
+		Assert.assertTrue(third.isIn(third.intervals().min()));
+		Assert.assertTrue(third.intervals().min() < 1 / 3d && third.intervals().max() > 1 / 3d);
+	}
+
+	@Test
+	public void testIncludes() {
+		Assert.assertTrue(IntervalArithmetic.includes(Domains.R_PLUS_CLOSED, UNIT));
+		Assert.assertTrue(IntervalArithmetic.includes(null, UNIT));
+		Assert.assertFalse(IntervalArithmetic.includes(Domains.R_PLUS_STAR, UNIT));
+		Assert.assertFalse(IntervalArithmetic.includes(Domains.R_PLUS_CLOSED, null));
+		Assert.assertTrue(IntervalArithmetic.includes(Domains.R_STAR, IntervalArithmetic.closed(1, 2)));
+	}
+
+	@Test
+	public void testFunctionImages() {
+		Intervals sigmoid = Intervals.of(new Sigmoid(1).image(Domains.R_CLOSED));
+		Assert.assertEquals(0, sigmoid.min(), 0);
+		Assert.assertEquals(1, sigmoid.max(), 0);
+
+		Intervals polynomial = Intervals.of(new Polynomial(1, -2, 1).image(UNIT));
+		for (float x = 0; x <= 1; x += 0.01f) {
+			Assert.assertTrue(polynomial.isIn(new Polynomial(1, -2, 1).apply(x)));
+		}
+	}
+
+	@Test
+	public void testComposedFunctionsSafety() {
+		Assert.assertTrue(new Ln().isSafe(UNIT));
+		Assert.assertFalse(new Ln().isSafe(Domains.R_CLOSED));
+		Assert.assertTrue(new Ln().compose(new Exp()).isSafe(Domains.R_CLOSED));
+		Assert.assertTrue(new Ln().compose(new Sigmoid(1)).isSafe(Domains.R_CLOSED));
+		Assert.assertFalse(new Ln().compose(new Linear(1, -1)).isSafe(UNIT));
+		Assert.assertTrue(new Ln().compose(new Linear(1, 1)).isSafe(UNIT));
+		Assert.assertNull(new Ln().compose(new Linear(1, -1)).image(UNIT));
+	}
+
+	@Test
+	public void testVectorImages() {
+		Matrix matrix = Matrix.of(TYPE.PFLOAT, Arrays.asList(
+			Vector.of(1f, -2f, 0f),
+			Vector.of(0.5f, 0.5f, 0.5f)
+		));
+		VDomain image = matrix.image(VDomain.of(UNIT, 3));
+		Assert.assertEquals(2, image.dimension());
+		Assert.assertEquals(Intervals.of(-2f, false, 1f, false), Intervals.of(image.domain(0)));
+		Assert.assertEquals(Intervals.of(0f, false, 1.5f, false), Intervals.of(image.domain(1)));
+		Assert.assertNull(matrix.image(VDomain.of(UNIT, 2)));
+
+		Assert.assertTrue(new Ln().vectorial().isSafe(VDomain.of(UNIT, 3)));
+		Assert.assertFalse(new Ln().vectorial().isSafe(image));
+		Assert.assertTrue(new Ln().vectorial().isSafe(new SoftMax().image(image)));
+		Assert.assertTrue(VDomain.of(Domains.R_PLUS_CLOSED, 2).includes(new SoftMax().image(image)));
+	}
+}
@@ -0,0 +1,66 @@
+package com.github.ugdbg.function.scalar.domain;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test case for the {@link Intervals} primitive domain representation.
+ */
+public class IntervalsTest {
+
+	@Test
+	public void testSegment() {
+		Intervals closed = Intervals.of(new Segment(0f, 1f).open(false, false));
+		Assert.assertEquals(1, closed.size());
+		Assert.assertTrue(closed.isIn(0f));
+		Assert.assertTrue(closed.isIn(1f));
+		Assert.assertFalse(closed.isIn(1.0001f));
+		Assert.assertFalse(closed.isIn(Float.NaN));
+
+		Intervals open = Intervals.of(new Segment(0f, 1f));
+		Assert.assertFalse(open.isIn(0f));
+		Assert.assertFalse(open.isIn(1f));
+		Assert.assertTrue(open.isIn(0.5f));
+		Assert.assertEquals("]0.0, 1.0[", open.toString());
+	}
+
+	@Test
+	public void testReopenedSegment() {
+		Segment segment = new Segment(0f, 1f);
+		Assert.assertFalse(segment.isIn(0f));
+		segment.open(false, true);
+		Assert.assertTrue(segment.isIn(0f));
+		Assert.assertEquals(Intervals.of(0f, false, 1f, true), segment.intervals());
+	}
+
+	@Test
+	public void testUnion() {
+		Intervals rStar = Intervals.of(Domains.R_STAR);
+		Assert.assertEquals(2, rStar.size());
+		Assert.assertFalse(rStar.isIn(0f));
+		Assert.assertTrue(rStar.isIn(-1f));
+		Assert.assertTrue(rStar.isIn(1f));
+		Assert.assertFalse(rStar.isIn(Float.POSITIVE_INFINITY));
+	}
+
+	@Test
+	public void testFirstOutside() {
+		Intervals rPlus = Intervals.of(Domains.R_PLUS);
+		Assert.assertEquals(-1, rPlus.firstOutside(new float[] {-1f, 0f, 2f, 3f}, 1, 3));
+		Assert.assertEquals(0, rPlus.firstOutside(new float[] {-1f, 0f, 2f, 3f}, 0, 4));
+		Assert.assertEquals(3, rPlus.firstOutside(new double[] {-1, 0, 2, Double.NaN}, 1, 3));
+		Assert.assertEquals(-1, rPlus.firstOutside(new double[0], 0, 0));
+
+		Intervals rStar = Intervals.of(Domains.R_STAR);
+		Assert.assertEquals(-1, rStar.firstOutside(new float[] {-1f, 2f}, 0, 2));
+		Assert.assertEquals(2, rStar.firstOutside(new double[] {-1, 2, 0}, 0, 3));
+	}
+
+	@Test
+	public void testEmpty() {
+		Intervals empty = Intervals.of(new Segment(0f, 0f).open(true, true));
+		Assert.assertFalse(empty.isIn(0f));
+		Assert.assertEquals(0, empty.firstOutside(new float[] {0f}, 0, 1));
+		Assert.assertEquals("∅", Intervals.of(new Union()).toString());
+	}
+}
@@ -4,6 +4,9 @@ import com.github.ugdbg.function.domain.Domain;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.Iterator;
+
 /**
  * Test case for the {@link Union} domain.
  */
@@ -36,7 +39,8 @@ public class UnionTest {
 		Assert.assertTrue(union.isIn(2.5f));
 		Assert.assertTrue(union.isIn(3f));
 		
-		Assert.assertEquals("[0.0, 2.0[ ⋃ ]1.0, 3.0]", union.toString());
+		Assert.assertEquals(1, union.size());
+		Assert.assertEquals("[0.0, 3.0]", union.toString());
 	}
 	
 	@Test
@@ -71,7 +75,9 @@ public class UnionTest {
 		Assert.assertTrue(union.compareTo(other) > 0);
 
 		union = union.union(other);
-		Assert.assertEquals("]-7.0, -5.0[", union.lowest().toString());
+		Assert.assertEquals(Domains.R_MINUS_STAR, union.lowest());
+		Assert.assertEquals("ℝ-*", union.lowest().toString());
+		Assert.assertEquals(2, union.size());
 	}
 	
 	@Test
@@ -92,5 +98,66 @@ public class UnionTest {
 		Assert.assertTrue(union.isEmpty());
 		Assert.assertEquals("∅", union.toString());
 	}
-	
+
+	@Test
+	public void testAdjacentSegmentsMerge() {
+		Union union = new Union(
+			new Segment(4f, 5f),
+			new Segment(0f, 1f).open(false, false),
+			new Segment(1f, 2f),
+			new Segment(2f, 3f).open(false, true),
+			new Segment(3f, 4f)
+		);
+		Assert.assertEquals("[0.0, 3.0[ ⋃ ]3.0, 4.0[ ⋃ ]4.0, 5.0[", union.toString());
+		Assert.assertEquals(3, union.intervals().size());
+		Assert.assertTrue(union.isIn(1f));
+		Assert.assertTrue(union.isIn(2f));
+		Assert.assertFalse(union.isIn(3f));
+		Assert.assertFalse(union.isIn(4f));
+		Assert.assertFalse(union.isIn(5f));
+		Assert.assertFalse(union.isIn(-1f));
+		Assert.assertFalse(union.isIn(Float.NaN));
+
+		union = union.union(new Segment(3f, 4f).open(false, false));
+		Assert.assertEquals("[0.0, 5.0[", union.toString());
+	}
+
+	@Test
+	public void testInterMerge() {
+		Union union = new Union(new Segment(0f, 2f), new Segment(4f, 6f).open(false, false), new Segment(8f, 10f));
+		Union inter = union.inter(new Union(new Segment(1f, 5f), new Segment(6f, 9f).open(false, false)));
+		Assert.assertEquals("]1.0, 2.0[ ⋃ [4.0, 5.0[ ⋃ [6.0, 6.0] ⋃ ]8.0, 9.0]", inter.toString());
+		Assert.assertTrue(inter.isIn(6f));
+		Assert.assertFalse(inter.isIn(7f));
+
+		Assert.assertEquals("]1.0, 2.0[ ⋃ [4.0, 5.0[", new Segment(1f, 5f).inter(union).toString());
+		Assert.assertEquals(union, union.inter(Domains.R));
+	}
+
+	@Test
+	public void testIndexIsReset() {
+		Union union = new Union(new Segment(0f, 1f), new Segment(2f, 3f), new Segment(4f, 5f));
+		Assert.assertTrue(union.isIn(2.5f));
+
+		union.removeIf(domain -> domain.isIn(2.5f));
+		Assert.assertFalse(union.isIn(2.5f));
+		Assert.assertTrue(union.isIn(4.5f));
+
+		Iterator<Domain<Float>> iterator = union.iterator();
+		iterator.next();
+		iterator.remove();
+		Assert.assertFalse(union.isIn(0.5f));
+
+		union.retainAll(Collections.emptyList());
+		Assert.assertFalse(union.isIn(4.5f));
+
+		union.add(new Segment(0f, 1f));
+		Assert.assertTrue(union.isIn(0.5f));
+		try {
+			union.headSet(new Segment(2f, 3f), true).clear();
+			Assert.fail("A subset view should be read-only");
+		} catch (UnsupportedOperationException e) {
+			Assert.assertTrue(union.isIn(0.5f));
+		}
+	}
 }
@@ -0,0 +1,99 @@
+package com.github.ugdbg.function.vector;
+
+import com.github.ugdbg.datatypes.Precision;
+import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.vector.Vector;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Test case for the {@link SoftMax} function and its Jacobian-vector product.
+ */
+public class SoftMaxTest {
+
+	@Test
+	public void testSoftMax() {
+		double sum = Math.exp(1) + Math.exp(2) + Math.exp(3);
+		for (TYPE type : TYPE.values()) {
+			Vector out = new SoftMax().apply(Vector.of(type, 1f, 2f, 3f));
+			Assert.assertEquals(type.heap(), out.getValue().getType());
+			Assert.assertEquals(type.name(), Math.exp(1) / sum, out.at(0).doubleValue(), 1e-6);
+			Assert.assertEquals(type.name(), Math.exp(3) / sum, out.at(2).doubleValue(), 1e-6);
+			Assert.assertEquals(type.name(), 1, out.getValue().sum().doubleValue(), 1e-6);
+		}
+	}
+
+	@Test
+	public void testLargeInputs() {
+		for (TYPE type : TYPE.values()) {
+			Vector out = new SoftMax().apply(Vector.of(type, 1000f, 1000f, -1000f));
+			Assert.assertEquals(type.name(), 0.5, out.at(0).doubleValue(), 1e-6);
+			Assert.assertEquals(type.name(), 0.5, out.at(1).doubleValue(), 1e-6);
+			Assert.assertEquals(type.name(), 0, out.at(2).doubleValue(), 1e-6);
+		}
+	}
+
+	@Test
+	public void testDecimalPrecision() {
+		Vector out = new SoftMax().precision(Precision.DECIMAL32).apply(Vector.of(TYPE.DECIMAL, 0f, 0f, 0f));
+		Assert.assertEquals(new BigDecimal("0.3333333"), out.at(0));
+	}
+
+	@Test
+	public void testApplyInto() {
+		Vector input = Vector.of(0.5f, -2f, 4f, 1f);
+		Vector into = Vector.of(TYPE.PFLOAT, 4);
+		SoftMax softMax = new SoftMax();
+
+		Assert.assertSame(into, softMax.applyInto(input, into));
+		Assert.assertArrayEquals(softMax.apply(input).floats(), into.floats(), 0f);
+
+		softMax.applyInto(input, input);
+		Assert.assertArrayEquals(into.floats(), input.floats(), 0f);
+	}
+
+	@Test
+	public void testJacobianProduct() {
+		Random random = new Random(3);
+		for (TYPE type : new TYPE[] {TYPE.PFLOAT, TYPE.PDOUBLE, TYPE.DECIMAL}) {
+			Vector x = Vector.of(type, 7);
+			Vector v = Vector.of(type, 7);
+			for (int i = 0; i < 7; i++) {
+				x.at(i, (float) random.nextGaussian() * 3);
+				v.at(i, (float) random.nextGaussian());
+			}
+
+			SoftMax softMax = new SoftMax();
+			Vector y = softMax.apply(x);
+			Vector product = softMax.jacobianProduct(x, v);
+			for (int i = 0; i < 7; i++) {
+				double expected = 0;
+				for (int j = 0; j < 7; j++) {
+					double jacobian = y.at(j).doubleValue() * ((i == j ? 1 : 0) - y.at(i).doubleValue());
+					expected += jacobian * v.at(j).doubleValue();
+				}
+				Assert.assertEquals(type.name(), expected, product.at(i).doubleValue(), 1e-6);
+			}
+
+			Vector derivative = softMax.derive().apply(x);
+			Vector expected = softMax.jacobianProduct(x, x);
+			for (int i = 0; i < 7; i++) {
+				Assert.assertEquals(type.name(), expected.at(i).doubleValue(), derivative.at(i).doubleValue(), 1e-12);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadDimension() {
+		new SoftMax().applyInto(Vector.of(1f, 2f, 3f), Vector.of(TYPE.PFLOAT, 2));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testJacobianProductIntoMultipliedVector() {
+		Vector v = Vector.of(1f, 2f, 3f);
+		new SoftMax().jacobianProductInto(Vector.of(0f, 1f, 0f), v, v);
+	}
+}
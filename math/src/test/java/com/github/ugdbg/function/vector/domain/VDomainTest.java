@@ -1,5 +1,6 @@
 package com.github.ugdbg.function.vector.domain;
 
+import com.github.ugdbg.datatypes.TYPE;
 import com.github.ugdbg.function.domain.Domain;
 import com.github.ugdbg.function.scalar.domain.Domains;
 import com.github.ugdbg.function.scalar.domain.Segment;
@@ -141,4 +142,17 @@ public class VDomainTest {
 		Assert.assertFalse(segmentN.isIn(Vector.of(0f, 0.5f, 1.001f, 0f)));
 		Assert.assertFalse(segmentN.isIn(Vector.of(0f, 0.5f, 0.7f, -0.02f, 0.3f)));
 	}
+
+	@Test
+	public void test_primitiveTypes() {
+		VDomain r3Plus = VDomains.R_plus(3);
+		for (TYPE type : TYPE.values()) {
+			Assert.assertTrue(type.name(), r3Plus.isIn(Vector.of(type, 0f, 1f, 2f)));
+			Assert.assertFalse(type.name(), r3Plus.isIn(Vector.of(type, 0f, -1f, 2f)));
+		}
+
+		VDomain mixed = VDomains.R(2).inter(Domains.R_PLUS).union(new Segment[] {new Segment(-2f, -1f)});
+		Assert.assertTrue(mixed.isIn(Vector.of(-1.5, 3)));
+		Assert.assertFalse(mixed.isIn(Vector.of(-0.5, 3)));
+	}
 }
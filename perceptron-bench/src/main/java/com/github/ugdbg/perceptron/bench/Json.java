@@ -0,0 +1,87 @@
+package com.github.ugdbg.perceptron.bench;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A minimal JSON writer for the benchmark results : maps, collections, numbers, booleans, strings and null.
+ */
+final class Json {
+	
+	private Json() {}
+
+	/**
+	 * Write a value as indented JSON.
+	 * @param value the value to write
+	 * @return the JSON representation of the value
+	 * @throws IllegalArgumentException if the value (or a nested value) cannot be written as JSON
+	 */
+	static String write(Object value) {
+		StringBuilder json = new StringBuilder();
+		write(value, json, "");
+		return json.append('\n').toString();
+	}
+	
+	private static void write(Object value, StringBuilder json, String indent) {
+		if (value == null) {
+			json.append("null");
+		} else if (value instanceof Map) {
+			write(((Map<?, ?>) value).entrySet().iterator(), '{', '}', json, indent);
+		} else if (value instanceof Collection) {
+			write(((Collection<?>) value).iterator(), '[', ']', json, indent);
+		} else if (value instanceof Double || value instanceof Float) {
+			double number = ((Number) value).doubleValue();
+			json.append(Double.isFinite(number) ? String.valueOf(number) : "null");
+		} else if (value instanceof Number || value instanceof Boolean) {
+			json.append(value);
+		} else if (value instanceof CharSequence || value instanceof Enum) {
+			string(value.toString(), json);
+		} else {
+			throw new IllegalArgumentException("Unsupported JSON value type [" + value.getClass() + "]");
+		}
+	}
+	
+	private static void write(Iterator<?> values, char open, char close, StringBuilder json, String indent) {
+		json.append(open);
+		if (! values.hasNext()) {
+			json.append(close);
+			return;
+		}
+		String inner = indent + "  ";
+		while (values.hasNext()) {
+			Object value = values.next();
+			json.append('\n').append(inner);
+			if (value instanceof Map.Entry) {
+				string(String.valueOf(((Map.Entry<?, ?>) value).getKey()), json);
+				json.append(": ");
+				value = ((Map.Entry<?, ?>) value).getValue();
+			}
+			write(value, json, inner);
+			if (values.hasNext()) {
+				json.append(',');
+			}
+		}
+		json.append('\n').append(indent).append(close);
+	}
+	
+	private static void string(String value, StringBuilder json) {
+		json.append('"');
+		for (char c : value.toCharArray()) {
+			switch (c) {
+				case '"':  json.append("\\\""); break;
+				case '\\': json.append("\\\\"); break;
+				case '\n': json.append("\\n");  break;
+				case '\r': json.append("\\r");  break;
+				case '\t': json.append("\\t");  break;
+				default:
+					if (c < 0x20) {
+						json.append(String.format("\\u%04x", (int) c));
+					} else {
+						json.append(c);
+					}
+			}
+		}
+		json.append('"');
+	}
+}
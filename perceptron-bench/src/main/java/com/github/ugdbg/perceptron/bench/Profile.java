@@ -0,0 +1,47 @@
+package com.github.ugdbg.perceptron.bench;
+
+/**
+ * The default {@link Settings} of a benchmark run, selected with the 'bench.profile' system property.
+ * <ul>
+ *     <li>{@link #QUICK} : a smoke run, a few seconds</li>
+ *     <li>{@link #DEFAULT} : the usual layer sizes, batch sizes and thread counts, a few minutes</li>
+ *     <li>{@link #FULL} : every configuration, including the large 2000 neurons layer</li>
+ * </ul>
+ * Every setting of a profile can be overridden with its own system property (see {@link Settings}).
+ */
+enum Profile {
+	QUICK  ("30",               "10",                 "2",     1000,  1, 1, 1000),
+	DEFAULT("200;200,100",      "10,30,100",          "2,4",   5000,  2, 1, 5000),
+	FULL   ("30;200;2000,200",  "1,10,30,100,300",    "2,4,8", 20000, 3, 1, 20000);
+	
+	/** Hidden layer sizes of every network topology, separated by ';'. Input and output sizes are implicit. */
+	final String topologies;
+	
+	/** Training batch sizes, separated by ','. */
+	final String batchSizes;
+	
+	/** Thread counts of the parallel executor, separated by ','. */
+	final String threads;
+	
+	/** Number of synthetic images to train with. */
+	final int samples;
+	
+	/** Number of timed training steps (i.e. epochs) over the samples. */
+	final int steps;
+	
+	/** Number of training steps before the timed steps. */
+	final int warmup;
+	
+	/** Number of timed inference calls. */
+	final int inferences;
+
+	Profile(String topologies, String batchSizes, String threads, int samples, int steps, int warmup, int inferences) {
+		this.topologies = topologies;
+		this.batchSizes = batchSizes;
+		this.threads = threads;
+		this.samples = samples;
+		this.steps = steps;
+		this.warmup = warmup;
+		this.inferences = inferences;
+	}
+}
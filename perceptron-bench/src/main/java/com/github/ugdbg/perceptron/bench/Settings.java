@@ -0,0 +1,117 @@
+package com.github.ugdbg.perceptron.bench;
+
+import com.github.ugdbg.datatypes.TYPE;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The settings of a benchmark run : a {@link Profile}, whose values can be overridden with system properties.
+ * <ul>
+ *     <li>bench.profile    : the {@link Profile} name (quick, default, full). Defaults to 'default'.</li>
+ *     <li>bench.types      : the network {@link TYPE}s, separated by ','. Defaults to PFLOAT.</li>
+ *     <li>bench.topologies : the hidden layer sizes of every topology, separated by ';' (e.g. '200;2000,200')</li>
+ *     <li>bench.batchSizes : the training batch sizes, separated by ','</li>
+ *     <li>bench.executors  : the training executors among {@link ExecutorType}, separated by ','. Defaults to all.</li>
+ *     <li>bench.threads    : the thread counts of the parallel executor, separated by ','</li>
+ *     <li>bench.samples    : the number of synthetic training images</li>
+ *     <li>bench.steps      : the number of timed training steps</li>
+ *     <li>bench.warmup     : the number of training steps before the timed steps</li>
+ *     <li>bench.inferences : the number of timed inference calls</li>
+ *     <li>bench.seed       : the synthetic dataset seed. Defaults to 0.</li>
+ *     <li>bench.output     : the JSON result file. Defaults to 'throughput-[profile].json'.</li>
+ * </ul>
+ */
+class Settings {
+	
+	/**
+	 * How the network is trained.
+	 */
+	enum ExecutorType {
+		/** Mini-batches fed forward and back-propagated as matrices : {@link com.github.ugdbg.perceptron.NeuronNetwork#train(List, int, float, int)} */
+		MATRIX,
+		
+		/** Samples back-propagated one by one, in the calling thread */
+		SEQUENTIAL,
+		
+		/** Samples back-propagated one by one, in a thread pool, for every {@link #threads} count */
+		PARALLEL
+	}
+	
+	final Profile profile;
+	final List<TYPE> types;
+	final List<int[]> topologies;
+	final List<Integer> batchSizes;
+	final List<ExecutorType> executors;
+	final List<Integer> threads;
+	final int samples;
+	final int steps;
+	final int warmup;
+	final int inferences;
+	final long seed;
+	final Path output;
+
+	private Settings(Profile profile) {
+		this.profile    = profile;
+		this.types      = parse(property("types", "PFLOAT"), ",", TYPE::valueOf);
+		this.topologies = parse(property("topologies", profile.topologies), ";", Settings::topology);
+		this.batchSizes = parse(property("batchSizes", profile.batchSizes), ",", Integer::valueOf);
+		this.executors  = parse(property("executors", "matrix,sequential,parallel"), ",", ExecutorType::valueOf);
+		this.threads    = parse(property("threads", profile.threads), ",", Integer::valueOf);
+		this.samples    = Integer.parseInt(property("samples", String.valueOf(profile.samples)));
+		this.steps      = Integer.parseInt(property("steps", String.valueOf(profile.steps)));
+		this.warmup     = Integer.parseInt(property("warmup", String.valueOf(profile.warmup)));
+		this.inferences = Integer.parseInt(property("inferences", String.valueOf(profile.inferences)));
+		this.seed       = Long.parseLong(property("seed", "0"));
+		this.output     = Paths.get(property("output", "throughput-" + profile.name().toLowerCase() + ".json"));
+	}
+
+	/**
+	 * Read the settings from the 'bench.*' system properties.
+	 * @return a new Settings instance
+	 * @throws IllegalArgumentException if a property value is invalid
+	 */
+	static Settings fromSystemProperties() {
+		return new Settings(parse(property("profile", Profile.DEFAULT.name()), Profile::valueOf));
+	}
+
+	/**
+	 * A label for a network topology : every layer size, from the input to the output.
+	 * @param topology the hidden layer sizes
+	 * @return the topology label, e.g. '784-200-10'
+	 */
+	static String label(int[] topology) {
+		return SyntheticMNIST.SIZE + "-" 
+			+ Arrays.stream(topology).mapToObj(String::valueOf).collect(Collectors.joining("-")) 
+			+ "-" + SyntheticMNIST.CLASSES;
+	}
+
+	private static String property(String name, String defaultValue) {
+		return System.getProperty("bench." + name, defaultValue);
+	}
+	
+	private static int[] topology(String hiddenLayers) {
+		return Arrays.stream(hiddenLayers.split(",")).mapToInt(Integer::parseInt).toArray();
+	}
+
+	private static <T> List<T> parse(String value, String separator, Function<String, T> parser) {
+		List<T> values = new ArrayList<>();
+		for (String token : value.split(separator)) {
+			values.add(parse(token, parser));
+		}
+		return values;
+	}
+
+	private static <T> T parse(String value, Function<String, T> parser) {
+		try {
+			return parser.apply(value.trim().toUpperCase());
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Invalid benchmark setting [" + value + "]", e);
+		}
+	}
+}
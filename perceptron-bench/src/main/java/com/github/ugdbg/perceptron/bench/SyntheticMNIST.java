@@ -0,0 +1,100 @@
+package com.github.ugdbg.perceptron.bench;
+
+import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.perceptron.NeuronNetwork;
+import com.github.ugdbg.vector.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A deterministic MNIST-shaped dataset : {@link #SIZE} pixel images in [0, 1] and {@link #CLASSES} labels.
+ * <br>
+ * Every class has a random prototype image, with about 20% of lit pixels (like MNIST digits).
+ * An image is the prototype of its class, with noise on the lit pixels and a few lit pixels moved.
+ * <br>
+ * The same seed always generates the same images : no download is required and runs can be compared.
+ */
+class SyntheticMNIST {
+	/** 28 x 28 pixels */
+	static final int SIZE = 784;
+	
+	/** 10 digits */
+	static final int CLASSES = 10;
+	
+	private static final float LIT_RATIO = 0.2f;
+	private static final float MOVED_RATIO = 0.05f;
+	
+	private final List<Vector> images;
+	private final int[] labels;
+
+	/**
+	 * Generate a synthetic dataset.
+	 * @param type the images vector type
+	 * @param size the number of images
+	 * @param seed the random seed
+	 */
+	SyntheticMNIST(TYPE type, int size, long seed) {
+		Random random = new Random(seed);
+		float[][] prototypes = new float[CLASSES][SIZE];
+		for (float[] prototype : prototypes) {
+			for (int i = 0; i < SIZE; i++) {
+				prototype[i] = random.nextFloat() < LIT_RATIO ? 0.5f + random.nextFloat() / 2 : 0f;
+			}
+		}
+		
+		this.images = new ArrayList<>(size);
+		this.labels = new int[size];
+		for (int n = 0; n < size; n++) {
+			float[] pixels = new float[SIZE];
+			int label = random.nextInt(CLASSES);
+			for (int i = 0; i < SIZE; i++) {
+				float pixel = prototypes[label][i];
+				pixels[i] = pixel == 0 ? 0 : Math.min(1f, Math.max(0f, pixel + (float) random.nextGaussian() / 10));
+			}
+			for (int moved = 0; moved < SIZE * LIT_RATIO * MOVED_RATIO; moved++) {
+				pixels[random.nextInt(SIZE)] = 0;
+				pixels[random.nextInt(SIZE)] = random.nextFloat();
+			}
+			this.images.add(Vector.of(type, pixels));
+			this.labels[n] = label;
+		}
+	}
+
+	/**
+	 * The number of images.
+	 * @return the dataset size
+	 */
+	int size() {
+		return this.images.size();
+	}
+
+	/**
+	 * The image at the given index.
+	 * @param at the image index
+	 * @return the image vector
+	 */
+	Vector image(int at) {
+		return this.images.get(at);
+	}
+
+	/**
+	 * Create the network training inputs. The list can be shuffled by the training.
+	 * @return a new list of inputs, one per image
+	 */
+	List<NeuronNetwork.Input> inputs() {
+		List<NeuronNetwork.Input> inputs = new ArrayList<>(this.size());
+		for (int i = 0; i < this.size(); i++) {
+			inputs.add(new NeuronNetwork.Input(this.images.get(i), this.labels[i]));
+		}
+		return inputs;
+	}
+
+	/**
+	 * Free the memory of the images if they are off-heap. Do nothing else.
+	 */
+	void release() {
+		this.images.forEach(Vector::release);
+	}
+}
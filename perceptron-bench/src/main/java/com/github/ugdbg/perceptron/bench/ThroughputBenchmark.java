@@ -0,0 +1,214 @@
+package com.github.ugdbg.perceptron.bench;
+
+import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.function.scalar.Sigmoid;
+import com.github.ugdbg.perceptron.NeuronNetwork;
+import com.github.ugdbg.vector.Vector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * End-to-end throughput of a {@link NeuronNetwork}, on a {@link SyntheticMNIST} dataset :
+ * <ul>
+ *     <li>training : samples per second, for every type, topology, executor, thread count and batch size</li>
+ *     <li>inference : {@link NeuronNetwork#feedForward(Vector)} and {@link NeuronNetwork#predict(Vector)} latency percentiles</li>
+ * </ul>
+ * Every network has sigmoid activations. The run is configured with system properties (see {@link Settings}) 
+ * and the results are written as JSON to the 'bench.output' file, so that runs can be compared.
+ * <br>
+ * Example : java -Dbench.profile=quick -Dbench.types=PFLOAT,OFFHEAP_FLOAT -jar perceptron-bench/target/throughput.jar
+ */
+public class ThroughputBenchmark {
+	
+	private static final Logger logger = LoggerFactory.getLogger(ThroughputBenchmark.class);
+	
+	private static final float LEARNING_RATE = 0.5f;
+	
+	private final Settings settings;
+	private final List<Map<String, Object>> training = new ArrayList<>();
+	private final List<Map<String, Object>> inference = new ArrayList<>();
+
+	private ThroughputBenchmark(Settings settings) {
+		this.settings = settings;
+	}
+
+	public static void main(String[] args) throws IOException {
+		Settings settings = Settings.fromSystemProperties();
+		ThroughputBenchmark benchmark = new ThroughputBenchmark(settings);
+		benchmark.run();
+		Files.write(settings.output, Json.write(benchmark.results()).getBytes(StandardCharsets.UTF_8));
+		logger.info("Benchmark results written to [{}]", settings.output.toAbsolutePath());
+	}
+
+	private void run() {
+		for (TYPE type : this.settings.types) {
+			SyntheticMNIST dataset = new SyntheticMNIST(type, this.settings.samples, this.settings.seed);
+			for (int[] topology : this.settings.topologies) {
+				for (Settings.ExecutorType executor : this.settings.executors) {
+					this.train(type, topology, executor, dataset);
+				}
+				this.infer(type, topology, dataset);
+			}
+			dataset.release();
+		}
+	}
+
+	/**
+	 * Time the training of a new network, for every batch size (and every thread count for a parallel executor).
+	 */
+	private void train(TYPE type, int[] topology, Settings.ExecutorType executorType, SyntheticMNIST dataset) {
+		List<Integer> threads = executorType == Settings.ExecutorType.PARALLEL ? this.settings.threads : Arrays.asList(1);
+		for (int threadCount : threads) {
+			ExecutorService pool = executorType == Settings.ExecutorType.PARALLEL ? Executors.newFixedThreadPool(threadCount) : null;
+			NeuronNetwork.Executor executor = pool == null ? NeuronNetwork.Executor.sequential() : executor(pool, threadCount);
+			try {
+				for (int batchSize : this.settings.batchSizes) {
+					NeuronNetwork network = network(type, topology);
+					List<NeuronNetwork.Input> inputs = dataset.inputs();
+					Consumer<Integer> training = executorType == Settings.ExecutorType.MATRIX
+						? steps -> network.train(inputs, steps, LEARNING_RATE, batchSize)
+						: steps -> network.train(inputs, steps, LEARNING_RATE, batchSize, executor);
+					
+					training.accept(this.settings.warmup);
+					long start = System.nanoTime();
+					training.accept(this.settings.steps);
+					double seconds = (System.nanoTime() - start) / 1e9;
+					network.release();
+					
+					Map<String, Object> result = new LinkedHashMap<>();
+					result.put("type", type);
+					result.put("topology", Settings.label(topology));
+					result.put("executor", executorType);
+					result.put("threads", executorType == Settings.ExecutorType.MATRIX ? null : threadCount);
+					result.put("batchSize", batchSize);
+					result.put("samples", inputs.size());
+					result.put("steps", this.settings.steps);
+					result.put("seconds", seconds);
+					result.put("samplesPerSecond", inputs.size() * this.settings.steps / seconds);
+					this.training.add(result);
+					logger.info("[TRAINING] {}", result);
+				}
+			} finally {
+				if (pool != null) {
+					pool.shutdownNow();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Time every inference call on a new network, after as many untimed calls, and compute the latency percentiles.
+	 */
+	private void infer(TYPE type, int[] topology, SyntheticMNIST dataset) {
+		NeuronNetwork network = network(type, topology);
+		Map<String, Consumer<Vector>> operations = new LinkedHashMap<>();
+		operations.put("feedForward", network::feedForward);
+		operations.put("predict", network::predict);
+		
+		for (Map.Entry<String, Consumer<Vector>> operation : operations.entrySet()) {
+			long[] nanos = new long[this.settings.inferences];
+			for (int timed = 0; timed < 2; timed++) {
+				for (int i = 0; i < nanos.length; i++) {
+					Vector image = dataset.image(i % dataset.size());
+					long start = System.nanoTime();
+					operation.getValue().accept(image);
+					nanos[i] = System.nanoTime() - start;
+				}
+			}
+			Arrays.sort(nanos);
+			
+			Map<String, Object> result = new LinkedHashMap<>();
+			result.put("type", type);
+			result.put("topology", Settings.label(topology));
+			result.put("operation", operation.getKey());
+			result.put("calls", nanos.length);
+			result.put("meanMicros", Arrays.stream(nanos).average().orElse(Double.NaN) / 1e3);
+			result.put("p50Micros", percentile(nanos, 0.50) / 1e3);
+			result.put("p90Micros", percentile(nanos, 0.90) / 1e3);
+			result.put("p99Micros", percentile(nanos, 0.99) / 1e3);
+			result.put("maxMicros", percentile(nanos, 1.00) / 1e3);
+			this.inference.add(result);
+			logger.info("[INFERENCE] {}", result);
+		}
+		network.release();
+	}
+
+	private Map<String, Object> results() {
+		Map<String, Object> settings = new LinkedHashMap<>();
+		settings.put("profile", this.settings.profile);
+		settings.put("samples", this.settings.samples);
+		settings.put("steps", this.settings.steps);
+		settings.put("warmup", this.settings.warmup);
+		settings.put("inferences", this.settings.inferences);
+		settings.put("seed", this.settings.seed);
+		settings.put("learningRate", LEARNING_RATE);
+		
+		Map<String, Object> jvm = new LinkedHashMap<>();
+		jvm.put("version", System.getProperty("java.version"));
+		jvm.put("vm", System.getProperty("java.vm.name"));
+		jvm.put("processors", Runtime.getRuntime().availableProcessors());
+		jvm.put("maxMemory", Runtime.getRuntime().maxMemory());
+		
+		Map<String, Object> results = new LinkedHashMap<>();
+		results.put("timestamp", Instant.now().toString());
+		results.put("jvm", jvm);
+		results.put("settings", settings);
+		results.put("training", this.training);
+		results.put("inference", this.inference);
+		return results;
+	}
+
+	private static NeuronNetwork network(TYPE type, int[] topology) {
+		NeuronNetwork network = new NeuronNetwork(SyntheticMNIST.SIZE, type);
+		for (int layerSize : topology) {
+			network.addLayer(layerSize, new Sigmoid(1));
+		}
+		network.addLayer(SyntheticMNIST.CLASSES, new Sigmoid(1));
+		return network;
+	}
+
+	/**
+	 * A network executor over a thread pool, that can be shut down once the benchmark is done
+	 * (unlike {@link NeuronNetwork.Executor#parallel(int)}).
+	 */
+	private static NeuronNetwork.Executor executor(ExecutorService pool, int parallelism) {
+		return new NeuronNetwork.Executor() {
+			@Override
+			public void invokeAll(List<NeuronNetwork.Task> tasks) throws InterruptedException {
+				NeuronNetwork.Executor.invokeAll(pool, tasks);
+			}
+
+			@Override
+			public int parallelism() {
+				return parallelism;
+			}
+		};
+	}
+
+	/**
+	 * The nearest-rank percentile of sorted values.
+	 * @param sorted   the values, sorted
+	 * @param fraction the percentile, in ]0, 1]
+	 * @return the smallest value such as at least fraction of the values are lower or equal
+	 */
+	private static double percentile(long[] sorted, double fraction) {
+		if (sorted.length == 0) {
+			return Double.NaN;
+		}
+		int rank = (int) Math.ceil(fraction * sorted.length);
+		return sorted[Math.max(0, rank - 1)];
+	}
+}
@@ -22,15 +22,72 @@ class Gradient {
 		this.biasGradient = biasGradient;
 	}
 	
+	/**
+	 * The gradient of a layer for a whole batch, summed over the batch samples.
+	 * <ul>
+	 *     <li>weight gradient : δᵀ · activations, i.e. the sum of the δ ⊗ activation outer products</li>
+	 *     <li>bias gradient : the sum of the δ lines</li>
+	 * </ul>
+	 * @param deltas      the layer δ, one line per sample (batch size x output size)
+	 * @param activations the layer inputs, one line per sample (batch size x input size)
+	 * @return a new gradient, to be {@link #average(int)}d with the batch size
+	 */
+	static Gradient batch(Matrix deltas, Matrix activations) {
+		Vector biasGradient = Vector.of(deltas.line(0).getValue().getType().heap(), deltas.getN());
+		deltas.lines().forEach(delta -> biasGradient.getValue().sum(delta.getValue()));
+		return new Gradient(deltas.product(true, activations, false), biasGradient);
+	}
+
 	void sum(Gradient gradient) {
-		this.weightGradient.sum(gradient.weightGradient);
-		this.biasGradient.sum(gradient.biasGradient);
+		this.sum(gradient.weightGradient, gradient.biasGradient);
+	}
+
+	/**
+	 * Sum a weight gradient and a bias gradient into this gradient, in place.
+	 * @param weightGradient the weight gradient to add
+	 * @param biasGradient   the bias gradient to add
+	 */
+	void sum(Matrix weightGradient, Vector biasGradient) {
+		this.weightGradient.sum(weightGradient);
+		this.biasGradient.sumInto(biasGradient, this.biasGradient);
+	}
+
+	/**
+	 * Sum the gradient of a single sample into this gradient, in place :
+	 * <ul>
+	 *     <li>weight gradient += δ ⊗ input, without building the outer product</li>
+	 *     <li>bias gradient += δ</li>
+	 * </ul>
+	 * @param delta the layer δ for the sample
+	 * @param input the layer input for the sample
+	 */
+	void accumulate(Vector delta, Vector input) {
+		this.weightGradient.accumulateOuter(1f, delta, input);
+		this.biasGradient.sumInto(delta, this.biasGradient);
+	}
+
+	/**
+	 * Set every weight and bias gradient value to 0, in place, so this gradient can be reused as an accumulator.
+	 * @return the current gradient
+	 */
+	Gradient zero() {
+		this.weightGradient.zero();
+		this.biasGradient.getValue().zero();
+		return this;
+	}
+	
+	/**
+	 * Free the memory of this gradient if it is off-heap. Do nothing else.
+	 */
+	void release() {
+		this.weightGradient.release();
+		this.biasGradient.release();
 	}
 	
 	Gradient average(int size) {
 		float coef = 1f / size;
 		this.weightGradient.mult(coef);
-		this.biasGradient.mult(coef);
+		this.biasGradient.multInto(coef, this.biasGradient);
 		return this;
 	}
 }
\ No newline at end of file
@@ -14,16 +14,44 @@ class Gradients extends ArrayList<Gradient> {
 
 	/**
 	 * Create a list of gradients, one gradient per layer. 
-	 * Every gradient is initialized from the layer input/output size.
+	 * Every gradient is initialized from the layer input/output size and numeric type.
+	 * <br>
+	 * {@link TYPE#HALF} and {@link TYPE#BFLOAT16} layers get {@link TYPE#PFLOAT} gradients :
+	 * 16 bits accumulators would round every summed input. The layer weights are only rounded when they are updated.
 	 * @param layers the network layers
 	 * @return a new Gradients list
 	 */
-	static Gradients init(List<NeuronLayer> layers, TYPE type) {
+	static Gradients init(List<NeuronLayer> layers) {
 		Gradients gradients = new Gradients();
-		layers.forEach(l -> gradients.add(new Gradient(l.inputSize(), l.outputSize(), type)));
+		layers.forEach(l -> gradients.add(new Gradient(l.inputSize(), l.outputSize(), accumulatorType(l.type()))));
 		return gradients;
 	}
 
+	/**
+	 * The numeric type of the gradient accumulators of a layer.
+	 * @param type the layer type
+	 * @return {@link TYPE#heap()} for the 16 bits types, the layer type else (off-heap accumulators remain off-heap)
+	 */
+	static TYPE accumulatorType(TYPE type) {
+		return type == TYPE.HALF || type == TYPE.BFLOAT16 ? type.heap() : type;
+	}
+
+	/**
+	 * Set every gradient of this list to 0, in place.
+	 * @return the current gradient list
+	 */
+	Gradients zero() {
+		this.forEach(Gradient::zero);
+		return this;
+	}
+
+	/**
+	 * Free the memory of every gradient of this list if it is off-heap. Do nothing else.
+	 */
+	void release() {
+		this.forEach(Gradient::release);
+	}
+
 	/**
 	 * Sum the current gradient list with the given ones, index based.
 	 * <br>
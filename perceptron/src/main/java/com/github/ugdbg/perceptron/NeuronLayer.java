@@ -1,12 +1,23 @@
 package com.github.ugdbg.perceptron;
 
+import com.github.ugdbg.datatypes.Precision;
 import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.datatypes.matrix.MappedFloatMatrix;
+import com.github.ugdbg.function.domain.Domain;
+import com.github.ugdbg.function.domain.DomainCheckException;
+import com.github.ugdbg.function.domain.ValidationPolicy;
+import com.github.ugdbg.function.scalar.domain.IntervalArithmetic;
 import com.github.ugdbg.function.vector.Matrix;
 import com.github.ugdbg.function.vector.VDerivable;
+import com.github.ugdbg.function.vector.VFunction;
+import com.github.ugdbg.function.vector.domain.VDomain;
 import com.github.ugdbg.function.vector.domain.VDomains;
 import com.github.ugdbg.vector.Vector;
 
 import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -21,16 +32,31 @@ import java.util.Random;
  *     <li>a {@link #bias} vector that will also be used for the {@link #aggregation(Vector)} operation</li>
  *     <li>a derivable {@link #activation} function that will be used for the {@link #activation(Vector)} operation</li>
  * </ul>
- * The {@link #verboseForward(LayerOutput)} method does a {@link #forward(Vector)} and stores the output from
- * both aggregation and activation : this is the method that should be used to train the network.
+ * The {@link #forward(Vector, Vector, Vector)} method does a {@link #forward(Vector)} into existing aggregation
+ * and activation output vectors (see {@link Workspace}) : this is the method that should be used to train the network.
  * <br>
  * Both weights and bias can then be updated from the next layer error gradient using {@link #update(Gradient, float)}.
+ * <br><br>
+ * {@link #verboseForward(BatchOutput)} is the mini-batch counterpart of {@link #forward(Vector, Vector, Vector)} :
+ * every line of the batch matrices is a sample and the aggregation is a single matrix product for the whole batch.
+ * <br><br>
+ * The layer inputs are checked against the {@link #weights} domain (ℝⁿ) and the {@link #activation} function checks its own domain,
+ * if required. The {@link #validation} policy tells which calls are checked : {@link ValidationPolicy#global()} by default.
  */
 class NeuronLayer implements Serializable {
 	private Matrix weights;
 	private Vector bias;
 	private VDerivable activation;
 
+	/** The validation policy of the layer inputs, against the {@link #weights} domain. null : {@link ValidationPolicy#global()}. */
+	private ValidationPolicy validation;
+
+	/** The precision profile of a {@link TYPE#DECIMAL} layer. null : {@link Precision#global()}. */
+	private Precision precision;
+
+	/** The derivative of the {@link #activation} function, created once. */
+	private transient VFunction derivative;
+
 	/**
 	 * A new neuron layer for the given I/O sizes.
 	 * {@link #weights} matrix is initialized as gaussian (Gaussian ("normally") distributed values).
@@ -44,6 +70,56 @@ class NeuronLayer implements Serializable {
 		this.activation = activation;
 	}
 	
+	/**
+	 * Set the validation policy of the layer inputs, against the {@link #weights} domain.
+	 * @param validation the validation policy. null to use {@link ValidationPolicy#global()}.
+	 */
+	void validation(ValidationPolicy validation) {
+		this.validation = validation;
+		this.weights.validation(validation);
+	}
+
+	/**
+	 * Bound the layer outputs for any input of the input domain, using interval arithmetic.
+	 * The image depends on the current weights and bias : it must be computed again when they are updated.
+	 * @param input the layer input domain
+	 * @return the layer output domain. null if it cannot be bounded or if a domain check might fail for an input.
+	 */
+	VDomain image(VDomain input) {
+		VDomain weighted = this.weights.isSafe(input) ? this.weights.image(input) : null;
+		if (weighted == null) {
+			return null;
+		}
+		List<Domain<Float>> aggregation = new ArrayList<>(this.outputSize());
+		for (int i = 0; i < this.outputSize(); i++) {
+			Domain<Float> domain = IntervalArithmetic.linear(weighted.domain(i), 1, this.bias.at(i).floatValue());
+			if (domain == null) {
+				return null;
+			}
+			aggregation.add(domain);
+		}
+		VDomain aggregations = VDomain.of(aggregation);
+		return this.activation.isSafe(aggregations) ? this.activation.image(aggregations) : null;
+	}
+
+	/**
+	 * Set the precision profile of a {@link TYPE#DECIMAL} layer : weights, bias and computation buffers values are rounded to it.
+	 * @param precision the precision profile. null to use {@link Precision#global()}.
+	 */
+	void precision(Precision precision) {
+		this.precision = precision;
+		this.weights.precision(this.precision());
+		this.bias.precision(this.precision());
+	}
+
+	/**
+	 * The precision profile of a {@link TYPE#DECIMAL} layer.
+	 * @return {@link #precision}, or {@link Precision#global()} if not set
+	 */
+	Precision precision() {
+		return this.precision == null ? Precision.global() : this.precision;
+	}
+
 	/**
 	 * The layer input size
 	 * @return the width of the {@link #weights} matrix
@@ -89,12 +165,27 @@ class NeuronLayer implements Serializable {
 	}
 
 	/**
-	 * Do a {@link #forward(Vector)} but keep a reference to both aggregation and activation outputs.
-	 * @param previous the previous layer output {@link LayerOutput#activation} is used as forward input)
-	 * @return the output from the forward on the current layer
+	 * Do a {@link #forward(Vector)} into existing vectors, keeping both aggregation and activation outputs.
+	 * <br>
+	 * Nothing is allocated for primitive types.
+	 * @param data        the input vector
+	 * @param aggregation the aggregation output vector (dimension {@link #outputSize()})
+	 * @param activation  the activation output vector (dimension {@link #outputSize()})
+	 * @return the activation output vector
 	 */
-	LayerOutput verboseForward(LayerOutput previous) {
-		LayerOutput output = new LayerOutput();
+	Vector forward(Vector data, Vector aggregation, Vector activation) {
+		this.weights.applyInto(data, aggregation);
+		aggregation.sumInto(this.bias, aggregation);
+		return this.activation.applyInto(aggregation, activation);
+	}
+
+	/**
+	 * Do a {@link #forward(Vector, Vector, Vector)} on a whole batch at once.
+	 * @param previous the previous layer batch output ({@link BatchOutput#activation} is used as forward input)
+	 * @return the batch output from the forward on the current layer
+	 */
+	BatchOutput verboseForward(BatchOutput previous) {
+		BatchOutput output = new BatchOutput();
 		output.aggregations = this.aggregation(previous.activation);
 		output.activation = this.activation(output.aggregations);
 		return output;
@@ -106,7 +197,29 @@ class NeuronLayer implements Serializable {
 	 * @return the output vector
 	 */
 	private Vector aggregation(Vector data) {
-		return this.weights.apply(data).sum(this.bias);
+		Vector aggregation = this.weights.apply(data);
+		return aggregation.sumInto(this.bias, aggregation);
+	}
+
+	/**
+	 * Do the aggregation on a batch of inputs : Z = X · Wᵀ + b, with b added to every line.
+	 * <br>
+	 * This is one matrix product for the whole batch. The {@link #weights} matrix is read transposed, not copied.
+	 * If the {@link #validation} policy validates the batch, every input line is checked against the weights domain.
+	 * @param batch the input batch, one input vector per line (batch size x {@link #inputSize()})
+	 * @return the aggregations, one per line (batch size x {@link #outputSize()})
+	 */
+	private Matrix aggregation(Matrix batch) {
+		if (this.weights.domainCheck() && this.weights.validation().validate()) {
+			for (Vector line : batch.lines()) {
+				if (! this.weights.domain().isIn(line)) {
+					throw new DomainCheckException(this.weights, line);
+				}
+			}
+		}
+		Matrix aggregations = batch.product(false, this.weights, true);
+		aggregations.lines().forEach(line -> line.getValue().sum(this.bias.getValue()));
+		return aggregations;
 	}
 
 	/**
@@ -118,20 +231,116 @@ class NeuronLayer implements Serializable {
 		return this.activation.apply(data);
 	}
 
+	/**
+	 * Do the activation on a batch : apply every line to the {@link #activation} function, into the lines of a new matrix.
+	 * @param batch the aggregations batch, one per line
+	 * @return a new matrix of the activations, one per line
+	 */
+	private Matrix activation(Matrix batch) {
+		Matrix activations = new Matrix(batch.getM(), batch.getN(), this.type().heap()).precision(this.precision());
+		for (int i = 0; i < batch.getM(); i++) {
+			this.activation.applyInto(batch.line(i), activations.line(i));
+		}
+		return activations;
+	}
+
 	/**
 	 * Back-propagation : apply the vector to the derivative of the {@link #activation} function.
 	 * @param data the input vector
 	 * @return the output vector
 	 */
 	Vector activationPrime(Vector data) {
-		return this.activation.derive().apply(data);
+		return this.derivative().apply(data);
+	}
+
+	/**
+	 * Back-propagation : apply the vector to the derivative of the {@link #activation} function, into an existing vector.
+	 * @param data the input vector
+	 * @param into the output vector
+	 * @return the output vector
+	 */
+	Vector activationPrime(Vector data, Vector into) {
+		return this.derivative().applyInto(data, into);
 	}
 
 	/**
-	 * Update the weights and bias of the current layer.
+	 * Back-propagation on a batch : apply every line to the derivative of the {@link #activation} function.
+	 * @param batch the aggregations batch, one per line
+	 * @return a new matrix of the activation derivatives, one per line
+	 */
+	Matrix activationPrime(Matrix batch) {
+		VFunction prime = this.derivative();
+		Matrix primes = new Matrix(batch.getM(), batch.getN(), this.type().heap()).precision(this.precision());
+		for (int i = 0; i < batch.getM(); i++) {
+			prime.applyInto(batch.line(i), primes.line(i));
+		}
+		return primes;
+	}
+
+	/**
+	 * Get the derivative of the {@link #activation} function. It is created on the first call and kept.
+	 * @return {@link #derivative}
+	 */
+	private VFunction derivative() {
+		if (this.derivative == null) {
+			this.derivative = this.activation.derive();
+		}
+		return this.derivative;
+	}
+
+	/**
+	 * Free the memory of the {@link #weights} and {@link #bias} if they are off-heap. Do nothing else.
+	 */
+	void release() {
+		this.weights.release();
+		this.bias.release();
+	}
+
+	/**
+	 * Move the {@link #weights} to a memory-mapped matrix file. Values are converted to floats.
+	 * <br>
+	 * The previous weights are released. Any later update is written to the file.
+	 * @param file the matrix file to create (or overwrite)
+	 */
+	void map(Path file) {
+		MappedFloatMatrix mapped = MappedFloatMatrix.create(file, this.outputSize(), this.inputSize());
+		for (int i = 0; i < this.outputSize(); i++) {
+			mapped.line(i).set(this.weights.line(i).getValue());
+		}
+		mapped.force();
+		this.weights.release();
+		this.weights = Matrix.of(mapped).validation(this.validation);
+	}
+
+	/**
+	 * Convert the {@link #weights} and the {@link #bias} to an other numeric type, e.g. {@link TYPE#HALF} after a training.
+	 * <br>
+	 * The previous weights and bias are released.
+	 * @param type the new numeric type of the layer
+	 */
+	void convert(TYPE type) {
+		Matrix weights = this.weights.convert(type)
+			.validation(this.validation)
+			.precision(this.precision());
+		Vector bias = this.bias.convert(type).precision(this.precision());
+		this.release();
+		this.weights = weights;
+		this.bias = bias;
+	}
+
+	/**
+	 * The numeric type of this layer.
+	 * @return the type of the {@link #bias} vector
+	 */
+	TYPE type() {
+		return this.bias.getValue().getType();
+	}
+
+	/**
+	 * Update the weights and bias of the current layer, in place.
 	 * <ul>
-	 *     <li>(weights = weights * (gradient * learningRate * -1)</li>
-	 *     <li>(bias = bias * (gradient * learningRate * -1)</li>
+	 *     <li>weights = weights + (gradient * learningRate * -1)</li>
+	 *     <li>bias = bias + (gradient * learningRate * -1)</li>
 	 * </ul>
 	 * @param gradient     the gradient to apply
 	 * @param learningRate the learning rate
@@ -144,36 +353,36 @@ class NeuronLayer implements Serializable {
 	/**
 	 * Update the weights matrix using the error gradient matrix and the learning rate. 
 	 * <br>
-	 * weights = weights * (gradient * learningRate * -1)
+	 * weights = weights + (gradient * learningRate * -1)
 	 * @param gradient     the error gradient matrix
 	 * @param learningRate the learning rate
 	 */
 	private void updateWeights(Matrix gradient, float learningRate) {
-		this.weights.sum(gradient.mult(learningRate * -1f));
+		this.weights.axpy(learningRate * -1f, gradient);
 	}
 
 	/**
 	 * Update the bias using the error gradient vector.
 	 * <br>
-	 * (bias = bias * (gradient * learningRate * -1)
+	 * bias = bias + (gradient * learningRate * -1)
 	 * @param gradient     the error gradient vector
 	 * @param learningRate the learning rate
 	 */
 	private void updateBiases(Vector gradient, float learningRate) {
-		this.bias.sum(gradient.mult(learningRate * -1f));
+		this.bias.axpy(learningRate * -1f, gradient);
 	}
 
 	/**
-	 * Stores the aggregation and activation output values after a forward.
+	 * Stores the aggregation and activation output values after a batch forward, one line per sample.
 	 */
-	static class LayerOutput {
-		Vector aggregations;
-		Vector activation;
+	static class BatchOutput {
+		Matrix aggregations;
+		Matrix activation;
+
+		private BatchOutput() {}
 
-		private LayerOutput() {}
-		
-		static LayerOutput activation(Vector activation) {
-			LayerOutput output = new LayerOutput();
+		static BatchOutput activation(Matrix activation) {
+			BatchOutput output = new BatchOutput();
 			output.activation = activation;
 			return output;
 		}
@@ -1,21 +1,31 @@
 package com.github.ugdbg.perceptron;
 
+import com.github.ugdbg.datatypes.Precision;
 import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.datatypes.matrix.MappedFloatMatrix;
+import com.github.ugdbg.function.domain.ValidationPolicy;
 import com.github.ugdbg.function.scalar.Derivable;
 import com.github.ugdbg.function.vector.Matrix;
 import com.github.ugdbg.function.vector.VDerivable;
+import com.github.ugdbg.function.vector.domain.VDomain;
 import com.github.ugdbg.vector.Vector;
 import org.apache.commons.collections4.ListUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -25,9 +35,18 @@ import java.util.stream.IntStream;
  * It supports :
  * <ul>
  *     <li>prediction : {@link #predict(Vector)}</li>
- *     <li>back propagation : {@link #backProp(Input)}</li>
+ *     <li>back propagation : {@link #backProp(Input, Workspace)}</li>
  *     <li>training using batching of inputs : {@link #train(List, int, float, int, Executor)}</li>
  *     <li>parallel/sequential back-propagation for a batch</li>
+ *     <li>
+ *         mini-batch training using matrix operations : {@link #train(List, int, float, int)}.
+ *         Parallelism then comes from the matrix products.
+ *     </li>
+ *     <li>memory-mapped weights, shared by several processes : {@link #map(Path)}</li>
+ *     <li>16 bits weights after a training : {@link #convert(TYPE)}</li>
+ *     <li>validation of the layer inputs domains : {@link #validation(ValidationPolicy)}</li>
+ *     <li>static proof of the layer inputs domains : {@link #isSafe(VDomain)}</li>
+ *     <li>bounded precision {@link TYPE#DECIMAL} arithmetic : {@link #precision(Precision)}</li>
  * </ul>
  * This code vastly derives from 
  * <a href ="https://www.miximum.fr/blog/introduction-au-deep-learning-2/">Thibault Jouannic's blog</a>.
@@ -39,8 +58,17 @@ public class NeuronNetwork implements Serializable {
 	private final int inputDim;
 	private List<NeuronLayer> layers = new ArrayList<>();
 
-	/** Vector and Matrix implementation : default to primitive floats. */
-	private transient final TYPE type;
+	/** The validation policy of the layers inputs. null : {@link ValidationPolicy#global()}. */
+	private ValidationPolicy validation;
+
+	/** The precision profile of a {@link TYPE#DECIMAL} network. null : {@link Precision#global()}. */
+	private Precision precision;
+
+	/** Vector and Matrix implementation : default to primitive floats. Restored from the layers when deserialized. */
+	private transient TYPE type;
+
+	/** The per-worker buffers and gradient accumulators of {@link #trainBatch(List, float, Executor)}, reused across batches. */
+	private transient List<Workspace> workspaces;
 	
 	/**
 	 * New neuron network. No layer.
@@ -54,6 +82,9 @@ public class NeuronNetwork implements Serializable {
 
 	/**
 	 * New neuron network, using the given number format. No layer.
+	 * <br>
+	 * With {@link TYPE#OFFHEAP_FLOAT}, the weights, bias and gradient accumulators are stored off-heap :
+	 * see {@link #release()} to free them explicitly.
 	 * @param inputDim     the input vector dimension
 	 * @param vectorFormat the vector number type class
 	 */
@@ -71,6 +102,127 @@ public class NeuronNetwork implements Serializable {
 		return this.type;
 	}
 
+	/**
+	 * Set the validation policy of this network : the layers inputs are checked against the layers domains (ℝⁿ)
+	 * for the forward calls that the policy validates, e.g. the first batches only (see {@link ValidationPolicy#firstCalls(long)}).
+	 * <br>
+	 * An input outside of a layer domain raises a {@link com.github.ugdbg.function.domain.DomainCheckException}.
+	 * Every layer, including the layers added later, gets its own {@link ValidationPolicy#copy()} : 
+	 * the calls are counted per layer, so that {@link ValidationPolicy#firstCalls(long)} validates
+	 * the first forwards or batches of the network, on every layer.
+	 * @param validation the validation policy. null to use {@link ValidationPolicy#global()} (default).
+	 * @return the current network
+	 */
+	public NeuronNetwork validation(ValidationPolicy validation) {
+		this.validation = validation;
+		this.layers.forEach(layer -> layer.validation(this.layerValidation()));
+		return this;
+	}
+
+	/**
+	 * The validation policy of a layer : a copy of the network {@link #validation}, with its own call counter.
+	 * @return a copy of {@link #validation}, null if there is none
+	 */
+	private ValidationPolicy layerValidation() {
+		return this.validation == null ? null : this.validation.copy();
+	}
+
+	/**
+	 * Set the precision profile of a {@link TYPE#DECIMAL} network (see {@link Precision}) : 
+	 * the weights, biases and training buffers of all the layers, including the layers added later, are rounded to it.
+	 * <br>
+	 * e.g. {@link Precision#DECIMAL128} keeps 34 digits : the cost of an operation does not grow along the training.
+	 * It is still BigDecimal arithmetic : a 784-200-10 network trains a batch of 30 inputs in about 3 s on 1 CPU,
+	 * i.e. several hours for 2 MNIST epochs, when {@link TYPE#PFLOAT} takes about a minute.
+	 * The precision has no effect on the other types.
+	 * The activation functions compute with their own profile, e.g. {@code new Sigmoid(1).precision(Precision.DECIMAL128)}.
+	 * @param precision the precision profile. null to use {@link Precision#global()} (default).
+	 * @return the current network
+	 */
+	public NeuronNetwork precision(Precision precision) {
+		this.precision = precision;
+		this.layers.forEach(layer -> layer.precision(precision));
+		this.resetWorkspaces();
+		return this;
+	}
+
+	/**
+	 * Prove, using interval arithmetic, that no layer domain check can fail for any input of the given domain.
+	 * <br>
+	 * If it is proved, the validation can be turned off (see {@link ValidationPolicy#off()}) for these inputs.
+	 * The proof only holds for the current weights and bias : it must be done again after a training.
+	 * @param input the network input domain, e.g. [0, 1]ⁿ for normalized pixels
+	 * @return true if every layer input and every activation input is proved to be in its domain
+	 */
+	public boolean isSafe(VDomain input) {
+		VDomain domain = input;
+		for (NeuronLayer layer : this.layers) {
+			domain = layer.image(domain);
+			if (domain == null) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Free the memory of the network layers now if they are off-heap ({@link TYPE#OFFHEAP_FLOAT}). Do nothing else.
+	 * <br>
+	 * An off-heap network must not be used once released.
+	 */
+	public void release() {
+		this.layers.forEach(NeuronLayer::release);
+		this.resetWorkspaces();
+	}
+
+	/**
+	 * Release and forget the worker workspaces : they will be created again, from the current layers, if required.
+	 */
+	private void resetWorkspaces() {
+		if (this.workspaces != null) {
+			this.workspaces.forEach(Workspace::release);
+			this.workspaces = null;
+		}
+	}
+
+	/**
+	 * Move the weights of every layer to a memory-mapped matrix file (see {@link MappedFloatMatrix}), in a directory.
+	 * The file of layer i is 'layer-i.weights'. Values are converted to floats.
+	 * <br>
+	 * A mapped network serializes references to its weight files instead of the weight values.
+	 * Deserializing it maps the files read-only : nothing is copied and several JVMs on the same host 
+	 * share the weights through the OS page cache.
+	 * @param directory the directory for the weight files. It is created if required.
+	 */
+	public void map(Path directory) {
+		try {
+			Files.createDirectories(directory);
+		} catch (IOException e) {
+			throw new RuntimeException("Could not create directory [" + directory + "]", e);
+		}
+		for (int i = 0; i < this.layers.size(); i++) {
+			this.layers.get(i).map(directory.resolve("layer-" + i + ".weights"));
+		}
+	}
+
+	/**
+	 * Convert the weights and bias of every layer to an other numeric type. Values are rounded to the new type.
+	 * <br>
+	 * e.g. a network trained with {@link TYPE#PFLOAT} can be converted to {@link TYPE#HALF} or {@link TYPE#BFLOAT16} :
+	 * the weights take half the memory and the predictions read half the bytes. The computations are still done in floats.
+	 * Training a 16 bits network is possible but small updates are lost when the weights are rounded.
+	 * <br>
+	 * A {@link #map(Path) mapped} layer is converted back to the heap.
+	 * @param type the new numeric type of the network
+	 * @return the current network
+	 */
+	public NeuronNetwork convert(TYPE type) {
+		this.layers.forEach(layer -> layer.convert(type));
+		this.type = type;
+		this.resetWorkspaces();
+		return this;
+	}
+
 	/**
 	 * Is this network coherent ?
 	 * @return true if the output dimension of every layer matches the input dimension of the next layer. 
@@ -126,7 +278,11 @@ public class NeuronNetwork implements Serializable {
 	public void addLayer(int layerSize, VDerivable activation) {
 		int outputSize = this.outputSize();
 		int layerInputSize = outputSize == -1 ? this.inputDim : outputSize;
-		this.layers.add(new NeuronLayer(layerSize, layerInputSize, activation, this.type));
+		NeuronLayer layer = new NeuronLayer(layerSize, layerInputSize, activation, this.type);
+		layer.validation(this.layerValidation());
+		layer.precision(this.precision);
+		this.layers.add(layer);
+		this.resetWorkspaces();
 	}
 	
 	/**
@@ -168,46 +324,185 @@ public class NeuronNetwork implements Serializable {
 		}
 	}
 
+	/**
+	 * Train the network using mini-batches : every batch is fed forward and back-propagated as a single matrix.
+	 * <br>
+	 * For every layer, a batch costs 3 matrix products (aggregation, δ back-propagation, weight gradient),
+	 * which are paralleled and cache blocked (see {@link com.github.ugdbg.datatypes.matrix.NumericMatrix#product}).
+	 * @param inputs         the input vector / expected class
+	 * @param steps          how many times should the inputs be played
+	 * @param learningRate   the network learning rate
+	 * @param batchSize      the input batches size
+	 */
+	public void train(List<Input> inputs, int steps, float learningRate, int batchSize) {
+		for (int i = 0; i < steps; i++) {
+			Collections.shuffle(inputs);
+			ListUtils.partition(inputs, batchSize).forEach(batch -> this.trainBatch(batch, learningRate));
+		}
+	}
+
+	/**
+	 * Train the network using a batch of inputs, as matrices.
+	 * <ul>
+	 *     <li>Get the batch gradients from {@link #backProp(List)}.</li>
+	 *     <li>Average the gradients and update the layers</li>
+	 * </ul>
+	 * @param inputs       the input batch
+	 * @param learningRate the learning rate (updating the weights and bias in the layers)
+	 */
+	private void trainBatch(List<Input> inputs, float learningRate) {
+		Gradients gradients = this.backProp(inputs);
+		for (int i = 0; i < this.layers.size(); i++) {
+			this.layers.get(i).update(gradients.get(i).average(inputs.size()), learningRate);
+		}
+	}
+
 	/**
 	 * Parallel computation of training the network using a batch of inputs.
 	 * <ul>
-	 *     <li>Create a batch of {@link Task} that will get gradients from {@link #backProp(Input)}.</li>
+	 *     <li>
+	 *         Split the batch into one slice per worker (see {@link Executor#parallelism()}) and create a {@link Task} 
+	 *         per slice that back-propagates its inputs using the worker own {@link Workspace}
+	 *         (see {@link #backProp(Input, Workspace)}).
+	 *     </li>
 	 *     <li>Execute the batch using the executor</li>
+	 *     <li>Sum the worker gradients using a parallel tree reduction : see {@link #reduce(List, Executor)}</li>
 	 *     <li>Average the gradients and update the layers</li>
 	 * </ul>
+	 * No workspace is shared between 2 tasks : there is no synchronization. 
+	 * The workspaces are kept and reused for the next batches.
 	 * @param inputs       the input batch
 	 * @param learningRate the learning rate (updating the weights and bias in the layers)
 	 * @param executor     an executor for parallelism
 	 */
 	private void trainBatch(List<Input> inputs, float learningRate, Executor executor) {
-		Gradients gradients = Gradients.init(this.layers, this.type);
+		int workers = Math.max(1, Math.min(executor.parallelism(), inputs.size()));
+		List<Workspace> workspaces = this.workspaces(workers);
 
-		List<Task> tasks = inputs
-			.stream()
-			.map(i -> Task.of(() -> gradients.sum(this.backProp(i))))
-			.collect(Collectors.toList());
-		
+		List<Task> tasks = new ArrayList<>(workers);
+		List<Gradients> gradients = new ArrayList<>(workers);
+		for (int w = 0; w < workers; w++) {
+			Workspace workspace = workspaces.get(w);
+			workspace.gradients.zero();
+			gradients.add(workspace.gradients);
+			List<Input> slice = inputs.subList(w * inputs.size() / workers, (w + 1) * inputs.size() / workers);
+			tasks.add(Task.of(() -> slice.forEach(input -> this.backProp(input, workspace))));
+		}
+		invokeAll(executor, tasks);
+
+		Gradients sum = reduce(gradients, executor);
+		for (int i = 0; i < this.layers.size(); i++) {
+			this.layers.get(i).update(sum.get(i).average(inputs.size()), learningRate);
+		}
+	}
+
+	/**
+	 * Get the per-worker workspaces. 
+	 * They are created on the first call (or if there are not enough) and reused afterwards.
+	 * @param workers the required workspace count
+	 * @return the workspaces. There might be more than required.
+	 */
+	private List<Workspace> workspaces(int workers) {
+		if (this.workspaces == null) {
+			this.workspaces = new ArrayList<>(workers);
+		}
+		while (this.workspaces.size() < workers) {
+			this.workspaces.add(new Workspace(this.layers));
+		}
+		return this.workspaces;
+	}
+
+	/**
+	 * Parallel tree reduction of gradient lists : at each level, the list i + stride is summed into the list i.
+	 * <br>
+	 * The sums of a level are independent (they never share a gradient list) and run in parallel.
+	 * There are log2(gradients size) levels.
+	 * @param gradients the gradient lists to sum. They are modified.
+	 * @param executor  the executor for every level sums
+	 * @return the first gradient list, that holds the total
+	 */
+	private static Gradients reduce(List<Gradients> gradients, Executor executor) {
+		for (int stride = 1; stride < gradients.size(); stride *= 2) {
+			List<Task> sums = new ArrayList<>();
+			for (int i = 0; i + stride < gradients.size(); i += 2 * stride) {
+				Gradients into = gradients.get(i);
+				Gradients from = gradients.get(i + stride);
+				sums.add(Task.of(() -> into.sum(from)));
+			}
+			invokeAll(executor, sums);
+		}
+		return gradients.get(0);
+	}
+
+	/**
+	 * Execute tasks using an executor.
+	 * @param executor the executor
+	 * @param tasks    the tasks to execute
+	 */
+	private static void invokeAll(Executor executor, List<Task> tasks) {
 		try {
 			executor.invokeAll(tasks);
 		} catch (InterruptedException e) {
 			throw new RuntimeException("Interrupted exception running batch", e);
 		}
+	}
 
-		for (int i = 0; i < this.layers.size(); i++) {
-			this.layers.get(i).update(gradients.get(i).average(inputs.size()), learningRate);
+	/**
+	 * Back-propagate an input vector through the network and sum the error gradients into the workspace gradients.
+	 * <br>
+	 * Every intermediate vector or matrix is a workspace buffer : nothing is allocated for primitive types.
+	 * @param input     the input vector
+	 * @param workspace the buffers to use. Its gradients (weights and bias) (one per layer) are incremented.
+	 */
+	private void backProp(Input input, Workspace workspace) {
+		try {
+			Vector activation = input.input;
+			for (int i = 0; i < this.layers.size(); i++) {
+				activation = this.layers.get(i).forward(activation, workspace.aggregations[i], workspace.activations[i]);
+			}
+
+			// Get output δ : this is a specific operation on the last layer. 
+			int last = this.layers.size() - 1;
+			workspace.deltas[last].getValue().oneHot(input.expected);
+			this.getOutputDelta(activation, workspace.deltas[last]);
+
+			// The output δ for each layer is computed from the δ of the next layer.
+			for (int i = last; i >= 1; i--) {
+				NeuronLayer layer = this.layers.get(i);
+				NeuronLayer prev = this.layers.get(i - 1);
+				
+				Vector activationPrime = prev.activationPrime(workspace.aggregations[i - 1], workspace.primes[i - 1]);
+				Vector applied = layer.getWeights().applyTransposedInto(workspace.deltas[i], workspace.deltas[i - 1]);
+				applied.multInto(activationPrime, applied);
+			}
+
+			for (int i = 0; i < this.layers.size(); i++) {
+				Vector layerInput = i == 0 ? input.input : workspace.activations[i - 1];
+				workspace.gradients.get(i).accumulate(workspace.deltas[i], layerInput);
+			}
+		} catch (RuntimeException e) {
+			logger.error("Error back-propagating input [{}]", input, e);
+			throw e;
 		}
 	}
 
 	/**
-	 * Back-propagate an input vector through the network.
-	 * @param input the input vector
-	 * @return the back-propagation output, as a collection of error gradient (weights and bias) (one per layer)
+	 * Back-propagate a batch of inputs through the network, as matrices whose lines are the batch samples.
+	 * <br>
+	 * This is the matrix form of {@link #backProp(Input, Workspace)} :
+	 * <ul>
+	 *     <li>forward : Z = A · Wᵀ + b then A' = activation(Z), for every layer</li>
+	 *     <li>previous layer δ : (δ · W) ⊙ activation'(Z)</li>
+	 *     <li>weight gradient : δᵀ · A, see {@link Gradient#batch(Matrix, Matrix)}</li>
+	 * </ul>
+	 * @param inputs the input batch
+	 * @return the error gradients (weights and bias) summed over the batch (one per layer)
 	 */
-	
-	private Outputs backProp(Input input) {
+	private Gradients backProp(List<Input> inputs) {
 		try {
-			NeuronLayer.LayerOutput layerOutput = NeuronLayer.LayerOutput.activation(input.input);
-			List<NeuronLayer.LayerOutput> layerOutputs = new ArrayList<>();
+			Matrix batch = Matrix.of(this.type.heap(), inputs.stream().map(input -> input.input).collect(Collectors.toList()));
+			NeuronLayer.BatchOutput layerOutput = NeuronLayer.BatchOutput.activation(batch);
+			List<NeuronLayer.BatchOutput> layerOutputs = new ArrayList<>();
 			layerOutputs.add(layerOutput);
 
 			for (NeuronLayer layer : this.layers) {
@@ -215,36 +510,31 @@ public class NeuronNetwork implements Serializable {
 				layerOutputs.add(layerOutput);
 			}
 
-			// Get output δ and add it to the list of δs : this is a specific operation on the last layer.
-			// The δ variable will be used to compute the previous layer δ : it is dereferenced at each layer iteration.
-			Vector target = Vector.oneHot(this.type, input.expected, this.outputSize());
-			Vector delta = this.getOutputDelta(layerOutput, target);
-			List<Vector> deltas = new ArrayList<>();
+			Matrix targets = Matrix.of(
+				this.type.heap(),
+				inputs.stream().map(input -> Vector.oneHot(this.type.heap(), input.expected, this.outputSize())).collect(Collectors.toList())
+			);
+			Matrix delta = this.getOutputDelta(layerOutput, targets);
+			List<Matrix> deltas = new ArrayList<>();
 			deltas.add(delta);
 
-			// The output δ for each layer is computed from the δ of the previous layer.
 			for (int i = this.layers.size() - 1; i >= 1; i--) {
 				NeuronLayer layer = this.layers.get(i);
 				NeuronLayer prev = this.layers.get(i - 1);
-				
-				Vector activationPrime = prev.activationPrime(layerOutputs.get(i).aggregations);
 
-				Vector applied = layer.getWeights().transpose().apply(delta);
-				delta = activationPrime.mult(applied);
-				
+				Matrix activationPrime = prev.activationPrime(layerOutputs.get(i).aggregations);
+				delta = delta.product(false, layer.getWeights(), false).mult(activationPrime);
 				deltas.add(delta);
 			}
 
 			Collections.reverse(deltas);
-			Outputs outputs = new Outputs();
-
+			Gradients gradients = new Gradients();
 			for (int i = 0; i < this.layers.size(); i++) {
-				outputs.add(new Gradient(Matrix.outer(deltas.get(i), layerOutputs.get(i).activation), deltas.get(i)));
+				gradients.add(Gradient.batch(deltas.get(i), layerOutputs.get(i).activation));
 			}
-
-			return outputs;
+			return gradients;
 		} catch (RuntimeException e) {
-			logger.error("Error back-propagating input [{}]", input, e);
+			logger.error("Error back-propagating batch of [{}] inputs", inputs.size(), e);
 			throw e;
 		}
 	}
@@ -265,12 +555,23 @@ public class NeuronNetwork implements Serializable {
 	 * <br>
 	 * FIXME : is this correct ? 
 	 * TODO : make this work for any loss/activation function couples.
-	 * @param output the last layer output
-	 * @param target the expected network output
+	 * @param activation the last layer output
+	 * @param target     the expected network output. This vector is used to store the δ.
 	 * @return the delta (δ) of the network for the given last layer output
 	 */
-	private Vector getOutputDelta(NeuronLayer.LayerOutput output, Vector target) {
-		return output.activation.copy().sub(target);
+	private Vector getOutputDelta(Vector activation, Vector target) {
+		return activation.subInto(target, target);
+	}
+
+	/**
+	 * Get the network output delta (δ) for a batch : see {@link #getOutputDelta(Vector, Vector)}.
+	 * @param output  the last layer batch output
+	 * @param targets the expected network outputs, one per line. This matrix is used to store the δ.
+	 * @return the delta (δ) of the network for the given last layer batch output, one per line
+	 */
+	private Matrix getOutputDelta(NeuronLayer.BatchOutput output, Matrix targets) {
+		targets.mult(-1f).sum(output.activation);
+		return targets;
 	}
 
 	/**
@@ -292,12 +593,11 @@ public class NeuronNetwork implements Serializable {
 	}
 
 	/**
-	 * The output of back-propagation.
+	 * Deserialize the layers and restore the {@link #type} from the first layer.
 	 */
-	private static class Outputs extends Gradients {
-		Outputs() {
-			super();
-		}
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		this.type = this.layers.isEmpty() ? TYPE.PFLOAT : this.layers.get(0).type();
 	}
 
 	/**
@@ -308,9 +608,27 @@ public class NeuronNetwork implements Serializable {
 	public interface Executor {
 		void invokeAll(List<Task> tasks) throws InterruptedException;
 		
+		/**
+		 * How many tasks this executor runs at once. A batch is split into as many slices.
+		 * @return the available processor count, by default
+		 */
+		default int parallelism() {
+			return Runtime.getRuntime().availableProcessors();
+		}
+		
 		/** Sequential execution in the current thread of all the tasks. */
 		static Executor sequential() {
-			return tasks -> tasks.forEach(Task::call);
+			return new Executor() {
+				@Override
+				public void invokeAll(List<Task> tasks) {
+					tasks.forEach(Task::call);
+				}
+
+				@Override
+				public int parallelism() {
+					return 1;
+				}
+			};
 		}
 		
 		/** Parallel execution in [parallelism] threads of all the tasks. */
@@ -319,10 +637,40 @@ public class NeuronNetwork implements Serializable {
 				private ExecutorService executor = Executors.newFixedThreadPool(parallelism);
 				@Override
 				public void invokeAll(List<Task> tasks) throws InterruptedException {
-					this.executor.invokeAll(tasks);
+					Executor.invokeAll(this.executor, tasks);
+				}
+
+				@Override
+				public int parallelism() {
+					return parallelism;
 				}
 			};
 		}
+
+		/**
+		 * Execute all the tasks using an executor service and wait for them : the first task failure is rethrown,
+		 * so that a parallel execution fails as the {@link #sequential()} one does.
+		 * @param executor the executor service
+		 * @param tasks    the tasks to execute
+		 * @throws InterruptedException if interrupted while waiting for the tasks
+		 * @throws RuntimeException the exception (or Error) thrown by a task, wrapped if it is a checked exception
+		 */
+		static void invokeAll(ExecutorService executor, List<Task> tasks) throws InterruptedException {
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					}
+					if (cause instanceof Error) {
+						throw (Error) cause;
+					}
+					throw new RuntimeException("Exception running batch task", cause);
+				}
+			}
+		}
 	}
 
 	/**
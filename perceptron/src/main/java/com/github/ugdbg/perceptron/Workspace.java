@@ -0,0 +1,64 @@
+package com.github.ugdbg.perceptron;
+
+import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.vector.Vector;
+
+import java.util.List;
+
+/**
+ * The buffers of a worker that back-propagates inputs one by one : see {@link NeuronNetwork#train(List, int, float, int, NeuronNetwork.Executor)}.
+ * <br>
+ * Every intermediate value of a back-propagation is written to a buffer of the workspace, sized from the layer shapes,
+ * and the gradients are summed into the workspace {@link #gradients}.
+ * Once created, a workspace can back-propagate any number of inputs without allocating anything (for primitive types).
+ * <br>
+ * A workspace must only be used by one thread at a time.
+ */
+class Workspace {
+	/** The aggregation output of every layer. */
+	final Vector[] aggregations;
+
+	/** The activation output of every layer. */
+	final Vector[] activations;
+
+	/** The activation derivative, for the aggregation output of every layer. */
+	final Vector[] primes;
+
+	/** The δ of every layer. The δ of the last layer is also the buffer of the expected (one-hot) output. */
+	final Vector[] deltas;
+
+	/** The gradients of every layer, summed over the inputs back-propagated in this workspace. */
+	final Gradients gradients;
+
+	/**
+	 * Create the buffers of a workspace for the given layers.
+	 * <br>
+	 * Buffers use the {@link TYPE#heap()} type and the {@link NeuronLayer#precision()} of every layer.
+	 * Gradients use the type of every layer, {@link TYPE#PFLOAT} for the 16 bits types (see {@link Gradients#init(List)}) :
+	 * they are summed exactly, the layer rounds its weights when it is updated.
+	 * @param layers the network layers
+	 */
+	Workspace(List<NeuronLayer> layers) {
+		int size = layers.size();
+		this.aggregations = new Vector[size];
+		this.activations  = new Vector[size];
+		this.primes       = new Vector[size];
+		this.deltas       = new Vector[size];
+		for (int i = 0; i < size; i++) {
+			NeuronLayer layer = layers.get(i);
+			TYPE type = layer.type().heap();
+			this.aggregations[i] = Vector.of(type, layer.outputSize()).precision(layer.precision());
+			this.activations[i]  = Vector.of(type, layer.outputSize()).precision(layer.precision());
+			this.primes[i]       = Vector.of(type, layer.outputSize()).precision(layer.precision());
+			this.deltas[i]       = Vector.of(type, layer.outputSize()).precision(layer.precision());
+		}
+		this.gradients = Gradients.init(layers);
+	}
+
+	/**
+	 * Free the memory of the {@link #gradients} if they are off-heap. Do nothing else.
+	 */
+	void release() {
+		this.gradients.release();
+	}
+}
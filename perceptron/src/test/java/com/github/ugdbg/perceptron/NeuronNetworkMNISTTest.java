@@ -1,6 +1,7 @@
 package com.github.ugdbg.perceptron;
 
 import com.github.ugdbg.data.MNIST;
+import com.github.ugdbg.datatypes.Precision;
 import com.github.ugdbg.datatypes.TYPE;
 import com.github.ugdbg.function.scalar.Sigmoid;
 import com.github.ugdbg.function.scalar.Tanh;
@@ -9,6 +10,7 @@ import com.github.ugdbg.function.scalar.domain.Domains;
 import com.github.ugdbg.function.vector.SoftMax;
 import com.github.ugdbg.test.categories.Slow;
 import com.google.common.collect.Lists;
+import org.apache.commons.io.FileUtils;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -25,6 +27,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -104,6 +107,22 @@ public class NeuronNetworkMNISTTest {
 		this.testNetwork(neuronNetwork, 0.8F);
 	}
 	
+	@Test
+	public void testNeuronNetworkTrainImages_SoftMaxOutput_MiniBatch() throws IOException, ClassNotFoundException {
+		NeuronNetwork neuronNetwork = new NeuronNetwork(784);
+		neuronNetwork.addLayer(200, new Sigmoid(1));
+		neuronNetwork.addLayer(10, new SoftMax());
+		this.testNetwork(neuronNetwork, 0.8F, (network, inputs) -> network.train(inputs, 2, 3f, 30));
+	}
+	
+	@Test
+	public void testNeuronNetworkTrainImages_SigmoidOutput_MiniBatch() throws IOException, ClassNotFoundException {
+		NeuronNetwork neuronNetwork = new NeuronNetwork(784);
+		neuronNetwork.addLayer(200, new Sigmoid(1));
+		neuronNetwork.addLayer(10, new Sigmoid(1));
+		this.testNetwork(neuronNetwork, 0.8F, (network, inputs) -> network.train(inputs, 2, 3f, 30));
+	}
+	
 	@Test
 	public void testNeuronNetworkTrainImages_SigmoidOutput_DomainCheck() throws IOException, ClassNotFoundException {
 		NeuronNetwork neuronNetwork = new NeuronNetwork(784);
@@ -137,17 +156,57 @@ public class NeuronNetworkMNISTTest {
 	}
 	
 	@Test
-	@Category(Slow.class)
-	public void testNeuronNetworkTrainImages_SigmoidOutput_BigDecimal() throws IOException, ClassNotFoundException {
-		NeuronNetwork neuronNetwork = new NeuronNetwork(784, TYPE.DECIMAL);
+	public void testNeuronNetworkTrainImages_SigmoidOutput_OffHeap() throws IOException, ClassNotFoundException {
+		NeuronNetwork neuronNetwork = new NeuronNetwork(784, TYPE.OFFHEAP_FLOAT);
 		neuronNetwork.addLayer(200, new Sigmoid(1));
 		neuronNetwork.addLayer(10, new Sigmoid(1));
 		this.testNetwork(neuronNetwork, 0.8F);
+		neuronNetwork.release();
+	}
+	
+	@Test
+	public void testNeuronNetworkTrainImages_SigmoidOutput_Mapped() throws IOException, ClassNotFoundException {
+		NeuronNetwork neuronNetwork = new NeuronNetwork(784, TYPE.PFLOAT);
+		neuronNetwork.addLayer(200, new Sigmoid(1));
+		neuronNetwork.addLayer(10, new Sigmoid(1));
+		Path weights = Files.createTempDirectory("network");
+		try {
+			this.testNetwork(neuronNetwork, 0.8F, (n, inputs) -> {
+				n.train(inputs, 2, 3f, 30);
+				n.map(weights);
+			});
+			neuronNetwork.release();
+		} finally {
+			FileUtils.deleteDirectory(weights.toFile());
+		}
+	}
+	
+	/**
+	 * DECIMAL128 keeps the cost of a batch constant, but a batch of 30 still takes about 3 s on 1 CPU : hours for 2 epochs.
+	 */
+	@Test
+	@Category(Slow.class)
+	public void testNeuronNetworkTrainImages_SigmoidOutput_BigDecimal() throws IOException, ClassNotFoundException {
+		NeuronNetwork neuronNetwork = new NeuronNetwork(784, TYPE.DECIMAL).precision(Precision.DECIMAL128);
+		neuronNetwork.addLayer(200, new Sigmoid(1).precision(Precision.DECIMAL128));
+		neuronNetwork.addLayer(10, new Sigmoid(1).precision(Precision.DECIMAL128));
+		this.testNetwork(neuronNetwork, 0.8F);
 	}
 	
 	private void testNetwork(NeuronNetwork network, float expectedAccuracy) throws IOException, ClassNotFoundException {
 		int batchSize = 30;
-		
+		float learningRate = 3f;
+		this.testNetwork(network, expectedAccuracy, (n, inputs) -> {
+			logger.info("[TRAINING] batch size [{}], learning rate [{}]", batchSize, learningRate);
+			n.train(inputs, 2, learningRate, batchSize, NeuronNetwork.Executor.parallel(batchSize));
+		});
+	}
+	
+	private void testNetwork(
+		NeuronNetwork network, 
+		float expectedAccuracy, 
+		BiConsumer<NeuronNetwork, List<NeuronNetwork.Input>> training) 
+		throws IOException, ClassNotFoundException {
 		logger.info("[CONFIGURE] Configured network :");
 		network.shortLabel().forEach(logger::info);
 		
@@ -163,10 +222,7 @@ public class NeuronNetworkMNISTTest {
 		float accuracy = this.samplingAccuracy(network, testHalf);
 		logger.info("[ACCURACY] [SAMPLING] [INIT] [{}]%", accuracy * 100);
 		
-
-		float learningRate = 3f;
-		logger.info("[TRAINING] batch size [{}], learning rate [{}]", batchSize, learningRate);
-		network.train(trainHalf, 2, learningRate, batchSize, NeuronNetwork.Executor.parallel(batchSize));
+		training.accept(network, trainHalf);
 		accuracy = this.samplingAccuracy(network, testHalf);
 		logger.info("[ACCURACY] [SAMPLING] [{}]%", accuracy * 100);
 		Assert.assertTrue(accuracy > expectedAccuracy);
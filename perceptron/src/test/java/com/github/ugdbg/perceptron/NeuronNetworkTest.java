@@ -0,0 +1,260 @@
+package com.github.ugdbg.perceptron;
+
+import com.github.ugdbg.datatypes.TYPE;
+import com.github.ugdbg.function.domain.DomainCheckException;
+import com.github.ugdbg.function.domain.ValidationPolicy;
+import com.github.ugdbg.function.scalar.Ln;
+import com.github.ugdbg.function.scalar.Sigmoid;
+import com.github.ugdbg.function.scalar.domain.IntervalArithmetic;
+import com.github.ugdbg.function.vector.domain.VDomain;
+import com.github.ugdbg.vector.Vector;
+import com.sun.management.ThreadMXBean;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test case for the {@link NeuronNetwork} training, on a small random dataset.
+ */
+public class NeuronNetworkTest {
+
+	private static List<NeuronNetwork.Input> inputs(TYPE type, int size, Random random) {
+		List<NeuronNetwork.Input> inputs = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			float[] values = new float[8];
+			for (int j = 0; j < values.length; j++) {
+				values[j] = random.nextFloat();
+			}
+			inputs.add(new NeuronNetwork.Input(Vector.of(type, values), random.nextInt(3)));
+		}
+		return inputs;
+	}
+
+	private static NeuronNetwork copy(NeuronNetwork network) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(network);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return (NeuronNetwork) in.readObject();
+		}
+	}
+
+	@Test
+	public void testParallelTrainingMatchesSequential() throws IOException, ClassNotFoundException {
+		for (TYPE type : new TYPE[] {TYPE.PFLOAT, TYPE.PDOUBLE, TYPE.OFFHEAP_FLOAT}) {
+			NeuronNetwork sequential = new NeuronNetwork(8, type);
+			sequential.addLayer(16, new Sigmoid(1));
+			sequential.addLayer(3, new Sigmoid(1));
+			NeuronNetwork parallel = copy(sequential);
+			Assert.assertEquals(type, parallel.getVectorFormat());
+
+			// A single batch per step : the parallel and sequential sums only differ by the summation order
+			List<NeuronNetwork.Input> inputs = inputs(type, 64, new Random(7));
+			sequential.train(new ArrayList<>(inputs), 5, 1f, inputs.size(), NeuronNetwork.Executor.sequential());
+			parallel.train(new ArrayList<>(inputs), 5, 1f, inputs.size(), NeuronNetwork.Executor.parallel(6));
+
+			for (NeuronNetwork.Input input : inputs) {
+				Vector expected = sequential.feedForward(input.input);
+				Vector actual = parallel.feedForward(input.input);
+				for (int i = 0; i < expected.dimension(); i++) {
+					Assert.assertEquals(type.name(), expected.floats()[i], actual.floats()[i], 1e-4f);
+				}
+			}
+			sequential.release();
+			parallel.release();
+		}
+	}
+
+	@Test
+	public void testMapTwice() throws IOException, ClassNotFoundException {
+		NeuronNetwork network = new NeuronNetwork(8, TYPE.PFLOAT);
+		network.addLayer(16, new Sigmoid(1));
+		network.addLayer(3, new Sigmoid(1));
+		Vector input = inputs(TYPE.PFLOAT, 1, new Random(3)).get(0).input;
+		float[] expected = network.feedForward(input).floats();
+
+		Path directory = Files.createTempDirectory("network");
+		try {
+			// Mapping to the directory the weights are already mapped from must keep them
+			network.map(directory);
+			network.map(directory);
+			Assert.assertArrayEquals(expected, network.feedForward(input).floats(), 0f);
+
+			NeuronNetwork deserialized = copy(network);
+			network.release();
+			deserialized.map(directory);
+			Assert.assertArrayEquals(expected, deserialized.feedForward(input).floats(), 0f);
+			deserialized.release();
+		} finally {
+			FileUtils.deleteDirectory(directory.toFile());
+		}
+	}
+
+	@Test
+	public void testConvertAfterTraining() throws IOException, ClassNotFoundException {
+		NeuronNetwork trained = new NeuronNetwork(8, TYPE.PFLOAT);
+		trained.addLayer(16, new Sigmoid(1));
+		trained.addLayer(3, new Sigmoid(1));
+		List<NeuronNetwork.Input> inputs = inputs(TYPE.PFLOAT, 64, new Random(7));
+		trained.train(new ArrayList<>(inputs), 5, 1f, inputs.size(), NeuronNetwork.Executor.sequential());
+
+		for (TYPE type : new TYPE[] {TYPE.HALF, TYPE.BFLOAT16}) {
+			NeuronNetwork converted = copy(trained).convert(type);
+			Assert.assertEquals(type, converted.getVectorFormat());
+			Assert.assertEquals(type, copy(converted).getVectorFormat());
+
+			for (NeuronNetwork.Input input : inputs) {
+				Vector expected = trained.feedForward(input.input);
+				Vector actual = converted.feedForward(input.input);
+				for (int i = 0; i < expected.dimension(); i++) {
+					Assert.assertEquals(type.name(), expected.floats()[i], actual.floats()[i], 1e-2f);
+				}
+			}
+
+			NeuronNetwork floats = converted.convert(TYPE.PFLOAT);
+			Assert.assertEquals(TYPE.PFLOAT, floats.getVectorFormat());
+			Vector expected = converted.feedForward(inputs.get(0).input);
+			Assert.assertArrayEquals(type.name(), expected.floats(), floats.feedForward(inputs.get(0).input).floats(), 0);
+		}
+	}
+
+	@Test
+	public void testFloat16GradientAccumulators() {
+		for (TYPE type : new TYPE[] {TYPE.HALF, TYPE.BFLOAT16}) {
+			List<NeuronLayer> layers = new ArrayList<>();
+			layers.add(new NeuronLayer(16, 8, new Sigmoid(1).vectorial(), type));
+			layers.add(new NeuronLayer(3, 16, new Sigmoid(1).vectorial(), type));
+			for (Gradient gradient : new Workspace(layers).gradients) {
+				Assert.assertEquals(type.name(), TYPE.PFLOAT, gradient.weightGradient.line(0).getValue().getType());
+				Assert.assertEquals(type.name(), TYPE.PFLOAT, gradient.biasGradient.getValue().getType());
+			}
+		}
+		Assert.assertEquals(TYPE.OFFHEAP_FLOAT, Gradients.accumulatorType(TYPE.OFFHEAP_FLOAT));
+	}
+
+	@Test
+	public void testSequentialTrainingDoesNotAllocate() {
+		ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+
+		// No allocation relies on the JIT (inlining, escape analysis) : not measurable when interpreted or instrumented
+		Assume.assumeFalse(System.getProperty("java.vm.info", "").contains("interpreted"));
+		Assume.assumeFalse(ManagementFactory.getRuntimeMXBean().getInputArguments().stream().anyMatch(
+			argument -> argument.equals("-Xint") || argument.equals("-XX:-DoEscapeAnalysis") || argument.startsWith("-javaagent")
+		));
+
+		NeuronNetwork network = new NeuronNetwork(8, TYPE.PFLOAT);
+		network.addLayer(32, new Sigmoid(1));
+		network.addLayer(3, new Sigmoid(1));
+		List<NeuronNetwork.Input> inputs = inputs(TYPE.PFLOAT, 256, new Random(7));
+		NeuronNetwork.Executor executor = NeuronNetwork.Executor.sequential();
+
+		// Warm up : create the workspace, let the JIT compile the training loop
+		network.train(inputs, 300, 0.1f, inputs.size(), executor);
+
+		int steps = 20;
+		long thread = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(thread);
+		network.train(inputs, steps, 0.1f, inputs.size(), executor);
+		long perSample = (threads.getThreadAllocatedBytes(thread) - before) / ((long) steps * inputs.size());
+
+		// A batch allocates a few task objects (~300 bytes). A sample used to allocate ~2KB (vectors, outer product...)
+		Assert.assertTrue("[" + perSample + "] bytes allocated per training sample", perSample < 16);
+	}
+
+	@Test
+	public void testParallelTrainingFailure() {
+		NeuronNetwork network = new NeuronNetwork(8, TYPE.PFLOAT);
+		network.addLayer(3, new Sigmoid(1));
+		List<NeuronNetwork.Input> inputs = inputs(TYPE.PFLOAT, 16, new Random(7));
+		inputs.set(11, new NeuronNetwork.Input(Vector.of(1f, 2f, 3f, 4f, 5f, 6f, 7f, Float.NaN), 0));
+		try {
+			network.train(inputs, 1, 1f, inputs.size(), NeuronNetwork.Executor.parallel(4));
+			Assert.fail("NaN input should fail the parallel training");
+		} catch (DomainCheckException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("NaN"));
+		}
+	}
+
+	@Test
+	public void testValidation() {
+		NeuronNetwork network = new NeuronNetwork(2, TYPE.PFLOAT);
+		network.addLayer(3, new Sigmoid(1));
+		Vector nan = Vector.of(1f, Float.NaN);
+		try {
+			network.feedForward(nan);
+			Assert.fail("NaN input should be rejected by the global policy");
+		} catch (DomainCheckException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("NaN"));
+		}
+
+		network.validation(ValidationPolicy.off());
+		network.feedForward(nan);
+
+		// The calls are counted per layer : the second forward is still validated
+		network.validation(ValidationPolicy.firstCalls(2));
+		network.addLayer(2, new Sigmoid(1));
+		network.feedForward(Vector.of(1f, 2f));
+		try {
+			network.feedForward(nan);
+			Assert.fail("NaN input should be rejected by the second validated forward");
+		} catch (DomainCheckException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("NaN"));
+		}
+
+		network.validation(ValidationPolicy.firstCalls(1));
+		network.feedForward(Vector.of(1f, 2f));
+		network.feedForward(nan);
+
+		network.validation(ValidationPolicy.always());
+		try {
+			network.feedForward(nan);
+			Assert.fail("NaN input should be rejected");
+		} catch (DomainCheckException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("NaN"));
+		}
+
+		network.validation(null);
+		try {
+			network.feedForward(nan);
+			Assert.fail("NaN input should be rejected by the global policy");
+		} catch (DomainCheckException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("NaN"));
+		}
+	}
+
+	@Test
+	public void testIsSafe() {
+		VDomain pixels = VDomain.of(IntervalArithmetic.closed(0, 1), 4);
+		NeuronNetwork network = new NeuronNetwork(4, TYPE.PFLOAT);
+		network.addLayer(10, new Sigmoid(1));
+		network.addLayer(10, new Sigmoid(1));
+		Assert.assertTrue(network.isSafe(pixels));
+
+		// the weights are random : a few networks only have positive Ln inputs and are proved safe
+		boolean unsafe = false;
+		for (int i = 0; i < 10 && ! unsafe; i++) {
+			NeuronNetwork withLn = new NeuronNetwork(4, TYPE.PFLOAT);
+			withLn.addLayer(10, new Sigmoid(1));
+			withLn.addLayer(10, new Sigmoid(1));
+			withLn.addLayer(2, new Ln());
+			unsafe = ! withLn.isSafe(pixels);
+		}
+		Assert.assertTrue(unsafe);
+	}
+}